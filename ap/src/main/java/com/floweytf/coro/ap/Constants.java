@@ -25,15 +25,30 @@ public class Constants {
     public static final String DIAGNOSTIC_KEY = "com.floweytf.coro.ap";
     public static final String CO_CLASS = "com.floweytf.coro.Co";
     public static final String TASK_CLASS = "com.floweytf.coro.concepts.Task";
+    public static final String INT_TASK_CLASS = "com.floweytf.coro.concepts.IntTask";
+    public static final String LONG_TASK_CLASS = "com.floweytf.coro.concepts.LongTask";
+    public static final String DOUBLE_TASK_CLASS = "com.floweytf.coro.concepts.DoubleTask";
     public static final String AWAITABLE_CLASS = "com.floweytf.coro.concepts.Awaitable";
     public static final String GENERATOR_CLASS = "com.floweytf.coro.concepts.Generator";
+    public static final String INT_GENERATOR_CLASS = "com.floweytf.coro.concepts.IntGenerator";
+    public static final String LONG_GENERATOR_CLASS = "com.floweytf.coro.concepts.LongGenerator";
+    public static final String ASYNC_GENERATOR_CLASS = "com.floweytf.coro.concepts.AsyncGenerator";
     public static final String BASIC_TASK_CLASS = "com.floweytf.coro.internal.BasicTask";
+    public static final String BASIC_INT_TASK_CLASS = "com.floweytf.coro.internal.BasicIntTask";
+    public static final String BASIC_LONG_TASK_CLASS = "com.floweytf.coro.internal.BasicLongTask";
+    public static final String BASIC_DOUBLE_TASK_CLASS = "com.floweytf.coro.internal.BasicDoubleTask";
+    public static final String BASIC_GENERATOR_CLASS = "com.floweytf.coro.internal.BasicGenerator";
+    public static final String BASIC_INT_GENERATOR_CLASS = "com.floweytf.coro.internal.BasicIntGenerator";
+    public static final String BASIC_LONG_GENERATOR_CLASS = "com.floweytf.coro.internal.BasicLongGenerator";
+    public static final String BASIC_ASYNC_GENERATOR_CLASS = "com.floweytf.coro.internal.BasicAsyncGenerator";
     public static final String COROUTINE_EXECUTOR_CLASS = "com.floweytf.coro.concepts.CoroutineExecutor";
     public static final String CORO_METADATA_CLASS = "com.floweytf.coro.internal.CoroutineMetadata";
 
     public static final String AWAIT_KW = "await";
     public static final String RET_KW = "ret";
     public static final String CURRENT_EXECUTOR_KW = "currentExecutor";
+    public static final String YIELD_KW = "yield";
+    public static final String DONE_KW = "done";
 
     public static final Type OBJECT_TYPE = Type.getType(Object.class);
     public static final Type THROWABLE_TYPE = Type.getType(Throwable.class);
@@ -43,7 +58,21 @@ public class Constants {
     public static final String CLASS_TYPE_BIN = CLASS_TYPE.getInternalName();
     public static final String CO_CLASS_BIN = CO_CLASS.replace('.', '/');
     public static final String BASIC_TASK_CLASS_BIN = BASIC_TASK_CLASS.replace('.', '/');
+    public static final String BASIC_INT_TASK_CLASS_BIN = BASIC_INT_TASK_CLASS.replace('.', '/');
+    public static final String BASIC_LONG_TASK_CLASS_BIN = BASIC_LONG_TASK_CLASS.replace('.', '/');
+    public static final String BASIC_DOUBLE_TASK_CLASS_BIN = BASIC_DOUBLE_TASK_CLASS.replace('.', '/');
+    public static final String INT_TASK_CLASS_BIN = INT_TASK_CLASS.replace('.', '/');
+    public static final String LONG_TASK_CLASS_BIN = LONG_TASK_CLASS.replace('.', '/');
+    public static final String DOUBLE_TASK_CLASS_BIN = DOUBLE_TASK_CLASS.replace('.', '/');
     public static final String CORO_METADATA_CLASS_BIN = CORO_METADATA_CLASS.replace('.', '/');
+    public static final String GENERATOR_CLASS_BIN = GENERATOR_CLASS.replace('.', '/');
+    public static final String INT_GENERATOR_CLASS_BIN = INT_GENERATOR_CLASS.replace('.', '/');
+    public static final String LONG_GENERATOR_CLASS_BIN = LONG_GENERATOR_CLASS.replace('.', '/');
+    public static final String BASIC_GENERATOR_CLASS_BIN = BASIC_GENERATOR_CLASS.replace('.', '/');
+    public static final String BASIC_INT_GENERATOR_CLASS_BIN = BASIC_INT_GENERATOR_CLASS.replace('.', '/');
+    public static final String BASIC_LONG_GENERATOR_CLASS_BIN = BASIC_LONG_GENERATOR_CLASS.replace('.', '/');
+    public static final String ASYNC_GENERATOR_CLASS_BIN = ASYNC_GENERATOR_CLASS.replace('.', '/');
+    public static final String BASIC_ASYNC_GENERATOR_CLASS_BIN = BASIC_ASYNC_GENERATOR_CLASS.replace('.', '/');
     public static final String OBJECT_CLASS_BIN = OBJECT_TYPE.getInternalName();
     public static final String THROWABLE_CLASS_BIN = THROWABLE_TYPE.getInternalName();
 
@@ -73,6 +102,33 @@ public class Constants {
         Type.getObjectType(BASIC_TASK_CLASS_BIN)
     );
 
+    // protected static void completeInt(int val, BasicTask<?> self)
+    public static final MethodDesc BASIC_TASK_COMPLETE_INT = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "completeInt",
+        Type.VOID_TYPE,
+        Type.INT_TYPE,
+        Type.getObjectType(BASIC_TASK_CLASS_BIN)
+    );
+
+    // protected static void completeLong(long val, BasicTask<?> self)
+    public static final MethodDesc BASIC_TASK_COMPLETE_LONG = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "completeLong",
+        Type.VOID_TYPE,
+        Type.LONG_TYPE,
+        Type.getObjectType(BASIC_TASK_CLASS_BIN)
+    );
+
+    // protected static void completeDouble(double val, BasicTask<?> self)
+    public static final MethodDesc BASIC_TASK_COMPLETE_DOUBLE = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "completeDouble",
+        Type.VOID_TYPE,
+        Type.DOUBLE_TYPE,
+        Type.getObjectType(BASIC_TASK_CLASS_BIN)
+    );
+
     // protected static <T> void completeError(Throwable val, BasicTask<T> self)
     public static final MethodDesc BASIC_TASK_COMPLETE_ERROR = new MethodDesc(
         BASIC_TASK_CLASS_BIN,
@@ -93,13 +149,14 @@ public class Constants {
     );
     public static final String AWAITABLE_CLASS_BIN = AWAITABLE_CLASS.replace('.', '/');
 
-    // protected static void checkThrow(final boolean isEx, final Object arg) throws Throwable {
+    // protected static void checkThrow(boolean isEx, Object arg, BasicTask<?> self) throws Throwable {
     public static final MethodDesc BASIC_TASK_CHECK_THROW = new MethodDesc(
         BASIC_TASK_CLASS_BIN,
         "checkThrow",
         Type.VOID_TYPE,
         Type.BOOLEAN_TYPE,
-        OBJECT_TYPE
+        OBJECT_TYPE,
+        Type.getObjectType(BASIC_TASK_CLASS_BIN)
     );
 
     // protected static <T, U> void suspendHelper(Awaitable<T> awaitable, BasicTask<U> self, int newState) {
@@ -112,6 +169,57 @@ public class Constants {
         Type.INT_TYPE
     );
 
+    // protected static <T, U> void suspendUnboxedHelper(Awaitable<T> awaitable, BasicTask<U> self, int newState) {
+    public static final MethodDesc BASIC_TASK_SUSPEND_UNBOXED_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "suspendUnboxedHelper",
+        Type.VOID_TYPE,
+        Type.getObjectType(AWAITABLE_CLASS_BIN),
+        Type.getObjectType(BASIC_TASK_CLASS_BIN),
+        Type.INT_TYPE
+    );
+
+    // protected static <T> boolean readyHelper(Awaitable<?> awaitable, BasicTask<T> self)
+    public static final MethodDesc BASIC_TASK_READY_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "readyHelper",
+        Type.BOOLEAN_TYPE,
+        Type.getObjectType(AWAITABLE_CLASS_BIN),
+        Type.getObjectType(BASIC_TASK_CLASS_BIN)
+    );
+
+    // protected static Object readyValueHelper(Awaitable<?> awaitable) throws Throwable
+    public static final MethodDesc BASIC_TASK_READY_VALUE_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "readyValueHelper",
+        OBJECT_TYPE,
+        Type.getObjectType(AWAITABLE_CLASS_BIN)
+    );
+
+    // protected static int readyIntHelper(Object task) throws Throwable
+    public static final MethodDesc BASIC_TASK_READY_INT_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "readyIntHelper",
+        Type.INT_TYPE,
+        OBJECT_TYPE
+    );
+
+    // protected static long readyLongHelper(Object task) throws Throwable
+    public static final MethodDesc BASIC_TASK_READY_LONG_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "readyLongHelper",
+        Type.LONG_TYPE,
+        OBJECT_TYPE
+    );
+
+    // protected static double readyDoubleHelper(Object task) throws Throwable
+    public static final MethodDesc BASIC_TASK_READY_DOUBLE_HELPER = new MethodDesc(
+        BASIC_TASK_CLASS_BIN,
+        "readyDoubleHelper",
+        Type.DOUBLE_TYPE,
+        OBJECT_TYPE
+    );
+
     public static final String COROUTINE_EXECUTOR_CLASS_BIN = COROUTINE_EXECUTOR_CLASS.replace('.', '/');
 
     // protected CoroutineExecutor getExecutor() {
@@ -120,4 +228,61 @@ public class Constants {
         "getExecutor",
         Type.getObjectType(COROUTINE_EXECUTOR_CLASS_BIN)
     );
+
+    // protected static void yieldHelper(Object value, BasicGenerator<?> self, int newState)
+    public static final MethodDesc BASIC_GENERATOR_YIELD_HELPER = new MethodDesc(
+        BASIC_GENERATOR_CLASS_BIN,
+        "yieldHelper",
+        Type.VOID_TYPE,
+        OBJECT_TYPE,
+        Type.getObjectType(BASIC_GENERATOR_CLASS_BIN),
+        Type.INT_TYPE
+    );
+
+    // protected static void yieldIntHelper(int value, BasicGenerator<?> self, int newState)
+    public static final MethodDesc BASIC_GENERATOR_YIELD_INT_HELPER = new MethodDesc(
+        BASIC_GENERATOR_CLASS_BIN,
+        "yieldIntHelper",
+        Type.VOID_TYPE,
+        Type.INT_TYPE,
+        Type.getObjectType(BASIC_GENERATOR_CLASS_BIN),
+        Type.INT_TYPE
+    );
+
+    // protected static void yieldLongHelper(long value, BasicGenerator<?> self, int newState)
+    public static final MethodDesc BASIC_GENERATOR_YIELD_LONG_HELPER = new MethodDesc(
+        BASIC_GENERATOR_CLASS_BIN,
+        "yieldLongHelper",
+        Type.VOID_TYPE,
+        Type.LONG_TYPE,
+        Type.getObjectType(BASIC_GENERATOR_CLASS_BIN),
+        Type.INT_TYPE
+    );
+
+    // protected static void checkThrow(boolean isEx, Object arg) throws Throwable
+    public static final MethodDesc BASIC_GENERATOR_CHECK_THROW = new MethodDesc(
+        BASIC_GENERATOR_CLASS_BIN,
+        "checkThrow",
+        Type.VOID_TYPE,
+        Type.BOOLEAN_TYPE,
+        OBJECT_TYPE
+    );
+
+    // protected static boolean yieldHelper(Object value, BasicAsyncGenerator<?> self)
+    public static final MethodDesc BASIC_ASYNC_GENERATOR_YIELD_HELPER = new MethodDesc(
+        BASIC_ASYNC_GENERATOR_CLASS_BIN,
+        "yieldHelper",
+        Type.BOOLEAN_TYPE,
+        OBJECT_TYPE,
+        Type.getObjectType(BASIC_ASYNC_GENERATOR_CLASS_BIN)
+    );
+
+    // protected static void suspendYieldHelper(BasicAsyncGenerator<?> self, int newState)
+    public static final MethodDesc BASIC_ASYNC_GENERATOR_SUSPEND_YIELD_HELPER = new MethodDesc(
+        BASIC_ASYNC_GENERATOR_CLASS_BIN,
+        "suspendYieldHelper",
+        Type.VOID_TYPE,
+        Type.getObjectType(BASIC_ASYNC_GENERATOR_CLASS_BIN),
+        Type.INT_TYPE
+    );
 }
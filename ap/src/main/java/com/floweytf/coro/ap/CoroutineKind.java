@@ -3,4 +3,20 @@ package com.floweytf.coro.ap;
 public enum CoroutineKind {
     NONE,
     TASK,
+    GENERATOR,
+    ASYNC_GENERATOR;
+
+    /**
+     * Whether coroutines of this kind yield elements, and therefore return with {@code Co.done()}.
+     */
+    public boolean isGenerator() {
+        return this == GENERATOR || this == ASYNC_GENERATOR;
+    }
+
+    /**
+     * Whether coroutines of this kind run on an executor, and may therefore use {@code Co.await()}.
+     */
+    public boolean isAsync() {
+        return this == TASK || this == ASYNC_GENERATOR;
+    }
 }
@@ -8,10 +8,18 @@ public record CoroutineNames(
     Name coroutineAnnotationName,
     Name coClassName,
     Name taskClassName,
+    Name intTaskClassName,
+    Name longTaskClassName,
+    Name doubleTaskClassName,
     Name generatorClassName,
+    Name intGeneratorClassName,
+    Name longGeneratorClassName,
+    Name asyncGeneratorClassName,
     Name awaitName,
     Name retName,
     Name currentExecutorName,
+    Name yieldName,
+    Name doneName,
     Name makeCoroAnnotationName
 ) {
     CoroutineNames(final Names names) {
@@ -20,10 +28,18 @@ public record CoroutineNames(
             names.fromString(Constants.COROUTINE_ANN),
             names.fromString(Constants.CO_CLASS),
             names.fromString(Constants.TASK_CLASS),
+            names.fromString(Constants.INT_TASK_CLASS),
+            names.fromString(Constants.LONG_TASK_CLASS),
+            names.fromString(Constants.DOUBLE_TASK_CLASS),
             names.fromString(Constants.GENERATOR_CLASS),
+            names.fromString(Constants.INT_GENERATOR_CLASS),
+            names.fromString(Constants.LONG_GENERATOR_CLASS),
+            names.fromString(Constants.ASYNC_GENERATOR_CLASS),
             names.fromString(Constants.AWAIT_KW),
             names.fromString(Constants.RET_KW),
             names.fromString(Constants.CURRENT_EXECUTOR_KW),
+            names.fromString(Constants.YIELD_KW),
+            names.fromString(Constants.DONE_KW),
             names.fromString(Constants.MAKE_CORO_ANN)
         );
     }
@@ -3,5 +3,7 @@ package com.floweytf.coro.ap;
 public enum DirectiveKind {
     AWAIT,
     RETURN,
+    YIELD,
+    DONE,
     CURRENT_EXECUTOR
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.floweytf.coro.ap.codegen;
 
+import com.floweytf.coro.ap.Constants.MethodDesc;
 import com.floweytf.coro.ap.Debug;
 import com.floweytf.coro.ap.util.Util;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -11,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.commons.AnalyzerAdapter;
@@ -24,6 +26,7 @@ import org.objectweb.asm.tree.InnerClassNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
 import org.objectweb.asm.tree.LabelNode;
 import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.LocalVariableNode;
@@ -41,24 +44,56 @@ import org.objectweb.asm.util.Textifier;
 import org.objectweb.asm.util.TraceClassVisitor;
 import org.objectweb.asm.util.TraceMethodVisitor;
 
+import static com.floweytf.coro.ap.Constants.ASYNC_GENERATOR_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.AWAIT_KW;
+import static com.floweytf.coro.ap.Constants.BASIC_ASYNC_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_ASYNC_GENERATOR_SUSPEND_YIELD_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_ASYNC_GENERATOR_YIELD_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_DOUBLE_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_GENERATOR_CHECK_THROW;
+import static com.floweytf.coro.ap.Constants.BASIC_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_GENERATOR_YIELD_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_GENERATOR_YIELD_INT_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_GENERATOR_YIELD_LONG_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_INT_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_INT_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_LONG_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_LONG_TASK_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_CHECK_THROW;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_COMPLETE_DOUBLE;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_COMPLETE_ERROR;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_COMPLETE_INT;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_COMPLETE_LONG;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_COMPLETE_SUCCESS;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_GET_EXECUTOR;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_READY_DOUBLE_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_READY_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_READY_INT_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_READY_LONG_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_READY_VALUE_HELPER;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_RUN;
 import static com.floweytf.coro.ap.Constants.BASIC_TASK_SUSPEND_HELPER;
+import static com.floweytf.coro.ap.Constants.BASIC_TASK_SUSPEND_UNBOXED_HELPER;
 import static com.floweytf.coro.ap.Constants.CLASS_TYPE_BIN;
 import static com.floweytf.coro.ap.Constants.CORO_METADATA_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.CORO_METADATA_CLASS_CTOR;
 import static com.floweytf.coro.ap.Constants.CORO_METADATA_CLASS_DESC;
 import static com.floweytf.coro.ap.Constants.CO_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.CURRENT_EXECUTOR_KW;
+import static com.floweytf.coro.ap.Constants.DONE_KW;
+import static com.floweytf.coro.ap.Constants.DOUBLE_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.INT_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.INT_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.LONG_GENERATOR_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.LONG_TASK_CLASS_BIN;
+import static com.floweytf.coro.ap.Constants.OBJECT_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.OBJECT_TYPE;
 import static com.floweytf.coro.ap.Constants.RET_KW;
 import static com.floweytf.coro.ap.Constants.THROWABLE_CLASS_BIN;
 import static com.floweytf.coro.ap.Constants.THROWABLE_TYPE;
+import static com.floweytf.coro.ap.Constants.YIELD_KW;
 
 public final class MethodTransformer {
     private static final int LVT_THIS = 0;
@@ -88,6 +123,11 @@ public final class MethodTransformer {
     private final FieldNode suspendPointMetadataField;
 
     private final List<Type> argTypes;
+    @Nullable
+    private final Type primitiveResultType;
+    @Nullable
+    private final Type generatorElementType;
+    private final boolean isAsyncGenerator;
     private final List<LabelNode> resumeLabels = new ArrayList<>();
     private final AnalyzerAdapter analyzer;
     private final FieldAllocator fieldAllocator = new FieldAllocator();
@@ -108,6 +148,9 @@ public final class MethodTransformer {
     public MethodTransformer(final ClassNode methodOwner, final MethodNode coMethod, final int id) {
         this.coMethodOwner = methodOwner;
         this.argTypes = Util.getAllMethodArgs(methodOwner, coMethod);
+        this.primitiveResultType = getPrimitiveResultType(Type.getReturnType(coMethod.desc));
+        this.generatorElementType = getGeneratorElementType(Type.getReturnType(coMethod.desc));
+        this.isAsyncGenerator = Type.getReturnType(coMethod.desc).getInternalName().equals(ASYNC_GENERATOR_CLASS_BIN);
         this.coMethod = coMethod;
         this.implClass = new ClassNode();
         this.implClassCons = new MethodNode(
@@ -145,7 +188,7 @@ public final class MethodTransformer {
         this.implClass.access = Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC;
         this.implClass.name = String.format("%s$%s$Coro$%d", methodOwner.name, coMethod.name, id);
         this.implClass.outerClass = methodOwner.name;
-        this.implClass.superName = BASIC_TASK_CLASS_BIN;
+        this.implClass.superName = getSuperName();
         this.implClass.version = methodOwner.version;
         this.implClass.methods.add(implMethod);
         this.implClass.methods.add(implClassCons);
@@ -176,10 +219,106 @@ public final class MethodTransformer {
         this.tryCatchHandler = new TryCatchHandler(implMethod, coMethod, labelCloner);
     }
 
+    /**
+     * Obtains the result type of a primitive task.
+     *
+     * @param returnType The return type of the coroutine method.
+     * @return The primitive result type, or {@code null} if the coroutine isn't a primitive task.
+     */
+    @Nullable
+    private static Type getPrimitiveResultType(final Type returnType) {
+        final var name = returnType.getInternalName();
+
+        if (name.equals(INT_TASK_CLASS_BIN)) {
+            return Type.INT_TYPE;
+        } else if (name.equals(LONG_TASK_CLASS_BIN)) {
+            return Type.LONG_TYPE;
+        } else if (name.equals(DOUBLE_TASK_CLASS_BIN)) {
+            return Type.DOUBLE_TYPE;
+        }
+
+        return null;
+    }
+
+    /**
+     * Obtains the element type of a generator, as stored by the generated class.
+     *
+     * @param returnType The return type of the coroutine method.
+     * @return The element type, which is {@code Object} for boxed generators, or {@code null} if the coroutine isn't a
+     * generator.
+     */
+    @Nullable
+    private static Type getGeneratorElementType(final Type returnType) {
+        final var name = returnType.getInternalName();
+
+        if (name.equals(GENERATOR_CLASS_BIN)) {
+            return OBJECT_TYPE;
+        } else if (name.equals(INT_GENERATOR_CLASS_BIN)) {
+            return Type.INT_TYPE;
+        } else if (name.equals(LONG_GENERATOR_CLASS_BIN)) {
+            return Type.LONG_TYPE;
+        }
+
+        return null;
+    }
+
+    /**
+     * Selects the base class of the generated class, which is specialized for primitive tasks and generators so that
+     * their values are stored without boxing.
+     */
+    private String getSuperName() {
+        if (isAsyncGenerator) {
+            return BASIC_ASYNC_GENERATOR_CLASS_BIN;
+        }
+
+        if (generatorElementType != null) {
+            return switch (generatorElementType.getSort()) {
+                case Type.INT -> BASIC_INT_GENERATOR_CLASS_BIN;
+                case Type.LONG -> BASIC_LONG_GENERATOR_CLASS_BIN;
+                default -> BASIC_GENERATOR_CLASS_BIN;
+            };
+        }
+
+        if (primitiveResultType == null) {
+            return BASIC_TASK_CLASS_BIN;
+        }
+
+        return switch (primitiveResultType.getSort()) {
+            case Type.INT -> BASIC_INT_TASK_CLASS_BIN;
+            case Type.LONG -> BASIC_LONG_TASK_CLASS_BIN;
+            default -> BASIC_DOUBLE_TASK_CLASS_BIN;
+        };
+    }
+
     private FrameNode createFrameNode(final Object... stack) {
         return new FrameNode(Opcodes.F_NEW, initialLVTTypes.length, initialLVTTypes, stack.length, stack);
     }
 
+    /**
+     * Creates a frame node matching the current state of the original method, as tracked by the analyzer.
+     *
+     * @param popCount The number of analyzer stack entries to drop from the top of the stack.
+     * @param push     The frame types to push onto the stack after dropping.
+     * @return The frame node, or {@code null} if the state cannot be described (i.e. it has uninitialized types).
+     */
+    @Nullable
+    private FrameNode createAnalyzerFrameNode(final int popCount, final Object... push) {
+        final var locals = new ArrayList<>(Arrays.asList(initialLVTTypes));
+        final var stack = new ArrayList<>();
+
+        while (locals.size() < LVT_OFFSET) {
+            locals.add(Opcodes.TOP);
+        }
+
+        if (!Util.toFrameTypes(analyzer.locals, 0, locals) || !Util.toFrameTypes(analyzer.stack, popCount, stack)) {
+            return null;
+        }
+
+        stack.addAll(Arrays.asList(push));
+
+        return new FrameNode(Opcodes.F_NEW, locals.size(), locals.toArray(), stack.size(), stack.toArray());
+    }
+
     private int remapLVT(final int lvt) {
         return lvt + LVT_OFFSET;
     }
@@ -283,15 +422,90 @@ public final class MethodTransformer {
 
         if (argStart == -1) {
             suspendPointLines.add(-1);
+            return;
         }
 
         suspendPointLines.add(Integer.parseInt(name.substring(argStart + 1)));
     }
 
+    /**
+     * Generates the ready-check fast path, which skips suspension entirely if the awaitable has already completed.
+     *
+     * <pre>{@code
+     * // stack: [..., awaitable]
+     * dup
+     * aload this
+     * invokestatic readyHelper
+     * ifeq SLOW_PATH
+     * invokestatic readyValueHelper
+     * goto JOIN
+     * SLOW_PATH:
+     *   // suspend & resume ...
+     * JOIN:
+     * // stack: [..., value]
+     * }</pre>
+     *
+     * For primitive awaits, {@code readyValueHelper} is replaced by the matching unboxed helper.
+     *
+     * @param valueType The type of the awaited value, as left on the stack by {@code Co.await}.
+     * @return An action that emits the join point after the resumption code, or {@code null} if the fast path can't
+     * be generated.
+     */
+    @Nullable
+    private Runnable genReadyFastPath(final Type valueType) {
+        final var output = implMethod.instructions;
+        final var slowPathFrame = createAnalyzerFrameNode(0);
+        final var joinFrame = createAnalyzerFrameNode(
+            1,
+            valueType.getSort() == Type.OBJECT ? OBJECT_CLASS_BIN : Util.typeToFrameType(valueType)
+        );
+
+        // we can't express uninitialized types in frames without the original labels, so just always suspend
+        if (slowPathFrame == null || joinFrame == null) {
+            return null;
+        }
+
+        final var slowPathLabel = new LabelNode();
+        final var joinLabel = new LabelNode();
+
+        output.add(new InsnNode(Opcodes.DUP));
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+        output.add(BASIC_TASK_READY_HELPER.instr(Opcodes.INVOKESTATIC));
+        output.add(new JumpInsnNode(Opcodes.IFEQ, slowPathLabel));
+        output.add(getReadyHelper(valueType).instr(Opcodes.INVOKESTATIC));
+        output.add(new JumpInsnNode(Opcodes.GOTO, joinLabel));
+        output.add(slowPathLabel);
+        output.add(slowPathFrame);
+
+        return () -> {
+            output.add(joinLabel);
+            output.add(joinFrame);
+        };
+    }
+
+    private static MethodDesc getReadyHelper(final Type valueType) {
+        return switch (valueType.getSort()) {
+            case Type.INT -> BASIC_TASK_READY_INT_HELPER;
+            case Type.LONG -> BASIC_TASK_READY_LONG_HELPER;
+            case Type.DOUBLE -> BASIC_TASK_READY_DOUBLE_HELPER;
+            default -> BASIC_TASK_READY_VALUE_HELPER;
+        };
+    }
+
+    /**
+     * Generates a suspend point. Awaiting a primitive task (i.e. {@code Co.await} returns a primitive) uses an unboxed
+     * suspension, where the child task itself is passed as the resume value, and the result is read directly from it.
+     *
+     * @param node The {@code Co.await} call.
+     */
     private void genSuspendPoint(final MethodInsnNode node) {
         final var output = implMethod.instructions;
         final var allocMap = new Object2IntArrayMap<Type>();
         final var resumeLabel = new LabelNode();
+        final var valueType = Type.getReturnType(node.desc);
+        final var isUnboxed = valueType.getSort() != Type.OBJECT;
+
+        final var fastPathJoin = genReadyFastPath(valueType);
 
         final var preSuspendLabel = new LabelNode();
         output.add(preSuspendLabel);
@@ -303,7 +517,8 @@ public final class MethodTransformer {
 
         output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
         output.add(new LdcInsnNode(suspendPointId));
-        output.add(BASIC_TASK_SUSPEND_HELPER.instr(Opcodes.INVOKESTATIC));
+        output.add((isUnboxed ? BASIC_TASK_SUSPEND_UNBOXED_HELPER : BASIC_TASK_SUSPEND_HELPER)
+            .instr(Opcodes.INVOKESTATIC));
         output.add(new InsnNode(Opcodes.RETURN));
 
         handleSuspendPointMetadata(node.name);
@@ -313,16 +528,194 @@ public final class MethodTransformer {
         resumeLocal.run();
         resumeStack.run();
 
+        if (!isUnboxed) {
+            output.add(new VarInsnNode(Opcodes.ALOAD, LVT_RES_VAL));
+        }
+
+        final var postResumeLabel = new LabelNode();
+        output.add(postResumeLabel);
+        output.add(new VarInsnNode(Opcodes.ILOAD, LVT_IS_EXCEPTION));
         output.add(new VarInsnNode(Opcodes.ALOAD, LVT_RES_VAL));
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+        output.add(BASIC_TASK_CHECK_THROW.instr(Opcodes.INVOKESTATIC));
+
+        if (isUnboxed) {
+            // the resume value is the child task, so read the result from it
+            output.add(new VarInsnNode(Opcodes.ALOAD, LVT_RES_VAL));
+            output.add(getReadyHelper(valueType).instr(Opcodes.INVOKESTATIC));
+        }
+
+        tryCatchHandler.splitTryCatchBlocks(preSuspendLabel, postResumeLabel);
+
+        if (fastPathJoin != null) {
+            fastPathJoin.run();
+        }
+
+        resumeLabels.add(resumeLabel);
+    }
+
+    /**
+     * Generates a yield point of a generator. Unlike an await, nothing is left on the stack when the generator
+     * resumes, and there is no executor involved: the generator simply returns from {@code run}, and the consumer
+     * calls it again to resume.
+     *
+     * <pre>{@code
+     * // stack: [value]
+     * aload this
+     * ldc newState
+     * invokestatic yieldHelper
+     * // save locals
+     * return
+     * RESUME:
+     * // restore locals
+     * iload isEx
+     * aload res
+     * invokestatic checkThrow
+     * }</pre>
+     *
+     * @param node The {@code Co.yield} call.
+     */
+    private void genYieldPoint(final MethodInsnNode node) {
+        final var output = implMethod.instructions;
+        final var allocMap = new Object2IntArrayMap<Type>();
+        final var resumeLabel = new LabelNode();
+        final var valueType = Type.getArgumentTypes(node.desc)[0];
+
+        // Co.yield returns void, so it's always a statement, and javac spills the stack of enclosing switch
+        // expressions into locals; the value is the only thing on the stack.
+        if (analyzer.stack.size() != valueType.getSize()) {
+            throw new AssertionError("Co.yield() with a non-empty stack");
+        }
+
+        final MethodDesc yieldHelper;
+
+        if (generatorElementType.getSort() == Type.INT) {
+            yieldHelper = BASIC_GENERATOR_YIELD_INT_HELPER;
+        } else if (generatorElementType.getSort() == Type.LONG) {
+            if (valueType.getSort() == Type.INT) {
+                output.add(new InsnNode(Opcodes.I2L));
+            }
+
+            yieldHelper = BASIC_GENERATOR_YIELD_LONG_HELPER;
+        } else {
+            if (valueType.getSort() != Type.OBJECT) {
+                output.add(Util.box(valueType));
+            }
+
+            yieldHelper = BASIC_GENERATOR_YIELD_HELPER;
+        }
+
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+        output.add(new LdcInsnNode(resumeLabels.size()));
+        output.add(yieldHelper.instr(Opcodes.INVOKESTATIC));
+
+        final var preSuspendLabel = new LabelNode();
+        output.add(preSuspendLabel);
+
+        final var resumeLocal = suspendSaveLocals(analyzer, allocMap);
+        output.add(new InsnNode(Opcodes.RETURN));
+
+        handleSuspendPointMetadata(node.name);
+
+        output.add(resumeLabel);
+        output.add(createFrameNode());
+        resumeLocal.run();
+
+        // closing the generator resumes it with an exception, so that finally blocks run
+        final var postResumeLabel = new LabelNode();
+        output.add(postResumeLabel);
+        output.add(new VarInsnNode(Opcodes.ILOAD, LVT_IS_EXCEPTION));
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_RES_VAL));
+        output.add(BASIC_GENERATOR_CHECK_THROW.instr(Opcodes.INVOKESTATIC));
+
+        tryCatchHandler.splitTryCatchBlocks(preSuspendLabel, postResumeLabel);
+
+        resumeLabels.add(resumeLabel);
+    }
+
+    /**
+     * Generates a yield point of an async generator. The element is handed to the consumer right away, and the
+     * generator only suspends once the consumer has no demand left, in which case it is resumed by the next request.
+     *
+     * <pre>{@code
+     * // stack: [value]
+     * aload this
+     * invokestatic yieldHelper
+     * ifne CONTINUE
+     * // save locals
+     * aload this
+     * ldc newState
+     * invokestatic suspendYieldHelper
+     * return
+     * RESUME:
+     * // restore locals
+     * iload isEx
+     * aload res
+     * aload this
+     * invokestatic checkThrow
+     * CONTINUE:
+     * }</pre>
+     *
+     * @param node The {@code Co.yield} call.
+     */
+    private void genAsyncYieldPoint(final MethodInsnNode node) {
+        final var output = implMethod.instructions;
+        final var allocMap = new Object2IntArrayMap<Type>();
+        final var resumeLabel = new LabelNode();
+        final var valueType = Type.getArgumentTypes(node.desc)[0];
+
+        // see genYieldPoint
+        if (analyzer.stack.size() != valueType.getSize()) {
+            throw new AssertionError("Co.yield() with a non-empty stack");
+        }
+
+        if (valueType.getSort() != Type.OBJECT) {
+            output.add(Util.box(valueType));
+        }
+
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+        output.add(BASIC_ASYNC_GENERATOR_YIELD_HELPER.instr(Opcodes.INVOKESTATIC));
+
+        // if the state can't be described by a frame, always suspend, which resumes right away if there is demand
+        final var continueFrame = createAnalyzerFrameNode(valueType.getSize());
+        final var continueLabel = new LabelNode();
+
+        if (continueFrame != null) {
+            output.add(new JumpInsnNode(Opcodes.IFNE, continueLabel));
+        } else {
+            output.add(new InsnNode(Opcodes.POP));
+        }
+
+        final var preSuspendLabel = new LabelNode();
+        output.add(preSuspendLabel);
+
+        final var resumeLocal = suspendSaveLocals(analyzer, allocMap);
+
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+        output.add(new LdcInsnNode(resumeLabels.size()));
+        output.add(BASIC_ASYNC_GENERATOR_SUSPEND_YIELD_HELPER.instr(Opcodes.INVOKESTATIC));
+        output.add(new InsnNode(Opcodes.RETURN));
+
+        handleSuspendPointMetadata(node.name);
+
+        output.add(resumeLabel);
+        output.add(createFrameNode());
+        resumeLocal.run();
 
         final var postResumeLabel = new LabelNode();
         output.add(postResumeLabel);
         output.add(new VarInsnNode(Opcodes.ILOAD, LVT_IS_EXCEPTION));
         output.add(new VarInsnNode(Opcodes.ALOAD, LVT_RES_VAL));
+        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
         output.add(BASIC_TASK_CHECK_THROW.instr(Opcodes.INVOKESTATIC));
 
         tryCatchHandler.splitTryCatchBlocks(preSuspendLabel, postResumeLabel);
 
+        if (continueFrame != null) {
+            output.add(continueLabel);
+            output.add(continueFrame);
+        }
+
         resumeLabels.add(resumeLabel);
     }
 
@@ -364,7 +757,26 @@ public final class MethodTransformer {
             } else if (isCoMethod(instruction) && analyzer.stack != null) {
                 final var methodInstr = (MethodInsnNode) instruction;
 
-                if (methodInstr.name.equals(RET_KW)) {
+                if (methodInstr.name.equals(DONE_KW)) {
+                    // Co.done is generic, so its result is cast to the generator type
+                    if (i + 1 < instructions.length && instructions[i + 1].getOpcode() == Opcodes.CHECKCAST) {
+                        i++;
+                    }
+
+                    if (i + 1 >= instructions.length || instructions[i + 1].getOpcode() != Opcodes.ARETURN) {
+                        throw new AssertionError();
+                    }
+
+                    // returning from run without yielding ends a generator, but async generators are tasks
+                    if (isAsyncGenerator) {
+                        output.add(new InsnNode(Opcodes.ACONST_NULL));
+                        output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+                        output.add(BASIC_TASK_COMPLETE_SUCCESS.instr(Opcodes.INVOKESTATIC));
+                    }
+
+                    output.add(new InsnNode(Opcodes.RETURN));
+                    i++;
+                } else if (methodInstr.name.startsWith(RET_KW)) {
                     if (i + 1 >= instructions.length || instructions[i + 1].getOpcode() != Opcodes.ARETURN) {
                         throw new AssertionError();
                     }
@@ -421,15 +833,20 @@ public final class MethodTransformer {
         // generate the exception handler
         tryCatchHandler.onFinished();
 
-        Util.withMethodBody(output, (start, end) -> {
-            final var catcher = new LabelNode();
-            output.add(catcher);
-            output.add(createFrameNode(THROWABLE_CLASS_BIN));
-            output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
-            output.add(BASIC_TASK_COMPLETE_ERROR.instr(Opcodes.INVOKESTATIC));
-            output.add(new InsnNode(Opcodes.RETURN));
-            implMethod.tryCatchBlocks.add(new TryCatchBlockNode(start, end, catcher, THROWABLE_TYPE.getInternalName()));
-        });
+        // generators let exceptions propagate to whoever is iterating them
+        if (generatorElementType == null) {
+            Util.withMethodBody(output, (start, end) -> {
+                final var catcher = new LabelNode();
+                output.add(catcher);
+                output.add(createFrameNode(THROWABLE_CLASS_BIN));
+                output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
+                output.add(BASIC_TASK_COMPLETE_ERROR.instr(Opcodes.INVOKESTATIC));
+                output.add(new InsnNode(Opcodes.RETURN));
+                implMethod.tryCatchBlocks.add(
+                    new TryCatchBlockNode(start, end, catcher, THROWABLE_TYPE.getInternalName())
+                );
+            });
+        }
 
         // handle local variables
         Util.withMethodBody(output, (start, end) -> {
@@ -593,17 +1010,44 @@ public final class MethodTransformer {
     }
 
     private void genReportReturn(final InsnList output, final MethodInsnNode methodInstr) {
-        if (Type.getArgumentCount(methodInstr.desc) == 0) {
+        final var args = Type.getArgumentTypes(methodInstr.desc);
+
+        if (args.length == 0) {
             output.add(new InsnNode(Opcodes.ACONST_NULL));
         }
 
+        final var valueType = args.length == 0 ? OBJECT_TYPE : args[0];
+
+        // primitive tasks store their result unboxed, everything else has to box
+        final MethodDesc completeHelper;
+
+        if (primitiveResultType == null) {
+            completeHelper = BASIC_TASK_COMPLETE_SUCCESS;
+
+            if (valueType.getSort() != Type.OBJECT && valueType.getSort() != Type.ARRAY) {
+                output.add(Util.box(valueType));
+            }
+        } else {
+            completeHelper = switch (primitiveResultType.getSort()) {
+                case Type.INT -> BASIC_TASK_COMPLETE_INT;
+                case Type.LONG -> BASIC_TASK_COMPLETE_LONG;
+                default -> BASIC_TASK_COMPLETE_DOUBLE;
+            };
+        }
+
         output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
-        output.add(BASIC_TASK_COMPLETE_SUCCESS.instr(Opcodes.INVOKESTATIC));
+        output.add(completeHelper.instr(Opcodes.INVOKESTATIC));
     }
 
     private void handleCoMethod(final InsnList output, final MethodInsnNode methodInstr) {
         if (methodInstr.name.startsWith(AWAIT_KW)) {
             genSuspendPoint(methodInstr);
+        } else if (methodInstr.name.startsWith(YIELD_KW)) {
+            if (isAsyncGenerator) {
+                genAsyncYieldPoint(methodInstr);
+            } else {
+                genYieldPoint(methodInstr);
+            }
         } else if (methodInstr.name.equals(CURRENT_EXECUTOR_KW)) {
             output.add(new VarInsnNode(Opcodes.ALOAD, LVT_THIS));
             output.add(BASIC_TASK_GET_EXECUTOR.instr(Opcodes.INVOKEVIRTUAL));
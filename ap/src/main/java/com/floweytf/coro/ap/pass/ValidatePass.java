@@ -3,28 +3,39 @@ package com.floweytf.coro.ap.pass;
 import com.floweytf.coro.ap.Coroutines;
 import com.floweytf.coro.ap.DirectiveKind;
 import com.floweytf.coro.ap.util.Diagnostics;
+import com.floweytf.coro.ap.util.Frame;
 import com.floweytf.coro.ap.util.scanners.CoroutineProcessingTreeScannerBase;
 import com.sun.source.util.TaskEvent;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCBlock;
 import com.sun.tools.javac.tree.JCTree.JCClassDecl;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 import com.sun.tools.javac.tree.JCTree.JCExpressionStatement;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
 import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 import com.sun.tools.javac.tree.JCTree.JCReturn;
 import java.util.function.UnaryOperator;
 
+import static com.floweytf.coro.ap.CoroutineKind.GENERATOR;
 import static com.floweytf.coro.ap.CoroutineKind.NONE;
+import static com.floweytf.coro.ap.CoroutineKind.TASK;
+import static com.floweytf.coro.ap.DirectiveKind.DONE;
 import static com.floweytf.coro.ap.DirectiveKind.RETURN;
 
 public class ValidatePass extends CoroutineProcessingTreeScannerBase {
     private final Coroutines coroutines;
+    private final Types types;
+    private final Frame<Type> returnType = new Frame<>();
 
     public ValidatePass(final Coroutines coroutines, final TaskEvent event) {
         super(coroutines.coroutineNames(), new Diagnostics(coroutines, event));
         this.coroutines = coroutines;
+        this.types = Types.instance(coroutines.getContext());
     }
 
     // this is a bit of a janky workaround that only exists because we have no other way of passing data
@@ -55,7 +66,19 @@ public class ValidatePass extends CoroutineProcessingTreeScannerBase {
             return;
         }
 
-        if (tree.expr instanceof final JCMethodInvocation inv && readInvocationData(inv).directive() == RETURN) {
+        final var directive = tree.expr instanceof final JCMethodInvocation inv ?
+            readInvocationData(inv).directive() :
+            null;
+
+        if (directive == RETURN && coroutineKind.get().isGenerator()) {
+            diagnostics.reportError(tree.expr, "returning from a generator must be done via Co.done");
+        } else if (directive == DONE && coroutineKind.get() == TASK) {
+            diagnostics.reportError(tree.expr, "Co.done can only be used to return from a generator");
+        }
+
+        if (directive == RETURN || directive == DONE) {
+            final var inv = (JCMethodInvocation) tree.expr;
+
             // only visit the args
             for (final var arg : inv.args) {
                 arg.accept(this);
@@ -64,7 +87,9 @@ public class ValidatePass extends CoroutineProcessingTreeScannerBase {
             return;
         }
 
-        diagnostics.reportError(tree.expr, "returning from coroutine must be done via Co.ret");
+        diagnostics.reportError(tree.expr, coroutineKind.get().isGenerator() ?
+            "returning from generator must be done via Co.done" :
+            "returning from coroutine must be done via Co.ret");
         super.visitReturn(tree);
     }
 
@@ -74,6 +99,9 @@ public class ValidatePass extends CoroutineProcessingTreeScannerBase {
         case AWAIT -> {
             if (coroutineKind.get() == NONE) {
                 diagnostics.reportError(invocation, "Co.await() can only be used inside a coroutine");
+            } else if (coroutineKind.get() == GENERATOR) {
+                diagnostics.reportError(invocation, "Co.await() cannot be used inside a Generator, use an " +
+                    "AsyncGenerator instead");
             }
 
             if (isSync.get()) {
@@ -85,13 +113,55 @@ public class ValidatePass extends CoroutineProcessingTreeScannerBase {
         case CURRENT_EXECUTOR -> {
             if (coroutineKind.get() == NONE) {
                 diagnostics.reportError(invocation, "Co.currentExecutor() can only be used inside a coroutine");
+            } else if (coroutineKind.get() == GENERATOR) {
+                diagnostics.reportError(invocation, "Co.currentExecutor() cannot be used inside a generator");
+            }
+        }
+        case YIELD -> {
+            if (!coroutineKind.get().isGenerator()) {
+                diagnostics.reportError(invocation, "Co.yield() can only be used inside a generator");
+            } else if (isSync.get()) {
+                diagnostics.reportError(invocation, "Co.yield() cannot appear in a synchronized block");
+            } else {
+                checkYieldType(invocation);
+                encodeSuspensionPointData(invocation.meth, invocation);
             }
         }
         case RETURN ->
             diagnostics.reportError(invocation, "illegal use of Co.ret, must be in the form `return Co.ret(...)`");
+        case DONE ->
+            diagnostics.reportError(invocation, "illegal use of Co.done, must be in the form `return Co.done()`");
         }
     }
 
+    /**
+     * Checks that a yielded value matches the element type of the generator. {@code Co.yield} isn't tied to the
+     * generator it is called from, so this is the only place where the types are checked; primitive overloads are
+     * boxed by their own type, so {@code Co.yield(1)} can't be used in a {@code Generator<Long>}.
+     */
+    private void checkYieldType(final JCMethodInvocation invocation) {
+        final var generatorType = returnType.get();
+        final var paramType = ((MethodSymbol) getSymbol(invocation.meth)).params.head.type;
+        final var valueType = paramType.isPrimitive() ? paramType : invocation.args.head.type;
+
+        if (generatorType.tsym.flatName() == names.intGeneratorClassName()) {
+            if (!valueType.hasTag(TypeTag.INT)) {
+                diagnostics.reportError(invocation, "IntGenerator can only yield int values");
+            }
+        } else if (generatorType.tsym.flatName() == names.longGeneratorClassName()) {
+            if (!valueType.hasTag(TypeTag.INT) && !valueType.hasTag(TypeTag.LONG)) {
+                diagnostics.reportError(invocation, "LongGenerator can only yield int or long values");
+            }
+        } else if (!types.isAssignable(valueType, generatorType.getTypeArguments().head)) {
+            diagnostics.reportError(invocation, "cannot yield %s from %s".formatted(valueType, generatorType));
+        }
+    }
+
+    @Override
+    public void visitMethodDef(final JCMethodDecl tree) {
+        returnType.push(tree.sym.getReturnType(), () -> super.visitMethodDef(tree));
+    }
+
     @Override
     protected void onCoroutineMethod(final JCClassDecl declaringClass) {
         coroutines.reportCoroutineMethod(declaringClass.sym);
@@ -168,6 +168,35 @@ public class Util {
         };
     }
 
+    /**
+     * Converts a list of frame types, as tracked by {@link AnalyzerAdapter}, to the format expected by
+     * {@link org.objectweb.asm.tree.FrameNode}, where two-slot types are represented by a single element.
+     *
+     * @param types   The analyzer types (either {@link AnalyzerAdapter#locals} or {@link AnalyzerAdapter#stack}).
+     * @param dropTop The number of analyzer entries to ignore at the end of the list.
+     * @param output  The output list.
+     * @return Whether the conversion succeeded, which is not the case if there are uninitialized types.
+     */
+    public static boolean toFrameTypes(final List<Object> types, final int dropTop, final List<Object> output) {
+        final var end = types.size() - dropTop;
+
+        for (int i = 0; i < end; i++) {
+            final var type = types.get(i);
+
+            if (type instanceof Label) {
+                return false;
+            }
+
+            output.add(type);
+
+            if (type == Opcodes.LONG || type == Opcodes.DOUBLE) {
+                i++;
+            }
+        }
+
+        return true;
+    }
+
     public static Object cloneFrameType(final Object type, final Map<LabelNode, LabelNode> mapper) {
         if (type instanceof final LabelNode node) {
             return mapper.get(node);
@@ -208,6 +237,35 @@ public class Util {
         return new MethodInsnNode(opc, owner.name, node.name, node.desc);
     }
 
+    /**
+     * Creates an instruction that boxes a primitive value on top of the stack, using {@code valueOf} of the wrapper.
+     *
+     * @param type The primitive type.
+     * @return The boxing instruction.
+     */
+    public static MethodInsnNode box(final Type type) {
+        final Class<?> wrapper = switch (type.getSort()) {
+            case Type.BOOLEAN -> Boolean.class;
+            case Type.CHAR -> Character.class;
+            case Type.BYTE -> Byte.class;
+            case Type.SHORT -> Short.class;
+            case Type.INT -> Integer.class;
+            case Type.FLOAT -> Float.class;
+            case Type.LONG -> Long.class;
+            case Type.DOUBLE -> Double.class;
+            default -> throw new IllegalArgumentException("Cannot box " + type.getDescriptor());
+        };
+
+        final var wrapperType = Type.getType(wrapper);
+
+        return new MethodInsnNode(
+            Opcodes.INVOKESTATIC,
+            wrapperType.getInternalName(),
+            "valueOf",
+            Type.getMethodDescriptor(wrapperType, type)
+        );
+    }
+
     private static AbstractInsnNode primitiveType(final Class<?> clazz) {
         return new FieldInsnNode(Opcodes.GETSTATIC, Type.getInternalName(clazz), "TYPE", CLASS_TYPE_DESC);
     }
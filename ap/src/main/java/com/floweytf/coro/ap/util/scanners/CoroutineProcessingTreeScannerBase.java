@@ -55,6 +55,20 @@ public abstract class CoroutineProcessingTreeScannerBase extends ContextTracking
     }
 
     private CoroutineKind getKindFromReturnType(final JCTree tree) {
+        // primitive tasks and generators aren't generic
+        if (tree instanceof final JCIdent ident && ident.type != null) {
+            if (typeMatch(ident.type, names.intTaskClassName()) ||
+                typeMatch(ident.type, names.longTaskClassName()) ||
+                typeMatch(ident.type, names.doubleTaskClassName())) {
+                return CoroutineKind.TASK;
+            }
+
+            if (typeMatch(ident.type, names.intGeneratorClassName()) ||
+                typeMatch(ident.type, names.longGeneratorClassName())) {
+                return CoroutineKind.GENERATOR;
+            }
+        }
+
         if (!(tree instanceof final JCTypeApply apply)) {
             return CoroutineKind.NONE;
         }
@@ -67,6 +81,14 @@ public abstract class CoroutineProcessingTreeScannerBase extends ContextTracking
             return CoroutineKind.TASK;
         }
 
+        if (typeMatch(ident.type, names.generatorClassName())) {
+            return CoroutineKind.GENERATOR;
+        }
+
+        if (typeMatch(ident.type, names.asyncGeneratorClassName())) {
+            return CoroutineKind.ASYNC_GENERATOR;
+        }
+
         return CoroutineKind.NONE;
     }
 
@@ -80,10 +102,15 @@ public abstract class CoroutineProcessingTreeScannerBase extends ContextTracking
             kind = null;
         } else if (symbol.name == names.awaitName()) {
             kind = DirectiveKind.AWAIT;
-        } else if (symbol.name == names.retName()) {
+        } else if (symbol.name.startsWith(names.retName())) {
+            // ret, and its unboxed variants retInt, retLong and retDouble
             kind = DirectiveKind.RETURN;
         } else if (symbol.name == names.currentExecutorName()) {
             kind = DirectiveKind.CURRENT_EXECUTOR;
+        } else if (symbol.name == names.yieldName()) {
+            kind = DirectiveKind.YIELD;
+        } else if (symbol.name == names.doneName()) {
+            kind = DirectiveKind.DONE;
         } else {
             kind = null;
         }
@@ -113,7 +140,8 @@ public abstract class CoroutineProcessingTreeScannerBase extends ContextTracking
             kind = getKindFromReturnType(tree.restype);
 
             if (kind == CoroutineKind.NONE) {
-                diagnostics.reportError(tree.restype, "Coroutine methods must return either Generator<T> or Task<T>");
+                diagnostics.reportError(tree.restype, "Coroutine methods must return either Generator<T>, " +
+                    "AsyncGenerator<T>, Task<T>, a primitive task or a primitive generator");
             }
         }
 
@@ -2,8 +2,15 @@ package com.floweytf.coro;
 
 import com.floweytf.coro.annotations.Coroutine;
 import com.floweytf.coro.annotations.MakeCoro;
+import com.floweytf.coro.concepts.AsyncGenerator;
 import com.floweytf.coro.concepts.Awaitable;
 import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.DoubleTask;
+import com.floweytf.coro.concepts.Generator;
+import com.floweytf.coro.concepts.IntGenerator;
+import com.floweytf.coro.concepts.IntTask;
+import com.floweytf.coro.concepts.LongGenerator;
+import com.floweytf.coro.concepts.LongTask;
 import com.floweytf.coro.concepts.Task;
 import java.util.function.Supplier;
 
@@ -63,6 +70,54 @@ public class Co {
         throw new AssertionError("Co.ret(T) should never be called directly; have you set up the AP properly?");
     }
 
+    /**
+     * Returns from a coroutine with an {@code int}, without boxing it.
+     * <p>
+     * In a coroutine returning {@link IntTask}, the result is stored unboxed. In a coroutine returning
+     * {@code Task<Integer>}, it is boxed on completion instead. This is a separate method, rather than an overload of
+     * {@link Co#ret(Object)}, so that returning a literal from a coroutine returning {@code Task<Number>} still boxes.
+     * </p>
+     *
+     * @param value The value to return from the coroutine.
+     * @return A dummy value. This method does not return a meaningful value and exists solely to pass compilation.
+     * @throws AssertionError If the AP is not set up.
+     */
+    public static IntTask retInt(final int value) {
+        throw new AssertionError("Co.retInt(int) should never be called directly; have you set up the AP properly?");
+    }
+
+    /**
+     * Returns from a coroutine with a {@code long}, without boxing it.
+     * <p>
+     * In a coroutine returning {@link LongTask}, the result is stored unboxed. In a coroutine returning
+     * {@code Task<Long>}, it is boxed on completion instead.
+     * </p>
+     *
+     * @param value The value to return from the coroutine.
+     * @return A dummy value. This method does not return a meaningful value and exists solely to pass compilation.
+     * @throws AssertionError If the AP is not set up.
+     */
+    public static LongTask retLong(final long value) {
+        throw new AssertionError("Co.retLong(long) should never be called directly; have you set up the AP properly?");
+    }
+
+    /**
+     * Returns from a coroutine with a {@code double}, without boxing it.
+     * <p>
+     * In a coroutine returning {@link DoubleTask}, the result is stored unboxed. In a coroutine returning
+     * {@code Task<Double>}, it is boxed on completion instead.
+     * </p>
+     *
+     * @param value The value to return from the coroutine.
+     * @return A dummy value. This method does not return a meaningful value and exists solely to pass compilation.
+     * @throws AssertionError If the AP is not set up.
+     */
+    public static DoubleTask retDouble(final double value) {
+        throw new AssertionError(
+            "Co.retDouble(double) should never be called directly; have you set up the AP properly?"
+        );
+    }
+
     /**
      * Awaits on an {@link Awaitable}, suspending execution until it is resumed by the awaitable.
      *
@@ -81,6 +136,108 @@ public class Co {
         throw new AssertionError("Co.await(T) should never be called directly; have you set up the AP properly?");
     }
 
+    /**
+     * Awaits on an {@link IntTask}, without boxing its result.
+     *
+     * @param task The task to await.
+     * @return The result of the task.
+     * @throws AssertionError If the AP is not set up.
+     * @see Co#await(Awaitable)
+     */
+    public static int await(final IntTask task) {
+        throw new AssertionError("Co.await(IntTask) should never be called directly; have you set up the AP " +
+            "properly?");
+    }
+
+    /**
+     * Awaits on an {@link LongTask}, without boxing its result.
+     *
+     * @param task The task to await.
+     * @return The result of the task.
+     * @throws AssertionError If the AP is not set up.
+     * @see Co#await(Awaitable)
+     */
+    public static long await(final LongTask task) {
+        throw new AssertionError("Co.await(LongTask) should never be called directly; have you set up the AP " +
+            "properly?");
+    }
+
+    /**
+     * Awaits on an {@link DoubleTask}, without boxing its result.
+     *
+     * @param task The task to await.
+     * @return The result of the task.
+     * @throws AssertionError If the AP is not set up.
+     * @see Co#await(Awaitable)
+     */
+    public static double await(final DoubleTask task) {
+        throw new AssertionError("Co.await(DoubleTask) should never be called directly; have you set up the AP " +
+            "properly?");
+    }
+
+    /**
+     * Yields an element from a generator, suspending it until the next element is requested.
+     * <p>
+     * This may only be used in coroutines returning {@link Generator} or {@link AsyncGenerator}, and the value must
+     * match the element type of the generator. For instance:
+     * </p>
+     * <pre>{@code
+     * @Coroutine
+     * static Generator<String> lines(final BufferedReader reader) throws IOException {
+     *     String line;
+     *
+     *     while ((line = reader.readLine()) != null) {
+     *         Co.yield(line);
+     *     }
+     *
+     *     return Co.done();
+     * }
+     * }</pre>
+     *
+     * @param value The element to yield.
+     * @param <T>   The type of the element.
+     * @throws AssertionError If the AP is not set up.
+     */
+    public static <T> void yield(final T value) {
+        throw new AssertionError("Co.yield(T) should never be called directly; have you set up the AP properly?");
+    }
+
+    /**
+     * Yields an {@code int} from a generator. In an {@link IntGenerator} or a {@link LongGenerator}, the element is
+     * stored without boxing; in a {@code Generator<Integer>}, it is boxed.
+     *
+     * @param value The element to yield.
+     * @throws AssertionError If the AP is not set up.
+     * @see Co#yield(Object)
+     */
+    public static void yield(final int value) {
+        throw new AssertionError("Co.yield(int) should never be called directly; have you set up the AP properly?");
+    }
+
+    /**
+     * Yields a {@code long} from a generator. In a {@link LongGenerator}, the element is stored without boxing; in a
+     * {@code Generator<Long>}, it is boxed.
+     *
+     * @param value The element to yield.
+     * @throws AssertionError If the AP is not set up.
+     * @see Co#yield(Object)
+     */
+    public static void yield(final long value) {
+        throw new AssertionError("Co.yield(long) should never be called directly; have you set up the AP properly?");
+    }
+
+    /**
+     * Returns from a generator or an async generator, which ends it. This is the generator equivalent of
+     * {@link Co#ret()}, and must be used in the form {@code return Co.done();}.
+     *
+     * @param <G> The type of the generator.
+     * @return A dummy value. This method does not return a meaningful value and exists solely to pass compilation.
+     * @throws AssertionError If the AP is not set up.
+     */
+    public static <G> G done() {
+        throw new AssertionError("Co.done() should never be called directly; have you set up the AP properly?");
+    }
+
     /**
      * Returns the current {@link CoroutineExecutor} for the executing coroutine.
      *
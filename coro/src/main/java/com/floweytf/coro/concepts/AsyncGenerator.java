@@ -0,0 +1,110 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A lazily produced sequence of elements, which is the handle of an async generator coroutine.
+ *
+ * <p>
+ * A coroutine returning {@code AsyncGenerator} may both {@link Co#await(Awaitable) await} and
+ * {@link Co#yield(Object) yield}, and ends with {@link Co#done()}. The consumer pulls elements: the generator
+ * doesn't start until the first element is requested, and only suspends at a yield once the consumer has no demand
+ * left, so memory use is bounded by what the consumer asks for.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * @Coroutine
+ * static AsyncGenerator<Row> scan(final Client client) {
+ *     var page = Co.await(client.firstPage());
+ *
+ *     while (page != null) {
+ *         for (final var row : page.rows()) {
+ *             Co.yield(row);
+ *         }
+ *
+ *         page = Co.await(client.nextPage(page));
+ *     }
+ *
+ *     return Co.done();
+ * }
+ *
+ * final var rows = scan(client);
+ *
+ * while (Co.await(rows.moveNext())) {
+ *     process(rows.current());
+ * }
+ * }</pre>
+ *
+ * <p>
+ * A generator has a single consumer, which either pulls from it with {@link #moveNext()} and
+ * {@link #nextBatch(int)}, one pull at a time, or subscribes to its {@link #publisher(CoroutineExecutor)}. It runs on
+ * the executor of the first pull, or the executor of the publisher. If the generator fails, the pending pull throws
+ * its error.
+ * </p>
+ *
+ * @param <T> The type of the elements.
+ * @see Coroutine
+ * @see Generator
+ */
+@ApiStatus.NonExtendable
+public interface AsyncGenerator<T> {
+    /**
+     * Requests the next element. Once it has been yielded, it may be obtained with {@link #current()}.
+     *
+     * @return An awaitable, which results in {@code true} if an element was yielded, or {@code false} if the
+     * generator has finished. The same instance is returned on every call.
+     */
+    Awaitable<Boolean> moveNext();
+
+    /**
+     * Obtains the element yielded for the last {@link #moveNext()}.
+     *
+     * @return The element.
+     */
+    T current();
+
+    /**
+     * Requests up to {@code maxElements} elements at once. The generator keeps running until it has yielded that
+     * many elements, or finished, so the whole batch is delivered with a single resumption of the consumer.
+     *
+     * @param maxElements The maximum number of elements.
+     * @return An awaitable, which results in the elements, and is only empty once the generator has finished.
+     */
+    Awaitable<List<T>> nextBatch(int maxElements);
+
+    /**
+     * Adapts this generator to a {@link Flow.Publisher}, which accepts a single subscriber. The generator is started
+     * by the first {@link Flow.Subscription#request(long) request} on {@code executor}, and yields elements to
+     * {@link Flow.Subscriber#onNext(Object)} directly, for as long as there is outstanding demand. Cancelling the
+     * subscription cancels the generator.
+     *
+     * @param executor The executor to run the generator on.
+     * @return The publisher.
+     */
+    Flow.Publisher<T> publisher(CoroutineExecutor executor);
+
+    /**
+     * Adapts this generator to a {@link Flow.Publisher}, which runs it on {@link CoroutineExecutor#EAGER}.
+     *
+     * @return The publisher.
+     * @see #publisher(CoroutineExecutor)
+     */
+    default Flow.Publisher<T> publisher() {
+        return publisher(CoroutineExecutor.EAGER);
+    }
+
+    /**
+     * Cancels this generator, which throws a {@link java.util.concurrent.CancellationException} from its current
+     * await or yield.
+     *
+     * @return Whether the generator was cancelled by this call.
+     * @see Task#cancel()
+     */
+    boolean cancel();
+}
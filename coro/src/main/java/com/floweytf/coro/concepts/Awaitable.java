@@ -2,6 +2,7 @@ package com.floweytf.coro.concepts;
 
 import com.floweytf.coro.Co;
 import com.floweytf.coro.support.Result;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import org.jetbrains.annotations.ApiStatus;
@@ -28,6 +29,20 @@ import org.jetbrains.annotations.ApiStatus;
  * readFile("...").suspend(value -> contextExecutor.executeTask(() -> continuation.accept(value)));
  * }</pre>
  *
+ * <p>
+ * An awaitable may additionally opt in to the <i>ready</i> protocol by overriding {@link Awaitable#isReady()} and
+ * {@link Awaitable#readyValue()}. Before suspending, a coroutine asks the awaitable whether it has already completed;
+ * if so, the value is obtained inline, and the coroutine continues without suspending or dispatching onto its
+ * {@link CoroutineExecutor}.
+ * </p>
+ *
+ * <p>
+ * Likewise, an awaitable may opt in to <i>cancellation</i> by overriding {@link Awaitable#cancel(Continuation)}. When
+ * the awaiting task is {@link Task#cancel() cancelled}, the awaitable is asked to let go of the continuation, so the
+ * task can be resumed with a {@link java.util.concurrent.CancellationException} right away instead of only once the
+ * awaitable completes.
+ * </p>
+ *
  * @param <T> the type of the result produced by the asynchronous operation, which will be provided to the continuation
  *            callback via {@link Result}.
  * @see Co#await(Awaitable)
@@ -43,18 +58,41 @@ public interface Awaitable<T> {
      * {@link Awaitable}, which can then be awaited using {@link Co#await(Awaitable)}.
      * </p>
      *
+     * <p>
+     * If the stage is a {@link CompletableFuture} that has already completed normally, the returned awaitable is
+     * {@link Awaitable#isReady() ready}, and awaiting it does not suspend. Exceptional completions always go through
+     * the regular suspension, so the exception observed by the coroutine is the same regardless of timing.
+     * </p>
+     *
      * @param stage The {@link CompletionStage} to convert.
      * @param <T>   The type of the result that the {@link CompletionStage} produces.
      * @return An {@link Awaitable} that may be awaited using {@link Co#await(Awaitable)}.
      */
     static <T> Awaitable<T> from(final CompletionStage<T> stage) {
-        return (executor, resume) -> stage.whenComplete((value, throwable) -> {
-            if (throwable != null) {
-                resume.submitError(throwable);
-            } else {
-                resume.submit(value);
+        return new Awaitable<>() {
+            @Override
+            public boolean isReady() {
+                return stage instanceof final CompletableFuture<T> future &&
+                    future.isDone() &&
+                    !future.isCompletedExceptionally();
             }
-        });
+
+            @Override
+            public T readyValue() {
+                return ((CompletableFuture<T>) stage).getNow(null);
+            }
+
+            @Override
+            public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+                stage.whenComplete((value, throwable) -> {
+                    if (throwable != null) {
+                        resume.submitError(throwable);
+                    } else {
+                        resume.submit(value);
+                    }
+                });
+            }
+        };
     }
 
     /**
@@ -85,6 +123,60 @@ public interface Awaitable<T> {
      */
     void execute(final CoroutineExecutor executor, Continuation<T> resume);
 
+    /**
+     * Checks whether this awaitable has already completed, and its result may be obtained with
+     * {@link Awaitable#readyValue()} without suspending.
+     *
+     * <p>
+     * This is called by a coroutine right before it would otherwise suspend on this awaitable. If this returns
+     * {@code true}, {@link Awaitable#execute(CoroutineExecutor, Continuation)} is not called, and no
+     * {@link CoroutineExecutor} hooks are invoked. The default implementation always returns {@code false}, which means
+     * that the coroutine always suspends.
+     * </p>
+     *
+     * @return Whether this awaitable has completed.
+     */
+    default boolean isReady() {
+        return false;
+    }
+
+    /**
+     * Obtains the result of a {@link Awaitable#isReady() ready} awaitable.
+     *
+     * <p>
+     * This is only called after {@link Awaitable#isReady()} returns {@code true}. The returned value becomes the result
+     * of {@code Co.await}, and any exception thrown is rethrown from {@code Co.await}.
+     * </p>
+     *
+     * @return The result of this awaitable.
+     * @throws Throwable If the awaitable completed exceptionally.
+     */
+    default T readyValue() throws Throwable {
+        throw new IllegalStateException("readyValue() called on an awaitable that is not ready");
+    }
+
+    /**
+     * Attempts to withdraw a pending {@link Awaitable#execute(CoroutineExecutor, Continuation)}, because the task that
+     * is waiting on this awaitable has been cancelled.
+     *
+     * <p>
+     * If this returns {@code true}, the awaitable must have unlinked {@code resume}, and must never invoke it; the
+     * caller resumes it with a {@link java.util.concurrent.CancellationException} instead. If {@code resume} has
+     * already been (or is about to be) invoked, this must return {@code false}, and the task receives the result as
+     * usual, so nothing handed over to it is lost. It then notices the cancellation on its next await. This may be
+     * called more than once for the same continuation, and even for a continuation this awaitable has never seen, so
+     * implementations must be idempotent. The default implementation always returns {@code false}, and an awaitable
+     * that doesn't override it is taken not to support cancellation at all, in which case the task throws the
+     * {@link java.util.concurrent.CancellationException} as soon as it is resumed, whatever the result.
+     * </p>
+     *
+     * @param resume The continuation previously passed to {@link Awaitable#execute(CoroutineExecutor, Continuation)}.
+     * @return Whether {@code resume} was unlinked, and will not be invoked by this awaitable.
+     */
+    default boolean cancel(final Continuation<T> resume) {
+        return false;
+    }
+
     /**
      * An "unwrapped" awaitable, which signals that the {@link Continuation} passed to
      * {@link Awaitable#execute(CoroutineExecutor, Continuation)} should not dispatch execution on the executor. This
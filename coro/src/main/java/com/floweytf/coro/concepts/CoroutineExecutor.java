@@ -2,6 +2,7 @@ package com.floweytf.coro.concepts;
 
 import com.floweytf.coro.annotations.Coroutine;
 import com.floweytf.coro.annotations.MakeCoro;
+import com.floweytf.coro.internal.ExecutorHooks;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Supplier;
@@ -21,6 +22,28 @@ import org.jetbrains.annotations.ApiStatus;
  */
 @ApiStatus.OverrideOnly
 public interface CoroutineExecutor {
+    /**
+     * The flag for {@link CoroutineExecutor#onSuspend(Task, Awaitable)} in {@link CoroutineExecutor#enabledHooks()}.
+     */
+    int HOOK_SUSPEND = 1;
+
+    /**
+     * The flag for {@link CoroutineExecutor#onResume(Task, Awaitable, Object)} in
+     * {@link CoroutineExecutor#enabledHooks()}.
+     */
+    int HOOK_RESUME = 1 << 1;
+
+    /**
+     * The flag for {@link CoroutineExecutor#onResumeExceptionally(Task, Awaitable, Throwable)} in
+     * {@link CoroutineExecutor#enabledHooks()}.
+     */
+    int HOOK_RESUME_EXCEPTIONALLY = 1 << 2;
+
+    /**
+     * All hook flags.
+     */
+    int HOOK_ALL = HOOK_SUSPEND | HOOK_RESUME | HOOK_RESUME_EXCEPTIONALLY;
+
     /**
      * Dispatches the execution of a coroutine continuation.
      * <p>
@@ -30,13 +53,38 @@ public interface CoroutineExecutor {
      * asynchronously, etc.).
      * </p>
      *
+     * <p>
+     * When a task completes while this executor is running it, and the task awaiting it is bound to this executor as
+     * well, the awaiting task is resumed inline rather than through this method, up to a bounded nesting depth, once
+     * all the other waiters of the completed task have been notified. A task that an
+     * {@link Awaitable.Unwrapped unwrapped} awaitable has resumed on a thread of its own choosing isn't being run by
+     * this executor, so the task awaiting it is always dispatched.
+     * </p>
+     *
      * @param handler The task (continuation) to run. This is typically the next step or the callback to execute after
      *                a coroutine suspends.
      */
     void executeTask(Runnable handler);
 
     /**
-     * Called before a task suspends.
+     * Declares which hooks this executor uses, as a combination of the {@code HOOK_*} flags. Hooks that are not
+     * declared are never called, which saves the calls (and any boxing of results) on every suspension.
+     *
+     * <p>
+     * This is queried once, when a task begins on this executor. The default implementation detects which of the hook
+     * methods are overridden by the class of this executor, so it usually doesn't need to be overridden, except to
+     * toggle hooks at runtime (for instance, to only enable tracing hooks in some builds).
+     * </p>
+     *
+     * @return The hooks used by this executor.
+     */
+    default int enabledHooks() {
+        return ExecutorHooks.detect(getClass());
+    }
+
+    /**
+     * Called before a task suspends. This is not called when awaiting an {@link Awaitable#isReady() ready} awaitable,
+     * since the task does not suspend at all.
      *
      * @param task      The task that is being suspended.
      * @param awaitable The awaitable to wait on.
@@ -95,6 +143,14 @@ public interface CoroutineExecutor {
      * This executor does not schedule the task asynchronously or on a separate thread. Instead, it runs the
      * continuation synchronously in the current execution context. This may be useful if your coroutine wishes to
      * manage its own scheduling behavior dynamically with specialized awaitables to modify the execution context.
+     * </p>
+     * <p>
+     * Nested submissions run right away as well, so a coroutine may begin a child, or even block on one with
+     * {@link CoroutineExecutor#launchBlocking(Supplier)}, and the child runs before the call returns. The one exception
+     * is a coroutine that is resumed on a thread where it is still running, such as by an awaitable that completes
+     * within {@link Awaitable#execute(CoroutineExecutor, Continuation)}: it continues once its current step returns,
+     * rather than recursively, which keeps the stack depth constant however many times in a row that happens.
+     * </p>
      */
     CoroutineExecutor EAGER = new CoroutineExecutor() {
         @Override
@@ -0,0 +1,30 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A {@link Task} that produces a primitive {@code double}.
+ *
+ * <p>
+ * Coroutines returning {@code DoubleTask} complete with {@link Co#retDouble(double)}, and store their result without
+ * boxing. Awaiting one from another coroutine with {@link Co#await(DoubleTask)} also resumes without boxing. The task
+ * may still be used anywhere a {@code Task<Double>} is expected, in which case the result is boxed on demand.
+ * </p>
+ *
+ * @see Task
+ */
+@ApiStatus.NonExtendable
+public interface DoubleTask extends Task<Double> {
+    @Override
+    DoubleTask begin(CoroutineExecutor executor);
+
+    @Override
+    default DoubleTask begin() {
+        return begin(CoroutineExecutor.EAGER);
+    }
+
+    @Override
+    DoubleTask withDeadline(Duration timeout);
+}
@@ -0,0 +1,65 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A lazily produced sequence of elements, which is the handle of a generator coroutine.
+ *
+ * <p>
+ * A coroutine returning {@code Generator} produces its elements with {@link Co#yield(Object)}, and ends with
+ * {@link Co#done()}. The body doesn't run until the first element is requested, and is suspended after each yield
+ * until the next one is requested. This all happens on the thread iterating the generator, without any executor
+ * involvement.
+ * </p>
+ *
+ * <p>
+ * A generator can only be iterated once; {@link #iterator()} always returns the same iterator. Exceptions thrown by
+ * the body propagate out of {@link Iterator#hasNext()} and {@link Iterator#next()}, and end the generator.
+ * </p>
+ *
+ * @param <T> The type of the elements.
+ * @see Coroutine
+ * @see IntGenerator
+ * @see LongGenerator
+ */
+@ApiStatus.NonExtendable
+public interface Generator<T> extends Iterable<T>, AutoCloseable {
+    /**
+     * Obtains the iterator of this generator. Advancing it resumes the generator until the next element is yielded.
+     *
+     * @return The iterator, which is the same on every call.
+     */
+    @Override
+    Iterator<T> iterator();
+
+    @Override
+    default Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Creates a sequential stream of the remaining elements. Closing the stream closes this generator.
+     *
+     * @return The stream.
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(this::close);
+    }
+
+    /**
+     * Closes this generator. If it is suspended at a yield, it is resumed with a
+     * {@link java.util.concurrent.CancellationException}, so that its {@code finally} blocks run.
+     *
+     * @throws IllegalStateException If the generator yields another element instead of finishing, or if it is
+     *                               currently running.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,39 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A {@link Generator} that produces primitive {@code int} elements.
+ *
+ * <p>
+ * Coroutines returning {@code IntGenerator} yield with {@link Co#yield(int)}, and store their elements without
+ * boxing. Iterating it with {@link PrimitiveIterator.OfInt#nextInt()} or {@link #intStream()} doesn't box either.
+ * </p>
+ *
+ * @see Generator
+ */
+@ApiStatus.NonExtendable
+public interface IntGenerator extends Generator<Integer> {
+    @Override
+    PrimitiveIterator.OfInt iterator();
+
+    @Override
+    default Spliterator.OfInt spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Creates a sequential stream of the remaining elements, without boxing. Closing the stream closes this generator.
+     *
+     * @return The stream.
+     */
+    default IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false).onClose(this::close);
+    }
+}
@@ -0,0 +1,30 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A {@link Task} that produces a primitive {@code int}.
+ *
+ * <p>
+ * Coroutines returning {@code IntTask} complete with {@link Co#retInt(int)}, and store their result without boxing.
+ * Awaiting one from another coroutine with {@link Co#await(IntTask)} also resumes without boxing. The task may still
+ * be used anywhere a {@code Task<Integer>} is expected, in which case the result is boxed on demand.
+ * </p>
+ *
+ * @see Task
+ */
+@ApiStatus.NonExtendable
+public interface IntTask extends Task<Integer> {
+    @Override
+    IntTask begin(CoroutineExecutor executor);
+
+    @Override
+    default IntTask begin() {
+        return begin(CoroutineExecutor.EAGER);
+    }
+
+    @Override
+    IntTask withDeadline(Duration timeout);
+}
@@ -0,0 +1,40 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A {@link Generator} that produces primitive {@code long} elements.
+ *
+ * <p>
+ * Coroutines returning {@code LongGenerator} yield with {@link Co#yield(long)}, or {@link Co#yield(int)}, which is
+ * widened, and store their elements without boxing. Iterating it with {@link PrimitiveIterator.OfLong#nextLong()} or
+ * {@link #longStream()} doesn't box either.
+ * </p>
+ *
+ * @see Generator
+ */
+@ApiStatus.NonExtendable
+public interface LongGenerator extends Generator<Long> {
+    @Override
+    PrimitiveIterator.OfLong iterator();
+
+    @Override
+    default Spliterator.OfLong spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Creates a sequential stream of the remaining elements, without boxing. Closing the stream closes this generator.
+     *
+     * @return The stream.
+     */
+    default LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false).onClose(this::close);
+    }
+}
@@ -0,0 +1,30 @@
+package com.floweytf.coro.concepts;
+
+import com.floweytf.coro.Co;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A {@link Task} that produces a primitive {@code long}.
+ *
+ * <p>
+ * Coroutines returning {@code LongTask} complete with {@link Co#retLong(long)}, and store their result without boxing.
+ * Awaiting one from another coroutine with {@link Co#await(LongTask)} also resumes without boxing. The task may still
+ * be used anywhere a {@code Task<Long>} is expected, in which case the result is boxed on demand.
+ * </p>
+ *
+ * @see Task
+ */
+@ApiStatus.NonExtendable
+public interface LongTask extends Task<Long> {
+    @Override
+    LongTask begin(CoroutineExecutor executor);
+
+    @Override
+    default LongTask begin() {
+        return begin(CoroutineExecutor.EAGER);
+    }
+
+    @Override
+    LongTask withDeadline(Duration timeout);
+}
@@ -2,6 +2,7 @@ package com.floweytf.coro.concepts;
 
 import com.floweytf.coro.annotations.Coroutine;
 import com.floweytf.coro.support.Result;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.jetbrains.annotations.ApiStatus;
@@ -25,6 +26,11 @@ import org.jetbrains.annotations.ApiStatus;
  */
 @ApiStatus.NonExtendable
 public interface Task<T> extends Awaitable<T> {
+    /**
+     * The {@link Task#deadline() deadline} of a task that doesn't have one, which comes after every other deadline.
+     */
+    long NO_DEADLINE = Long.MAX_VALUE;
+
     /**
      * Begins the execution of this coroutine task.
      *
@@ -54,6 +60,26 @@ public interface Task<T> extends Awaitable<T> {
         return begin(CoroutineExecutor.EAGER);
     }
 
+    /**
+     * Gives this task a deadline, by which it should complete. Executors that order their work by urgency, such as
+     * {@link com.floweytf.coro.executor.DeadlineExecutor}, run the continuations of tasks with earlier deadlines
+     * first, while other executors ignore it. A task without a deadline of its own that is begun by a task running on
+     * such an executor inherits the deadline of that task.
+     *
+     * @param timeout The time from now by which this task should complete.
+     * @return {@code this}
+     * @throws IllegalStateException If this task has already begun.
+     */
+    Task<T> withDeadline(Duration timeout);
+
+    /**
+     * Obtains the deadline of this task.
+     *
+     * @return The deadline, as a {@link System#nanoTime()} value, or {@link Task#NO_DEADLINE} if there is none.
+     * @see Task#withDeadline(Duration)
+     */
+    long deadline();
+
     /**
      * Adds a continuation to be invoked once this task is completed.
      *
@@ -81,6 +107,30 @@ public interface Task<T> extends Awaitable<T> {
     @Override
     void execute(CoroutineExecutor executor, Continuation<T> resume);
 
+    /**
+     * Requests cooperative cancellation of this task.
+     *
+     * <p>
+     * A cancelled task is not interrupted; instead, a {@link java.util.concurrent.CancellationException} is thrown from
+     * the next {@code Co.await} it reaches, so {@code finally} blocks and {@code catch} handlers run as usual. If the
+     * task is currently suspended, the awaitable it is suspended on is asked to
+     * {@link Awaitable#cancel(Continuation) let go of it}, which resumes the task immediately. Awaiting a task that
+     * nobody else is waiting on propagates the cancellation to it. A task that has not begun completes with a
+     * {@link java.util.concurrent.CancellationException} as soon as it is begun, without running.
+     * </p>
+     *
+     * @return Whether this call cancelled the task, which is {@code false} if it was already cancelled or completed.
+     */
+    boolean cancel();
+
+    /**
+     * Checks whether {@link Task#cancel()} has been called on this task. Note that a cancelled task may still be
+     * running, and may even complete successfully if it never awaits again.
+     *
+     * @return Whether this task has been cancelled.
+     */
+    boolean isCancelled();
+
     /**
      * Converts this task to a java future.
      *
@@ -0,0 +1,69 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+
+/**
+ * An event for coroutines which, once set, releases a single waiting coroutine, and resets itself.
+ *
+ * <p>
+ * If no coroutine is waiting when the event is set, it stays set until the next coroutine awaits it, which then
+ * continues without suspending. Setting an event that is already set does nothing, so signals don't accumulate. Waiting
+ * coroutines are released one per signal, in the order they arrived, so there is no bulk release; use an
+ * {@link AsyncManualResetEvent} to release all of them at once. This is a fair {@link AsyncSemaphore} with at most a
+ * single permit, and shares its lock-free queue.
+ * </p>
+ */
+public final class AsyncAutoResetEvent {
+    private final AsyncSemaphore signal;
+
+    /**
+     * Creates an event that is not set.
+     */
+    public AsyncAutoResetEvent() {
+        this(false);
+    }
+
+    /**
+     * Creates an event.
+     *
+     * @param isSet Whether the event is initially set.
+     */
+    public AsyncAutoResetEvent(final boolean isSet) {
+        this.signal = new AsyncSemaphore(isSet ? 1 : 0, true);
+    }
+
+    /**
+     * Waits for the event to be set, and resets it.
+     *
+     * @return The awaitable, which completes once this coroutine has consumed a signal. The same instance is returned
+     * on every call.
+     */
+    public Awaitable<Void> await() {
+        return signal.acquire();
+    }
+
+    /**
+     * Consumes the signal if the event is set, without waiting.
+     *
+     * @return Whether the event was set.
+     */
+    public boolean tryAwait() {
+        return signal.tryAcquire();
+    }
+
+    /**
+     * Sets the event, releasing the coroutine that has been waiting the longest, if there is one.
+     */
+    public void set() {
+        signal.releaseUpTo(1, 1);
+    }
+
+    /**
+     * Checks whether the event is set.
+     *
+     * @return Whether the event is set.
+     */
+    public boolean isSet() {
+        return signal.availablePermits() != 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+
+/**
+ * A cyclic barrier for coroutines, which are suspended rather than blocking a thread until a fixed number of parties
+ * have arrived, modeled after {@link java.util.concurrent.CyclicBarrier}.
+ *
+ * <p>
+ * Once all the parties have arrived, the barrier trips: the optional barrier action is run by the party that arrived
+ * last, the waiting coroutines are released in bulk, and the barrier is reset for the next generation. Arriving is
+ * lock-free; see {@link AsyncPhaser}, which this is built on.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var barrier = new AsyncBarrier(workers, this::swapBuffers);
+ *
+ * while (isRunning) {
+ *     simulate(partition);
+ *     Co.await(barrier.arriveAndAwait());
+ * }
+ * }</pre>
+ *
+ * <p>
+ * If the barrier action throws, the exception is delivered to all the parties of that generation, and the barrier
+ * still resets. Cancelling a waiting coroutine only stops it from waiting; its arrival still counts.
+ * </p>
+ */
+public final class AsyncBarrier {
+    private final int parties;
+    private final AsyncPhaser phaser;
+
+    /**
+     * Creates a barrier without a barrier action.
+     *
+     * @param parties The number of parties that must arrive for the barrier to trip.
+     */
+    public AsyncBarrier(final int parties) {
+        this(parties, null);
+    }
+
+    /**
+     * Creates a barrier.
+     *
+     * @param parties The number of parties that must arrive for the barrier to trip.
+     * @param action  The action to run each time the barrier trips, or {@code null}.
+     */
+    public AsyncBarrier(final int parties, final Runnable action) {
+        if (parties <= 0) {
+            throw new IllegalArgumentException("parties must be positive");
+        }
+
+        this.parties = parties;
+        this.phaser = new AsyncPhaser(parties, action);
+    }
+
+    /**
+     * Arrives at the barrier, and waits for the other parties. The arrival happens when the awaitable is first awaited,
+     * so a new one must be obtained for each arrival.
+     *
+     * @return The awaitable, which results in the number of times the barrier has tripped so far, including this one.
+     */
+    public Awaitable<Integer> arriveAndAwait() {
+        return phaser.arriveAndAwaitAdvance();
+    }
+
+    /**
+     * Obtains the number of parties required to trip the barrier.
+     *
+     * @return The number of parties.
+     */
+    public int getParties() {
+        return parties;
+    }
+
+    /**
+     * Obtains the number of parties that have arrived in the current generation.
+     *
+     * @return The number of parties.
+     */
+    public int getNumberWaiting() {
+        return parties - phaser.getUnarrivedParties();
+    }
+
+    /**
+     * Obtains the number of the current generation, which is the number of times the barrier has tripped.
+     *
+     * @return The generation number.
+     */
+    public int getGeneration() {
+        return phaser.getPhase();
+    }
+}
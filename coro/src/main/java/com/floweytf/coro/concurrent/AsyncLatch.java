@@ -0,0 +1,123 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A countdown latch for coroutines, which are suspended rather than blocking a thread until the count reaches zero.
+ *
+ * <p>
+ * Counting down takes a single compare-and-set. Awaiting a latch that has already opened doesn't suspend; otherwise the
+ * continuation is pushed onto a lock-free stack. When the count reaches zero, all the parked coroutines are released
+ * in bulk, with a single task per {@link CoroutineExecutor} that resumes all the coroutines suspended on it. A latch
+ * opens once, and stays open.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var loaded = new AsyncLatch(shards.size());
+ *
+ * for (final var shard : shards) {
+ *     load(shard, loaded).begin(executor); // calls loaded.countDown() when done
+ * }
+ *
+ * Co.await(loaded.await());
+ * }</pre>
+ */
+public final class AsyncLatch {
+    private static final VarHandle COUNT;
+
+    static {
+        try {
+            COUNT = MethodHandles.lookup().findVarHandle(AsyncLatch.class, "count", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final WaiterStack waiters;
+    private final Awaitable.Unwrapped<Void> await = new Awaitable.Unwrapped<>() {
+        @Override
+        public boolean isReady() {
+            return count == 0;
+        }
+
+        @Override
+        public Void readyValue() {
+            return null;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+            if (!waiters.push(executor, resume)) {
+                resume.submit(null);
+            }
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Void> resume) {
+            return waiters.cancel(resume);
+        }
+    };
+
+    private volatile int count;
+
+    /**
+     * Creates a latch.
+     *
+     * @param count The number of times {@link AsyncLatch#countDown()} must be called before the latch opens.
+     */
+    public AsyncLatch(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+
+        this.count = count;
+        this.waiters = new WaiterStack(count == 0);
+    }
+
+    /**
+     * Waits for the latch to open.
+     *
+     * @return The awaitable, which completes once the count has reached zero. The same instance is returned on every
+     * call.
+     */
+    public Awaitable<Void> await() {
+        return await;
+    }
+
+    /**
+     * Decrements the count, opening the latch and releasing the waiting coroutines if it reaches zero. Does nothing if
+     * the latch is already open.
+     */
+    public void countDown() {
+        while (true) {
+            final var current = count;
+
+            if (current == 0) {
+                return;
+            }
+
+            if (COUNT.weakCompareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    waiters.release(null, null, true);
+                }
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Obtains the current count.
+     *
+     * @return The count, which is zero once the latch has opened.
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+
+/**
+ * An event for coroutines which, once set, releases all the coroutines waiting for it, and stays set until it is
+ * reset.
+ *
+ * <p>
+ * Awaiting a set event doesn't suspend; otherwise the continuation is pushed onto a lock-free stack. Setting the event
+ * releases all the parked coroutines in bulk, with a single task per {@link CoroutineExecutor} that resumes all the
+ * coroutines suspended on it.
+ * </p>
+ *
+ * @see AsyncAutoResetEvent
+ */
+public final class AsyncManualResetEvent {
+    // the stack is closed while the event is set
+    private final WaiterStack waiters;
+    private final Awaitable.Unwrapped<Void> await = new Awaitable.Unwrapped<>() {
+        @Override
+        public boolean isReady() {
+            return waiters.isClosed();
+        }
+
+        @Override
+        public Void readyValue() {
+            return null;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+            if (!waiters.push(executor, resume)) {
+                resume.submit(null);
+            }
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Void> resume) {
+            return waiters.cancel(resume);
+        }
+    };
+
+    /**
+     * Creates an event that is not set.
+     */
+    public AsyncManualResetEvent() {
+        this(false);
+    }
+
+    /**
+     * Creates an event.
+     *
+     * @param isSet Whether the event is initially set.
+     */
+    public AsyncManualResetEvent(final boolean isSet) {
+        this.waiters = new WaiterStack(isSet);
+    }
+
+    /**
+     * Waits for the event to be set.
+     *
+     * @return The awaitable, which completes once the event is set. The same instance is returned on every call.
+     */
+    public Awaitable<Void> await() {
+        return await;
+    }
+
+    /**
+     * Sets the event, releasing all the waiting coroutines. Does nothing if the event is already set.
+     */
+    public void set() {
+        waiters.release(null, null, true);
+    }
+
+    /**
+     * Resets the event, so coroutines wait for it again. Does nothing if the event is not set.
+     */
+    public void reset() {
+        waiters.reopen();
+    }
+
+    /**
+     * Checks whether the event is set.
+     *
+     * @return Whether the event is set.
+     */
+    public boolean isSet() {
+        return waiters.isClosed();
+    }
+}
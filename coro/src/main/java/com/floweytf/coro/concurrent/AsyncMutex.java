@@ -0,0 +1,100 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+
+/**
+ * A mutual exclusion lock for coroutines, which may be held across suspension points.
+ *
+ * <p>
+ * A coroutine may not {@code Co.await} inside a {@code synchronized} block, and blocking on a
+ * {@link java.util.concurrent.locks.Lock} would block the thread the coroutine runs on. Instead, locking this mutex is
+ * awaited: it takes a single compare-and-set when the mutex is free, and otherwise parks the coroutine in a FIFO queue
+ * until the mutex is handed to it. Like {@link AsyncSemaphore}, which this is built upon, it may be fair or non-fair,
+ * and a parked lock may be cancelled.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * Co.await(mutex.lock());
+ *
+ * try {
+ *     final var state = Co.await(store.load(key));
+ *     Co.await(store.save(key, state.next()));
+ * } finally {
+ *     mutex.unlock();
+ * }
+ * }</pre>
+ *
+ * <p>
+ * The mutex is not reentrant, and is not owned by the coroutine that locked it: any coroutine, or thread, may unlock
+ * it.
+ * </p>
+ */
+public final class AsyncMutex {
+    private final AsyncSemaphore semaphore;
+
+    /**
+     * Creates a non-fair mutex.
+     */
+    public AsyncMutex() {
+        this(false);
+    }
+
+    /**
+     * Creates a mutex.
+     *
+     * @param isFair Whether lockers are prevented from barging ahead of the ones that are queued.
+     */
+    public AsyncMutex(final boolean isFair) {
+        this.semaphore = new AsyncSemaphore(1, isFair);
+    }
+
+    /**
+     * Locks this mutex, waiting for it to be unlocked if it is locked.
+     *
+     * @return The awaitable, which completes once the mutex has been locked. The same instance is returned on every
+     * call.
+     */
+    public Awaitable<Void> lock() {
+        return semaphore.acquire();
+    }
+
+    /**
+     * Locks this mutex if it is unlocked, without waiting.
+     *
+     * @return Whether the mutex was locked.
+     */
+    public boolean tryLock() {
+        return semaphore.tryAcquire();
+    }
+
+    /**
+     * Unlocks this mutex, handing it to the next parked locker if there is one.
+     *
+     * @throws IllegalStateException If this mutex is not locked.
+     */
+    public void unlock() {
+        if (!semaphore.releaseUpTo(1, 1)) {
+            throw new IllegalStateException("AsyncMutex is not locked");
+        }
+    }
+
+    /**
+     * Checks whether this mutex is locked, which may be out of date by the time it returns.
+     *
+     * @return Whether this mutex is locked.
+     */
+    public boolean isLocked() {
+        return semaphore.availablePermits() == 0;
+    }
+
+    /**
+     * Checks whether this mutex is fair.
+     *
+     * @return Whether this mutex is fair.
+     */
+    public boolean isFair() {
+        return semaphore.isFair();
+    }
+}
@@ -0,0 +1,325 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A reusable synchronization barrier for coroutines, with a varying number of parties, modeled after
+ * {@link java.util.concurrent.Phaser}.
+ *
+ * <p>
+ * Each phase waits for all the registered parties to arrive, and then advances to the next phase, releasing the
+ * coroutines waiting on it. Parties may register, and deregister on arrival, at any time. Phases are numbered from zero,
+ * wrapping around to zero after {@link Integer#MAX_VALUE}.
+ * </p>
+ *
+ * <p>
+ * Arriving and registering take a single compare-and-set on the counts of the current phase. The party that arrives
+ * last installs the next phase, and releases the coroutines waiting on the previous one in bulk, with a single task per
+ * {@link CoroutineExecutor} that resumes all the coroutines suspended on it. A party that arrives while the phase is
+ * being replaced helps install the next one, rather than waiting for it.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * for (int step = 0; step < steps; step++) {
+ *     compute(step);
+ *     Co.await(phaser.arriveAndAwaitAdvance());
+ * }
+ *
+ * phaser.arriveAndDeregister();
+ * }</pre>
+ *
+ * <p>
+ * Cancelling a coroutine that is waiting for the phase to advance only stops it from waiting; its arrival still counts.
+ * </p>
+ */
+public final class AsyncPhaser {
+    private static final VarHandle CURRENT;
+    private static final VarHandle COUNTS;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            CURRENT = lookup.findVarHandle(AsyncPhaser.class, "current", Phase.class);
+            COUNTS = lookup.findVarHandle(Phase.class, "counts", long.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // counts are laid out as tripped (1 bit) | parties (31 bits) | unarrived (32 bits)
+    private static final long TRIPPED = 1L << 63;
+    private static final long ONE_PARTY = 1L << 32;
+    private static final long ONE_UNARRIVED = 1L;
+
+    private static final class Phase {
+        private final int number;
+        private final WaiterStack waiters = new WaiterStack(false);
+        private volatile long counts;
+        private volatile Throwable error;
+
+        private Phase(final int number, final int parties) {
+            this.number = number;
+            this.counts = parties * (ONE_PARTY + ONE_UNARRIVED);
+        }
+
+        private int nextNumber() {
+            return (number + 1) & Integer.MAX_VALUE;
+        }
+    }
+
+    private final class Arrival implements Awaitable.Unwrapped<Integer> {
+        private Phase phase;
+
+        private Phase arrive() {
+            if (phase == null) {
+                phase = AsyncPhaser.this.arrive(false);
+            }
+
+            return phase;
+        }
+
+        @Override
+        public boolean isReady() {
+            return arrive().waiters.isClosed();
+        }
+
+        @Override
+        public Integer readyValue() throws Throwable {
+            if (phase.error != null) {
+                throw phase.error;
+            }
+
+            return phase.nextNumber();
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Integer> resume) {
+            final var phase = arrive();
+
+            if (phase.waiters.push(executor, resume)) {
+                return;
+            }
+
+            if (phase.error != null) {
+                resume.submitError(phase.error);
+            } else {
+                resume.submit(phase.nextNumber());
+            }
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Integer> resume) {
+            return phase != null && phase.waiters.cancel(resume);
+        }
+    }
+
+    private final Runnable onAdvance;
+
+    private volatile Phase current;
+
+    /**
+     * Creates a phaser.
+     *
+     * @param parties The number of parties that are initially registered.
+     */
+    public AsyncPhaser(final int parties) {
+        this(parties, null);
+    }
+
+    /**
+     * Creates a phaser.
+     *
+     * @param parties   The number of parties that are initially registered.
+     * @param onAdvance The action to run each time a phase trips, by the party that arrives last, before the waiting
+     *                  coroutines are released. Any exception it throws is delivered to them.
+     */
+    AsyncPhaser(final int parties, final Runnable onAdvance) {
+        if (parties < 0) {
+            throw new IllegalArgumentException("parties must not be negative");
+        }
+
+        this.onAdvance = onAdvance;
+        this.current = new Phase(0, parties);
+    }
+
+    private static int parties(final long counts) {
+        return (int) ((counts & ~TRIPPED) >>> 32);
+    }
+
+    private static int unarrived(final long counts) {
+        return (int) counts;
+    }
+
+    /**
+     * Adds a party to the current phase.
+     *
+     * @return The number of the phase the party was registered to.
+     */
+    public int register() {
+        while (true) {
+            final var phase = current;
+            final var counts = phase.counts;
+
+            if ((counts & TRIPPED) != 0) {
+                installNext(phase);
+                continue;
+            }
+
+            if (parties(counts) == Integer.MAX_VALUE) {
+                throw new IllegalStateException("too many parties");
+            }
+
+            if (COUNTS.weakCompareAndSet(phase, counts, counts + ONE_PARTY + ONE_UNARRIVED)) {
+                return phase.number;
+            }
+        }
+    }
+
+    /**
+     * Arrives at the current phase, without waiting for the others.
+     *
+     * @return The number of the phase that was arrived at.
+     */
+    public int arrive() {
+        return arrive(false).number;
+    }
+
+    /**
+     * Arrives at the current phase, and deregisters the party, without waiting for the others.
+     *
+     * @return The number of the phase that was arrived at.
+     */
+    public int arriveAndDeregister() {
+        return arrive(true).number;
+    }
+
+    /**
+     * Arrives at the current phase, and waits for the others. The arrival happens when the awaitable is first awaited,
+     * so a new one must be obtained for each arrival.
+     *
+     * @return The awaitable, which results in the number of the next phase once the phase has advanced.
+     */
+    public Awaitable<Integer> arriveAndAwaitAdvance() {
+        return new Arrival();
+    }
+
+    /**
+     * Waits for a phase to advance, without arriving.
+     *
+     * @param phase The number of the phase.
+     * @return The awaitable, which results in the number of the next phase once {@code phase} has advanced, or right
+     * away if the current phase is a different one.
+     */
+    public Awaitable<Integer> awaitAdvance(final int phase) {
+        return new Awaitable.Unwrapped<>() {
+            @Override
+            public boolean isReady() {
+                return current.number != phase;
+            }
+
+            @Override
+            public Integer readyValue() {
+                return current.number;
+            }
+
+            @Override
+            public void execute(final CoroutineExecutor executor, final Continuation<Integer> resume) {
+                final var waited = current;
+
+                if (waited.number != phase || !waited.waiters.push(executor, resume)) {
+                    resume.submit(current.number);
+                }
+            }
+
+            @Override
+            public boolean cancel(final Continuation<Integer> resume) {
+                final var waited = current;
+                return waited.number == phase && waited.waiters.cancel(resume);
+            }
+        };
+    }
+
+    /**
+     * Obtains the number of the current phase.
+     *
+     * @return The phase number.
+     */
+    public int getPhase() {
+        return current.number;
+    }
+
+    /**
+     * Obtains the number of parties registered to the current phase.
+     *
+     * @return The number of parties.
+     */
+    public int getRegisteredParties() {
+        return parties(current.counts);
+    }
+
+    /**
+     * Obtains the number of parties that have yet to arrive at the current phase.
+     *
+     * @return The number of parties.
+     */
+    public int getUnarrivedParties() {
+        return unarrived(current.counts);
+    }
+
+    private Phase arrive(final boolean deregister) {
+        while (true) {
+            final var phase = current;
+            final var counts = phase.counts;
+
+            if ((counts & TRIPPED) != 0) {
+                installNext(phase);
+                continue;
+            }
+
+            final var unarrived = unarrived(counts);
+
+            if (unarrived == 0) {
+                throw new IllegalStateException("no parties are left to arrive");
+            }
+
+            var next = counts - ONE_UNARRIVED - (deregister ? ONE_PARTY : 0);
+
+            if (unarrived == 1) {
+                next |= TRIPPED;
+            }
+
+            if (COUNTS.weakCompareAndSet(phase, counts, next)) {
+                if (unarrived == 1) {
+                    advance(phase);
+                }
+
+                return phase;
+            }
+        }
+    }
+
+    private void installNext(final Phase phase) {
+        CURRENT.compareAndSet(this, phase, new Phase(phase.nextNumber(), parties(phase.counts)));
+    }
+
+    private void advance(final Phase phase) {
+        installNext(phase);
+
+        if (onAdvance != null) {
+            try {
+                onAdvance.run();
+            } catch (final Throwable e) {
+                phase.error = e;
+            }
+        }
+
+        phase.waiters.release(phase.nextNumber(), phase.error, true);
+    }
+}
@@ -0,0 +1,402 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A counting semaphore for coroutines, whose permits are acquired by awaiting rather than blocking a thread.
+ *
+ * <p>
+ * Acquiring takes a single compare-and-set as long as enough permits are available, in which case the awaitable is
+ * {@link Awaitable#isReady() ready}, and the coroutine continues without suspending. Otherwise, the coroutine parks its
+ * continuation in a lock-free FIFO queue, and is resumed once its permits have been handed to it by a release. An
+ * acquirer may ask for several permits at once, and waits until they are all available, so a heavy acquirer at the
+ * head of the queue holds back the ones behind it.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * private final AsyncSemaphore inFlight = new AsyncSemaphore(64);
+ *
+ * Co.await(inFlight.acquire());
+ *
+ * try {
+ *     return Co.ret(Co.await(upstream.call(request)));
+ * } finally {
+ *     inFlight.release();
+ * }
+ * }</pre>
+ *
+ * <p>
+ * A fair semaphore never lets an acquirer take permits while others are queued. A non-fair semaphore lets acquirers
+ * barge ahead of the queue whenever enough permits are available, which improves throughput, but may delay queued
+ * acquirers for as long as others keep barging. A cancelled acquirer never receives any permits, and is removed from
+ * the queue: right away if it is at the head, and otherwise once enough cancelled acquirers have piled up behind a
+ * waiting one, so that the cost of unlinking them is spread over the cancellations.
+ * </p>
+ */
+public final class AsyncSemaphore {
+    private static final VarHandle PERMITS;
+    private static final VarHandle TAIL;
+    private static final VarHandle DRAINING;
+    private static final VarHandle NODE_STATE;
+    private static final VarHandle CANCELLED_COUNT;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            PERMITS = lookup.findVarHandle(AsyncSemaphore.class, "permits", int.class);
+            TAIL = lookup.findVarHandle(AsyncSemaphore.class, "tail", Node.class);
+            DRAINING = lookup.findVarHandle(AsyncSemaphore.class, "draining", int.class);
+            NODE_STATE = lookup.findVarHandle(Node.class, "state", int.class);
+            CANCELLED_COUNT = lookup.findVarHandle(AsyncSemaphore.class, "cancelledCount", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final int WAITING = 0;
+    private static final int ACQUIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final int MIN_COMPACT_THRESHOLD = 32;
+
+    /**
+     * A parked acquirer. The queue always starts with a sentinel, which is the last node that was dequeued.
+     */
+    private static final class Node {
+        private final int weight;
+        private Continuation<Void> resume;
+        private volatile int state;
+        private volatile Node next;
+
+        private Node(final int weight, final Continuation<Void> resume) {
+            this.weight = weight;
+            this.resume = resume;
+        }
+    }
+
+    private final class Acquire implements Awaitable<Void> {
+        private final int weight;
+
+        private Acquire(final int weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public boolean isReady() {
+            return tryAcquire(weight);
+        }
+
+        @Override
+        public Void readyValue() {
+            return null;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+            if (!isFair && tryAcquire(weight)) {
+                resume.submit(null);
+                return;
+            }
+
+            final var node = new Node(weight, resume);
+            final var previous = (Node) TAIL.getAndSet(AsyncSemaphore.this, node);
+            previous.next = node;
+
+            // the permits may have been released before this node was linked
+            drain();
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Void> resume) {
+            // the awaitable is shared, so find the node of this continuation
+            for (var node = head.next; node != null; node = node.next) {
+                if (node.resume == resume) {
+                    if (!NODE_STATE.compareAndSet(node, WAITING, CANCELLED)) {
+                        return false;
+                    }
+
+                    node.resume = null;
+                    CANCELLED_COUNT.getAndAdd(AsyncSemaphore.this, 1);
+
+                    // let the acquirers behind it proceed, and unlink it
+                    drain();
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private final boolean isFair;
+    private final Acquire acquireOne = new Acquire(1);
+
+    private volatile int permits;
+    // only advanced by the thread that is draining
+    private volatile Node head;
+    private volatile Node tail;
+    private volatile int draining;
+    // the number of cancelled nodes since the last compaction, which is done once it exceeds the threshold, that is the
+    // number of nodes that were left, so that the cost of compacting is spread over the cancellations
+    private volatile int cancelledCount;
+    // only touched by the thread that is draining
+    private int compactThreshold = MIN_COMPACT_THRESHOLD;
+
+    /**
+     * Creates a non-fair semaphore.
+     *
+     * @param permits The number of permits that are initially available.
+     */
+    public AsyncSemaphore(final int permits) {
+        this(permits, false);
+    }
+
+    /**
+     * Creates a semaphore.
+     *
+     * @param permits The number of permits that are initially available.
+     * @param isFair  Whether acquirers are prevented from barging ahead of the ones that are queued.
+     */
+    public AsyncSemaphore(final int permits, final boolean isFair) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("permits must not be negative");
+        }
+
+        this.permits = permits;
+        this.isFair = isFair;
+        this.head = this.tail = new Node(0, null);
+    }
+
+    /**
+     * Acquires a permit, waiting for one to be released if none are available.
+     *
+     * @return The awaitable, which completes once the permit has been acquired. The same instance is returned on every
+     * call.
+     */
+    public Awaitable<Void> acquire() {
+        return acquireOne;
+    }
+
+    /**
+     * Acquires several permits at once, waiting until they are all available.
+     *
+     * @param permits The number of permits.
+     * @return The awaitable, which completes once the permits have been acquired.
+     */
+    public Awaitable<Void> acquire(final int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+
+        return permits == 1 ? acquireOne : new Acquire(permits);
+    }
+
+    /**
+     * Acquires permits if they are available, without waiting.
+     *
+     * @param permits The number of permits.
+     * @return Whether the permits were acquired.
+     */
+    public boolean tryAcquire(final int permits) {
+        while (true) {
+            final var available = this.permits;
+
+            if (available < permits || (isFair && head.next != null)) {
+                return false;
+            }
+
+            if (PERMITS.weakCompareAndSet(this, available, available - permits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Acquires a permit if one is available, without waiting.
+     *
+     * @return Whether the permit was acquired.
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Releases a permit, handing it to a parked acquirer if there is one.
+     */
+    public void release() {
+        release(1);
+    }
+
+    /**
+     * Releases several permits, handing them to parked acquirers in order.
+     *
+     * @param permits The number of permits.
+     */
+    public void release(final int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+
+        PERMITS.getAndAdd(this, permits);
+
+        if (head.next != null) {
+            drain();
+        }
+    }
+
+    /**
+     * Releases permits, unless that would make more than {@code limit} available.
+     *
+     * @return Whether the permits were released.
+     */
+    boolean releaseUpTo(final int permits, final int limit) {
+        while (true) {
+            final var available = this.permits;
+
+            if (available + permits > limit) {
+                return false;
+            }
+
+            if (PERMITS.weakCompareAndSet(this, available, available + permits)) {
+                break;
+            }
+        }
+
+        if (head.next != null) {
+            drain();
+        }
+
+        return true;
+    }
+
+    /**
+     * Obtains the number of permits that are currently available.
+     *
+     * @return The number of permits.
+     */
+    public int availablePermits() {
+        return permits;
+    }
+
+    /**
+     * Obtains the number of acquirers that are parked. This is an estimate, since acquirers may be queued and dequeued
+     * concurrently, and cancelled acquirers are counted until they are unlinked.
+     *
+     * @return The number of parked acquirers.
+     */
+    public int getQueueLength() {
+        var length = 0;
+
+        for (var node = head.next; node != null; node = node.next) {
+            length++;
+        }
+
+        return length;
+    }
+
+    /**
+     * Checks whether this semaphore is fair.
+     *
+     * @return Whether this semaphore is fair.
+     */
+    public boolean isFair() {
+        return isFair;
+    }
+
+    /**
+     * Hands the available permits to the parked acquirers, in order. Only one thread drains at a time; a thread that
+     * asks for a drain while another is draining leaves it to that thread, which runs another pass.
+     */
+    private void drain() {
+        if ((int) DRAINING.getAndAdd(this, 1) != 0) {
+            return;
+        }
+
+        var missed = 1;
+
+        while (true) {
+            drainOnce();
+
+            missed = (int) DRAINING.getAndAdd(this, -missed) - missed;
+
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drainOnce() {
+        while (true) {
+            final var first = head.next;
+
+            if (first == null) {
+                return;
+            }
+
+            if (first.state == CANCELLED) {
+                head = first;
+                first.resume = null;
+                continue;
+            }
+
+            final var available = permits;
+
+            if (available < first.weight) {
+                if (cancelledCount >= compactThreshold) {
+                    compact(first);
+                }
+
+                return;
+            }
+
+            if (!PERMITS.compareAndSet(this, available, available - first.weight)) {
+                continue;
+            }
+
+            head = first;
+
+            if (NODE_STATE.compareAndSet(first, WAITING, ACQUIRED)) {
+                final var resume = first.resume;
+                first.resume = null;
+                resume.submit(null);
+            } else {
+                // cancelled in the meantime
+                PERMITS.getAndAdd(this, first.weight);
+                first.resume = null;
+            }
+        }
+    }
+
+    /**
+     * Unlinks the cancelled nodes behind the first waiting one. The last node is kept even if it's cancelled, since an
+     * acquirer that is being queued may be about to link itself to it.
+     */
+    private void compact(final Node first) {
+        var remaining = 1;
+        var previous = first;
+        var node = first.next;
+
+        while (node != null) {
+            final var next = node.next;
+
+            if (node.state == CANCELLED && next != null) {
+                previous.next = next;
+            } else {
+                previous = node;
+                remaining++;
+            }
+
+            node = next;
+        }
+
+        cancelledCount = 0;
+        compactThreshold = Math.max(remaining, MIN_COMPACT_THRESHOLD);
+    }
+}
@@ -0,0 +1,474 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.internal.BasicTask;
+import com.floweytf.coro.internal.CompletionListener;
+import com.floweytf.coro.support.Pair;
+import com.floweytf.coro.support.Triple;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Combinators that await many awaitables at once, while suspending the awaiting coroutine only once.
+ *
+ * <p>
+ * Tasks are tracked by registering a single listener directly on each of them, so joining tasks allocates nothing per
+ * task. Other awaitables are given a small continuation each. Once the result of a combinator is decided, the
+ * awaitables it no longer needs are {@link Awaitable#cancel(Continuation) cancelled}; tasks are cancelled if nothing
+ * else is waiting on them.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var pages = Co.await(Awaitables.whenAll(urls.stream().map(this::fetch).toList()));
+ * final var fastest = Co.await(Awaitables.whenAny(fetch(primary), fetch(replica)));
+ * final var both = Co.await(Awaitables.awaitAll(fetchUser(id), fetchOrders(id)));
+ * }</pre>
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class Awaitables {
+    private static final VarHandle IS_DONE;
+    private static final VarHandle REMAINING;
+    private static final VarHandle SUCCESSES;
+    private static final VarHandle WRITTEN;
+    private static final VarHandle FAILURES;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            IS_DONE = lookup.findVarHandle(Join.class, "isDone", boolean.class);
+            REMAINING = lookup.findVarHandle(WhenAll.class, "remaining", int.class);
+            SUCCESSES = lookup.findVarHandle(FirstN.class, "successes", int.class);
+            WRITTEN = lookup.findVarHandle(FirstN.class, "written", int.class);
+            FAILURES = lookup.findVarHandle(FirstN.class, "failures", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Awaitables() {
+    }
+
+    /**
+     * The state of a single await on a combinator. Tasks are linked to it directly, while other awaitables are
+     * executed with a {@link Branch}, which knows its index.
+     */
+    private abstract static class Join<R> implements CompletionListener {
+        protected final Awaitable<?>[] awaitables;
+        private final Continuation<R> resume;
+        private Branch[] branches;
+        private volatile boolean isDone;
+
+        private Join(final Awaitable<?>[] awaitables, final Continuation<R> resume) {
+            this.awaitables = awaitables;
+            this.resume = resume;
+        }
+
+        protected void start(final CoroutineExecutor executor) {
+            for (var i = 0; i < awaitables.length && !isDone; i++) {
+                final var awaitable = awaitables[i];
+
+                if (awaitable instanceof final BasicTask<?> task) {
+                    task.begin(executor);
+
+                    if (!task.addListener(this)) {
+                        onTaskComplete(task);
+                    } else if (isDone) {
+                        // finish() may have run on another thread before it could see this task
+                        task.abandon(this);
+                    }
+
+                    continue;
+                }
+
+                if (branches == null) {
+                    branches = new Branch[awaitables.length];
+                }
+
+                final var branch = new Branch(this, i);
+                branches[i] = branch;
+
+                try {
+                    ((Awaitable) awaitable).execute(executor, branch);
+                } catch (final Throwable th) {
+                    branch.submitError(th);
+                }
+
+                if (isDone) {
+                    ((Awaitable) awaitable).cancel(branch);
+                }
+            }
+        }
+
+        /**
+         * Called when an awaitable other than a task completes successfully.
+         */
+        protected abstract void onSuccess(int index, Object value);
+
+        /**
+         * Called when a task completes successfully. The index of the task is not known, but the result can be read
+         * from the task itself later on.
+         */
+        protected void onTaskSuccess(final BasicTask<?> task) {
+            onSuccess(-1, valueOf(task));
+        }
+
+        protected abstract void onFailure(Throwable error);
+
+        @Override
+        public void onTaskComplete(final BasicTask<?> task) {
+            final var error = task.readyError();
+
+            if (error != null) {
+                onFailure(error);
+            } else {
+                onTaskSuccess(task);
+            }
+        }
+
+        /**
+         * Decides the result, and lets go of everything else. Only the first call succeeds.
+         */
+        private boolean finish() {
+            if (!IS_DONE.compareAndSet(this, false, true)) {
+                return false;
+            }
+
+            for (var i = 0; i < awaitables.length; i++) {
+                if (awaitables[i] instanceof final BasicTask<?> task) {
+                    task.abandon(this);
+                } else if (branches != null && branches[i] != null) {
+                    ((Awaitable) awaitables[i]).cancel(branches[i]);
+                }
+            }
+
+            return true;
+        }
+
+        protected void succeed(final R value) {
+            if (finish()) {
+                resume.submit(value);
+            }
+        }
+
+        protected void fail(final Throwable error) {
+            if (finish()) {
+                resume.submitError(error);
+            }
+        }
+    }
+
+    private static final class Branch implements Continuation<Object> {
+        private final Join<?> join;
+        private final int index;
+
+        private Branch(final Join<?> join, final int index) {
+            this.join = join;
+            this.index = index;
+        }
+
+        @Override
+        public void submit(final Object value) {
+            if (!join.isDone) {
+                join.onSuccess(index, value);
+            }
+        }
+
+        @Override
+        public void submitError(final Throwable error) {
+            if (!join.isDone) {
+                join.onFailure(error);
+            }
+        }
+    }
+
+    private static final class WhenAll<R> extends Join<R> {
+        private final Object[] results;
+        private final Function<Object[], R> finisher;
+        private volatile int remaining;
+
+        private WhenAll(final Awaitable<?>[] awaitables, final Continuation<R> resume,
+                        final Function<Object[], R> finisher) {
+            super(awaitables, resume);
+            this.results = new Object[awaitables.length];
+            this.finisher = finisher;
+            this.remaining = awaitables.length;
+        }
+
+        @Override
+        protected void start(final CoroutineExecutor executor) {
+            if (awaitables.length == 0) {
+                succeed(finisher.apply(results));
+                return;
+            }
+
+            super.start(executor);
+        }
+
+        @Override
+        protected void onSuccess(final int index, final Object value) {
+            results[index] = value;
+            countDown();
+        }
+
+        @Override
+        protected void onTaskSuccess(final BasicTask<?> task) {
+            countDown();
+        }
+
+        private void countDown() {
+            // the countdown orders the writes to results before the reads below
+            if ((int) REMAINING.getAndAdd(this, -1) != 1) {
+                return;
+            }
+
+            for (var i = 0; i < awaitables.length; i++) {
+                if (awaitables[i] instanceof final BasicTask<?> task) {
+                    results[i] = valueOf(task);
+                }
+            }
+
+            succeed(finisher.apply(results));
+        }
+
+        @Override
+        protected void onFailure(final Throwable error) {
+            fail(error);
+        }
+    }
+
+    private static final class WhenAny<T> extends Join<T> {
+        private WhenAny(final Awaitable<?>[] awaitables, final Continuation<T> resume) {
+            super(awaitables, resume);
+        }
+
+        @Override
+        protected void onSuccess(final int index, final Object value) {
+            succeed((T) value);
+        }
+
+        @Override
+        protected void onFailure(final Throwable error) {
+            fail(error);
+        }
+    }
+
+    private static final class FirstN<T> extends Join<List<T>> {
+        private final Object[] results;
+        private volatile int successes;
+        private volatile int written;
+        private volatile int failures;
+
+        private FirstN(final Awaitable<?>[] awaitables, final Continuation<List<T>> resume, final int count) {
+            super(awaitables, resume);
+            this.results = new Object[count];
+        }
+
+        @Override
+        protected void start(final CoroutineExecutor executor) {
+            if (results.length == 0) {
+                succeed(List.of());
+                return;
+            }
+
+            super.start(executor);
+        }
+
+        @Override
+        protected void onSuccess(final int index, final Object value) {
+            final var slot = (int) SUCCESSES.getAndAdd(this, 1);
+
+            if (slot >= results.length) {
+                return;
+            }
+
+            results[slot] = value;
+
+            // Claiming a slot and writing it are two separate steps, so only the last writer may read the results.
+            if ((int) WRITTEN.getAndAdd(this, 1) == results.length - 1) {
+                succeed(Collections.unmodifiableList(Arrays.asList((T[]) results)));
+            }
+        }
+
+        @Override
+        protected void onFailure(final Throwable error) {
+            // fail once too many awaitables have failed for the rest to make up the count
+            if ((int) FAILURES.getAndAdd(this, 1) == awaitables.length - results.length) {
+                fail(error);
+            }
+        }
+    }
+
+    /**
+     * The awaitable of a combinator. Since it may be awaited more than once, the state of the most recent await is
+     * kept, to be able to cancel it.
+     */
+    private static final class Combinator<R> implements Awaitable<R> {
+        private final Function<Continuation<R>, Join<R>> factory;
+        private volatile Join<R> current;
+
+        private Combinator(final Function<Continuation<R>, Join<R>> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<R> resume) {
+            final var join = factory.apply(resume);
+            current = join;
+            join.start(executor);
+        }
+
+        @Override
+        public boolean cancel(final Continuation<R> resume) {
+            final var join = current;
+            return join != null && join.resume == resume && join.finish();
+        }
+    }
+
+    private static Object valueOf(final BasicTask<?> task) {
+        try {
+            return task.readyValue();
+        } catch (final Throwable th) {
+            throw new AssertionError("readyValue() of a successful task threw", th);
+        }
+    }
+
+    private static <R> Awaitable<R> whenAll(final Awaitable<?>[] awaitables, final Function<Object[], R> finisher) {
+        return new Combinator<>(resume -> new WhenAll<>(awaitables, resume, finisher));
+    }
+
+    private static <T> List<T> toList(final Object[] results) {
+        return Collections.unmodifiableList(Arrays.asList((T[]) results));
+    }
+
+    /**
+     * Awaits all the given awaitables. If any of them fails, the combinator fails with that error right away, and the
+     * rest are cancelled.
+     *
+     * @param awaitables The awaitables.
+     * @param <T>        The result type of the awaitables.
+     * @return The awaitable, which results in the results of the awaitables, in the same order.
+     */
+    public static <T> Awaitable<List<T>> whenAll(final List<? extends Awaitable<? extends T>> awaitables) {
+        return whenAll(awaitables.toArray(Awaitable[]::new), Awaitables::toList);
+    }
+
+    /**
+     * Awaits all the given awaitables.
+     *
+     * @param awaitables The awaitables.
+     * @param <T>        The result type of the awaitables.
+     * @return The awaitable, which results in the results of the awaitables, in the same order.
+     * @see Awaitables#whenAll(List)
+     */
+    @SafeVarargs
+    public static <T> Awaitable<List<T>> whenAll(final Awaitable<? extends T>... awaitables) {
+        // copied element by element, since handing the varargs array itself on could pollute the heap
+        final var copy = new Awaitable<?>[awaitables.length];
+
+        for (int i = 0; i < awaitables.length; i++) {
+            copy[i] = awaitables[i];
+        }
+
+        return whenAll(copy, Awaitables::toList);
+    }
+
+    /**
+     * Awaits two awaitables of different types.
+     *
+     * @param first  The first awaitable.
+     * @param second The second awaitable.
+     * @param <A>    The result type of the first awaitable.
+     * @param <B>    The result type of the second awaitable.
+     * @return The awaitable, which results in both results.
+     * @see Awaitables#whenAll(List)
+     */
+    public static <A, B> Awaitable<Pair<A, B>> awaitAll(final Awaitable<A> first, final Awaitable<B> second) {
+        return whenAll(
+            new Awaitable<?>[]{first, second},
+            results -> new Pair<>((A) results[0], (B) results[1])
+        );
+    }
+
+    /**
+     * Awaits three awaitables of different types.
+     *
+     * @param first  The first awaitable.
+     * @param second The second awaitable.
+     * @param third  The third awaitable.
+     * @param <A>    The result type of the first awaitable.
+     * @param <B>    The result type of the second awaitable.
+     * @param <C>    The result type of the third awaitable.
+     * @return The awaitable, which results in all three results.
+     * @see Awaitables#whenAll(List)
+     */
+    public static <A, B, C> Awaitable<Triple<A, B, C>> awaitAll(final Awaitable<A> first, final Awaitable<B> second,
+                                                                final Awaitable<C> third) {
+        return whenAll(
+            new Awaitable<?>[]{first, second, third},
+            results -> new Triple<>((A) results[0], (B) results[1], (C) results[2])
+        );
+    }
+
+    /**
+     * Awaits the first of the given awaitables to complete, whether successfully or not. The rest are cancelled.
+     *
+     * @param awaitables The awaitables, of which there must be at least one.
+     * @param <T>        The result type of the awaitables.
+     * @return The awaitable, which results in the result of the first awaitable to complete.
+     */
+    public static <T> Awaitable<T> whenAny(final List<? extends Awaitable<? extends T>> awaitables) {
+        return whenAny(awaitables.toArray(Awaitable[]::new));
+    }
+
+    /**
+     * Awaits the first of the given awaitables to complete.
+     *
+     * @param awaitables The awaitables, of which there must be at least one.
+     * @param <T>        The result type of the awaitables.
+     * @return The awaitable, which results in the result of the first awaitable to complete.
+     * @see Awaitables#whenAny(List)
+     */
+    @SafeVarargs
+    public static <T> Awaitable<T> whenAny(final Awaitable<? extends T>... awaitables) {
+        if (awaitables.length == 0) {
+            throw new IllegalArgumentException("whenAny requires at least one awaitable");
+        }
+
+        final var copy = new Awaitable<?>[awaitables.length];
+
+        for (int i = 0; i < awaitables.length; i++) {
+            copy[i] = awaitables[i];
+        }
+
+        return new Combinator<>(resume -> new WhenAny<>(copy, resume));
+    }
+
+    /**
+     * Awaits the first {@code count} of the given awaitables to complete successfully. Failures are tolerated as long
+     * as enough awaitables remain to make up the count; past that, the combinator fails with the error that made it
+     * impossible. Once decided, the rest are cancelled.
+     *
+     * @param count      The number of results to await.
+     * @param awaitables The awaitables, of which there must be at least {@code count}.
+     * @param <T>        The result type of the awaitables.
+     * @return The awaitable, which results in the first {@code count} results, in the order they completed.
+     */
+    public static <T> Awaitable<List<T>> awaitFirstN(final int count,
+                                                     final List<? extends Awaitable<? extends T>> awaitables) {
+        if (count < 0 || count > awaitables.size()) {
+            throw new IllegalArgumentException("count must be between 0 and the number of awaitables");
+        }
+
+        final var copy = awaitables.toArray(Awaitable[]::new);
+        return new Combinator<>(resume -> new FirstN<>(copy, resume, count));
+    }
+}
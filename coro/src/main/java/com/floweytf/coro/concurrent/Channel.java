@@ -0,0 +1,710 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A bounded queue for handing elements between coroutines, which is backed by an array ring buffer.
+ *
+ * <p>
+ * Sending and receiving is lock-free as long as the buffer is neither full nor empty: the awaitables returned by
+ * {@link #send(Object)} and {@link #receive()} are {@link Awaitable#isReady() ready} right away, so the coroutine
+ * continues without suspending. Only once the buffer is full (or empty) does the coroutine park its continuation, and it
+ * is handed its slot (or element) directly by the coroutine that makes room (or sends).
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var channel = Channel.<Row>mpsc(1024);
+ *
+ * // any number of producers
+ * Co.await(channel.send(row));
+ *
+ * // the single consumer
+ * while (true) {
+ *     final var batch = Co.await(channel.receiveBatch(256));
+ *
+ *     if (batch.isEmpty()) {
+ *         break;
+ *     }
+ *
+ *     store(batch);
+ * }
+ * }</pre>
+ *
+ * <p>
+ * Channels come in three variants, which differ in how many coroutines (or threads) may use either end at once:
+ * {@link #spsc(int)}, {@link #mpsc(int)} and {@link #mpmc(int)}. The single-ended variants avoid a compare-and-set on
+ * that end, but are only correct if that end is never used concurrently. Elements must not be {@code null}.
+ * </p>
+ *
+ * <p>
+ * Each awaitable returned by this class represents a single operation, and may only be awaited once.
+ * </p>
+ *
+ * @param <T> The type of the elements.
+ */
+public abstract class Channel<T> {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            HEAD = lookup.findVarHandle(Channel.class, "head", long.class);
+            TAIL = lookup.findVarHandle(Channel.class, "tail", long.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Something waiting in one of the queues of a channel, which is completed by whoever makes progress possible.
+     */
+    abstract static class Waiter {
+        static final int PENDING = 0;
+        static final int COMPLETED = 1;
+        static final int STALE = 2;
+
+        /**
+         * Attempts to complete this waiter, while holding the lock of the channel.
+         *
+         * @return {@link #COMPLETED} if this waiter has completed, {@link #PENDING} if it has to keep waiting, or
+         * {@link #STALE} if it no longer waits on this channel.
+         */
+        abstract int tryComplete();
+
+        /**
+         * Resumes the party that was waiting, once the lock of the channel has been released.
+         */
+        abstract void deliver();
+    }
+
+    /**
+     * A single send or receive. Once it has to wait, it is queued.
+     */
+    private abstract class Op<R> extends Waiter implements Awaitable<R> {
+        private boolean isAttempted;
+        private boolean isDone;
+        private Continuation<R> resume;
+        R result;
+        Throwable error;
+
+        /**
+         * Attempts the operation without waiting, storing its result.
+         *
+         * @return Whether the operation has completed, possibly with an error.
+         */
+        abstract boolean attempt();
+
+        /**
+         * The queue this operation waits in.
+         */
+        ArrayDeque<Waiter> queue() {
+            return receivers;
+        }
+
+        private boolean attemptOnce() {
+            if (!isAttempted) {
+                isAttempted = true;
+                isDone = attempt();
+
+                if (isDone && waiting != 0) {
+                    wakeWaiters();
+                }
+            }
+
+            return isDone;
+        }
+
+        @Override
+        int tryComplete() {
+            return attempt() ? COMPLETED : PENDING;
+        }
+
+        @Override
+        void deliver() {
+            if (error != null) {
+                resume.submitError(error);
+            } else {
+                resume.submit(result);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return attemptOnce();
+        }
+
+        @Override
+        public R readyValue() throws Throwable {
+            if (error != null) {
+                throw error;
+            }
+
+            return result;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<R> resume) {
+            this.resume = resume;
+
+            if (attemptOnce() || park(this, queue())) {
+                deliver();
+            }
+        }
+
+        @Override
+        public boolean cancel(final Continuation<R> resume) {
+            synchronized (lock) {
+                if (this.resume != resume || !queue().remove(this)) {
+                    return false;
+                }
+
+                updateWaiting();
+                return true;
+            }
+        }
+    }
+
+    private final class Send extends Op<Void> {
+        private final T value;
+
+        private Send(final T value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean attempt() {
+            if (isClosed) {
+                error = new ChannelClosedException();
+                return true;
+            }
+
+            return offer(value);
+        }
+
+        @Override
+        ArrayDeque<Waiter> queue() {
+            return senders;
+        }
+    }
+
+    private final class Receive extends Op<T> {
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean attempt() {
+            result = (T) poll();
+
+            if (result != null) {
+                return true;
+            }
+
+            if (isClosed) {
+                error = new ChannelClosedException();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private final class ReceiveBatch extends Op<List<T>> {
+        private final int maxElements;
+
+        private ReceiveBatch(final int maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        @Override
+        boolean attempt() {
+            final var elements = new ArrayList<T>();
+
+            if (drain(elements, maxElements) > 0 || isClosed) {
+                result = elements;
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private final Object[] elements;
+    // Each slot holds the position it may next be written at, or that position plus one once it has been written. This
+    // is what lets producers and consumers claim slots independently.
+    private final long[] sequences;
+    private final int mask;
+
+    // the position of the next element to receive
+    private volatile long head;
+    // the position of the next element to send
+    private volatile long tail;
+
+    // Guards the queues of parked operations. The number of parked operations is published in waiting, which is always
+    // written before a parking operation checks the buffer again, and read after every successful send or receive, so
+    // that a wakeup cannot be missed.
+    private final Object lock = new Object();
+    private final ArrayDeque<Waiter> senders = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> receivers = new ArrayDeque<>();
+    private volatile int waiting;
+    private volatile boolean isClosed;
+
+    private Channel(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+
+        // a slot must be able to tell the two positions apart, which takes at least two slots
+        final var size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+
+        elements = new Object[size];
+        sequences = new long[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    /**
+     * Creates a channel for a single producer and a single consumer.
+     *
+     * @param capacity The minimum capacity, which is rounded up to a power of two, and at least 2.
+     * @param <T>      The type of the elements.
+     * @return The channel.
+     */
+    public static <T> Channel<T> spsc(final int capacity) {
+        return new Spsc<>(capacity);
+    }
+
+    /**
+     * Creates a channel for any number of producers, and a single consumer.
+     *
+     * @param capacity The minimum capacity, which is rounded up to a power of two, and at least 2.
+     * @param <T>      The type of the elements.
+     * @return The channel.
+     */
+    public static <T> Channel<T> mpsc(final int capacity) {
+        return new Mpsc<>(capacity);
+    }
+
+    /**
+     * Creates a channel for any number of producers and consumers.
+     *
+     * @param capacity The minimum capacity, which is rounded up to a power of two, and at least 2.
+     * @param <T>      The type of the elements.
+     * @return The channel.
+     */
+    public static <T> Channel<T> mpmc(final int capacity) {
+        return new Mpmc<>(capacity);
+    }
+
+    abstract boolean offer(Object value);
+
+    abstract Object poll();
+
+    final boolean offerSingle(final Object value) {
+        final var pos = (long) TAIL.getOpaque(this);
+        final var index = (int) pos & mask;
+
+        if ((long) SEQUENCE.getVolatile(sequences, index) != pos) {
+            return false;
+        }
+
+        elements[index] = value;
+        TAIL.setOpaque(this, pos + 1);
+        SEQUENCE.setVolatile(sequences, index, pos + 1);
+        return true;
+    }
+
+    final boolean offerMulti(final Object value) {
+        var pos = (long) TAIL.getVolatile(this);
+
+        while (true) {
+            final var index = (int) pos & mask;
+            final var diff = (long) SEQUENCE.getVolatile(sequences, index) - pos;
+
+            if (diff == 0) {
+                if (TAIL.compareAndSet(this, pos, pos + 1)) {
+                    elements[index] = value;
+                    SEQUENCE.setVolatile(sequences, index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // the slot still holds the element from the previous lap
+                return false;
+            }
+
+            pos = (long) TAIL.getVolatile(this);
+        }
+    }
+
+    final Object pollSingle() {
+        final var pos = (long) HEAD.getOpaque(this);
+        final var index = (int) pos & mask;
+
+        if ((long) SEQUENCE.getVolatile(sequences, index) != pos + 1) {
+            return null;
+        }
+
+        final var value = elements[index];
+        elements[index] = null;
+        HEAD.setOpaque(this, pos + 1);
+        SEQUENCE.setVolatile(sequences, index, pos + mask + 1);
+        return value;
+    }
+
+    final Object pollMulti() {
+        var pos = (long) HEAD.getVolatile(this);
+
+        while (true) {
+            final var index = (int) pos & mask;
+            final var diff = (long) SEQUENCE.getVolatile(sequences, index) - (pos + 1);
+
+            if (diff == 0) {
+                if (HEAD.compareAndSet(this, pos, pos + 1)) {
+                    final var value = elements[index];
+                    elements[index] = null;
+                    SEQUENCE.setVolatile(sequences, index, pos + mask + 1);
+                    return value;
+                }
+            } else if (diff < 0) {
+                // the slot hasn't been written in this lap yet
+                return null;
+            }
+
+            pos = (long) HEAD.getVolatile(this);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int drain(final Collection<? super T> sink, final int maxElements) {
+        int count = 0;
+
+        while (count < maxElements) {
+            final var value = poll();
+
+            if (value == null) {
+                break;
+            }
+
+            sink.add((T) value);
+            count++;
+        }
+
+        return count;
+    }
+
+    private void updateWaiting() {
+        waiting = senders.size() + receivers.size();
+    }
+
+    /**
+     * Queues a waiter that could not complete right away.
+     *
+     * @return Whether the waiter has completed after all (or no longer waits), and has not been queued.
+     */
+    private boolean park(final Waiter waiter, final ArrayDeque<Waiter> queue) {
+        synchronized (lock) {
+            queue.addLast(waiter);
+            updateWaiting();
+
+            // an operation from the other end may have completed before it could see this one
+            if (waiter.tryComplete() == Waiter.PENDING) {
+                return false;
+            }
+
+            queue.removeLast();
+            updateWaiting();
+        }
+
+        if (waiting != 0) {
+            wakeWaiters();
+        }
+
+        return true;
+    }
+
+    /**
+     * Queues a waiter for an element, which polls the channel itself once it is attempted.
+     *
+     * @return Whether the waiter has completed after all (or no longer waits), and has not been queued.
+     */
+    boolean parkReceiver(final Waiter waiter) {
+        return park(waiter, receivers);
+    }
+
+    /**
+     * Removes a waiter queued with {@link #parkReceiver(Waiter)}, if it is still queued.
+     */
+    void unparkReceiver(final Waiter waiter) {
+        synchronized (lock) {
+            if (receivers.remove(waiter)) {
+                updateWaiting();
+            }
+        }
+    }
+
+    /**
+     * Completes the queued waiters that are now able to complete. The waiters are attempted while holding the lock,
+     * so a queued operation stands in for the end of the channel it belongs to.
+     */
+    private void wakeWaiters() {
+        while (true) {
+            Waiter waiter;
+
+            synchronized (lock) {
+                waiter = takeCompleted(receivers);
+
+                if (waiter == null) {
+                    waiter = takeCompleted(senders);
+                }
+
+                updateWaiting();
+            }
+
+            if (waiter == null) {
+                return;
+            }
+
+            waiter.deliver();
+        }
+    }
+
+    private static Waiter takeCompleted(final ArrayDeque<Waiter> queue) {
+        while (true) {
+            final var waiter = queue.peekFirst();
+
+            if (waiter == null) {
+                return null;
+            }
+
+            final var status = waiter.tryComplete();
+
+            if (status == Waiter.PENDING) {
+                return null;
+            }
+
+            queue.pollFirst();
+
+            // a stale waiter has been completed elsewhere, such as by another branch of a select
+            if (status == Waiter.COMPLETED) {
+                return waiter;
+            }
+        }
+    }
+
+    /**
+     * Sends an element, waiting for room in the buffer if it is full.
+     *
+     * @param value The element.
+     * @return An awaitable, which completes once the element has been added to the buffer, or throws a
+     * {@link ChannelClosedException} if this channel is closed.
+     */
+    public Awaitable<Void> send(final T value) {
+        return new Send(Objects.requireNonNull(value));
+    }
+
+    /**
+     * Receives an element, waiting for one to be sent if the buffer is empty.
+     *
+     * @return An awaitable, which results in the element, or throws a {@link ChannelClosedException} if this channel
+     * is closed and has no elements left.
+     */
+    public Awaitable<T> receive() {
+        return new Receive();
+    }
+
+    /**
+     * Receives as many elements as are available, up to {@code maxElements}, waiting for one to be sent if the buffer
+     * is empty. This moves many elements with a single suspension.
+     *
+     * @param maxElements The maximum number of elements.
+     * @return An awaitable, which results in the elements, and is only empty once this channel is closed and has no
+     * elements left.
+     */
+    public Awaitable<List<T>> receiveBatch(final int maxElements) {
+        if (maxElements <= 0) {
+            throw new IllegalArgumentException("maxElements must be positive");
+        }
+
+        return new ReceiveBatch(maxElements);
+    }
+
+    /**
+     * Sends an element if there is room in the buffer, without waiting.
+     *
+     * @param value The element.
+     * @return Whether the element was sent, which is never the case once this channel is closed.
+     */
+    public boolean trySend(final T value) {
+        Objects.requireNonNull(value);
+
+        if (isClosed || !offer(value)) {
+            return false;
+        }
+
+        if (waiting != 0) {
+            wakeWaiters();
+        }
+
+        return true;
+    }
+
+    /**
+     * Receives an element if there is one in the buffer, without waiting.
+     *
+     * @return The element, or {@code null} if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T tryReceive() {
+        final var value = (T) poll();
+
+        if (value != null && waiting != 0) {
+            wakeWaiters();
+        }
+
+        return value;
+    }
+
+    /**
+     * Moves the elements in the buffer to {@code sink}, without waiting.
+     *
+     * @param sink        The collection to add the elements to.
+     * @param maxElements The maximum number of elements.
+     * @return The number of elements moved.
+     */
+    public int drainTo(final Collection<? super T> sink, final int maxElements) {
+        final var count = drain(sink, maxElements);
+
+        if (count > 0 && waiting != 0) {
+            wakeWaiters();
+        }
+
+        return count;
+    }
+
+    /**
+     * Closes this channel. Sending fails from now on, including the sends that are waiting for room. Receiving
+     * still obtains the elements left in the buffer, after which it fails as well. Elements sent concurrently with
+     * closing may or may not be accepted.
+     */
+    public void close() {
+        final List<Waiter> woken;
+
+        synchronized (lock) {
+            if (isClosed) {
+                return;
+            }
+
+            isClosed = true;
+            woken = new ArrayList<>(senders.size() + receivers.size());
+
+            for (final var waiter : senders) {
+                if (waiter.tryComplete() == Waiter.COMPLETED) {
+                    woken.add(waiter);
+                }
+            }
+
+            // receivers only wait while the buffer is empty, so they see the channel as closed
+            for (final var waiter : receivers) {
+                if (waiter.tryComplete() == Waiter.COMPLETED) {
+                    woken.add(waiter);
+                }
+            }
+
+            senders.clear();
+            receivers.clear();
+            updateWaiting();
+        }
+
+        woken.forEach(Waiter::deliver);
+    }
+
+    /**
+     * Checks whether this channel has been closed.
+     *
+     * @return Whether this channel has been closed.
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Obtains the number of elements the buffer holds.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Estimates the number of elements in the buffer, which may be out of date by the time it returns.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        final var size = (long) TAIL.getVolatile(this) - (long) HEAD.getVolatile(this);
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    private static final class Spsc<T> extends Channel<T> {
+        private Spsc(final int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        boolean offer(final Object value) {
+            return offerSingle(value);
+        }
+
+        @Override
+        Object poll() {
+            return pollSingle();
+        }
+    }
+
+    private static final class Mpsc<T> extends Channel<T> {
+        private Mpsc(final int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        boolean offer(final Object value) {
+            return offerMulti(value);
+        }
+
+        @Override
+        Object poll() {
+            return pollSingle();
+        }
+    }
+
+    private static final class Mpmc<T> extends Channel<T> {
+        private Mpmc(final int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        boolean offer(final Object value) {
+            return offerMulti(value);
+        }
+
+        @Override
+        Object poll() {
+            return pollMulti();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.floweytf.coro.concurrent;
+
+/**
+ * Thrown when sending to a {@link Channel} that has been closed, or when receiving from a closed channel that has no
+ * elements left.
+ */
+public final class ChannelClosedException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     */
+    public ChannelClosedException() {
+        super("Channel is closed");
+    }
+}
@@ -0,0 +1,572 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.internal.BasicTask;
+import com.floweytf.coro.internal.CompletionListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Awaits whichever of several channels and awaitables completes first, which is decided exactly once.
+ *
+ * <p>
+ * A select is built once, with a branch per source, and may then be awaited any number of times, one await at a time.
+ * Each await results in the index of the winning branch, and the value of the winner is obtained with {@link #value()}.
+ * A {@link #onReceive(Channel) receive} branch takes an element from its channel only if it wins, so no element is ever
+ * lost to a branch that didn't. An {@link #onAwait(Supplier) await} branch obtains a new awaitable for every await,
+ * which is how timers and tasks take part; if such an awaitable completes after another branch has won, its result is
+ * dropped.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var select = new Select<Message>();
+ *
+ * for (final var upstream : upstreams) {
+ *     select.onReceive(upstream);
+ * }
+ *
+ * select.onAwait(() -> timer.sleep(heartbeat));
+ *
+ * while (true) {
+ *     final var index = Co.await(select);
+ *
+ *     if (index == upstreams.size()) {
+ *         sendHeartbeat();
+ *     } else {
+ *         forward(index, select.value());
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>
+ * If some branches are ready when the select is awaited, the first of them wins without suspending, starting from the
+ * branch after the previous winner, so a busy branch cannot starve the others. Otherwise, the select waits in the queue
+ * of every channel, and the losers are unregistered once a branch wins. The branches and the waiters they register are
+ * allocated once, so awaiting a select only allocates for its await branches.
+ * </p>
+ *
+ * @param <T> The common type of the values of the branches.
+ */
+public final class Select<T> implements Awaitable<Integer> {
+    private static final VarHandle STATE;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            STATE = lookup.findVarHandle(Select.class, "state", long.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // The state is the number of the current await, shifted left, combined with one of the phases below. While the
+    // branches are being registered, a winner is resumed by the registering thread rather than the one that decided it,
+    // so that no branch is registered after the losers have been unregistered. Once an await has been decided, either
+    // way, the branches are unregistered without holding a claim, since unregistering a receive branch takes the lock of
+    // its channel, which a sender may be holding while it claims.
+    private static final int PHASE_BITS = 4;
+    private static final long PHASE_MASK = (1 << PHASE_BITS) - 1;
+
+    private static final int IDLE = 0;
+    private static final int REGISTERING = 1;
+    private static final int WAITING = 2;
+    private static final int CLAIMING_REGISTERING = 3;
+    private static final int CLAIMING = 4;
+    private static final int WON_REGISTERING = 5;
+    private static final int WON = 6;
+    private static final int CANCELLED_REGISTERING = 7;
+    private static final int CANCELLED = 8;
+
+    private interface Branch {
+        /**
+         * Prepares this branch for an await.
+         */
+        void prepare();
+
+        /**
+         * Attempts to win without waiting, storing the value of this branch.
+         */
+        boolean tryReady();
+
+        /**
+         * Starts waiting for this branch to complete.
+         */
+        void register(CoroutineExecutor executor);
+
+        /**
+         * Stops waiting for this branch, which has lost.
+         */
+        void unregister();
+    }
+
+    private final class ReceiveBranch extends Channel.Waiter implements Branch {
+        private final Channel<? extends T> channel;
+        private final int index;
+        // set by tryComplete() when it's up to deliver() to resume the winner, which is always called by the same thread
+        private boolean shouldFinish;
+        private boolean isRegistered;
+
+        private ReceiveBranch(final Channel<? extends T> channel, final int index) {
+            this.channel = channel;
+            this.index = index;
+        }
+
+        @Override
+        public void prepare() {
+        }
+
+        @Override
+        public boolean tryReady() {
+            final var element = channel.tryReceive();
+
+            if (element == null && !channel.isClosed()) {
+                return false;
+            }
+
+            value = element;
+            error = null;
+            return true;
+        }
+
+        @Override
+        public void register(final CoroutineExecutor executor) {
+            // if this completes right away, the registering thread resumes the winner anyway
+            isRegistered = true;
+            channel.parkReceiver(this);
+        }
+
+        @Override
+        public void unregister() {
+            if (isRegistered) {
+                isRegistered = false;
+                channel.unparkReceiver(this);
+            }
+        }
+
+        @Override
+        int tryComplete() {
+            final var previous = claim(-1);
+
+            if (previous < 0) {
+                return STALE;
+            }
+
+            final var element = channel.poll();
+
+            if (element == null && !channel.isClosed()) {
+                STATE.setVolatile(Select.this, previous);
+                return PENDING;
+            }
+
+            shouldFinish = decide(previous, index, element, null);
+            return COMPLETED;
+        }
+
+        @Override
+        void deliver() {
+            if (shouldFinish) {
+                shouldFinish = false;
+                finish();
+            }
+        }
+    }
+
+    private final class AwaitBranch implements Branch {
+        private final Supplier<? extends Awaitable<? extends T>> supplier;
+        private final int index;
+        private Awaitable<? extends T> current;
+        private Pending pending;
+
+        private AwaitBranch(final Supplier<? extends Awaitable<? extends T>> supplier, final int index) {
+            this.supplier = supplier;
+            this.index = index;
+        }
+
+        @Override
+        public void prepare() {
+            current = supplier.get();
+        }
+
+        @Override
+        public boolean tryReady() {
+            if (!current.isReady()) {
+                return false;
+            }
+
+            try {
+                value = current.readyValue();
+                error = null;
+            } catch (final Throwable th) {
+                value = null;
+                error = th;
+            }
+
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void register(final CoroutineExecutor executor) {
+            final var newPending = new Pending(index, (long) STATE.getVolatile(Select.this) >>> PHASE_BITS);
+            pending = newPending;
+
+            // tasks are listened to, so that a loser can be unregistered without cancelling it
+            if (current instanceof final BasicTask<?> task) {
+                task.begin(executor);
+
+                if (!task.addListener(newPending)) {
+                    newPending.onTaskComplete(task);
+                }
+
+                return;
+            }
+
+            try {
+                ((Awaitable) current).execute(executor, newPending);
+            } catch (final Throwable th) {
+                newPending.submitError(th);
+            }
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void unregister() {
+            if (pending != null) {
+                if (current instanceof final BasicTask<?> task) {
+                    task.removeListener(pending);
+                } else {
+                    ((Awaitable) current).cancel(pending);
+                }
+            }
+
+            pending = null;
+            current = null;
+        }
+    }
+
+    /**
+     * The continuation of an await branch, for a single await of the select.
+     */
+    private final class Pending implements Continuation<Object>, CompletionListener {
+        private final int index;
+        private final long round;
+
+        private Pending(final int index, final long round) {
+            this.index = index;
+            this.round = round;
+        }
+
+        private void complete(final Object result, final Throwable failure) {
+            final var previous = claim(round);
+
+            if (previous >= 0 && decide(previous, index, result, failure)) {
+                finish();
+            }
+        }
+
+        @Override
+        public void submit(final Object result) {
+            complete(result, null);
+        }
+
+        @Override
+        public void submitError(final Throwable failure) {
+            complete(null, failure);
+        }
+
+        @Override
+        public void onTaskComplete(final BasicTask<?> task) {
+            final var failure = task.readyError();
+
+            if (failure != null) {
+                complete(null, failure);
+                return;
+            }
+
+            try {
+                complete(task.readyValue(), null);
+            } catch (final Throwable th) {
+                throw new AssertionError("readyValue() of a successful task threw", th);
+            }
+        }
+    }
+
+    private Branch[] branches = new Branch[0];
+    private volatile long state;
+    private Continuation<Integer> resume;
+    private boolean isPrepared;
+    // whether a branch has won without waiting, since isReady() takes the element of a receive branch
+    private boolean isReadyWon;
+    // the branch to try first, which is the one after the previous winner
+    private int start;
+
+    // the outcome of the current await, which is published by the state
+    private int winner;
+    private Object value;
+    private Throwable error;
+
+    private Select<T> add(final Branch branch) {
+        if (isPrepared || ((long) STATE.getVolatile(this) & PHASE_MASK) != IDLE) {
+            throw new IllegalStateException("Select cannot be modified while it is awaited");
+        }
+
+        branches = Arrays.copyOf(branches, branches.length + 1);
+        branches[branches.length - 1] = branch;
+        return this;
+    }
+
+    /**
+     * Adds a branch which receives an element from a channel. If the channel is closed, and has no elements left, the
+     * branch wins with a {@code null} value.
+     *
+     * @param channel The channel.
+     * @return This select.
+     */
+    public Select<T> onReceive(final Channel<? extends T> channel) {
+        return add(new ReceiveBranch(channel, branches.length));
+    }
+
+    /**
+     * Adds a branch which awaits an awaitable. A new awaitable is obtained for every await of this select. If the
+     * awaitable fails, and wins, awaiting the select throws its error.
+     *
+     * @param awaitable The supplier of the awaitable, such as {@code () -> timer.sleep(timeout)}.
+     * @return This select.
+     */
+    public Select<T> onAwait(final Supplier<? extends Awaitable<? extends T>> awaitable) {
+        return add(new AwaitBranch(awaitable, branches.length));
+    }
+
+    /**
+     * Obtains the value of the branch that won the most recent await.
+     *
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    public T value() {
+        return (T) value;
+    }
+
+    /**
+     * Claims the right to decide the winner of the current await, or to cancel it. Claims are only ever held briefly,
+     * without waiting on anything, so a competing claim spins until it is released.
+     *
+     * @param round The await to claim, or {@code -1} for the current one.
+     * @return The state before the claim, or {@code -1} if the await has already been decided.
+     */
+    private long claim(final long round) {
+        while (true) {
+            final var current = (long) STATE.getVolatile(this);
+            final var phase = (int) (current & PHASE_MASK);
+
+            if (round >= 0 && current >>> PHASE_BITS != round) {
+                return -1;
+            }
+
+            if (phase == CLAIMING || phase == CLAIMING_REGISTERING) {
+                Thread.onSpinWait();
+            } else if (phase == REGISTERING) {
+                if (STATE.compareAndSet(this, current, withPhase(current, CLAIMING_REGISTERING))) {
+                    return current;
+                }
+            } else if (phase == WAITING) {
+                if (STATE.compareAndSet(this, current, withPhase(current, CLAIMING))) {
+                    return current;
+                }
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Records the winner of a claimed await.
+     *
+     * @return Whether the caller has to resume the winner, as the branches have all been registered.
+     */
+    private boolean decide(final long previous, final int index, final Object result, final Throwable failure) {
+        winner = index;
+        value = result;
+        error = failure;
+
+        if ((previous & PHASE_MASK) == REGISTERING) {
+            STATE.setVolatile(this, withPhase(previous, WON_REGISTERING));
+            return false;
+        }
+
+        STATE.setVolatile(this, withPhase(previous, WON));
+        return true;
+    }
+
+    private static long withPhase(final long state, final int phase) {
+        return (state & ~PHASE_MASK) | phase;
+    }
+
+    /**
+     * Unregisters the branches, and ends the current await.
+     *
+     * @param index The winner, or {@code -1} if the await was cancelled.
+     */
+    private void endAwait(final int index) {
+        for (final var branch : branches) {
+            branch.unregister();
+        }
+
+        if (index >= 0) {
+            start = (index + 1) % branches.length;
+        }
+
+        resume = null;
+        isPrepared = false;
+        isReadyWon = false;
+
+        final var current = (long) STATE.getVolatile(this);
+        STATE.setVolatile(this, ((current >>> PHASE_BITS) + 1) << PHASE_BITS | IDLE);
+    }
+
+    private void finish() {
+        final var continuation = resume;
+        final var index = winner;
+        final var failure = error;
+
+        endAwait(index);
+
+        if (failure != null) {
+            continuation.submitError(failure);
+        } else {
+            continuation.submit(index);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        if (isReadyWon) {
+            return true;
+        }
+
+        if (!isPrepared) {
+            if (branches.length == 0) {
+                throw new IllegalStateException("Select has no branches");
+            }
+
+            isPrepared = true;
+
+            for (final var branch : branches) {
+                branch.prepare();
+            }
+        }
+
+        for (var i = 0; i < branches.length; i++) {
+            final var index = (start + i) % branches.length;
+
+            if (branches[index].tryReady()) {
+                winner = index;
+                isReadyWon = true;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Integer readyValue() throws Throwable {
+        final var index = winner;
+        final var failure = error;
+
+        endAwait(index);
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return index;
+    }
+
+    @Override
+    public void execute(final CoroutineExecutor executor, final Continuation<Integer> resume) {
+        if (!isPrepared && isReady()) {
+            final var index = winner;
+            final var failure = error;
+
+            endAwait(index);
+
+            if (failure != null) {
+                resume.submitError(failure);
+            } else {
+                resume.submit(index);
+            }
+
+            return;
+        }
+
+        this.resume = resume;
+
+        final var initial = (long) STATE.getVolatile(this);
+        STATE.setVolatile(this, withPhase(initial, REGISTERING));
+
+        for (var i = 0; i < branches.length; i++) {
+            branches[(start + i) % branches.length].register(executor);
+
+            final var phase = (int) ((long) STATE.getVolatile(this) & PHASE_MASK);
+
+            if (phase == WON_REGISTERING || phase == CANCELLED_REGISTERING) {
+                break;
+            }
+        }
+
+        while (true) {
+            final var current = (long) STATE.getVolatile(this);
+            final var phase = (int) (current & PHASE_MASK);
+
+            if (phase == REGISTERING) {
+                if (STATE.compareAndSet(this, current, withPhase(current, WAITING))) {
+                    return;
+                }
+            } else if (phase == CLAIMING_REGISTERING) {
+                Thread.onSpinWait();
+            } else if (phase == WON_REGISTERING) {
+                finish();
+                return;
+            } else {
+                // cancelled while registering, and the task has already been resumed
+                endAwait(-1);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(final Continuation<Integer> resume) {
+        while (true) {
+            final var current = (long) STATE.getVolatile(this);
+            final var phase = (int) (current & PHASE_MASK);
+
+            if ((phase == REGISTERING || phase == WAITING) && this.resume != resume) {
+                return false;
+            }
+
+            if (phase == CLAIMING || phase == CLAIMING_REGISTERING) {
+                Thread.onSpinWait();
+            } else if (phase == REGISTERING) {
+                if (STATE.compareAndSet(this, current, withPhase(current, CANCELLED_REGISTERING))) {
+                    return true;
+                }
+            } else if (phase == WAITING) {
+                if (STATE.compareAndSet(this, current, withPhase(current, CANCELLED))) {
+                    endAwait(-1);
+                    return true;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.annotations.MakeCoro;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.internal.BasicTask;
+import com.floweytf.coro.internal.CompletionListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * A scope for structured concurrency, which owns the child tasks launched in it.
+ *
+ * <p>
+ * A group is opened by a coroutine with {@code Co.await(TaskGroup.open())}, and launches its children on the executor
+ * of that coroutine. Awaiting the group joins all of its children. If a child fails, the remaining children are
+ * cancelled, and joining the group throws the error of the first child that failed. The group is bound to the
+ * coroutine that opened it: once that coroutine completes, any children that are still running are cancelled, so a
+ * failing coroutine never leaves orphaned work behind.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var group = Co.await(TaskGroup.open());
+ *
+ * for (final var url : urls) {
+ *     group.launch(() -> {
+ *         results.add(Co.await(fetch(url)));
+ *         return Co.ret();
+ *     });
+ * }
+ *
+ * Co.await(group);
+ * }</pre>
+ *
+ * <p>
+ * Joining waits for every child to finish, including the ones that are being cancelled, so that no child outlives the
+ * join. Likewise, cancelling the coroutine that is joining the group cancels all of the children, and the coroutine
+ * is resumed once they have finished.
+ * </p>
+ */
+public final class TaskGroup implements Awaitable<Void> {
+    private static final VarHandle HEAD;
+    private static final VarHandle PENDING;
+    private static final VarHandle ERROR;
+    private static final VarHandle JOINER;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            HEAD = lookup.findVarHandle(TaskGroup.class, "head", Node.class);
+            PENDING = lookup.findVarHandle(TaskGroup.class, "pending", int.class);
+            ERROR = lookup.findVarHandle(TaskGroup.class, "error", Throwable.class);
+            JOINER = lookup.findVarHandle(TaskGroup.class, "joiner", Continuation.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Awaitable.Unwrapped<TaskGroup> OPEN = (executor, resume) -> {
+        final var group = new TaskGroup(executor);
+
+        if (resume instanceof final Continuation.Coroutine<TaskGroup> coroutine) {
+            ((BasicTask<?>) coroutine.theTask()).addListener(task -> group.cancel());
+        }
+
+        resume.submit(group);
+    };
+
+    /**
+     * A child of the group, which is linked into a lock-free stack, and doubles as the completion listener of the
+     * child.
+     */
+    private final class Node implements CompletionListener {
+        private final BasicTask<?> task;
+        private final Node next;
+        private volatile boolean isDone;
+
+        private Node(final BasicTask<?> task, final Node next) {
+            this.task = task;
+            this.next = next;
+        }
+
+        @Override
+        public void onTaskComplete(final BasicTask<?> task) {
+            isDone = true;
+            childCompleted(task.readyError());
+        }
+    }
+
+    private final CoroutineExecutor executor;
+
+    // the children, most recently launched first, from which finished children are popped
+    private volatile Node head;
+    private volatile int pending;
+    private volatile Throwable error;
+    private volatile Continuation<Void> joiner;
+    // the joiner whose task has been cancelled while joining, which throws once it is resumed
+    private volatile Continuation<Void> cancelledJoiner;
+    private volatile boolean isCancelled;
+
+    private TaskGroup(final CoroutineExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Opens a group, which is bound to the awaiting coroutine, and launches its children on the executor of that
+     * coroutine. Awaiting this does not suspend the coroutine.
+     *
+     * @return The awaitable, which results in the group.
+     */
+    public static Awaitable<TaskGroup> open() {
+        return OPEN;
+    }
+
+    /**
+     * Launches a child coroutine in this group.
+     *
+     * @param coroutine The coroutine to launch, which may be a <i>coroutine lambda</i>.
+     * @param <T>       The result type of the coroutine.
+     * @return The task of the child, which has begun.
+     */
+    public <T> Task<T> launch(@MakeCoro final Supplier<Task<T>> coroutine) {
+        return spawn(coroutine.get());
+    }
+
+    /**
+     * Adopts a task as a child of this group, and begins it on the executor of the group, unless it has already begun.
+     *
+     * @param task The task.
+     * @param <T>  The result type of the task.
+     * @return {@code task}
+     */
+    public <T> Task<T> spawn(final Task<T> task) {
+        final var basicTask = (BasicTask<T>) task;
+
+        PENDING.getAndAdd(this, 1);
+
+        Node current;
+        Node node;
+
+        do {
+            current = head;
+            node = new Node(basicTask, current);
+        } while (!HEAD.weakCompareAndSet(this, current, node));
+
+        // The group may have been cancelled before it could see this child. In that case, the child completes with a
+        // CancellationException as soon as it begins, without running.
+        if (isCancelled) {
+            basicTask.cancel();
+        }
+
+        basicTask.begin(executor);
+
+        if (!basicTask.addListener(node)) {
+            node.onTaskComplete(basicTask);
+        }
+
+        return task;
+    }
+
+    /**
+     * Cancels all the children of this group, including any that are launched afterward.
+     */
+    public void cancel() {
+        isCancelled = true;
+
+        for (var node = head; node != null; node = node.next) {
+            if (!node.isDone) {
+                node.task.cancel();
+            }
+        }
+    }
+
+    /**
+     * Checks whether this group has been cancelled, either explicitly, because a child failed, or because the
+     * coroutine that opened it has completed.
+     *
+     * @return Whether this group has been cancelled.
+     */
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    private void childCompleted(final Throwable childError) {
+        if (childError != null && ERROR.compareAndSet(this, null, childError)) {
+            cancel();
+        }
+
+        if ((int) PENDING.getAndAdd(this, -1) == 1) {
+            final var waiter = (Continuation<Void>) JOINER.getAndSet(this, null);
+
+            if (waiter != null) {
+                resumeJoiner(waiter);
+            }
+        }
+
+        // Pop finished children off the stack, so a long-lived group doesn't accumulate them. Children that finish out
+        // of order are popped once the ones launched after them have finished as well.
+        Node current;
+
+        while ((current = head) != null && current.isDone) {
+            HEAD.compareAndSet(this, current, current.next);
+        }
+    }
+
+    private void resumeJoiner(final Continuation<Void> waiter) {
+        final var currentError = error;
+
+        if (currentError != null) {
+            waiter.submitError(currentError);
+        } else if (cancelledJoiner == waiter) {
+            waiter.submitError(new CancellationException());
+        } else {
+            waiter.submit(null);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return pending == 0;
+    }
+
+    @Override
+    public Void readyValue() throws Throwable {
+        final var currentError = error;
+
+        if (currentError != null) {
+            throw currentError;
+        }
+
+        return null;
+    }
+
+    /**
+     * Joins all the children of this group. Only a single coroutine may join a group at a time.
+     *
+     * @param executor The {@link CoroutineExecutor} responsible for managing the execution context of the coroutine.
+     * @param resume   The continuation, which is resumed once all children have finished.
+     */
+    @Override
+    public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+        if (!JOINER.compareAndSet(this, null, resume)) {
+            throw new IllegalStateException("TaskGroup may only be joined by one coroutine at a time");
+        }
+
+        // the last child may have finished before it could see the joiner
+        if (pending == 0 && JOINER.compareAndSet(this, resume, null)) {
+            resumeJoiner(resume);
+        }
+    }
+
+    @Override
+    public boolean cancel(final Continuation<Void> resume) {
+        // The joiner stays registered, so it's resumed once the cancelled children have finished, and notices the
+        // cancellation then.
+        if (joiner == resume) {
+            cancelledJoiner = resume;
+            cancel();
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.floweytf.coro.concurrent;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A lock-free stack of parked continuations, which are all released at once.
+ *
+ * <p>
+ * The continuations are expected to come from {@link Awaitable.Unwrapped} awaitables, so that submitting to them
+ * resumes the coroutine right away. Releasing groups the waiters by the executor they were suspended on, and dispatches
+ * a single task per executor, which resumes all of its waiters in the order they arrived, rather than dispatching a
+ * task per waiter.
+ * </p>
+ *
+ * <p>
+ * Once closed, pushing fails, which tells the waiter that it has been released already. Cancelled waiters are skipped
+ * by the next release, and are unlinked once enough of them have piled up, so a stack that is never released doesn't
+ * grow with every cancellation.
+ * </p>
+ */
+final class WaiterStack {
+    private static final VarHandle HEAD;
+    private static final VarHandle NODE_STATE;
+    private static final VarHandle CANCELLED_COUNT;
+    private static final VarHandle COMPACTING;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            HEAD = lookup.findVarHandle(WaiterStack.class, "head", Node.class);
+            NODE_STATE = lookup.findVarHandle(Node.class, "state", int.class);
+            CANCELLED_COUNT = lookup.findVarHandle(WaiterStack.class, "cancelledCount", int.class);
+            COMPACTING = lookup.findVarHandle(WaiterStack.class, "isCompacting", boolean.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final int WAITING = 0;
+    private static final int RESUMED = 1;
+    private static final int CANCELLED = 2;
+
+    // the least number of cancelled waiters that are unlinked at once
+    private static final int MIN_COMPACT_THRESHOLD = 32;
+
+    private static final class Node {
+        private final CoroutineExecutor executor;
+        private final Continuation<Object> resume;
+        private volatile int state;
+        private Node next;
+
+        private Node(final CoroutineExecutor executor, final Continuation<Object> resume) {
+            this.executor = executor;
+            this.resume = resume;
+        }
+    }
+
+    private static final Node CLOSED = new Node(null, null);
+
+    private volatile Node head;
+
+    // An estimate of the number of cancelled waiters, after which they are unlinked. The threshold grows with the
+    // number of waiters that are left, so that the cost of compacting is spread over the cancellations.
+    private volatile int cancelledCount;
+    private volatile int compactThreshold = MIN_COMPACT_THRESHOLD;
+    // a compaction rewrites the links of the nodes, so a release waits for it to finish before taking them over
+    private volatile boolean isCompacting;
+
+    WaiterStack(final boolean isClosed) {
+        head = isClosed ? CLOSED : null;
+    }
+
+    /**
+     * Parks a continuation.
+     *
+     * @return Whether it was parked, which is {@code false} once this stack is closed.
+     */
+    @SuppressWarnings("unchecked")
+    boolean push(final CoroutineExecutor executor, final Continuation<?> resume) {
+        final var node = new Node(executor, (Continuation<Object>) resume);
+
+        while (true) {
+            final var current = head;
+
+            if (current == CLOSED) {
+                return false;
+            }
+
+            node.next = current;
+
+            if (HEAD.weakCompareAndSet(this, current, node)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Withdraws a parked continuation.
+     *
+     * @return Whether it was withdrawn, and won't be resumed.
+     */
+    boolean cancel(final Continuation<?> resume) {
+        for (var node = head; node != null && node != CLOSED; node = node.next) {
+            if (node.resume == resume) {
+                if (!NODE_STATE.compareAndSet(node, WAITING, CANCELLED)) {
+                    return false;
+                }
+
+                if ((int) CANCELLED_COUNT.getAndAdd(this, 1) + 1 >= compactThreshold) {
+                    compact();
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Unlinks the cancelled waiters, unless another thread is already doing so. The topmost node is left alone, since
+     * it can't be unlinked without racing with pushes; the next release skips it.
+     */
+    private void compact() {
+        if (!COMPACTING.compareAndSet(this, false, true)) {
+            return;
+        }
+
+        try {
+            final var top = head;
+            var remaining = 0;
+
+            if (top != null && top != CLOSED) {
+                var previous = top;
+
+                for (var node = top.next; node != null; node = node.next) {
+                    if (node.state == CANCELLED) {
+                        previous.next = node.next;
+                    } else {
+                        previous = node;
+                        remaining++;
+                    }
+                }
+            }
+
+            cancelledCount = 0;
+            compactThreshold = Math.max(remaining, MIN_COMPACT_THRESHOLD);
+        } finally {
+            isCompacting = false;
+        }
+    }
+
+    boolean isClosed() {
+        return head == CLOSED;
+    }
+
+    /**
+     * Reopens this stack, if it is closed.
+     */
+    void reopen() {
+        HEAD.compareAndSet(this, CLOSED, null);
+    }
+
+    /**
+     * Releases all the parked continuations.
+     *
+     * @param value The value to resume them with.
+     * @param error The error to resume them with, if not {@code null}.
+     * @param close Whether to close this stack.
+     */
+    void release(final Object value, final Throwable error, final boolean close) {
+        var node = (Node) HEAD.getAndSet(this, close ? CLOSED : null);
+
+        if (node == CLOSED) {
+            return;
+        }
+
+        // A compaction that began before the nodes were taken may still be unlinking them. One that begins afterward
+        // only sees the nodes pushed since.
+        while (isCompacting) {
+            Thread.onSpinWait();
+        }
+
+        cancelledCount = 0;
+
+        // reverse the stack, so the waiters are resumed in the order they arrived
+        Node pending = null;
+
+        while (node != null) {
+            final var next = node.next;
+
+            if (node.state == WAITING) {
+                node.next = pending;
+                pending = node;
+            }
+
+            node = next;
+        }
+
+        // split off the waiters of each executor, keeping them in order
+        while (pending != null) {
+            final var executor = pending.executor;
+            final var batch = pending;
+            var batchTail = pending;
+            Node rest = null;
+            Node restTail = null;
+
+            for (var current = pending.next; current != null; current = current.next) {
+                if (current.executor == executor) {
+                    batchTail.next = current;
+                    batchTail = current;
+                } else if (rest == null) {
+                    rest = restTail = current;
+                } else {
+                    restTail.next = current;
+                    restTail = current;
+                }
+            }
+
+            batchTail.next = null;
+
+            if (restTail != null) {
+                restTail.next = null;
+            }
+
+            executor.executeTask(() -> resumeAll(batch, value, error));
+            pending = rest;
+        }
+    }
+
+    private static void resumeAll(final Node batch, final Object value, final Throwable error) {
+        for (var node = batch; node != null; ) {
+            // the continuation may park the next waiter on a node of its own, so read ahead
+            final var next = node.next;
+
+            if (NODE_STATE.compareAndSet(node, WAITING, RESUMED)) {
+                if (error != null) {
+                    node.resume.submitError(error);
+                } else {
+                    node.resume.submit(value);
+                }
+            }
+
+            node = next;
+        }
+    }
+}
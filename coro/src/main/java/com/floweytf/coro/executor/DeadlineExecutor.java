@@ -0,0 +1,509 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.internal.BasicTask;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A multi-threaded executor which runs the most urgent work first: the continuations of the tasks with the earliest
+ * {@link Task#withDeadline(Duration) deadline}, rather than the ones submitted first.
+ *
+ * <p>
+ * Work without a deadline, which includes tasks without one and anything that isn't the continuation of a task, is
+ * due a fixed time after it is submitted, the <i>maximum deferral</i>. Work with a deadline is due by its deadline or by
+ * the maximum deferral, whichever comes first, so a steady stream of urgent work delays everything else by at most
+ * the maximum deferral, rather than starving it.
+ * </p>
+ *
+ * <p>
+ * Pending work is spread over twice as many priority queues as there are workers, each guarded by its own spin lock,
+ * rather than a single shared heap. Work goes to a random queue, and a worker takes the most urgent work of two random
+ * queues, so the order is only approximately by deadline, but no lock is ever contended for long. When both queues are
+ * empty, the worker looks at all of them before parking.
+ * </p>
+ *
+ * <p>
+ * A task without a deadline of its own that is begun by a task running on this executor inherits the deadline of that
+ * task, so the tasks a request spawns are as urgent as the request itself. The executor keeps count of the work that
+ * starts after its deadline has passed, see {@link DeadlineExecutor#metrics()}.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var executor = new DeadlineExecutor();
+ * handle(request).withDeadline(Duration.ofMillis(20)).begin(executor);
+ * export(table).begin(executor);
+ * }</pre>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of its worker, and the worker carries on.
+ * </p>
+ */
+public final class DeadlineExecutor implements CoroutineExecutor, AutoCloseable {
+    private static final VarHandle PARKED;
+    private static final VarHandle ALIVE;
+    private static final VarHandle IS_PARKED;
+    private static final VarHandle LOCK;
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            PARKED = lookup.findVarHandle(DeadlineExecutor.class, "parked", int.class);
+            ALIVE = lookup.findVarHandle(DeadlineExecutor.class, "alive", int.class);
+            IS_PARKED = lookup.findVarHandle(Worker.class, "isParked", boolean.class);
+            LOCK = lookup.findVarHandle(Queue.class, "lock", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Duration DEFAULT_MAX_DEFERRAL = Duration.ofMillis(100);
+    private static final int QUEUES_PER_WORKER = 2;
+
+    // the due time of an empty queue
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    // the indices of the counters of each worker
+    private static final int TASKS_RUN = 0;
+    private static final int DEADLINE_TASKS_RUN = 1;
+    private static final int DEADLINE_MISSES = 2;
+    private static final int MAX_LATENESS = 3;
+
+    /**
+     * The counters of an executor, since it was created.
+     *
+     * @param tasksRun         The number of tasks run.
+     * @param deadlineTasksRun The number of tasks run that belong to a task with a deadline.
+     * @param deadlineMisses   The number of tasks that started after the deadline of their task had passed.
+     * @param maxLatenessNanos The longest time by which a task started after its deadline.
+     */
+    public record Metrics(long tasksRun, long deadlineTasksRun, long deadlineMisses, long maxLatenessNanos) {
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long deadline;
+
+        // relative to the epoch of the executor, so comparing them can't overflow
+        private final long due;
+
+        // the order within a queue, for entries that are due at the same time
+        private long sequence;
+
+        private Entry(final Runnable task, final long deadline, final long due) {
+            this.task = task;
+            this.deadline = deadline;
+            this.due = due;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong((Entry entry) -> entry.due)
+        .thenComparingLong(entry -> entry.sequence);
+
+    private static final class Queue {
+        // only touched while holding the lock
+        private final PriorityQueue<Entry> entries = new PriorityQueue<>(ORDER);
+        private long sequence;
+
+        private volatile int lock;
+
+        // the due time of the most urgent entry, which can be read without the lock
+        private volatile long top = EMPTY;
+
+        private boolean tryLock() {
+            return lock == 0 && LOCK.compareAndSet(this, 0, 1);
+        }
+
+        private void unlock() {
+            final var first = entries.peek();
+            // this must be a volatile write, since a submitter then reads the parked count, while a worker that is
+            // about to park writes it and then reads the tops of the queues
+            top = first != null ? first.due : EMPTY;
+            LOCK.setRelease(this, 0);
+        }
+    }
+
+    private final class Worker extends Thread {
+        private volatile boolean isParked;
+
+        // the counters, which are only written by the worker, and read by anyone
+        private final long[] counters = new long[4];
+
+        // only touched by the worker
+        private long currentDeadline = Task.NO_DEADLINE;
+
+        private Worker(final int index) {
+            super("coroutine-deadline-worker-" + index);
+            setDaemon(true);
+        }
+
+        private DeadlineExecutor owner() {
+            return DeadlineExecutor.this;
+        }
+
+        private void increment(final int counter) {
+            COUNTERS.setOpaque(counters, counter, counters[counter] + 1);
+        }
+
+        private void runEntry(final Entry entry) {
+            increment(TASKS_RUN);
+
+            if (entry.deadline != Task.NO_DEADLINE) {
+                increment(DEADLINE_TASKS_RUN);
+
+                final var lateness = System.nanoTime() - entry.deadline;
+
+                if (lateness > 0) {
+                    increment(DEADLINE_MISSES);
+
+                    if (lateness > counters[MAX_LATENESS]) {
+                        COUNTERS.setOpaque(counters, MAX_LATENESS, lateness);
+                    }
+                }
+            }
+
+            // the tasks begun by this one inherit its deadline
+            currentDeadline = entry.deadline;
+
+            try {
+                entry.task.run();
+            } catch (final Throwable th) {
+                getUncaughtExceptionHandler().uncaughtException(this, th);
+            } finally {
+                currentDeadline = Task.NO_DEADLINE;
+            }
+        }
+
+        private void park() {
+            isParked = true;
+            PARKED.getAndAdd(DeadlineExecutor.this, 1);
+
+            if (!hasWork()) {
+                while (isParked && !isClosed) {
+                    LockSupport.park(this);
+                }
+            }
+
+            // unless a waker has cleared the flag, and the count along with it
+            if (IS_PARKED.compareAndSet(this, true, false)) {
+                PARKED.getAndAdd(DeadlineExecutor.this, -1);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final var entry = poll();
+
+                if (entry != null) {
+                    runEntry(entry);
+                } else if (isClosed) {
+                    break;
+                } else {
+                    park();
+                }
+            }
+
+            if ((int) ALIVE.getAndAdd(DeadlineExecutor.this, -1) != 1) {
+                return;
+            }
+
+            // this must be a volatile write, since a submitter enqueues and then reads the flag, while the last worker
+            // writes the flag and then drains the queues one last time
+            isTerminated = true;
+
+            for (var entry = poll(); entry != null; entry = poll()) {
+                runEntry(entry);
+            }
+        }
+    }
+
+    private final Worker[] workers;
+    private final Queue[] queues;
+    private final long maxDeferral;
+    private final long epoch = System.nanoTime();
+
+    private volatile int parked;
+    private volatile int alive;
+    private volatile boolean isClosed;
+    private volatile boolean isTerminated;
+
+    /**
+     * Creates an executor with a worker per available processor, and a maximum deferral of 100 milliseconds.
+     */
+    public DeadlineExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_DEFERRAL);
+    }
+
+    /**
+     * Creates an executor, whose workers run on daemon threads.
+     *
+     * @param parallelism The number of workers.
+     * @param maxDeferral The time after which submitted work is due, even if its deadline is later, or it has none.
+     */
+    public DeadlineExecutor(final int parallelism, final Duration maxDeferral) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        if (maxDeferral.isNegative()) {
+            throw new IllegalArgumentException("maxDeferral must not be negative");
+        }
+
+        this.maxDeferral = maxDeferral.toNanos();
+
+        queues = new Queue[parallelism * QUEUES_PER_WORKER];
+        workers = new Worker[parallelism];
+        alive = parallelism;
+
+        for (var i = 0; i < queues.length; i++) {
+            queues[i] = new Queue();
+        }
+
+        for (var i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        for (final var worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Submits a task, which is due by the deadline of the task it belongs to, or after the maximum deferral, whichever
+     * comes first.
+     *
+     * @param handler The task to run.
+     * @throws RejectedExecutionException If this executor is closed, and the task is submitted from another thread.
+     */
+    @Override
+    public void executeTask(final Runnable handler) {
+        final var isWorker = Thread.currentThread() instanceof final Worker worker && worker.owner() == this;
+
+        if (!isWorker && isClosed) {
+            throw new RejectedExecutionException("DeadlineExecutor is closed");
+        }
+
+        final var inherited = isWorker ? ((Worker) Thread.currentThread()).currentDeadline : Task.NO_DEADLINE;
+        final var deadline = BasicTask.deadlineOf(handler, inherited);
+        final var deferred = System.nanoTime() - epoch + maxDeferral;
+        final var due = deadline != Task.NO_DEADLINE ? Math.min(deadline - epoch, deferred) : deferred;
+
+        final var entry = new Entry(handler, deadline, due);
+        final var queue = offer(entry);
+
+        // the last worker may have exited without seeing the task
+        if (!isWorker && isTerminated && remove(queue, entry)) {
+            throw new RejectedExecutionException("DeadlineExecutor is closed");
+        }
+
+        notifyWork();
+    }
+
+    /**
+     * Checks whether the current thread is one of the workers of this executor.
+     *
+     * @return Whether the current thread is a worker.
+     */
+    public boolean isWorkerThread() {
+        return Thread.currentThread() instanceof final Worker worker && worker.owner() == this;
+    }
+
+    /**
+     * Obtains the number of workers.
+     *
+     * @return The number of workers.
+     */
+    public int parallelism() {
+        return workers.length;
+    }
+
+    /**
+     * Obtains the counters of this executor. They are summed over the workers without stopping them, so they may be
+     * slightly out of date, but never torn.
+     *
+     * @return The counters.
+     */
+    public Metrics metrics() {
+        long tasksRun = 0;
+        long deadlineTasksRun = 0;
+        long deadlineMisses = 0;
+        long maxLateness = 0;
+
+        for (final var worker : workers) {
+            tasksRun += (long) COUNTERS.getOpaque(worker.counters, TASKS_RUN);
+            deadlineTasksRun += (long) COUNTERS.getOpaque(worker.counters, DEADLINE_TASKS_RUN);
+            deadlineMisses += (long) COUNTERS.getOpaque(worker.counters, DEADLINE_MISSES);
+            maxLateness = Math.max(maxLateness, (long) COUNTERS.getOpaque(worker.counters, MAX_LATENESS));
+        }
+
+        return new Metrics(tasksRun, deadlineTasksRun, deadlineMisses, maxLateness);
+    }
+
+    /**
+     * Closes this executor. The tasks submitted so far still run, after which the workers exit. Submitting a task from
+     * another thread afterwards fails with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        for (final var worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Waits for the workers to exit, after this executor has been closed.
+     *
+     * @param timeout The maximum time to wait.
+     * @return Whether all the workers have exited.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(final Duration timeout) throws InterruptedException {
+        final var deadline = System.nanoTime() + timeout.toNanos();
+
+        for (final var worker : workers) {
+            final var remaining = deadline - System.nanoTime();
+
+            if (remaining > 0) {
+                worker.join(Math.max(1, remaining / 1_000_000));
+            }
+
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Queue offer(final Entry entry) {
+        final var random = ThreadLocalRandom.current();
+
+        while (true) {
+            final var queue = queues[random.nextInt(queues.length)];
+
+            if (queue.tryLock()) {
+                entry.sequence = queue.sequence++;
+                queue.entries.add(entry);
+                queue.unlock();
+                return queue;
+            }
+        }
+    }
+
+    private static boolean remove(final Queue queue, final Entry entry) {
+        while (!queue.tryLock()) {
+            Thread.onSpinWait();
+        }
+
+        final var isRemoved = queue.entries.remove(entry);
+        queue.unlock();
+        return isRemoved;
+    }
+
+    private static Entry pollFrom(final Queue queue) {
+        if (!queue.tryLock()) {
+            return null;
+        }
+
+        final var entry = queue.entries.poll();
+        queue.unlock();
+        return entry;
+    }
+
+    private Entry poll() {
+        final var random = ThreadLocalRandom.current();
+
+        // the more urgent of two distinct random queues
+        for (var i = 0; i < queues.length; i++) {
+            final var index = random.nextInt(queues.length);
+            final var first = queues[index];
+            final var second = queues[(index + 1 + random.nextInt(queues.length - 1)) % queues.length];
+            final var queue = first.top <= second.top ? first : second;
+
+            if (queue.top == EMPTY) {
+                break;
+            }
+
+            final var entry = pollFrom(queue);
+
+            if (entry != null) {
+                return entry;
+            }
+        }
+
+        // Most of the queues are empty, so look at all of them, and take the most urgent entry. A queue that is busy
+        // is retried rather than skipped, so there is no work left once this gives up.
+        while (true) {
+            Queue best = null;
+
+            for (final var queue : queues) {
+                if (queue.top != EMPTY && (best == null || queue.top < best.top)) {
+                    best = queue;
+                }
+            }
+
+            if (best == null) {
+                return null;
+            }
+
+            final var entry = pollFrom(best);
+
+            if (entry != null) {
+                return entry;
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    private void notifyWork() {
+        if (parked == 0) {
+            return;
+        }
+
+        final var offset = ThreadLocalRandom.current().nextInt(workers.length);
+
+        for (var i = 0; i < workers.length; i++) {
+            final var worker = workers[(offset + i) % workers.length];
+
+            if (worker.isParked && IS_PARKED.compareAndSet(worker, true, false)) {
+                PARKED.getAndAdd(this, -1);
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        for (final var queue : queues) {
+            if (queue.top != EMPTY) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadlineExecutor[parallelism=" + workers.length + "]";
+    }
+}
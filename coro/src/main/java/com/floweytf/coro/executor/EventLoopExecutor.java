@@ -0,0 +1,235 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-threaded event loop, which runs all the coroutines bound to it on its own thread, one task at a time.
+ *
+ * <p>
+ * Tasks submitted from other threads go through a lock-free, unbounded MPSC queue, which takes a single compare-and-set
+ * per submission, rather than the lock of a {@link java.util.concurrent.LinkedBlockingQueue}. Tasks submitted from the
+ * loop thread itself, which is the common case for coroutines resuming each other, go to a plain local queue instead.
+ * The loop alternates between a batch of foreign tasks and the local tasks, so neither can starve the other.
+ * </p>
+ *
+ * <p>
+ * When it runs out of work, the loop spins for a while before parking its thread. The number of spins adapts to the
+ * workload: it grows whenever spinning finds new work, and shrinks whenever the loop ends up parking anyway. Submitting
+ * a task only unparks the thread if it is parked.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * try (final var loop = new EventLoopExecutor()) {
+ *     loop.launch(() -> serve(connection));
+ * }
+ * }</pre>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of the loop thread, and the loop carries on.
+ * </p>
+ */
+public final class EventLoopExecutor implements CoroutineExecutor, AutoCloseable {
+    private static final int BATCH_SIZE = 256;
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 1 << 14;
+
+    private final Thread thread;
+    private final MpscQueue foreign = new MpscQueue();
+    private volatile boolean isParked;
+
+    // only touched by the loop thread
+    private final ArrayDeque<Runnable> local = new ArrayDeque<>();
+    private int spinLimit = MIN_SPINS;
+
+    /**
+     * Creates an event loop, which runs on a new daemon thread.
+     */
+    public EventLoopExecutor() {
+        this(task -> {
+            final var thread = new Thread(task, "coroutine-event-loop");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates an event loop.
+     *
+     * @param threadFactory The factory for the loop thread, which is started right away.
+     */
+    public EventLoopExecutor(final ThreadFactory threadFactory) {
+        thread = threadFactory.newThread(this::runLoop);
+        thread.start();
+    }
+
+    /**
+     * Checks whether the current thread is the loop thread. Code that is already running on the loop may skip
+     * submitting work to it, and run it right away instead.
+     *
+     * @return Whether the current thread is the loop thread.
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Submits a task to the loop.
+     *
+     * @param handler The task to run.
+     * @throws RejectedExecutionException If the loop is closed.
+     */
+    @Override
+    public void executeTask(final Runnable handler) {
+        if (inEventLoop()) {
+            local.add(handler);
+            return;
+        }
+
+        if (!foreign.offer(handler)) {
+            throw new RejectedExecutionException("EventLoopExecutor is closed");
+        }
+
+        if (isParked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Closes this loop. The tasks submitted so far still run, after which the loop thread exits. Submitting a task from
+     * another thread afterwards fails with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        if (foreign.close()) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Checks whether this loop is closed.
+     *
+     * @return Whether this loop is closed.
+     */
+    public boolean isClosed() {
+        return foreign.isClosed();
+    }
+
+    /**
+     * Waits for the loop thread to exit, after this loop has been closed.
+     *
+     * @param timeout The maximum time to wait.
+     * @return Whether the loop thread has exited.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(final Duration timeout) throws InterruptedException {
+        thread.join(Math.max(1, timeout.toMillis()));
+        return !thread.isAlive();
+    }
+
+    private void runLoop() {
+        while (true) {
+            final var polled = runForeign();
+            final var ranLocal = runLocal();
+
+            if (polled != 0 || ranLocal) {
+                continue;
+            }
+
+            if (foreign.isClosed() && foreign.isEmpty()) {
+                break;
+            }
+
+            idle();
+        }
+
+        // the queue is closed, but the tasks that ran last may still have submitted local work
+        while (!local.isEmpty()) {
+            runLocal();
+        }
+    }
+
+    /**
+     * Runs a batch of foreign tasks.
+     *
+     * @return The number of tasks run.
+     */
+    private int runForeign() {
+        var count = 0;
+
+        while (count < BATCH_SIZE) {
+            final var task = foreign.poll();
+
+            if (task == null) {
+                break;
+            }
+
+            run(task);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Runs the local tasks that are pending, but not the ones they submit in turn, so that foreign tasks get a chance
+     * to run in between.
+     *
+     * @return Whether any task was run.
+     */
+    private boolean runLocal() {
+        var count = local.size();
+
+        if (count == 0) {
+            return false;
+        }
+
+        while (count-- > 0) {
+            run(local.poll());
+        }
+
+        return true;
+    }
+
+    private void idle() {
+        for (var i = 0; i < spinLimit; i++) {
+            if (!foreign.isEmpty()) {
+                spinLimit = Math.min(MAX_SPINS, spinLimit * 2);
+                return;
+            }
+
+            Thread.onSpinWait();
+        }
+
+        spinLimit = Math.max(MIN_SPINS, spinLimit / 2);
+
+        // this must be a volatile write, since a submitter swaps the tail and then reads the flag, while the loop
+        // writes the flag and then reads the tail
+        isParked = true;
+
+        if (foreign.isEmpty() && !foreign.isClosed()) {
+            LockSupport.park(this);
+        }
+
+        isParked = false;
+    }
+
+    private void run(final Runnable task) {
+        try {
+            task.run();
+        } catch (final Throwable th) {
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, th);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopExecutor[" + thread.getName() + "]";
+    }
+}
@@ -0,0 +1,129 @@
+package com.floweytf.coro.executor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * An unbounded, lock-free linked queue of tasks, with many producers and a single consumer. Offering takes a single
+ * compare-and-set on the tail. Once closed, offers fail, and the consumer still sees every task that was accepted.
+ */
+final class MpscQueue {
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            TAIL = lookup.findVarHandle(MpscQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class Node {
+        private Runnable task;
+        private volatile Node next;
+
+        private Node(final Runnable task) {
+            this.task = task;
+        }
+    }
+
+    // the tail once the queue is closed
+    private static final Node TERMINAL = new Node(null);
+
+    private volatile Node tail;
+
+    // only touched by the consumer
+    private Node head;
+
+    MpscQueue() {
+        head = tail = new Node(null);
+    }
+
+    /**
+     * Adds a task. This is a volatile write, so a producer that then checks whether the consumer is parked can't miss
+     * it going to sleep.
+     *
+     * @return Whether the task was added, which is {@code false} once the queue is closed.
+     */
+    boolean offer(final Runnable task) {
+        final var node = new Node(task);
+
+        while (true) {
+            final var current = tail;
+
+            if (current == TERMINAL) {
+                return false;
+            }
+
+            if (TAIL.weakCompareAndSet(this, current, node)) {
+                NEXT.setRelease(current, node);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the next task. Only called by the consumer.
+     *
+     * @return The task, or {@code null} if the queue is empty.
+     */
+    Runnable poll() {
+        var next = (Node) NEXT.getAcquire(head);
+
+        if (next == null) {
+            if (tail == head) {
+                return null;
+            }
+
+            // a producer has swapped the tail, but has yet to link its node
+            do {
+                Thread.onSpinWait();
+                next = (Node) NEXT.getAcquire(head);
+            } while (next == null);
+        }
+
+        if (next == TERMINAL) {
+            return null;
+        }
+
+        head = next;
+
+        final var task = next.task;
+        next.task = null;
+        return task;
+    }
+
+    /**
+     * Checks whether there is nothing left to take. Only called by the consumer.
+     *
+     * @return Whether the queue is empty.
+     */
+    boolean isEmpty() {
+        final var next = head.next;
+        return next == TERMINAL || (next == null && tail == head);
+    }
+
+    /**
+     * Closes the queue to further offers.
+     *
+     * @return Whether the queue was open.
+     */
+    boolean close() {
+        final var last = (Node) TAIL.getAndSet(this, TERMINAL);
+
+        if (last == TERMINAL) {
+            return false;
+        }
+
+        NEXT.setRelease(last, TERMINAL);
+        return true;
+    }
+
+    boolean isClosed() {
+        return tail == TERMINAL;
+    }
+}
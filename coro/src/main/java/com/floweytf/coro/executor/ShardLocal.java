@@ -0,0 +1,71 @@
+package com.floweytf.coro.executor;
+
+import java.util.function.Supplier;
+
+/**
+ * A value of which each shard of a {@link ShardedRuntime} has its own instance, like a {@link ThreadLocal} for shards.
+ *
+ * <p>
+ * Each instance is created on first use by its shard, and is only ever touched by that shard, so it needs no
+ * synchronization. Looking up the instance is an array access, without any hashing.
+ * </p>
+ *
+ * @param <T> The type of the value.
+ */
+public final class ShardLocal<T> {
+    private final ShardedRuntime runtime;
+    private final Supplier<? extends T> initial;
+    private final Object[] values;
+
+    /**
+     * Creates a shard-local value.
+     *
+     * @param runtime The runtime whose shards have their own instance.
+     * @param initial The factory for the instance of each shard, which is called by the shard itself.
+     */
+    public ShardLocal(final ShardedRuntime runtime, final Supplier<? extends T> initial) {
+        this.runtime = runtime;
+        this.initial = initial;
+        this.values = new Object[runtime.shardCount()];
+    }
+
+    /**
+     * Obtains the instance of the current shard.
+     *
+     * @return The instance.
+     * @throws IllegalStateException If the current thread isn't one of the shards of the runtime.
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        final var shard = runtime.currentShard();
+
+        if (shard == null) {
+            throw new IllegalStateException("ShardLocal accessed from outside of its runtime");
+        }
+
+        var value = values[shard.index()];
+
+        if (value == null) {
+            value = initial.get();
+            values[shard.index()] = value;
+        }
+
+        return (T) value;
+    }
+
+    /**
+     * Replaces the instance of the current shard.
+     *
+     * @param value The new instance.
+     * @throws IllegalStateException If the current thread isn't one of the shards of the runtime.
+     */
+    public void set(final T value) {
+        final var shard = runtime.currentShard();
+
+        if (shard == null) {
+            throw new IllegalStateException("ShardLocal accessed from outside of its runtime");
+        }
+
+        values[shard.index()] = value;
+    }
+}
@@ -0,0 +1,72 @@
+package com.floweytf.coro.executor;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * A pool of reusable objects, of which each shard of a {@link ShardedRuntime} has its own, so that acquiring and
+ * releasing objects needs no synchronization.
+ *
+ * <p>
+ * An object may be released on a different shard than the one it was acquired on, in which case it joins the pool of
+ * that shard. Outside of the runtime, acquiring always creates a new object, and releasing drops it. Objects are not
+ * reset when released; that is up to the caller.
+ * </p>
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public final class ShardPool<T> {
+    private final ShardedRuntime runtime;
+    private final Supplier<? extends T> factory;
+    private final int maxPerShard;
+    private final ShardLocal<ArrayDeque<T>> pools;
+
+    /**
+     * Creates a pool.
+     *
+     * @param runtime     The runtime whose shards have their own pool.
+     * @param factory     The factory for new objects.
+     * @param maxPerShard The maximum number of idle objects each shard keeps.
+     */
+    public ShardPool(final ShardedRuntime runtime, final Supplier<? extends T> factory, final int maxPerShard) {
+        if (maxPerShard < 0) {
+            throw new IllegalArgumentException("maxPerShard must not be negative");
+        }
+
+        this.runtime = runtime;
+        this.factory = factory;
+        this.maxPerShard = maxPerShard;
+        this.pools = new ShardLocal<>(runtime, ArrayDeque::new);
+    }
+
+    /**
+     * Takes an object from the pool of the current shard, or creates one if the pool is empty.
+     *
+     * @return The object.
+     */
+    public T acquire() {
+        if (runtime.currentShard() == null) {
+            return factory.get();
+        }
+
+        final var pooled = pools.get().poll();
+        return pooled != null ? pooled : factory.get();
+    }
+
+    /**
+     * Returns an object to the pool of the current shard, unless it is full.
+     *
+     * @param value The object, which must not be used afterwards.
+     */
+    public void release(final T value) {
+        if (runtime.currentShard() == null) {
+            return;
+        }
+
+        final var pool = pools.get();
+
+        if (pool.size() < maxPerShard) {
+            pool.add(value);
+        }
+    }
+}
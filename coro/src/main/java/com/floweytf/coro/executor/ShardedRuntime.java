@@ -0,0 +1,580 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.internal.BasicTask;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A thread-per-core runtime, made of shards which are each a single-threaded event loop that owns its own data.
+ *
+ * <p>
+ * Data is partitioned between the shards, for instance with {@link ShardedRuntime#shardFor(Object)}, and only ever
+ * touched by the shard that owns it, so it needs no synchronization, and no two cores contend on it. A coroutine moves
+ * to the shard that owns the data it needs by awaiting {@link ShardedRuntime#switchTo(Shard)}, after which it keeps
+ * running on that shard.
+ * </p>
+ *
+ * <p>
+ * Tasks sent from one shard to another go through a bounded SPSC ring dedicated to that pair of shards, which is
+ * created when the first task is sent, so shards never contend with each other on a shared queue. If the ring is full,
+ * the sender holds on to the task until there is room, without blocking. Tasks submitted from threads outside the
+ * runtime go through an MPSC queue per shard. Like {@link EventLoopExecutor}, each shard runs tasks it submits to
+ * itself from a local queue, and spins for a while before parking when idle.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * @Coroutine
+ * Task<Value> get(final Key key) {
+ *     Co.await(ShardedRuntime.switchTo(runtime.shardFor(key)));
+ *     return Co.ret(cache.get().get(key)); // cache is a ShardLocal<Map<Key, Value>>
+ * }
+ * }</pre>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of its shard, and the shard carries on.
+ * </p>
+ *
+ * @see ShardLocal
+ * @see ShardPool
+ */
+public final class ShardedRuntime implements AutoCloseable {
+    private static final VarHandle SENT;
+    private static final VarHandle RECEIVED;
+    private static final VarHandle INBOUND = MethodHandles.arrayElementVarHandle(SpscRing[].class);
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            SENT = lookup.findVarHandle(Shard.class, "sent", long.class);
+            RECEIVED = lookup.findVarHandle(Shard.class, "received", long.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final int RING_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 256;
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 1 << 14;
+    private static final long BACKOFF_NANOS = 50_000;
+
+    private static final class ShardThread extends Thread {
+        private final Shard shard;
+
+        private ShardThread(final Shard shard) {
+            super(shard::runLoop, "coroutine-shard-" + shard.index);
+            this.shard = shard;
+            setDaemon(true);
+        }
+    }
+
+    /**
+     * A single shard of a {@link ShardedRuntime}, which runs the coroutines bound to it on its own thread.
+     */
+    public final class Shard implements CoroutineExecutor {
+        private final int index;
+        private final ShardThread thread;
+        private final MpscQueue foreign = new MpscQueue();
+        // indexed by the sending shard, created by it
+        private final SpscRing[] inbound = new SpscRing[shards.length];
+        private volatile boolean isParked;
+        private volatile boolean isIdle;
+        // only written by this shard, and read by the others to detect termination
+        private volatile long sent;
+        private volatile long received;
+
+        // only touched by the shard thread
+        private final ArrayDeque<Runnable> local = new ArrayDeque<>();
+        // the tasks waiting for room in the ring to each shard, indexed by the receiving shard
+        private final ArrayDeque<?>[] outbound = new ArrayDeque<?>[shards.length];
+        private int outboundCount;
+        private int spinLimit = MIN_SPINS;
+
+        private Shard(final int index) {
+            this.index = index;
+            this.thread = new ShardThread(this);
+        }
+
+        /**
+         * Obtains the index of this shard in its runtime.
+         *
+         * @return The index.
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Obtains the runtime this shard belongs to.
+         *
+         * @return The runtime.
+         */
+        public ShardedRuntime runtime() {
+            return ShardedRuntime.this;
+        }
+
+        /**
+         * Checks whether the current thread is the thread of this shard.
+         *
+         * @return Whether the current thread is this shard.
+         */
+        public boolean inShard() {
+            return Thread.currentThread() == thread;
+        }
+
+        /**
+         * Submits a task to this shard.
+         *
+         * @param handler The task to run.
+         * @throws RejectedExecutionException If the runtime is closed, and the task is submitted from outside of it.
+         */
+        @Override
+        public void executeTask(final Runnable handler) {
+            final var current = currentShard();
+
+            if (current == this) {
+                local.add(handler);
+            } else if (current != null) {
+                current.send(this, handler);
+            } else if (foreign.offer(handler)) {
+                wake();
+            } else {
+                throw new RejectedExecutionException("ShardedRuntime is closed");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void send(final Shard target, final Runnable task) {
+            final var pending = (ArrayDeque<Runnable>) outbound[target.index];
+
+            // keep the order of the tasks sent to the target
+            if ((pending == null || pending.isEmpty()) && target.accept(this, task)) {
+                return;
+            }
+
+            if (pending == null) {
+                final var created = new ArrayDeque<Runnable>();
+                created.add(task);
+                outbound[target.index] = created;
+            } else {
+                pending.add(task);
+            }
+
+            outboundCount++;
+        }
+
+        /**
+         * Puts a task into the ring from another shard. Only called by the thread of that shard.
+         */
+        private boolean accept(final Shard source, final Runnable task) {
+            var ring = (SpscRing) INBOUND.getAcquire(inbound, source.index);
+
+            if (ring == null) {
+                ring = new SpscRing(RING_CAPACITY);
+                // this must be a volatile write, for the same reason as the one in SpscRing.offer
+                INBOUND.setVolatile(inbound, source.index, ring);
+            }
+
+            if (!ring.offer(task)) {
+                return false;
+            }
+
+            SENT.setRelease(source, source.sent + 1);
+            wake();
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int flushOutbound() {
+            var count = 0;
+
+            for (var i = 0; i < outbound.length && outboundCount != 0; i++) {
+                final var pending = (ArrayDeque<Runnable>) outbound[i];
+
+                if (pending == null) {
+                    continue;
+                }
+
+                while (!pending.isEmpty() && shards[i].accept(this, pending.peek())) {
+                    pending.poll();
+                    outboundCount--;
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        private void wake() {
+            if (isParked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void runLoop() {
+            while (true) {
+                var count = flushOutbound();
+                count += runForeign();
+                count += runInbound();
+                count += runLocal();
+
+                if (count != 0) {
+                    continue;
+                }
+
+                if (isTerminated) {
+                    break;
+                }
+
+                if (outboundCount != 0) {
+                    // the receiving shards are busy, so give them a moment to make room
+                    LockSupport.parkNanos(this, BACKOFF_NANOS);
+                    continue;
+                }
+
+                idle();
+            }
+        }
+
+        private int runForeign() {
+            var count = 0;
+
+            while (count < BATCH_SIZE) {
+                final var task = foreign.poll();
+
+                if (task == null) {
+                    break;
+                }
+
+                run(task);
+                count++;
+            }
+
+            return count;
+        }
+
+        private int runInbound() {
+            var count = 0;
+
+            for (var i = 0; i < inbound.length; i++) {
+                final var ring = (SpscRing) INBOUND.getAcquire(inbound, i);
+
+                if (ring == null) {
+                    continue;
+                }
+
+                for (var j = 0; j < BATCH_SIZE; j++) {
+                    final var task = ring.poll();
+
+                    if (task == null) {
+                        break;
+                    }
+
+                    RECEIVED.setRelease(this, received + 1);
+                    run(task);
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * Runs the local tasks that are pending, but not the ones they submit in turn.
+         */
+        private int runLocal() {
+            final var count = local.size();
+
+            for (var i = 0; i < count; i++) {
+                run(local.poll());
+            }
+
+            return count;
+        }
+
+        private boolean hasWork() {
+            if (!foreign.isEmpty()) {
+                return true;
+            }
+
+            for (var i = 0; i < inbound.length; i++) {
+                final var ring = (SpscRing) INBOUND.getVolatile(inbound, i);
+
+                if (ring != null && !ring.isEmpty()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void idle() {
+            for (var i = 0; i < spinLimit; i++) {
+                if (hasWork()) {
+                    spinLimit = Math.min(MAX_SPINS, spinLimit * 2);
+                    return;
+                }
+
+                Thread.onSpinWait();
+            }
+
+            spinLimit = Math.max(MIN_SPINS, spinLimit / 2);
+
+            // this must be a volatile write, since a sender publishes its task and then reads the flag, while the
+            // shard writes the flag and then reads the queues
+            isParked = true;
+
+            if (!hasWork()) {
+                // once closed, a shard with nothing left to do only keeps waiting for tasks from the other shards
+                isIdle = foreign.isClosed();
+
+                if (!isIdle || !tryTerminate()) {
+                    LockSupport.park(this);
+                }
+
+                isIdle = false;
+            }
+
+            isParked = false;
+        }
+
+        private void run(final Runnable task) {
+            try {
+                task.run();
+            } catch (final Throwable th) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, th);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ShardedRuntime.Shard[" + index + "]";
+        }
+    }
+
+    private final Shard[] shards;
+    private volatile boolean isClosed;
+    private volatile boolean isTerminated;
+
+    /**
+     * Creates a runtime with a shard per available processor.
+     */
+    public ShardedRuntime() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runtime, whose shards run on daemon threads.
+     *
+     * @param shardCount The number of shards.
+     */
+    public ShardedRuntime(final int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+
+        shards = new Shard[shardCount];
+
+        for (var i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+
+        for (final var shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Moves the awaiting coroutine to a shard. Once resumed, the coroutine runs on that shard, including after any
+     * further suspension, and the tasks it starts are bound to that shard as well. If the coroutine already runs on
+     * the shard, it continues without suspending.
+     *
+     * @param shard The shard to move to.
+     * @return The awaitable.
+     */
+    public static Awaitable<Void> switchTo(final Shard shard) {
+        return new Awaitable<>() {
+            @Override
+            public boolean isReady() {
+                return shard.inShard();
+            }
+
+            @Override
+            public Void readyValue() {
+                return null;
+            }
+
+            @Override
+            public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+                if (resume instanceof final Continuation.Coroutine<Void> coroutine &&
+                    coroutine.theTask() instanceof final BasicTask<Void> task) {
+                    // the task resumes on its executor, which is now the shard
+                    task.moveTo(shard);
+                    resume.submit(null);
+                } else {
+                    shard.executeTask(() -> resume.submit(null));
+                }
+            }
+        };
+    }
+
+    /**
+     * Obtains the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Obtains a shard.
+     *
+     * @param index The index of the shard.
+     * @return The shard.
+     */
+    public Shard shard(final int index) {
+        return shards[index];
+    }
+
+    /**
+     * Obtains the shard that owns a key. Keys are spread over the shards by their {@link Object#hashCode()}, which is
+     * scrambled first, so that keys whose hashes only differ in their upper bits are spread as well.
+     *
+     * @param key The key.
+     * @return The shard.
+     */
+    public Shard shardFor(final Object key) {
+        return shardFor((long) key.hashCode());
+    }
+
+    /**
+     * Obtains the shard that owns a key.
+     *
+     * @param key The key.
+     * @return The shard.
+     */
+    public Shard shardFor(final long key) {
+        final var hash = key * 0x9E3779B97F4A7C15L;
+        return shards[(int) (((hash >>> 32) * shards.length) >>> 32)];
+    }
+
+    /**
+     * Obtains the shard of this runtime that the current thread belongs to.
+     *
+     * @return The shard, or {@code null} if the current thread isn't one of the shards.
+     */
+    public Shard currentShard() {
+        if (Thread.currentThread() instanceof final ShardThread thread && thread.shard.runtime() == this) {
+            return thread.shard;
+        }
+
+        return null;
+    }
+
+    /**
+     * Closes this runtime. Submitting a task from outside the runtime fails with a {@link RejectedExecutionException}
+     * from then on. The shards keep running, and sending tasks to each other, until none of them has anything left to
+     * do, after which they exit.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+
+        for (final var shard : shards) {
+            if (shard.foreign.close()) {
+                LockSupport.unpark(shard.thread);
+            }
+        }
+    }
+
+    /**
+     * Checks whether this runtime is closed.
+     *
+     * @return Whether this runtime is closed.
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Waits for the shards to exit, after this runtime has been closed.
+     *
+     * @param timeout The maximum time to wait.
+     * @return Whether all the shards have exited.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(final Duration timeout) throws InterruptedException {
+        final var deadline = System.nanoTime() + timeout.toNanos();
+
+        for (final var shard : shards) {
+            final var remaining = deadline - System.nanoTime();
+
+            if (remaining > 0) {
+                shard.thread.join(Math.max(1, remaining / 1_000_000));
+            }
+
+            if (shard.thread.isAlive()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Terminates the runtime if all the shards are idle, and no task is in flight between them. The counts of tasks
+     * sent and received are summed twice in a row, and must match both times; a shard that was idle during the first
+     * pass, but received a task before the second, shows up as a changed count.
+     *
+     * @return Whether the runtime was terminated.
+     */
+    private boolean tryTerminate() {
+        var previousSent = -1L;
+        var previousReceived = -1L;
+
+        for (var pass = 0; pass < 2; pass++) {
+            var sent = 0L;
+            var received = 0L;
+
+            for (final var shard : shards) {
+                if (!shard.isIdle) {
+                    return false;
+                }
+
+                sent += shard.sent;
+                received += shard.received;
+            }
+
+            if (sent != received || (pass == 1 && (sent != previousSent || received != previousReceived))) {
+                return false;
+            }
+
+            previousSent = sent;
+            previousReceived = received;
+        }
+
+        isTerminated = true;
+
+        for (final var shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardedRuntime[shards=" + shards.length + "]";
+    }
+}
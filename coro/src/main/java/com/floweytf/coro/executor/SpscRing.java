@@ -0,0 +1,95 @@
+package com.floweytf.coro.executor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded, lock-free ring buffer of tasks, with a single producer and a single consumer. Neither side performs any
+ * atomic read-modify-write: the consumer detects new tasks by their slot being filled, and the producer only reads the
+ * index of the consumer once it runs out of the room it last saw.
+ */
+final class SpscRing {
+    private static final VarHandle PRODUCER_INDEX;
+    private static final VarHandle CONSUMER_INDEX;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Runnable[].class);
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            PRODUCER_INDEX = lookup.findVarHandle(SpscRing.class, "producerIndex", long.class);
+            CONSUMER_INDEX = lookup.findVarHandle(SpscRing.class, "consumerIndex", long.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final Runnable[] slots;
+    private final int mask;
+    private volatile long producerIndex;
+    private volatile long consumerIndex;
+
+    // only touched by the producer
+    private long producerLimit;
+
+    SpscRing(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+
+        slots = new Runnable[capacity];
+        mask = capacity - 1;
+        producerLimit = capacity;
+    }
+
+    /**
+     * Adds a task. Only called by the producer. This is a volatile write, so a producer that then checks whether the
+     * consumer is parked can't miss it going to sleep.
+     *
+     * @return Whether the task was added, which is {@code false} if the ring is full.
+     */
+    boolean offer(final Runnable task) {
+        final var index = (long) PRODUCER_INDEX.getOpaque(this);
+
+        if (index >= producerLimit) {
+            producerLimit = (long) CONSUMER_INDEX.getAcquire(this) + slots.length;
+
+            if (index >= producerLimit) {
+                return false;
+            }
+        }
+
+        SLOTS.setRelease(slots, (int) index & mask, task);
+        producerIndex = index + 1;
+        return true;
+    }
+
+    /**
+     * Takes the next task. Only called by the consumer.
+     *
+     * @return The task, or {@code null} if the ring is empty.
+     */
+    Runnable poll() {
+        final var index = (long) CONSUMER_INDEX.getOpaque(this);
+        final var slot = (int) index & mask;
+        final var task = (Runnable) SLOTS.getAcquire(slots, slot);
+
+        if (task == null) {
+            return null;
+        }
+
+        SLOTS.setOpaque(slots, slot, null);
+        CONSUMER_INDEX.setRelease(this, index + 1);
+        return task;
+    }
+
+    /**
+     * Checks whether the ring is empty. This reads both indices with volatile semantics, so a consumer that is about
+     * to park can't miss a task that was just added.
+     *
+     * @return Whether the ring is empty.
+     */
+    boolean isEmpty() {
+        return producerIndex == consumerIndex;
+    }
+}
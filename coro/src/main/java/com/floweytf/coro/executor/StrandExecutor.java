@@ -0,0 +1,258 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A source of strands on top of another executor. A strand is a {@link CoroutineExecutor} which runs its tasks one at a
+ * time, in the order they were submitted, on the threads of the backing executor, so the coroutines bound to a strand
+ * may share state without any locking.
+ *
+ * <p>
+ * Each strand has its own lock-free queue, and is only submitted to the backing executor while it has work, as a single
+ * task which runs a batch of the queued tasks. An idle strand costs nothing but its memory, so there may be one per
+ * entity: {@link StrandExecutor#strand(Object)} maps keys to strands, and only keeps a strand alive as long as something
+ * still refers to it, such as a task bound to it, or a queued task.
+ * </p>
+ *
+ * <p>
+ * A strand serializes the steps of its coroutines, not the coroutines as a whole: while one of them is suspended,
+ * others may run. State that must not change across a suspension point still needs an
+ * {@link com.floweytf.coro.concurrent.AsyncMutex}.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var strands = new StrandExecutor(new WorkStealingExecutor());
+ * strands.strand(account.id()).launch(() -> transfer(account, amount));
+ * }</pre>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of the thread it ran on, and the strand carries on.
+ * </p>
+ */
+public final class StrandExecutor {
+    private static final int BATCH_SIZE = 64;
+
+    private static final VarHandle PENDING;
+
+    static {
+        try {
+            PENDING = MethodHandles.lookup().findVarHandle(Strand.class, "pending", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final ThreadLocal<Strand> CURRENT = new ThreadLocal<>();
+
+    private static final class StrandRef extends WeakReference<Strand> {
+        private final Object key;
+
+        private StrandRef(final Object key, final Strand strand, final ReferenceQueue<Strand> queue) {
+            super(strand, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * An executor which runs its tasks one at a time, in submission order, on the backing executor.
+     */
+    public final class Strand implements CoroutineExecutor {
+        private final MpscQueue queue = new MpscQueue();
+        private final Runnable drain = this::drain;
+
+        // The number of tasks submitted but not yet run. The strand is scheduled on the backing executor exactly while
+        // this is non-zero, so only the submitter that raises it from zero schedules it.
+        private volatile int pending;
+
+        private Strand() {
+        }
+
+        /**
+         * Queues a task, and schedules the strand if it was idle.
+         *
+         * @param handler The task to run.
+         */
+        @Override
+        public void executeTask(final Runnable handler) {
+            // counted before it's queued, so the drain never sees a task it hasn't been told about
+            final var wasIdle = (int) PENDING.getAndAdd(this, 1) == 0;
+            queue.offer(handler);
+
+            if (wasIdle) {
+                backing.executeTask(drain);
+            }
+        }
+
+        /**
+         * Checks whether the current thread is running a task of this strand.
+         *
+         * @return Whether it is.
+         */
+        public boolean isCurrent() {
+            return CURRENT.get() == this;
+        }
+
+        /**
+         * Checks whether this strand has no tasks waiting to run, and is thus not scheduled on the backing executor.
+         *
+         * @return Whether it is idle.
+         */
+        public boolean isIdle() {
+            return pending == 0;
+        }
+
+        @Override
+        public int enabledHooks() {
+            return backing.enabledHooks();
+        }
+
+        @Override
+        public void onSuspend(final Task<?> task, final Awaitable<?> awaitable) {
+            backing.onSuspend(task, awaitable);
+        }
+
+        @Override
+        public <T> void onResume(final Task<?> task, final Awaitable<T> awaitable, final T result) {
+            backing.onResume(task, awaitable, result);
+        }
+
+        @Override
+        public void onResumeExceptionally(final Task<?> task, final Awaitable<?> awaitable, final Throwable error) {
+            backing.onResumeExceptionally(task, awaitable, error);
+        }
+
+        private void drain() {
+            final var previous = CURRENT.get();
+            CURRENT.set(this);
+
+            int ran = 0;
+
+            try {
+                while (ran < BATCH_SIZE) {
+                    final var task = queue.poll();
+
+                    // a task may be counted but not queued yet, in which case the next batch picks it up
+                    if (task == null) {
+                        break;
+                    }
+
+                    ran++;
+                    runSafely(task);
+                }
+            } finally {
+                CURRENT.set(previous);
+            }
+
+            // Going back to the backing executor after a batch, even if there is more work, keeps a busy strand from
+            // hogging a thread of the backing executor.
+            if ((int) PENDING.getAndAdd(this, -ran) != ran) {
+                backing.executeTask(drain);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Strand[" + backing + "]";
+        }
+    }
+
+    private final CoroutineExecutor backing;
+    private final ConcurrentHashMap<Object, StrandRef> strands = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Strand> stale = new ReferenceQueue<>();
+
+    /**
+     * Creates a source of strands.
+     *
+     * @param backing The executor which runs the tasks of the strands.
+     */
+    public StrandExecutor(final CoroutineExecutor backing) {
+        this.backing = backing;
+    }
+
+    /**
+     * Obtains the strand of a key. As long as the strand is reachable, every call with an equal key returns the same
+     * strand. Once it is no longer reachable, it has no tasks left, and a later call may create a fresh one.
+     *
+     * @param key The key, which must have consistent {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     * @return The strand.
+     */
+    public Strand strand(final Object key) {
+        expungeStale();
+
+        final var ref = strands.get(key);
+        final var existing = ref != null ? ref.get() : null;
+
+        if (existing != null) {
+            return existing;
+        }
+
+        final var result = new Strand[1];
+
+        strands.compute(key, (k, current) -> {
+            final var strand = current != null ? current.get() : null;
+
+            if (strand != null) {
+                result[0] = strand;
+                return current;
+            }
+
+            result[0] = new Strand();
+            return new StrandRef(k, result[0], stale);
+        });
+
+        return result[0];
+    }
+
+    /**
+     * Creates a new strand, which isn't associated with any key.
+     *
+     * @return The strand.
+     */
+    public Strand newStrand() {
+        return new Strand();
+    }
+
+    /**
+     * Obtains the strand running on the current thread, if any.
+     *
+     * @return The strand, or {@code null} if the current thread isn't running a task of a strand.
+     */
+    public static Strand currentStrand() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Obtains the executor which runs the tasks of the strands.
+     *
+     * @return The backing executor.
+     */
+    public CoroutineExecutor backing() {
+        return backing;
+    }
+
+    private static void runSafely(final Runnable task) {
+        try {
+            task.run();
+        } catch (final Throwable th) {
+            final var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, th);
+        }
+    }
+
+    private void expungeStale() {
+        StrandRef ref;
+
+        while ((ref = (StrandRef) stale.poll()) != null) {
+            strands.remove(ref.key, ref);
+        }
+    }
+}
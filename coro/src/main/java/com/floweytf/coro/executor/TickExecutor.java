@@ -0,0 +1,304 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * An executor for a main thread which runs in ticks, such as the thread of a game server. Tasks may be submitted from
+ * any thread, but they only run when the owner of this executor calls {@link TickExecutor#tick(long)}, and only for as
+ * long as the time budget of the tick allows. Whatever doesn't fit is carried over to the next tick, in order.
+ *
+ * <p>
+ * Coroutines bound to this executor may wait for a later tick with {@link TickExecutor#nextTick()} and
+ * {@link TickExecutor#delayTicks(long)}. Coroutines bound to another executor may wait for ticks as well, and are
+ * resumed on their own executor.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var main = new TickExecutor();
+ * main.launch(() -> spawnWave(world));
+ *
+ * while (isRunning) {
+ *     final var stats = main.tick(TimeUnit.MILLISECONDS.toNanos(45));
+ *     // ...
+ * }
+ * }</pre>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of the ticking thread, and the tick carries on.
+ * </p>
+ */
+public final class TickExecutor implements CoroutineExecutor {
+    private static final int WAITING = 0;
+    private static final int RESUMED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final VarHandle TICKING;
+    private static final VarHandle INCOMING;
+    private static final VarHandle WAITER_STATE;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            TICKING = lookup.findVarHandle(TickExecutor.class, "ticking", Thread.class);
+            INCOMING = lookup.findVarHandle(TickExecutor.class, "incoming", Waiter.class);
+            WAITER_STATE = lookup.findVarHandle(Waiter.class, "state", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The statistics of a single tick.
+     *
+     * @param tick         The number of the tick, starting at 1.
+     * @param tasksRun     The number of tasks run during the tick.
+     * @param backlog      The number of tasks left over for the next tick. This is a close estimate, since tasks may be
+     *                     submitted concurrently.
+     * @param elapsedNanos The time spent running the tick.
+     * @param exhausted    Whether the tick ran out of budget before running out of tasks.
+     */
+    public record TickStats(long tick, int tasksRun, long backlog, long elapsedNanos, boolean exhausted) {
+    }
+
+    private static final class Waiter {
+        private final long targetTick;
+        private final Continuation<Long> resume;
+        private volatile int state;
+
+        // links the incoming stack, and is only touched by the ticking thread once the waiter has been taken from it
+        private Waiter next;
+        private long sequence;
+
+        private Waiter(final long targetTick, final Continuation<Long> resume) {
+            this.targetTick = targetTick;
+            this.resume = resume;
+        }
+    }
+
+    private final class TickWait implements Awaitable<Long> {
+        private final long ticks;
+        private volatile Waiter current;
+
+        private TickWait(final long ticks) {
+            this.ticks = ticks;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Long> resume) {
+            // Reading the tick number may race with the start of the next tick, in which case the waiter is resumed a
+            // tick late, but never early.
+            final var target = tickNumber + ticks;
+            final var waiter = new Waiter(target < 0 ? Long.MAX_VALUE : target, resume);
+            current = waiter;
+
+            Waiter head;
+
+            do {
+                head = incoming;
+                waiter.next = head;
+            } while (!INCOMING.weakCompareAndSet(TickExecutor.this, head, waiter));
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Long> resume) {
+            final var waiter = current;
+            return waiter != null && waiter.resume == resume && WAITER_STATE.compareAndSet(waiter, WAITING, CANCELLED);
+        }
+    }
+
+    private final LongSupplier nanoTime;
+    private final MpscQueue queue = new MpscQueue();
+    private final LongAdder submitted = new LongAdder();
+    private volatile Thread ticking;
+    private volatile Waiter incoming;
+    private volatile long tickNumber;
+    private volatile TickStats lastStats;
+
+    // only touched by the ticking thread
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+        Comparator.comparingLong((Waiter waiter) -> waiter.targetTick).thenComparingLong(waiter -> waiter.sequence));
+    private long executed;
+    private long sequence;
+
+    /**
+     * Creates a tick executor, which measures its budget with {@link System#nanoTime()}.
+     */
+    public TickExecutor() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a tick executor, which measures its budget with the specified clock.
+     *
+     * @param nanoTime The clock, in nanoseconds.
+     */
+    public TickExecutor(final LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Submits a task, which runs during the current tick if there is budget left, or during a later tick otherwise.
+     *
+     * @param handler The task to run.
+     */
+    @Override
+    public void executeTask(final Runnable handler) {
+        // counted first, so the backlog is never underestimated
+        submitted.increment();
+        queue.offer(handler);
+    }
+
+    /**
+     * Runs a tick: resumes the coroutines waiting for it, and then runs the submitted tasks in order until either
+     * there are none left, or the budget is exhausted. At least one task runs, if there is any, so every tick makes
+     * progress however small the budget. A single task isn't interrupted, so a tick may overrun its budget by the
+     * duration of the last task it ran.
+     *
+     * <p>
+     * Ticks must not overlap, but consecutive ticks may be run by different threads.
+     * </p>
+     *
+     * @param budgetNanos The time budget of this tick.
+     * @return The statistics of this tick.
+     * @throws IllegalStateException If a tick is already running.
+     */
+    public TickStats tick(final long budgetNanos) {
+        final var thread = Thread.currentThread();
+
+        if (!TICKING.compareAndSet(this, null, thread)) {
+            throw new IllegalStateException("TickExecutor is already ticking");
+        }
+
+        try {
+            final var start = nanoTime.getAsLong();
+            final var current = tickNumber + 1;
+            tickNumber = current;
+
+            releaseWaiters(current);
+
+            int ran = 0;
+            var exhausted = false;
+
+            while (true) {
+                if (ran > 0 && nanoTime.getAsLong() - start >= budgetNanos) {
+                    exhausted = !queue.isEmpty();
+                    break;
+                }
+
+                final var task = queue.poll();
+
+                if (task == null) {
+                    break;
+                }
+
+                ran++;
+
+                try {
+                    task.run();
+                } catch (final Throwable th) {
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, th);
+                }
+            }
+
+            executed += ran;
+
+            final var stats = new TickStats(current, ran, Math.max(submitted.sum() - executed, 0),
+                nanoTime.getAsLong() - start, exhausted);
+            lastStats = stats;
+            return stats;
+        } finally {
+            ticking = null;
+        }
+    }
+
+    /**
+     * Creates an awaitable which completes at the start of the next tick. Awaiting it from a coroutine bound to this
+     * executor yields for the rest of the current tick.
+     *
+     * @return The awaitable, which resolves to the number of the tick it completed on.
+     */
+    public Awaitable<Long> nextTick() {
+        return new TickWait(1);
+    }
+
+    /**
+     * Creates an awaitable which completes at the start of the tick a number of ticks from now.
+     *
+     * @param ticks The number of ticks to wait, which must be positive.
+     * @return The awaitable, which resolves to the number of the tick it completed on.
+     */
+    public Awaitable<Long> delayTicks(final long ticks) {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("ticks must be positive");
+        }
+
+        return new TickWait(ticks);
+    }
+
+    /**
+     * Obtains the number of the latest tick, which is {@code 0} before the first one.
+     *
+     * @return The tick number.
+     */
+    public long currentTick() {
+        return tickNumber;
+    }
+
+    /**
+     * Obtains the statistics of the latest completed tick. This may be called from any thread, for monitoring.
+     *
+     * @return The statistics, or {@code null} before the first tick completes.
+     */
+    public TickStats lastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Checks whether the current thread is running a tick of this executor.
+     *
+     * @return Whether it is.
+     */
+    public boolean inTick() {
+        return ticking == Thread.currentThread();
+    }
+
+    private void releaseWaiters(final long current) {
+        var waiter = (Waiter) INCOMING.getAndSet(this, null);
+        Waiter reversed = null;
+
+        // the incoming stack is newest first, and waiters for the same tick are resumed in the order they registered
+        while (waiter != null) {
+            final var next = waiter.next;
+            waiter.next = reversed;
+            reversed = waiter;
+            waiter = next;
+        }
+
+        while (reversed != null) {
+            final var next = reversed.next;
+            reversed.next = null;
+            reversed.sequence = sequence++;
+            waiters.add(reversed);
+            reversed = next;
+        }
+
+        while (!waiters.isEmpty() && waiters.peek().targetTick <= current) {
+            final var due = waiters.poll();
+
+            if (WAITER_STATE.compareAndSet(due, WAITING, RESUMED)) {
+                due.resume.submit(current);
+            }
+        }
+    }
+}
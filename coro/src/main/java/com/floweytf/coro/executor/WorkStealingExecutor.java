@@ -0,0 +1,440 @@
+package com.floweytf.coro.executor;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A multi-threaded executor for coroutines, whose workers each have their own queue, and steal work from each other
+ * when they run out.
+ *
+ * <p>
+ * A task submitted from one of the workers, which is how coroutines resume each other, goes to the <i>next-to-run</i>
+ * slot of that worker, so a coroutine woken by the running one runs right after it, on the same core, while its state
+ * is still in cache. The task that was in the slot moves to the worker's local queue, where other workers may steal it.
+ * To keep two coroutines that keep resuming each other from starving the rest of the queue, the slot is only used for a
+ * few tasks in a row.
+ * </p>
+ *
+ * <p>
+ * Local queues are bounded, lock-free ring buffers, which their worker pushes to without any atomic read-modify-write.
+ * An idle worker steals half the queue of another worker at once. Tasks submitted from other threads go through a
+ * shared lock-free queue, which the workers also check every so often, so those tasks aren't starved by local work.
+ * </p>
+ *
+ * <p>
+ * Idle workers park. A worker that makes work available only wakes a parked worker if no other worker is already
+ * looking for work, so a burst of tasks doesn't wake every worker at once.
+ * </p>
+ *
+ * <p>
+ * A task that throws is reported to the uncaught exception handler of its worker, and the worker carries on.
+ * </p>
+ */
+public final class WorkStealingExecutor implements CoroutineExecutor, AutoCloseable {
+    private static final VarHandle PARKED;
+    private static final VarHandle SEARCHING;
+    private static final VarHandle ALIVE;
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle IS_PARKED;
+    private static final VarHandle BUFFER = MethodHandles.arrayElementVarHandle(Runnable[].class);
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            PARKED = lookup.findVarHandle(WorkStealingExecutor.class, "parked", int.class);
+            SEARCHING = lookup.findVarHandle(WorkStealingExecutor.class, "searching", int.class);
+            ALIVE = lookup.findVarHandle(WorkStealingExecutor.class, "alive", int.class);
+            HEAD = lookup.findVarHandle(Worker.class, "head", int.class);
+            TAIL = lookup.findVarHandle(Worker.class, "tail", int.class);
+            IS_PARKED = lookup.findVarHandle(Worker.class, "isParked", boolean.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final int LOCAL_CAPACITY = 256;
+    private static final int LOCAL_MASK = LOCAL_CAPACITY - 1;
+    private static final int MAX_LIFO_RUNS = 3;
+    private static final int INJECTOR_INTERVAL = 61;
+
+    private final class Worker extends Thread {
+        // taken from by the worker and by thieves, only pushed to by the worker
+        private final Runnable[] buffer = new Runnable[LOCAL_CAPACITY];
+        private volatile int head;
+        private volatile int tail;
+        private volatile boolean isParked;
+
+        // only touched by the worker
+        private Runnable lifoSlot;
+        private int lifoRuns;
+        private int ticks;
+
+        private Worker(final int index) {
+            super("coroutine-worker-" + index);
+            setDaemon(true);
+        }
+
+        private WorkStealingExecutor owner() {
+            return WorkStealingExecutor.this;
+        }
+
+        private void schedule(final Runnable task) {
+            final var previous = lifoSlot;
+            lifoSlot = task;
+
+            if (previous != null) {
+                pushOrOverflow(previous);
+                notifyWork();
+            }
+        }
+
+        private void pushOrOverflow(final Runnable task) {
+            final var current = tail;
+
+            if (current - (int) HEAD.getAcquire(this) >= LOCAL_CAPACITY) {
+                injector.offer(task);
+                return;
+            }
+
+            BUFFER.setRelease(buffer, current & LOCAL_MASK, task);
+            // this must be a volatile write, since the worker then reads the searching and parked counts, while a
+            // worker that is about to park writes them and then reads the queues
+            tail = current + 1;
+        }
+
+        private Runnable poll() {
+            while (true) {
+                final var first = (int) HEAD.getAcquire(this);
+                final var last = (int) TAIL.getAcquire(this);
+
+                if (first == last) {
+                    return null;
+                }
+
+                final var task = (Runnable) BUFFER.getAcquire(buffer, first & LOCAL_MASK);
+
+                // if the worker has reused the slot since, the head has moved, and this fails
+                if (HEAD.compareAndSet(this, first, first + 1)) {
+                    return task;
+                }
+            }
+        }
+
+        /**
+         * Moves half the tasks of another worker to this worker's queue, which must be empty.
+         *
+         * @return One of the stolen tasks, which isn't put into the queue, or {@code null} if there was nothing to
+         * steal.
+         */
+        private Runnable stealFrom(final Worker victim) {
+            while (true) {
+                final var first = (int) HEAD.getAcquire(victim);
+                final var last = (int) TAIL.getAcquire(victim);
+                final var available = last - first;
+
+                if (available <= 0) {
+                    return null;
+                }
+
+                final var count = available - available / 2;
+                final var start = tail;
+
+                for (var i = 0; i < count; i++) {
+                    final var task = BUFFER.getAcquire(victim.buffer, (first + i) & LOCAL_MASK);
+                    buffer[(start + i) & LOCAL_MASK] = (Runnable) task;
+                }
+
+                if (HEAD.compareAndSet(victim, first, first + count)) {
+                    final var task = buffer[(start + count - 1) & LOCAL_MASK];
+
+                    if (count > 1) {
+                        tail = start + count - 1;
+                    }
+
+                    return task;
+                }
+            }
+        }
+
+        private Runnable nextTask() {
+            if (++ticks % INJECTOR_INTERVAL == 0) {
+                final var task = injector.poll();
+
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            if (lifoSlot != null) {
+                final var task = lifoSlot;
+                lifoSlot = null;
+
+                if (lifoRuns < MAX_LIFO_RUNS) {
+                    lifoRuns++;
+                    return task;
+                }
+
+                // let the rest of the queue run
+                pushOrOverflow(task);
+            }
+
+            lifoRuns = 0;
+
+            final var task = poll();
+            return task != null ? task : injector.poll();
+        }
+
+        private Runnable search() {
+            SEARCHING.getAndAdd(WorkStealingExecutor.this, 1);
+
+            Runnable task = null;
+            final var offset = ThreadLocalRandom.current().nextInt(workers.length);
+
+            for (var i = 0; i < workers.length && task == null; i++) {
+                final var victim = workers[(offset + i) % workers.length];
+
+                if (victim != this) {
+                    task = stealFrom(victim);
+                }
+            }
+
+            if (task == null) {
+                task = injector.poll();
+            }
+
+            // the last worker to stop searching hands the search over, in case there is more work around
+            if ((int) SEARCHING.getAndAdd(WorkStealingExecutor.this, -1) == 1 && task != null) {
+                notifyWork();
+            }
+
+            return task;
+        }
+
+        private void park() {
+            isParked = true;
+            PARKED.getAndAdd(WorkStealingExecutor.this, 1);
+
+            if (!hasWork()) {
+                while (isParked && !isClosed) {
+                    LockSupport.park(this);
+                }
+            }
+
+            // unless a waker has cleared the flag, and the count along with it
+            if (IS_PARKED.compareAndSet(this, true, false)) {
+                PARKED.getAndAdd(WorkStealingExecutor.this, -1);
+            }
+        }
+
+        private void runTask(final Runnable task) {
+            try {
+                task.run();
+            } catch (final Throwable th) {
+                getUncaughtExceptionHandler().uncaughtException(this, th);
+            }
+        }
+
+        private Runnable findTask() {
+            final var task = nextTask();
+            return task != null ? task : search();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final var task = findTask();
+
+                if (task != null) {
+                    runTask(task);
+                } else if (isClosed) {
+                    break;
+                } else {
+                    park();
+                }
+            }
+
+            if ((int) ALIVE.getAndAdd(WorkStealingExecutor.this, -1) != 1) {
+                return;
+            }
+
+            // this must be a volatile write, since a submitter enqueues and then reads the flag, while the last worker
+            // writes the flag and then drains the queues one last time
+            isTerminated = true;
+
+            for (var task = findTask(); task != null; task = findTask()) {
+                runTask(task);
+            }
+        }
+    }
+
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Runnable> injector = new ConcurrentLinkedQueue<>();
+
+    private volatile int parked;
+    private volatile int searching;
+    private volatile int alive;
+    private volatile boolean isClosed;
+    private volatile boolean isTerminated;
+
+    /**
+     * Creates an executor with a worker per available processor.
+     */
+    public WorkStealingExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an executor, whose workers run on daemon threads.
+     *
+     * @param parallelism The number of workers.
+     */
+    public WorkStealingExecutor(final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        workers = new Worker[parallelism];
+        alive = parallelism;
+
+        for (var i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        for (final var worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Submits a task. If the current thread is a worker of this executor, the task runs on it next, otherwise it is
+     * picked up by any of the workers.
+     *
+     * @param handler The task to run.
+     * @throws RejectedExecutionException If this executor is closed, and the task is submitted from another thread.
+     */
+    @Override
+    public void executeTask(final Runnable handler) {
+        if (Thread.currentThread() instanceof final Worker worker && worker.owner() == this) {
+            worker.schedule(handler);
+            return;
+        }
+
+        if (isClosed) {
+            throw new RejectedExecutionException("WorkStealingExecutor is closed");
+        }
+
+        injector.offer(handler);
+
+        // the last worker may have exited without seeing the task
+        if (isTerminated && injector.remove(handler)) {
+            throw new RejectedExecutionException("WorkStealingExecutor is closed");
+        }
+
+        notifyWork();
+    }
+
+    /**
+     * Checks whether the current thread is one of the workers of this executor.
+     *
+     * @return Whether the current thread is a worker.
+     */
+    public boolean isWorkerThread() {
+        return Thread.currentThread() instanceof final Worker worker && worker.owner() == this;
+    }
+
+    /**
+     * Obtains the number of workers.
+     *
+     * @return The number of workers.
+     */
+    public int parallelism() {
+        return workers.length;
+    }
+
+    /**
+     * Closes this executor. The tasks submitted so far still run, after which the workers exit. Submitting a task from
+     * another thread afterwards fails with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        for (final var worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Waits for the workers to exit, after this executor has been closed.
+     *
+     * @param timeout The maximum time to wait.
+     * @return Whether all the workers have exited.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(final Duration timeout) throws InterruptedException {
+        final var deadline = System.nanoTime() + timeout.toNanos();
+
+        for (final var worker : workers) {
+            final var remaining = deadline - System.nanoTime();
+
+            if (remaining > 0) {
+                worker.join(Math.max(1, remaining / 1_000_000));
+            }
+
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void notifyWork() {
+        if (searching != 0 || parked == 0) {
+            return;
+        }
+
+        final var offset = ThreadLocalRandom.current().nextInt(workers.length);
+
+        for (var i = 0; i < workers.length; i++) {
+            final var worker = workers[(offset + i) % workers.length];
+
+            if (worker.isParked && IS_PARKED.compareAndSet(worker, true, false)) {
+                PARKED.getAndAdd(this, -1);
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        if (!injector.isEmpty()) {
+            return true;
+        }
+
+        for (final var worker : workers) {
+            if (worker.tail != worker.head) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkStealingExecutor[parallelism=" + workers.length + "]";
+    }
+}
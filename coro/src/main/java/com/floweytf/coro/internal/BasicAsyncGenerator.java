@@ -0,0 +1,416 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.AsyncGenerator;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * The base class of generated async generators, which are tasks that may also yield. The generator keeps running
+ * through its yields for as long as the consumer has demand left, handing each element to the current {@link Sink}
+ * inline. Once the demand is used up, it parks its continuation on the {@link Gate}, which also completes the pending
+ * pull, and it is resumed by the next request.
+ *
+ * <p>
+ * The demand is only ever decreased by the generator itself, and only while it is running, so whoever takes the
+ * parked continuation while there is demand may resume it.
+ * </p>
+ */
+@ApiStatus.Internal
+public abstract class BasicAsyncGenerator<T> extends BasicTask<Void> implements AsyncGenerator<T> {
+    private static final int MODE_NONE = 0;
+    private static final int MODE_PULL = 1;
+    private static final int MODE_PUBLISH = 2;
+
+    private static final VarHandle DEMAND;
+    private static final VarHandle PARKED;
+    private static final VarHandle PULLER;
+    private static final VarHandle MODE;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            DEMAND = lookup.findVarHandle(BasicAsyncGenerator.class, "demand", long.class);
+            PARKED = lookup.findVarHandle(BasicAsyncGenerator.class, "parked", Continuation.class);
+            PULLER = lookup.findVarHandle(BasicAsyncGenerator.class, "puller", Continuation.class);
+            MODE = lookup.findVarHandle(BasicAsyncGenerator.class, "mode", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Where yielded elements go.
+     */
+    private abstract static class Sink {
+        abstract void accept(Object value);
+    }
+
+    /**
+     * The awaitable a yield suspends on once there is no demand left.
+     */
+    private final class Gate implements Awaitable<Void> {
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Void> resume) {
+            PARKED.setVolatile(BasicAsyncGenerator.this, resume);
+            handOff();
+            // the consumer may have asked for more since the yield
+            wakeParked();
+        }
+
+        @Override
+        public boolean cancel(final Continuation<Void> resume) {
+            return PARKED.compareAndSet(BasicAsyncGenerator.this, resume, null);
+        }
+    }
+
+    /**
+     * A request for a number of elements, which completes once they have all been yielded.
+     */
+    private abstract class Pull<R> extends Sink implements Awaitable<R> {
+        abstract long amount();
+
+        /**
+         * The result once all the requested elements have been yielded.
+         */
+        abstract R result();
+
+        /**
+         * The result once the generator has finished. If it failed, its error is thrown instead, unless this is a
+         * batch with elements left to deliver.
+         */
+        abstract R endResult();
+
+        @Override
+        public boolean isReady() {
+            return BasicAsyncGenerator.this.isReady();
+        }
+
+        @Override
+        public R readyValue() throws Throwable {
+            final var error = readyError();
+
+            if (error != null) {
+                throw error;
+            }
+
+            return endResult();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void execute(final CoroutineExecutor executor, final Continuation<R> resume) {
+            pull(executor, (Continuation<Object>) (Continuation<?>) resume, this);
+        }
+
+        @Override
+        public boolean cancel(final Continuation<R> resume) {
+            // the consumer has given up on the generator
+            if (PULLER.compareAndSet(BasicAsyncGenerator.this, resume, null)) {
+                BasicAsyncGenerator.this.cancel();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private final class NextPull extends Pull<Boolean> {
+        @Override
+        @SuppressWarnings("unchecked")
+        void accept(final Object value) {
+            current = (T) value;
+        }
+
+        @Override
+        long amount() {
+            return 1;
+        }
+
+        @Override
+        Boolean result() {
+            return true;
+        }
+
+        @Override
+        Boolean endResult() {
+            return false;
+        }
+    }
+
+    private final class BatchPull extends Pull<List<T>> {
+        private final int maxElements;
+        private final List<T> elements = new ArrayList<>();
+
+        private BatchPull(final int maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void accept(final Object value) {
+            elements.add((T) value);
+        }
+
+        @Override
+        long amount() {
+            return maxElements;
+        }
+
+        @Override
+        List<T> result() {
+            return elements;
+        }
+
+        @Override
+        List<T> endResult() {
+            // deliver what has been yielded so far, the error shows up on the next pull
+            return elements;
+        }
+    }
+
+    private final class Subscription extends Sink implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final CoroutineExecutor executor;
+
+        // set once the subscription is cancelled, or a terminal signal has been sent
+        private volatile boolean isDone;
+        private volatile Throwable invalidRequest;
+
+        private Subscription(final Flow.Subscriber<? super T> subscriber, final CoroutineExecutor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void accept(final Object value) {
+            subscriber.onNext((T) value);
+        }
+
+        @Override
+        public void request(final long n) {
+            if (isDone) {
+                return;
+            }
+
+            if (n <= 0) {
+                // this has to be signalled from the generator, so that it doesn't race with onNext
+                invalidRequest = new IllegalArgumentException("Subscription.request() requires a positive count");
+                BasicAsyncGenerator.this.cancel();
+                begin(executor);
+                return;
+            }
+
+            long previous;
+            long updated;
+
+            do {
+                previous = demand;
+                updated = previous + n < 0 ? Long.MAX_VALUE : previous + n;
+            } while (!DEMAND.weakCompareAndSet(BasicAsyncGenerator.this, previous, updated));
+
+            // if there was demand already, the generator is running, or about to check it again
+            if (previous == 0) {
+                begin(executor);
+                wakeParked();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            isDone = true;
+            BasicAsyncGenerator.this.cancel();
+        }
+
+        private void finish() {
+            final var invalid = invalidRequest;
+
+            if (invalid == null && isDone) {
+                return;
+            }
+
+            isDone = true;
+
+            final var error = invalid != null ? invalid : readyError();
+
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    private final Gate gate = new Gate();
+    private final NextPull next = new NextPull();
+
+    private volatile long demand;
+    private volatile Continuation<Void> parked;
+    private volatile Continuation<Object> puller;
+    private volatile int mode;
+
+    // written by the consumer before it publishes demand
+    private Sink sink;
+    private Subscription subscription;
+
+    private T current;
+
+    protected BasicAsyncGenerator() {
+        addListener(task -> onFinished());
+    }
+
+    protected static boolean yieldHelper(final Object value, final BasicAsyncGenerator<?> self) {
+        // the consumer is gone, so drop the element and let the suspension throw
+        if (self.isCancelled()) {
+            return false;
+        }
+
+        DEMAND.getAndAdd(self, -1L);
+        self.sink.accept(value);
+
+        // the consumer may have asked for more from within the sink
+        return (long) DEMAND.getVolatile(self) > 0 && !self.isCancelled();
+    }
+
+    protected static void suspendYieldHelper(final BasicAsyncGenerator<?> self, final int newState) {
+        suspendHelper(self.gate, self, newState);
+    }
+
+    /**
+     * Completes the pending pull, since the generator has run out of demand.
+     */
+    @SuppressWarnings("unchecked")
+    private void handOff() {
+        final var waiter = (Continuation<Object>) PULLER.getAndSet(this, null);
+
+        if (waiter != null) {
+            waiter.submit(((Pull<?>) sink).result());
+        }
+    }
+
+    /**
+     * Resumes the generator if it is parked, and there is demand.
+     */
+    @SuppressWarnings("unchecked")
+    private void wakeParked() {
+        while ((long) DEMAND.getVolatile(this) > 0) {
+            final var continuation = (Continuation<Void>) PARKED.getAndSet(this, null);
+
+            if (continuation == null) {
+                return;
+            }
+
+            if ((long) DEMAND.getVolatile(this) > 0) {
+                continuation.submit(null);
+                return;
+            }
+
+            // we got hold of a newer suspension, which has already used up the demand, so put it back
+            PARKED.setVolatile(this, continuation);
+        }
+    }
+
+    private void pull(final CoroutineExecutor executor, final Continuation<Object> resume, final Pull<?> pull) {
+        if (mode != MODE_PULL && !MODE.compareAndSet(this, MODE_NONE, MODE_PULL)) {
+            throw new IllegalStateException("AsyncGenerator is already consumed by a publisher");
+        }
+
+        if (puller != null) {
+            throw new IllegalStateException("AsyncGenerator may only be pulled by one coroutine at a time");
+        }
+
+        sink = pull;
+        PULLER.setVolatile(this, resume);
+        DEMAND.setVolatile(this, pull.amount());
+
+        begin(executor);
+        wakeParked();
+
+        // the generator may have finished (i.e. it was cancelled) before it could see the pull
+        if (isReady() && PULLER.compareAndSet(this, resume, null)) {
+            finishPull(resume, pull);
+        }
+    }
+
+    private void finishPull(final Continuation<Object> waiter, final Pull<?> pull) {
+        final var error = readyError();
+        final var result = pull.endResult();
+
+        if (error != null && !(result instanceof final List<?> list && !list.isEmpty())) {
+            waiter.submitError(error);
+        } else {
+            waiter.submit(result);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onFinished() {
+        final var waiter = (Continuation<Object>) PULLER.getAndSet(this, null);
+
+        if (waiter != null) {
+            finishPull(waiter, (Pull<?>) sink);
+        }
+
+        final var currentSubscription = subscription;
+
+        if (currentSubscription != null) {
+            currentSubscription.finish();
+        }
+    }
+
+    @Override
+    public Awaitable<Boolean> moveNext() {
+        return next;
+    }
+
+    @Override
+    public T current() {
+        return current;
+    }
+
+    @Override
+    public Awaitable<List<T>> nextBatch(final int maxElements) {
+        if (maxElements <= 0) {
+            throw new IllegalArgumentException("maxElements must be positive");
+        }
+
+        return new BatchPull(maxElements);
+    }
+
+    @Override
+    public Flow.Publisher<T> publisher(final CoroutineExecutor executor) {
+        return subscriber -> subscribe(subscriber, executor);
+    }
+
+    private void subscribe(final Flow.Subscriber<? super T> subscriber, final CoroutineExecutor executor) {
+        Objects.requireNonNull(subscriber);
+
+        if (!MODE.compareAndSet(this, MODE_NONE, MODE_PUBLISH)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("AsyncGenerator may only be consumed once"));
+            return;
+        }
+
+        final var newSubscription = new Subscription(subscriber, executor);
+        sink = newSubscription;
+        subscription = newSubscription;
+        subscriber.onSubscribe(newSubscription);
+    }
+}
@@ -0,0 +1,26 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.DoubleTask;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public abstract class BasicDoubleTask extends BasicTask<Double> implements DoubleTask {
+    @Override
+    public DoubleTask begin(final CoroutineExecutor executor) {
+        super.begin(executor);
+        return this;
+    }
+
+    @Override
+    public DoubleTask withDeadline(final Duration timeout) {
+        super.withDeadline(timeout);
+        return this;
+    }
+
+    @Override
+    protected Object boxedValue() {
+        return Double.longBitsToDouble(rawValue);
+    }
+}
@@ -0,0 +1,165 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.Generator;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * The base class of generated generators. The body is the same kind of state machine as a task, but it is resumed
+ * directly by the iterator, and suspends by returning from {@link #run(int, boolean, Object)} after storing the
+ * yielded element. None of the state is shared between threads, so it's all plain fields.
+ */
+@ApiStatus.Internal
+public abstract class BasicGenerator<T> implements Generator<T>, Iterator<T> {
+    private static final int STATE_DONE = -1;
+
+    // the state to resume the body from, or STATE_DONE once it has finished
+    private int state;
+    private boolean hasElement;
+    private boolean isRunning;
+
+    // the last element yielded; primitive generators store it in rawElement instead
+    private Object element;
+    protected long rawElement;
+
+    protected static void yieldHelper(final Object value, final BasicGenerator<?> self, final int newState) {
+        self.element = value;
+        self.hasElement = true;
+        self.state = newState;
+    }
+
+    protected static void yieldIntHelper(final int value, final BasicGenerator<?> self, final int newState) {
+        self.rawElement = value;
+        self.hasElement = true;
+        self.state = newState;
+    }
+
+    protected static void yieldLongHelper(final long value, final BasicGenerator<?> self, final int newState) {
+        self.rawElement = value;
+        self.hasElement = true;
+        self.state = newState;
+    }
+
+    protected static void checkThrow(final boolean isEx, final Object arg) throws Throwable {
+        if (isEx) {
+            throw (Throwable) arg;
+        }
+    }
+
+    private void resume(final boolean isEx, final Object arg) {
+        if (isRunning) {
+            throw new IllegalStateException("Generator is already running");
+        }
+
+        final var current = state;
+
+        // if the body returns without yielding, it has finished (or thrown)
+        state = STATE_DONE;
+        isRunning = true;
+
+        try {
+            run(current, isEx, arg);
+        } finally {
+            isRunning = false;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasElement) {
+            return true;
+        }
+
+        if (state == STATE_DONE) {
+            return false;
+        }
+
+        resume(false, null);
+        return hasElement;
+    }
+
+    /**
+     * Consumes the current element, resuming the body to produce it if needed.
+     *
+     * @throws NoSuchElementException If the generator has finished.
+     */
+    protected final void advance() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        hasElement = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        advance();
+
+        final var result = (T) element;
+        element = null;
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (isRunning) {
+            throw new IllegalStateException("Generator is already running");
+        }
+
+        hasElement = false;
+        element = null;
+
+        if (state == STATE_DONE) {
+            return;
+        }
+
+        // the body hasn't started, so there are no finally blocks to run
+        if (state == 0) {
+            state = STATE_DONE;
+            return;
+        }
+
+        final var closed = new CancellationException("Generator closed");
+
+        try {
+            resume(true, closed);
+        } catch (final CancellationException e) {
+            if (e != closed) {
+                throw e;
+            }
+        }
+
+        if (hasElement) {
+            hasElement = false;
+            element = null;
+            state = STATE_DONE;
+            throw new IllegalStateException("Generator yielded after being closed");
+        }
+    }
+
+    protected abstract CoroutineMetadata getMetadata();
+
+    protected abstract void run(int state, boolean isExceptional, Object resVal);
+
+    @Override
+    public String toString() {
+        final var meta = getMetadata();
+        return "Generator[%s %s.%s(%s)]".formatted(
+            Modifier.toString(meta.access()),
+            meta.declaringClass().getSimpleName(),
+            meta.methodName(),
+            Arrays.stream(meta.argTypes()).map(Class::getSimpleName).collect(Collectors.joining(", "))
+        );
+    }
+}
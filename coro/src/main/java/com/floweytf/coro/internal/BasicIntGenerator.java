@@ -0,0 +1,25 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.IntGenerator;
+import java.util.PrimitiveIterator;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public abstract class BasicIntGenerator extends BasicGenerator<Integer> implements IntGenerator,
+    PrimitiveIterator.OfInt {
+    @Override
+    public int nextInt() {
+        advance();
+        return (int) rawElement;
+    }
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return this;
+    }
+}
@@ -0,0 +1,26 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.IntTask;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public abstract class BasicIntTask extends BasicTask<Integer> implements IntTask {
+    @Override
+    public IntTask begin(final CoroutineExecutor executor) {
+        super.begin(executor);
+        return this;
+    }
+
+    @Override
+    public IntTask withDeadline(final Duration timeout) {
+        super.withDeadline(timeout);
+        return this;
+    }
+
+    @Override
+    protected Object boxedValue() {
+        return (int) rawValue;
+    }
+}
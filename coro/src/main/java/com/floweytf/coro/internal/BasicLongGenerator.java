@@ -0,0 +1,25 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.LongGenerator;
+import java.util.PrimitiveIterator;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public abstract class BasicLongGenerator extends BasicGenerator<Long> implements LongGenerator,
+    PrimitiveIterator.OfLong {
+    @Override
+    public long nextLong() {
+        advance();
+        return rawElement;
+    }
+
+    @Override
+    public Long next() {
+        return nextLong();
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return this;
+    }
+}
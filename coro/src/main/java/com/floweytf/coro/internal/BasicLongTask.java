@@ -0,0 +1,26 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.LongTask;
+import java.time.Duration;
+import org.jetbrains.annotations.ApiStatus;
+
+@ApiStatus.Internal
+public abstract class BasicLongTask extends BasicTask<Long> implements LongTask {
+    @Override
+    public LongTask begin(final CoroutineExecutor executor) {
+        super.begin(executor);
+        return this;
+    }
+
+    @Override
+    public LongTask withDeadline(final Duration timeout) {
+        super.withDeadline(timeout);
+        return this;
+    }
+
+    @Override
+    protected Object boxedValue() {
+        return rawValue;
+    }
+}
@@ -7,9 +7,10 @@ import com.floweytf.coro.concepts.Task;
 import com.floweytf.coro.support.Result;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
-import java.lang.module.ModuleDescriptor;
 import java.lang.reflect.Modifier;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.ApiStatus;
@@ -17,51 +18,220 @@ import org.jetbrains.annotations.ApiStatus;
 @SuppressWarnings({"unchecked", "rawtypes", "unused", "FieldMayBeFinal"})
 @ApiStatus.Internal
 public abstract class BasicTask<T> implements Task<T> {
-    private static final class Entry<T> {
-        public Entry<T> next;
-        public final Consumer<Result<T>> handler;
-
-        private Entry(final Consumer<Result<T>> handler) {
-            this.handler = handler;
+    /**
+     * A node of the waiter list, only used once a task has more than one waiter. The waiter is either a
+     * {@link Consumer}, a {@link TaskContinuation}, or a {@link CompletionListener}.
+     */
+    private static final class Entry {
+        public final Entry next;
+        public final Object waiter;
+
+        private Entry(final Object waiter, final Entry next) {
+            this.waiter = waiter;
+            this.next = next;
         }
     }
 
-    private static sealed abstract class BaseContinuation<T> implements Continuation.Coroutine<T> {
-        private final Awaitable<T> awaitable;
-        protected final BasicTask<T> self;
-        private final int resumeState;
+    /**
+     * The continuation of a task. Only a single instance is ever created per task, which is reused for every
+     * suspension, so suspending and resuming does not allocate.
+     *
+     * <p>
+     * Since the instance is shared, double-resumption is detected with a stamp, which is odd while the task is
+     * suspended and even while it is running. Resuming flips the stamp from odd to even, so a second resumption of the
+     * same suspension point fails. A stale resumption that only arrives once the task has suspended again can't be told
+     * apart from a legitimate one this way, so awaitables other than tasks are handed a {@link Suspension} instead,
+     * which remembers the stamp of its suspension. A task has two of them, which are handed out in turn, so a late
+     * resumption of the previous suspension is rejected. One that is late by two suspensions or more can't be told
+     * apart.
+     * </p>
+     */
+    private static final class TaskContinuation<T> implements Continuation.Coroutine<T>, Runnable {
+        private final BasicTask<T> self;
+        private volatile int stamp;
+
+        // info about the current suspension, written by the coroutine before the stamp is published
+        private Awaitable<T> awaitable;
+        private int resumeState;
+        private boolean isImmediate;
+        private boolean isUnboxed;
+        // the continuation handed to the awaitable, which is either this, or a suspension
+        private Continuation<T> handle;
+        // the suspension handed out by the previous suspension, and the one to hand out next, created on first use
+        private Suspension<T> lastSuspension;
+        private Suspension<T> nextSuspension;
+
+        // the pending resumption, handed over to the executor along with this
+        private boolean resumeIsEx;
+        private Object resumeValue;
+        // whether the resumption runs as a task of the executor, rather than wherever an unwrapped awaitable resumed it
+        private boolean resumesOnExecutor;
+        // the thread the task was resumed on while that thread was still running it, which picks the resumption up
+        // once the task returns
+        private Thread resumedInlineOn;
+
+        // set when the task is cancelled while suspended on an awaitable that doesn't support cancellation, so the
+        // task throws once it resumes
+        private volatile boolean isCancelDeferred;
+
+        private TaskContinuation(final BasicTask<T> self) {
+            this.self = self;
+        }
 
-        private boolean flag;
+        /**
+         * Starts a suspension.
+         *
+         * @return The continuation to hand to the awaitable.
+         */
+        private Continuation<T> suspend(final Awaitable<T> awaitable, final int resumeState, final boolean isUnboxed) {
+            final var next = stamp + 1;
 
-        private BaseContinuation(final Awaitable<T> awaitable, final BasicTask<T> self, final int resumeState) {
             this.awaitable = awaitable;
-            this.self = self;
             this.resumeState = resumeState;
+            this.isImmediate = awaitable instanceof Awaitable.Unwrapped<T>;
+            this.isUnboxed = isUnboxed;
+            this.isCancelDeferred = false;
+            // a child task only ever resumes this once, as it completes
+            this.handle = awaitable instanceof BasicTask<T> ? this : takeSuspension(next);
+            // this must be a volatile write, since Task.cancel() sets its flag and then reads the stamp, while
+            // suspend() writes the stamp and then reads the flag
+            STAMP.setVolatile(this, next);
+            return handle;
         }
 
-        protected abstract void resume(Runnable task);
+        private Suspension<T> takeSuspension(final int stamp) {
+            var suspension = nextSuspension;
+
+            if (suspension == null) {
+                suspension = new Suspension<>(this);
+            }
+
+            nextSuspension = lastSuspension;
+            lastSuspension = suspension;
+            suspension.stamp = stamp;
+            return suspension;
+        }
 
-        private void resumeCommon() {
-            if ((boolean) RESUME_CONTINUATION_FLAG.getAndSet(this, true)) {
+        private boolean resume(final boolean isEx, final Object value, final CoroutineExecutor source) {
+            return resume((int) STAMP.getAcquire(this), isEx, value, source);
+        }
+
+        /**
+         * Resumes the task.
+         *
+         * @param expected The stamp of the suspension to resume.
+         * @param value    The result of the awaitable, or the completed child task itself if this is an unboxed
+         *                 suspension.
+         * @param source   The executor whose task this thread is running, if a child task has just completed in it.
+         *                 If it is the same as the executor of this task, the task may continue inline on this thread.
+         * @return Whether the caller has to {@link TaskContinuation#transfer() transfer} control to this task, once it
+         * has nothing else left to do.
+         */
+        private boolean resume(final int expected, final boolean isEx, final Object value,
+                               final CoroutineExecutor source) {
+            if ((expected & 1) == 0 || !STAMP.compareAndSet(this, expected, expected + 1)) {
                 throw new IllegalStateException("Coroutine may not be resumed twice on the same suspension point!");
             }
 
             self.suspendPointId = -1;
             self.currentAwaitable = null;
+
+            final var executor = self.getExecutor();
+
+            if (isEx) {
+                if ((self.hooks & CoroutineExecutor.HOOK_RESUME_EXCEPTIONALLY) != 0) {
+                    executor.onResumeExceptionally(self, awaitable, (Throwable) value);
+                }
+            } else if ((self.hooks & CoroutineExecutor.HOOK_RESUME) != 0) {
+                executor.onResume(self, awaitable, (T) (isUnboxed ? ((BasicTask<?>) value).boxedValue() : value));
+            }
+
+            resumeIsEx = isEx;
+            resumeValue = value;
+
+            resumesOnExecutor = !isImmediate;
+
+            final var thread = Thread.currentThread();
+
+            if ((isImmediate || executor == CoroutineExecutor.EAGER) && self.runner == thread) {
+                // The task is still running further up the stack, such as when an awaitable resumes it from within
+                // suspendHelper, or when it resumes a coroutine that resumes it back. Running it here would recurse
+                // once per suspension, so the frame running it picks the resumption up once it returns instead.
+                resumedInlineOn = thread;
+            } else if (isImmediate) {
+                run();
+            } else if (source != null && source == executor) {
+                return true;
+            } else {
+                executor.executeTask(this);
+            }
+
+            return false;
+        }
+
+        /**
+         * Asks the awaitable of the current suspension to let go of this continuation, and if it does, resumes the
+         * task with a {@link CancellationException}. This may race with the suspension itself, and with a regular
+         * resumption, but {@link Awaitable#cancel(Continuation)} only returns {@code true} for a continuation that
+         * won't be resumed otherwise.
+         *
+         * <p>
+         * If an awaitable that supports cancellation refuses, it has already handed its result over, such as a lock or
+         * an element of a channel, so the task is resumed with it as usual, and only notices the cancellation on its
+         * next await. Only an awaitable without support for cancellation makes the task throw once it resumes.
+         * </p>
+         */
+        private void cancelSuspension() {
+            if (((int) STAMP.getAcquire(this) & 1) == 0) {
+                return;
+            }
+
+            final var current = awaitable;
+            final var handle = this.handle;
+
+            if (current.cancel(handle)) {
+                handle.submitError(new CancellationException());
+            } else if (!isCancellable(current)) {
+                isCancelDeferred = true;
+            }
+        }
+
+        /**
+         * Runs the task inline, as part of the task of the same executor this thread is running, unless too many
+         * transfers are nested already.
+         */
+        private void transfer() {
+            final var running = RUNNING.get();
+
+            if (running.transferDepth >= MAX_TRANSFER_DEPTH) {
+                self.getExecutor().executeTask(this);
+                return;
+            }
+
+            running.transferDepth++;
+
+            try {
+                run();
+            } finally {
+                running.transferDepth--;
+            }
+        }
+
+        @Override
+        public void run() {
+            final var value = resumeValue;
+            resumeValue = null;
+            self.runSteps(resumesOnExecutor, resumeState, resumeIsEx, value);
         }
 
         @Override
         public void submitError(final Throwable error) {
-            resumeCommon();
-            self.getExecutor().onResumeExceptionally(self, awaitable, error);
-            resume(() -> self.run(resumeState, true, error));
+            resume(true, error, null);
         }
 
         @Override
         public void submit(final T value) {
-            resumeCommon();
-            self.getExecutor().onResume(self, awaitable, value);
-            resume(() -> self.run(resumeState, false, value));
+            resume(false, value, null);
         }
 
         @Override
@@ -71,57 +241,133 @@ public abstract class BasicTask<T> implements Task<T> {
 
         @Override
         public StackTraceElement calleeLocation() {
-            final var declaringClass = self.getMetadata().declaringClass();
-            final var moduleDesc = declaringClass.getModule().getDescriptor();
-
-            return new StackTraceElement(
-                declaringClass.getClassLoader().getName(),
-                declaringClass.getModule().getName(),
-                moduleDesc != null ? moduleDesc.version().map(ModuleDescriptor.Version::toString).orElse(null) : null,
-                declaringClass.getName(),
-                self.getMetadata().methodName(),
-                self.getMetadata().fileName(),
-                self.getMetadata().suspendPointLineNo()[resumeState - 1]
-            );
+            return self.getMetadata().suspendPointLocation(resumeState);
         }
     }
 
-    private static final class ImmediateContinuation<T> extends BaseContinuation<T> {
-        private ImmediateContinuation(final Awaitable<T> awaitable, final BasicTask<T> self, final int resumeState) {
-            super(awaitable, self, resumeState);
+    /**
+     * The continuation handed to an awaitable, which remembers the stamp of the suspension it was handed out for.
+     */
+    private static final class Suspension<T> implements Continuation.Coroutine<T> {
+        private final TaskContinuation<T> continuation;
+        // written before the suspension is handed to the awaitable, and only rewritten two suspensions later
+        private int stamp;
+
+        private Suspension(final TaskContinuation<T> continuation) {
+            this.continuation = continuation;
         }
 
         @Override
-        protected void resume(final Runnable task) {
-            task.run();
+        public void submitError(final Throwable error) {
+            continuation.resume(stamp, true, error, null);
+        }
+
+        @Override
+        public void submit(final T value) {
+            continuation.resume(stamp, false, value, null);
+        }
+
+        @Override
+        public Task<T> theTask() {
+            return continuation.self;
+        }
+
+        @Override
+        public StackTraceElement calleeLocation() {
+            return continuation.calleeLocation();
         }
     }
 
-    private static final class ScheduledContinuation<T> extends BaseContinuation<T> {
-        private ScheduledContinuation(final Awaitable<T> awaitable, final BasicTask<T> self, final int resumeState) {
-            super(awaitable, self, resumeState);
+    /**
+     * The first step of a task, which is what {@link BasicTask#begin(CoroutineExecutor)} submits to the executor. It's
+     * a class of its own, rather than a lambda, so executors can tell which task it begins.
+     */
+    private static final class Start implements Runnable {
+        private final BasicTask<?> self;
+
+        private Start(final BasicTask<?> self) {
+            this.self = self;
         }
 
         @Override
-        protected void resume(final Runnable task) {
-            self.myExecutor.executeTask(task);
+        public void run() {
+            self.runSteps(true, 0, false, null);
         }
     }
 
-    private static final Entry NIL = new Entry<>(ignored -> {
-    });
+    /**
+     * What the current thread is running, which decides whether a parent may continue inline once its child completes.
+     */
+    private static final class Running {
+        // the executor whose task this thread is running, if any, which is not set while an unwrapped awaitable has
+        // resumed a task on a thread of its choosing
+        private CoroutineExecutor executor;
+        private int transferDepth;
+    }
 
-    private volatile Entry<T> completeStack = NIL;
+    /**
+     * The completion state of this task, which is one of:
+     * <ul>
+     *     <li>{@code null}: pending, with no waiters</li>
+     *     <li>a {@link Consumer}, a {@link TaskContinuation} or a {@link CompletionListener}: pending, with exactly one
+     *     waiter, stored inline</li>
+     *     <li>an {@link Entry}: pending, with a list of waiters</li>
+     *     <li>{@link BasicTask#COMPLETED}: completed</li>
+     * </ul>
+     * The result itself is stored in plain fields, which are written before the state is published, and are only
+     * wrapped in a {@link Result} when a {@link Consumer} asks for one.
+     */
+    private volatile Object state;
     private volatile CoroutineExecutor myExecutor;
-    private volatile Result<T> result;
+    private volatile boolean isCancelled;
+
+    // the hooks enabled by myExecutor, captured once in begin
+    private int hooks;
+
+    // written before the task begins, or by the executor the task begins on, before it runs
+    private long deadline = NO_DEADLINE;
+
+    /**
+     * The maximum number of nested inline transfers from a child to its parent on a single thread, after which the
+     * parent is dispatched through the executor instead, which bounds the stack depth of long await chains.
+     */
+    private static final int MAX_TRANSFER_DEPTH = 64;
+    private static final ThreadLocal<Running> RUNNING = ThreadLocal.withInitial(Running::new);
 
-    private static final VarHandle COMPLETE_STACK;
+    private static final Object COMPLETED = new Object();
+
+    // whether an awaitable overrides Awaitable.cancel(Continuation), and thus supports cancellation
+    private static final ClassValue<Boolean> IS_CANCELLABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("cancel", Continuation.class).getDeclaringClass() != Awaitable.class;
+            } catch (final NoSuchMethodException e) {
+                throw new AssertionError(e);
+            }
+        }
+    };
+
+    private static final VarHandle STATE;
     private static final VarHandle MY_EXECUTOR;
-    private static final VarHandle RESULT;
-    private static final VarHandle RESUME_CONTINUATION_FLAG;
+    private static final VarHandle STAMP;
+    private static final VarHandle IS_CANCELLED;
+    private static final VarHandle RUNNER;
+
+    private Object value;
+    private Throwable error;
+
+    // the result of primitive tasks, with doubles stored as their raw bits
+    long rawValue;
 
     private int suspendPointId = -1;
     private Awaitable<?> currentAwaitable;
+    private volatile TaskContinuation<?> continuation;
+
+    // the thread running this task, if any, which is only ever compared against the current thread. The thread that ran
+    // the previous step may still be returning from it while another runs the next one, so it only clears this if it
+    // still holds its own thread.
+    private Thread runner;
 
     // info about the current suspend points
 
@@ -129,19 +375,27 @@ public abstract class BasicTask<T> implements Task<T> {
         final var lookup = MethodHandles.lookup();
 
         try {
-            COMPLETE_STACK = lookup.findVarHandle(BasicTask.class, "completeStack", Entry.class);
+            STATE = lookup.findVarHandle(BasicTask.class, "state", Object.class);
             MY_EXECUTOR = lookup.findVarHandle(BasicTask.class, "myExecutor", CoroutineExecutor.class);
-            RESULT = lookup.findVarHandle(BasicTask.class, "result", Result.class);
-            RESUME_CONTINUATION_FLAG = lookup.findVarHandle(BaseContinuation.class, "flag", boolean.class);
+            STAMP = lookup.findVarHandle(TaskContinuation.class, "stamp", int.class);
+            IS_CANCELLED = lookup.findVarHandle(BasicTask.class, "isCancelled", boolean.class);
+            RUNNER = lookup.findVarHandle(BasicTask.class, "runner", Thread.class);
         } catch (final NoSuchFieldException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
-    protected static void checkThrow(final boolean isEx, final Object arg) throws Throwable {
+    protected static void checkThrow(final boolean isEx, final Object arg, final BasicTask<?> self) throws Throwable {
         if (isEx) {
             throw (Throwable) arg;
         }
+
+        // the awaitable didn't support cancellation, so it only shows up once the task resumes
+        final var continuation = self.continuation;
+
+        if (self.isCancelled && continuation != null && continuation.isCancelDeferred) {
+            throw new CancellationException();
+        }
     }
 
     @Override
@@ -149,91 +403,529 @@ public abstract class BasicTask<T> implements Task<T> {
         // Need non-weak CAS here, since this absolutely cannot fail (no loop)
         // if it's nonnull, that means begin() was already called and there's no need to start it again
         if (MY_EXECUTOR.compareAndSet(this, null, executor)) {
-            executor.executeTask(() -> run(0, false, null));
+            hooks = executor.enabledHooks();
+
+            if (isCancelled) {
+                complete(null, new CancellationException(), 0);
+            } else {
+                executor.executeTask(new Start(this));
+            }
         }
 
         return this;
     }
 
     @Override
-    public void onComplete(final Consumer<Result<T>> resume) {
-        final var newNode = new Entry<T>(x -> myExecutor.executeTask(() -> resume.accept(x)));
+    public boolean cancel() {
+        if (isReady() || !IS_CANCELLED.compareAndSet(this, false, true)) {
+            return false;
+        }
+
+        // If the task is running, it notices the flag on its next await. Otherwise, it's suspended, and the
+        // continuation is read after the flag is set, so either we see the suspension here, or suspend() sees the flag.
+        final var continuation = this.continuation;
+
+        if (continuation != null) {
+            continuation.cancelSuspension();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    @Override
+    public Task<T> withDeadline(final Duration timeout) {
+        if (MY_EXECUTOR.getAcquire(this) != null) {
+            throw new IllegalStateException("The deadline of a task can't be changed once it has begun");
+        }
+
+        deadline = System.nanoTime() + timeout.toNanos();
+        return this;
+    }
 
+    @Override
+    public long deadline() {
+        return deadline;
+    }
+
+    /**
+     * Registers a waiter, which is either a {@link Consumer}, the {@link TaskContinuation} of an awaiting parent, or a
+     * {@link CompletionListener}.
+     *
+     * @return Whether the waiter was registered. If this task has already completed, it is not, and should be
+     * notified by the caller instead.
+     */
+    private boolean addWaiter(final Object waiter) {
         while (true) {
-            // Read the head pointer from the completion list
-            final var head = COMPLETE_STACK.getAcquire(this);
+            final var current = STATE.getAcquire(this);
 
-            // If it is null, this task has already been completed, and we need to invoke the continuation immediately.
-            if (head == null) {
-                // We don't need to busy loop here, since we used getAcquire for the head variable.
-                resume.accept((Result<T>) RESULT.get(this));
-                return;
+            if (current == COMPLETED) {
+                return false;
             }
 
-            // We should modify the next pointer of the new head so it points to the old head (standard linked list
-            // insert). We modify here instead of creating a new instance to reduce allocation.
-            newNode.next = (Entry<T>) head;
-
-            // This must be a compare and set to ensure that the head variable has not changed.
-            // This is to eliminate any possible data race:
-            // - onComplete can race with itself, which means the head we previously obtained is no longer up-to-date.
-            // - onComplete can race with complete, which means it's possible that we should be directly invoking the
-            //   callback here
-            // By doing compare and set, we can be sure that the head pointer has not changed at all between the get
-            // operation and now. This doesn't suffer from the ABA problem, since every new entry is unique.
-            if (COMPLETE_STACK.weakCompareAndSet(this, head, newNode)) {
-                return;
+            // The first waiter is stored inline, which is by far the most common case (the parent coroutine). Only
+            // once a second waiter shows up do we need to allocate list nodes.
+            final Object next;
+
+            if (current == null) {
+                next = waiter;
+            } else if (current instanceof final Entry head) {
+                next = new Entry(waiter, head);
+            } else {
+                next = new Entry(waiter, new Entry(current, null));
+            }
+
+            // This must be a compare and set to ensure that the state has not changed, since addWaiter can race with
+            // itself or with complete. This doesn't suffer from the ABA problem, since states only ever move forward
+            // and every new waiter or node is unique.
+            if (STATE.weakCompareAndSet(this, current, next)) {
+                return true;
             }
         }
     }
 
-    protected void complete(final Result<T> result) {
-        final var oldResult = RESULT.getAndSet(this, result);
+    /**
+     * Unlinks a waiter that was registered with {@link BasicTask#addWaiter(Object)}.
+     *
+     * @return Whether the waiter was unlinked. If this task has already completed, or the waiter was never registered
+     * (or was already unlinked), it is not.
+     */
+    private boolean removeWaiter(final Object waiter) {
+        while (true) {
+            final var current = STATE.getAcquire(this);
+            final Object next;
+
+            if (current == waiter) {
+                next = null;
+            } else if (current instanceof final Entry head) {
+                next = unlink(head, waiter);
+
+                if (next == head) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
 
-        if (oldResult != null) {
+            if (STATE.weakCompareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes a waiter from an immutable waiter list by copying the nodes in front of it.
+     *
+     * @return The new list, or {@code head} itself if the waiter is not in the list.
+     */
+    private static Object unlink(final Entry head, final Object waiter) {
+        if (head.waiter == waiter) {
+            return head.next;
+        }
+
+        if (head.next == null) {
+            return head;
+        }
+
+        final var tail = unlink(head.next, waiter);
+        return tail == head.next ? head : new Entry(head.waiter, (Entry) tail);
+    }
+
+    /**
+     * Registers a listener, which is called inline by the thread that completes this task. Unlike
+     * {@link BasicTask#onComplete(Consumer)}, this neither dispatches onto the executor nor allocates a {@link Result},
+     * which makes it suitable for combinators that track many tasks.
+     *
+     * @param listener The listener.
+     * @return Whether the listener was registered. If this task has already completed, it is not, and is not called.
+     */
+    public boolean addListener(final CompletionListener listener) {
+        return addWaiter(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link BasicTask#addListener(CompletionListener)}.
+     *
+     * @param listener The listener.
+     * @return Whether the listener was unregistered, which is {@code false} if it has already been (or is about to be)
+     * called.
+     */
+    public boolean removeListener(final CompletionListener listener) {
+        return removeWaiter(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link BasicTask#addListener(CompletionListener)}, and
+     * {@link BasicTask#cancel() cancels} this task if nothing else is waiting on it anymore. This is how combinators
+     * let go of the tasks they no longer need.
+     *
+     * @param listener The listener.
+     * @return Whether the listener was unregistered.
+     */
+    public boolean abandon(final CompletionListener listener) {
+        return abandon((Object) listener);
+    }
+
+    /**
+     * Rebinds this task to another executor, which it resumes on from then on, and which the tasks it starts inherit.
+     * This may only be called by the awaitable this task is suspended on, before it resumes the task.
+     *
+     * @param executor The executor.
+     */
+    public void moveTo(final CoroutineExecutor executor) {
+        hooks = executor.enabledHooks();
+        MY_EXECUTOR.setRelease(this, executor);
+    }
+
+    /**
+     * Obtains the deadline of the task a handler submitted to an executor belongs to, for executors that order their
+     * work by deadline. If the handler begins a task that has no deadline of its own, the task takes the inherited one.
+     *
+     * @param handler   The handler.
+     * @param inherited The deadline of the task the current thread is running on the executor, if any.
+     * @return The deadline, or {@link Task#NO_DEADLINE} if the handler doesn't belong to a task with a deadline.
+     */
+    public static long deadlineOf(final Runnable handler, final long inherited) {
+        if (handler instanceof final TaskContinuation<?> continuation) {
+            return continuation.self.deadline;
+        }
+
+        if (handler instanceof final Start start) {
+            final var task = start.self;
+
+            if (task.deadline == NO_DEADLINE) {
+                task.deadline = inherited;
+            }
+
+            return task.deadline;
+        }
+
+        return NO_DEADLINE;
+    }
+
+    /**
+     * Checks whether an awaitable supports cancellation, which it opts in to by overriding
+     * {@link Awaitable#cancel(Continuation)}. If it doesn't, its result may be dropped once its awaiter is cancelled,
+     * whereas the result of one that refuses to be cancelled has been handed over, and must be delivered.
+     *
+     * @param awaitable The awaitable.
+     * @return Whether it supports cancellation.
+     */
+    public static boolean isCancellable(final Awaitable<?> awaitable) {
+        return IS_CANCELLABLE.get(awaitable.getClass());
+    }
+
+    @Override
+    public void onComplete(final Consumer<Result<T>> resume) {
+        // If the task has already been completed, we need to invoke the continuation immediately.
+        if (!addWaiter(resume)) {
+            resume.accept(toResult());
+        }
+    }
+
+    /**
+     * Obtains the boxed result of this task, which must have completed successfully. Primitive tasks override this to
+     * box {@link BasicTask#rawValue}.
+     */
+    protected Object boxedValue() {
+        return value;
+    }
+
+    private Result<T> toResult() {
+        return error != null ? Result.error(error) : Result.value((T) boxedValue());
+    }
+
+    private boolean resumeWaiter(final TaskContinuation<?> continuation, final CoroutineExecutor source) {
+        if (error != null) {
+            return continuation.resume(true, error, source);
+        } else if (continuation.isUnboxed) {
+            // the parent reads the primitive result straight from this task
+            return continuation.resume(false, this, source);
+        } else {
+            return continuation.resume(false, boxedValue(), source);
+        }
+    }
+
+    /**
+     * Notifies a waiter of the completion of this task.
+     *
+     * @param source The executor whose task this thread is running, if a parent on it may continue inline.
+     * @return The continuation of the parent that is to continue inline, if any.
+     */
+    private TaskContinuation<?> notifyWaiter(final Object waiter, final CoroutineExecutor executor,
+                                             final CoroutineExecutor source) {
+        if (waiter instanceof final TaskContinuation<?> continuation) {
+            // The parent's continuation dispatches onto the parent's executor by itself, so there's no need to
+            // dispatch here as well.
+            return resumeWaiter(continuation, source) ? continuation : null;
+        }
+
+        if (waiter instanceof final CompletionListener listener) {
+            listener.onTaskComplete(this);
+        } else {
+            final var handler = (Consumer<Result<T>>) waiter;
+            final var result = toResult();
+            executor.executeTask(() -> handler.accept(result));
+        }
+
+        return null;
+    }
+
+    private void complete(final Object value, final Throwable error, final long rawValue) {
+        // Only the coroutine itself completes the task, so this can't race with another completion. It may however
+        // happen twice, if completing successfully throws.
+        if (STATE.getAcquire(this) == COMPLETED) {
+            return;
+        }
+
+        this.value = value;
+        this.error = error;
+        this.rawValue = rawValue;
+
+        Object current;
+
+        // Publishing the result and taking ownership of the waiters is a single CAS in the uncontended case.
+        do {
+            current = STATE.getAcquire(this);
+        } while (!STATE.weakCompareAndSet(this, current, COMPLETED));
+
+        if (current == null) {
             return;
         }
 
-        // Exchange the completion stack to null to notify the completion of this Task.
-        var head = (Entry<T>) COMPLETE_STACK.getAndSetRelease(this, null); // atomic exchange with null
+        final var executor = getExecutor();
+        // A parent may only continue inline if this thread is running a task of its executor, since an unwrapped
+        // awaitable may have resumed this task anywhere. At most one parent does, once all the waiters are notified.
+        final var source = RUNNING.get().executor;
+        TaskContinuation<?> inline = null;
+
+        if (current instanceof final Entry head) {
+            for (var entry = head; entry != null; entry = entry.next) {
+                final var next = notifyWaiter(entry.waiter, executor, inline == null ? source : null);
 
-        // head shouldn't be null here
-        // Execute all pending completion task.
-        while (head != NIL) {
-            head.handler.accept(result);
-            head = head.next;
+                if (next != null) {
+                    inline = next;
+                }
+            }
+        } else {
+            inline = notifyWaiter(current, executor, source);
         }
+
+        if (inline != null) {
+            inline.transfer();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return STATE.getAcquire(this) == COMPLETED;
+    }
+
+    @Override
+    public T readyValue() throws Throwable {
+        if (error != null) {
+            throw error;
+        }
+
+        return (T) boxedValue();
+    }
+
+    /**
+     * Obtains the error of a task that has completed, without throwing it like {@link BasicTask#readyValue()} does.
+     *
+     * @return The error, or {@code null} if the task completed successfully.
+     */
+    public Throwable readyError() {
+        return error;
     }
 
     @Override
     public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
         begin(executor);
+
+        // An awaiting parent is linked directly, so completing this task resumes it without any intermediate
+        // callbacks.
+        if (resume instanceof final TaskContinuation<T> continuation) {
+            if (!addWaiter(continuation)) {
+                resumeWaiter(continuation, null);
+            }
+
+            return;
+        }
+
         onComplete(tResult -> tResult.match(resume::submit, resume::submitError));
     }
 
+    @Override
+    public boolean cancel(final Continuation<T> resume) {
+        // only awaiting parents are linked directly, anything else is wrapped in a Consumer we can't find again
+        return resume instanceof TaskContinuation<T> && abandon(resume);
+    }
+
+    /**
+     * Unregisters a waiter, and cancels this task if nobody else is waiting on it anymore, since there's no point in
+     * letting it run to completion.
+     */
+    private boolean abandon(final Object waiter) {
+        if (!removeWaiter(waiter)) {
+            return false;
+        }
+
+        if (STATE.getAcquire(this) == null) {
+            cancel();
+        }
+
+        return true;
+    }
+
+    protected static <T> boolean readyHelper(final Awaitable<?> awaitable, final BasicTask<T> self) {
+        // a cancelled task takes the slow path, which throws without starting anything
+        if (self.isCancelled) {
+            return false;
+        }
+
+        // A task that hasn't been started yet would be started by execute() anyway, so start it here. If it completes
+        // synchronously, we can skip the suspension entirely.
+        if (awaitable instanceof final BasicTask<?> task) {
+            task.begin(self.getExecutor());
+        }
+
+        return awaitable.isReady();
+    }
+
+    protected static Object readyValueHelper(final Awaitable<?> awaitable) throws Throwable {
+        return awaitable.readyValue();
+    }
+
+    private static BasicTask<?> readyPrimitive(final Object task) throws Throwable {
+        final var self = (BasicTask<?>) task;
+
+        if (self.error != null) {
+            throw self.error;
+        }
+
+        return self;
+    }
+
+    protected static int readyIntHelper(final Object task) throws Throwable {
+        return (int) readyPrimitive(task).rawValue;
+    }
+
+    protected static long readyLongHelper(final Object task) throws Throwable {
+        return readyPrimitive(task).rawValue;
+    }
+
+    protected static double readyDoubleHelper(final Object task) throws Throwable {
+        return Double.longBitsToDouble(readyPrimitive(task).rawValue);
+    }
+
     protected static <T, U> void suspendHelper(final Awaitable<T> awaitable, final BasicTask<U> self,
                                                final int resumeState) {
+        suspend(awaitable, self, resumeState, false);
+    }
+
+    protected static <T, U> void suspendUnboxedHelper(final Awaitable<T> awaitable, final BasicTask<U> self,
+                                                      final int resumeState) {
+        suspend(awaitable, self, resumeState, true);
+    }
+
+    private static <T, U> void suspend(final Awaitable<T> awaitable, final BasicTask<U> self, final int resumeState,
+                                       final boolean isUnboxed) {
         self.suspendPointId = resumeState;
         self.currentAwaitable = awaitable;
 
-        final var continuation = awaitable instanceof Awaitable.Unwrapped<T> ?
-            new ImmediateContinuation(awaitable, self, resumeState) :
-            new ScheduledContinuation(awaitable, self, resumeState);
+        var continuation = (TaskContinuation<T>) self.continuation;
+
+        if (continuation == null) {
+            continuation = new TaskContinuation(self);
+            self.continuation = continuation;
+        }
+
+        final var handle = continuation.suspend(awaitable, resumeState, isUnboxed);
 
         try {
-            self.getExecutor().onSuspend(self, awaitable);
-            awaitable.execute(self.getExecutor(), continuation);
+            final var executor = self.getExecutor();
+
+            if ((self.hooks & CoroutineExecutor.HOOK_SUSPEND) != 0) {
+                executor.onSuspend(self, awaitable);
+            }
+
+            if (self.isCancelled) {
+                handle.submitError(new CancellationException());
+                return;
+            }
+
+            awaitable.execute(executor, handle);
         } catch (final Throwable th) {
-            continuation.submitError(th);
+            handle.submitError(th);
+            return;
+        }
+
+        // cancel() may have run before the awaitable registered the continuation, in which case it couldn't unlink it
+        if (self.isCancelled) {
+            continuation.cancelSuspension();
         }
     }
 
     protected static <T> void completeSuccess(final T val, final BasicTask<T> self) {
-        self.complete(Result.value(val));
+        self.complete(val, null, 0);
+    }
+
+    protected static void completeInt(final int val, final BasicTask<?> self) {
+        self.complete(null, null, val);
+    }
+
+    protected static void completeLong(final long val, final BasicTask<?> self) {
+        self.complete(null, null, val);
+    }
+
+    protected static void completeDouble(final double val, final BasicTask<?> self) {
+        self.complete(null, null, Double.doubleToRawLongBits(val));
     }
 
     protected static <T> void completeError(final Throwable val, final BasicTask<T> self) {
-        self.complete(Result.error(val));
+        self.complete(null, val, 0);
+    }
+
+    /**
+     * Runs this task from a suspension point, and then keeps running it for as long as it was resumed on this thread
+     * before returning, so a long run of synchronous resumptions doesn't grow the stack.
+     *
+     * @param onExecutor Whether this runs as a task of the executor of this task.
+     */
+    private void runSteps(final boolean onExecutor, final int state, final boolean isEx, final Object value) {
+        final var running = RUNNING.get();
+        final var previousExecutor = running.executor;
+        final var thread = Thread.currentThread();
+        final var isOutermost = runner != thread;
+        running.executor = onExecutor ? getExecutor() : null;
+        RUNNER.setRelease(this, thread);
+
+        try {
+            run(state, isEx, value);
+
+            // the continuation is created by the first suspension, and never replaced
+            final var continuation = this.continuation;
+
+            while (continuation != null && continuation.resumedInlineOn == thread) {
+                continuation.resumedInlineOn = null;
+
+                final var next = continuation.resumeValue;
+                continuation.resumeValue = null;
+                running.executor = continuation.resumesOnExecutor ? getExecutor() : null;
+                run(continuation.resumeState, continuation.resumeIsEx, next);
+            }
+        } finally {
+            running.executor = previousExecutor;
+
+            if (isOutermost) {
+                RUNNER.compareAndSet(this, thread, null);
+            }
+        }
     }
 
     protected CoroutineExecutor getExecutor() {
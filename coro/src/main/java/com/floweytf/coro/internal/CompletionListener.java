@@ -0,0 +1,20 @@
+package com.floweytf.coro.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A lightweight completion callback for a {@link BasicTask}, which is called inline by the thread that completes the
+ * task. Implementations must be cheap, and must not block or throw.
+ *
+ * @see BasicTask#addListener(CompletionListener)
+ */
+@ApiStatus.Internal
+@FunctionalInterface
+public interface CompletionListener {
+    /**
+     * Called once the task has completed. Its result may be obtained with {@link BasicTask#readyValue()}.
+     *
+     * @param task The task.
+     */
+    void onTaskComplete(BasicTask<?> task);
+}
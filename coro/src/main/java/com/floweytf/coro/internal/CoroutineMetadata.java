@@ -1,15 +1,106 @@
 package com.floweytf.coro.internal;
 
+import java.lang.module.ModuleDescriptor;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Static information about a coroutine method, shared by all instances of its generated class.
+ */
 @ApiStatus.Internal
-public record CoroutineMetadata(
-    Class<?> declaringClass,
-    int access,
-    String methodName,
-    Class<?>[] argTypes,
-    @Nullable String fileName,
-    int[] suspendPointLineNo
-) {
-}
\ No newline at end of file
+public final class CoroutineMetadata {
+    private final Class<?> declaringClass;
+    private final int access;
+    private final String methodName;
+    private final Class<?>[] argTypes;
+    private final @Nullable String fileName;
+    private final int[] suspendPointLineNo;
+
+    // built on first use; racing threads may each build it, but they all produce equivalent arrays
+    private volatile StackTraceElement[] suspendPointLocations;
+
+    public CoroutineMetadata(
+        final Class<?> declaringClass,
+        final int access,
+        final String methodName,
+        final Class<?>[] argTypes,
+        @Nullable final String fileName,
+        final int[] suspendPointLineNo
+    ) {
+        this.declaringClass = declaringClass;
+        this.access = access;
+        this.methodName = methodName;
+        this.argTypes = argTypes;
+        this.fileName = fileName;
+        this.suspendPointLineNo = suspendPointLineNo;
+    }
+
+    public Class<?> declaringClass() {
+        return declaringClass;
+    }
+
+    public int access() {
+        return access;
+    }
+
+    public String methodName() {
+        return methodName;
+    }
+
+    public Class<?>[] argTypes() {
+        return argTypes;
+    }
+
+    public @Nullable String fileName() {
+        return fileName;
+    }
+
+    public int[] suspendPointLineNo() {
+        return suspendPointLineNo;
+    }
+
+    /**
+     * Obtains the code location of a suspend point.
+     *
+     * @param suspendPointId The id of the suspend point, which starts at {@code 1}, since {@code 0} is the entry point
+     *                       of the coroutine.
+     * @return The location.
+     */
+    public StackTraceElement suspendPointLocation(final int suspendPointId) {
+        var locations = suspendPointLocations;
+
+        if (locations == null) {
+            locations = buildSuspendPointLocations();
+            suspendPointLocations = locations;
+        }
+
+        return locations[suspendPointId - 1];
+    }
+
+    private StackTraceElement[] buildSuspendPointLocations() {
+        final var loader = declaringClass.getClassLoader();
+        final var module = declaringClass.getModule();
+        final var moduleDesc = module.getDescriptor();
+
+        final var loaderName = loader != null ? loader.getName() : null;
+        final var moduleVersion = moduleDesc != null ?
+            moduleDesc.version().map(ModuleDescriptor.Version::toString).orElse(null) :
+            null;
+
+        final var locations = new StackTraceElement[suspendPointLineNo.length];
+
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new StackTraceElement(
+                loaderName,
+                module.getName(),
+                moduleVersion,
+                declaringClass.getName(),
+                methodName,
+                fileName,
+                suspendPointLineNo[i]
+            );
+        }
+
+        return locations;
+    }
+}
@@ -0,0 +1,49 @@
+package com.floweytf.coro.internal;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Detects which hooks of a {@link CoroutineExecutor} are actually overridden, which is the default implementation of
+ * {@link CoroutineExecutor#enabledHooks()}. The result is cached per class.
+ */
+@ApiStatus.Internal
+public final class ExecutorHooks {
+    private static final ClassValue<Integer> HOOKS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+            int hooks = 0;
+
+            if (isOverridden(type, "onSuspend", Task.class, Awaitable.class)) {
+                hooks |= CoroutineExecutor.HOOK_SUSPEND;
+            }
+
+            if (isOverridden(type, "onResume", Task.class, Awaitable.class, Object.class)) {
+                hooks |= CoroutineExecutor.HOOK_RESUME;
+            }
+
+            if (isOverridden(type, "onResumeExceptionally", Task.class, Awaitable.class, Throwable.class)) {
+                hooks |= CoroutineExecutor.HOOK_RESUME_EXCEPTIONALLY;
+            }
+
+            return hooks;
+        }
+    };
+
+    private ExecutorHooks() {
+    }
+
+    private static boolean isOverridden(final Class<?> type, final String name, final Class<?>... args) {
+        try {
+            return type.getMethod(name, args).getDeclaringClass() != CoroutineExecutor.class;
+        } catch (final NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public static int detect(final Class<? extends CoroutineExecutor> type) {
+        return HOOKS.get(type);
+    }
+}
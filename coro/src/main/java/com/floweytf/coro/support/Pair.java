@@ -0,0 +1,12 @@
+package com.floweytf.coro.support;
+
+/**
+ * A pair of values of different types.
+ *
+ * @param first  The first value.
+ * @param second The second value.
+ * @param <A>    The type of the first value.
+ * @param <B>    The type of the second value.
+ */
+public record Pair<A, B>(A first, B second) {
+}
@@ -0,0 +1,14 @@
+package com.floweytf.coro.support;
+
+/**
+ * A triple of values of different types.
+ *
+ * @param first  The first value.
+ * @param second The second value.
+ * @param third  The third value.
+ * @param <A>    The type of the first value.
+ * @param <B>    The type of the second value.
+ * @param <C>    The type of the third value.
+ */
+public record Triple<A, B, C>(A first, B second, C third) {
+}
@@ -0,0 +1,806 @@
+package com.floweytf.coro.time;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.internal.BasicTask;
+import com.floweytf.coro.internal.CompletionListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * A timer, which provides time-based {@link Awaitable}s such as {@link Timer#sleep(Duration)} and
+ * {@link Timer#withTimeout(Awaitable, Duration)}.
+ *
+ * <p>
+ * Timers are kept in a hierarchical timing wheel, so scheduling and cancelling a timer are both constant time, no
+ * matter how many timers are pending. The price is resolution: timers expire on a tick boundary, and never early.
+ * Timers may be scheduled and cancelled from any thread, but the wheel itself is only ever touched by the thread that
+ * {@link Timer#advance() advances} it, which is either the thread owned by this timer, or the caller of
+ * {@link Timer#advance()} for a {@link Timer#manual(Duration, LongSupplier) manual} timer.
+ * </p>
+ *
+ * <p>
+ * When a timer expires, the awaiting coroutine is resumed on its own {@link CoroutineExecutor}, not on the timer
+ * thread. All the awaitables returned by a timer support {@link Task#cancel() cancellation}.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * final var timer = Timer.shared();
+ * Co.await(timer.sleep(Duration.ofSeconds(1)));
+ * final var response = Co.await(timer.withTimeout(fetch(url), Duration.ofSeconds(5)));
+ * }</pre>
+ */
+public final class Timer implements AutoCloseable {
+    private static final int LEVEL_BITS = 8;
+    private static final int SLOT_COUNT = 1 << LEVEL_BITS;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+    private static final int LEVEL_COUNT = 4;
+
+    // timers further away than this are parked in the last level, and re-inserted once they get close enough
+    private static final long MAX_DELAY_TICKS = (1L << (LEVEL_BITS * LEVEL_COUNT)) - 1;
+
+    private static final int PENDING = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final VarHandle INSERTS;
+    private static final VarHandle CANCELS;
+    private static final VarHandle ENTRY_STATE;
+    private static final VarHandle TIMEOUT_CLAIMED;
+
+    static {
+        final var lookup = MethodHandles.lookup();
+
+        try {
+            INSERTS = lookup.findVarHandle(Timer.class, "inserts", Entry.class);
+            CANCELS = lookup.findVarHandle(Timer.class, "cancels", Entry.class);
+            ENTRY_STATE = lookup.findVarHandle(Entry.class, "state", int.class);
+            TIMEOUT_CLAIMED = lookup.findVarHandle(Timeout.class, "isClaimed", boolean.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final Timer SHARED = new Timer(Duration.ofMillis(1));
+    }
+
+    /**
+     * A pending timer. Entries are linked into a slot of the wheel with intrusive links, so they can be unlinked in
+     * constant time once they are cancelled.
+     */
+    private abstract static class Entry {
+        private volatile int state;
+        private final long deadline;
+
+        // the position in the wheel, owned by the thread advancing the wheel
+        private long deadlineTick;
+        private int level = -1;
+        private int slot;
+        private Entry prev;
+        private Entry next;
+
+        // the links of the inbound stacks
+        private Entry nextInsert;
+        private Entry nextCancel;
+
+        private Entry(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Called on the thread advancing the wheel, once this entry has transitioned to {@code EXPIRED}.
+         */
+        protected abstract void onExpire();
+
+        /**
+         * Called once this entry has transitioned to {@code CANCELLED} because the timer was closed.
+         */
+        protected abstract void onClose();
+    }
+
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final long origin;
+    private final Thread thread;
+
+    // the pending inserts and cancellations, as intrusive stacks
+    private volatile Entry inserts;
+    private volatile Entry cancels;
+
+    private volatile boolean isClosed;
+    private volatile boolean isIdle;
+
+    // the state of the wheel, only touched by the thread advancing it
+    private final Entry[][] wheel = new Entry[LEVEL_COUNT][SLOT_COUNT];
+    private final int[] levelSizes = new int[LEVEL_COUNT];
+    private long currentTick;
+    private int size;
+
+    private Timer(final long tickNanos, final LongSupplier clock, final boolean isThreaded) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+
+        this.tickNanos = tickNanos;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+
+        if (isThreaded) {
+            thread = new Thread(this::runLoop, "coroutine-timer");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            thread = null;
+        }
+    }
+
+    /**
+     * Creates a timer, which is advanced by its own daemon thread.
+     *
+     * @param tick The resolution of the timer.
+     */
+    public Timer(final Duration tick) {
+        this(tick.toNanos(), System::nanoTime, true);
+    }
+
+    /**
+     * Creates a timer without a thread, which only advances when {@link Timer#advance()} is called. This is useful
+     * to drive timers from an existing loop, or to control time in tests.
+     *
+     * @param tick  The resolution of the timer.
+     * @param clock The clock, in nanoseconds, in the same way as {@link System#nanoTime()}.
+     * @return The timer.
+     */
+    public static Timer manual(final Duration tick, final LongSupplier clock) {
+        return new Timer(tick.toNanos(), clock, false);
+    }
+
+    /**
+     * Obtains the shared timer, which has a resolution of one millisecond, and is created once it is first used.
+     *
+     * @return The shared timer.
+     */
+    public static Timer shared() {
+        return SharedHolder.SHARED;
+    }
+
+    /**
+     * Obtains the current time of this timer's clock.
+     *
+     * @return The current time, in nanoseconds.
+     */
+    public long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Creates an awaitable that completes once the given duration has elapsed, counting from the moment it is awaited.
+     * The awaitable may be awaited multiple times, and each await sleeps for the full duration.
+     *
+     * @param duration The duration to sleep for.
+     * @return The awaitable.
+     */
+    public Awaitable<Void> sleep(final Duration duration) {
+        final var delay = duration.toNanos();
+
+        return new Sleeper<Void>() {
+            @Override
+            public boolean isReady() {
+                return delay <= 0;
+            }
+
+            @Override
+            protected long deadline() {
+                return nanoTime() + delay;
+            }
+        };
+    }
+
+    /**
+     * Creates an awaitable that completes once the clock reaches the given deadline.
+     *
+     * @param deadline The deadline, in terms of {@link Timer#nanoTime()}.
+     * @return The awaitable.
+     */
+    public Awaitable<Void> sleepUntil(final long deadline) {
+        return new Sleeper<Void>() {
+            @Override
+            public boolean isReady() {
+                return nanoTime() - deadline >= 0;
+            }
+
+            @Override
+            protected long deadline() {
+                return deadline;
+            }
+        };
+    }
+
+    /**
+     * Creates a fixed-rate periodic awaitable. Awaiting it completes at the next multiple of {@code period} since this
+     * method was called, with the number of periods that elapsed since the previous await completed. This is normally
+     * {@code 1}, and is larger if the awaiting coroutine fell behind, in which case the missed periods are skipped
+     * instead of completing back to back.
+     *
+     * <pre>{@code
+     * final var ticks = timer.periodic(Duration.ofMillis(50));
+     * while (true) {
+     *     final long elapsed = Co.await(ticks);
+     *     update(elapsed);
+     * }
+     * }</pre>
+     *
+     * @param period The period.
+     * @return The awaitable, which should only be awaited by one coroutine at a time.
+     */
+    public Awaitable<Long> periodic(final Duration period) {
+        final var periodNanos = period.toNanos();
+
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+
+        final var start = nanoTime();
+
+        return new Sleeper<Long>() {
+            private long next = start + periodNanos;
+
+            @Override
+            public boolean isReady() {
+                return nanoTime() - next >= 0;
+            }
+
+            @Override
+            public Long readyValue() {
+                final var skipped = (nanoTime() - next) / periodNanos + 1;
+                next += skipped * periodNanos;
+                return skipped;
+            }
+
+            @Override
+            protected long deadline() {
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Wraps an awaitable with a timeout. If the awaitable does not complete within the timeout, the awaiting coroutine
+     * is resumed with a {@link TimeoutException}, and the awaitable is
+     * {@link Awaitable#cancel(Continuation) cancelled}. If the awaitable is a {@link Task}, the task itself is
+     * {@link Task#cancel() cancelled}. If the awaitable supports cancellation, but refuses because it has already handed
+     * its result over, such as a lock that has just been acquired, the coroutine is resumed with that result instead.
+     *
+     * @param awaitable The awaitable.
+     * @param timeout   The timeout, counting from the moment the returned awaitable is awaited.
+     * @param <T>       The result type of the awaitable.
+     * @return The awaitable with a timeout.
+     */
+    public <T> Awaitable<T> withTimeout(final Awaitable<T> awaitable, final Duration timeout) {
+        return new WithTimeout<>(awaitable, timeout.toNanos());
+    }
+
+    /**
+     * The awaitables for sleeping. Since an awaitable may be awaited more than once, the entry of the most recent await
+     * is kept, to be able to cancel it.
+     */
+    private abstract class Sleeper<T> implements Awaitable<T> {
+        private volatile Wait<T> current;
+
+        protected abstract long deadline();
+
+        /**
+         * Obtains the result of an await, either once the deadline has been reached, or when it is found to have been
+         * reached before suspending.
+         */
+        @Override
+        public T readyValue() {
+            return null;
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+            final var wait = new Wait<>(deadline(), this, resume);
+            current = wait;
+            schedule(wait);
+        }
+
+        @Override
+        public boolean cancel(final Continuation<T> resume) {
+            final var wait = current;
+            return wait != null && wait.resume == resume && Timer.this.cancel(wait);
+        }
+    }
+
+    private final class Wait<T> extends Entry {
+        private final Sleeper<T> sleeper;
+        private final Continuation<T> resume;
+
+        private Wait(final long deadline, final Sleeper<T> sleeper, final Continuation<T> resume) {
+            super(deadline);
+            this.sleeper = sleeper;
+            this.resume = resume;
+        }
+
+        @Override
+        protected void onExpire() {
+            resume.submit(sleeper.readyValue());
+        }
+
+        @Override
+        protected void onClose() {
+            resume.submitError(new CancellationException("Timer closed"));
+        }
+    }
+
+    /**
+     * The entry of an await with a timeout, which doubles as the continuation of the wrapped awaitable, or as its
+     * listener if it's a task. Exactly one of the awaitable, the expiry and the cancellation of the coroutine claims the
+     * entry, and gets to resume the coroutine. The latter two only claim it once the awaitable has let go, unless it
+     * doesn't support cancellation, since an awaitable that refuses has handed its result over, which must not be lost.
+     */
+    private final class Timeout<T> extends Entry implements Continuation<T>, CompletionListener {
+        private final Awaitable<T> awaitable;
+        private final Continuation<T> resume;
+        private volatile boolean isClaimed;
+
+        private Timeout(final long deadline, final Awaitable<T> awaitable, final Continuation<T> resume) {
+            super(deadline);
+            this.awaitable = awaitable;
+            this.resume = resume;
+        }
+
+        private boolean claim() {
+            return TIMEOUT_CLAIMED.compareAndSet(this, false, true);
+        }
+
+        @Override
+        public void submit(final T value) {
+            Timer.this.cancel(this);
+
+            if (claim()) {
+                resume.submit(value);
+            }
+        }
+
+        @Override
+        public void submitError(final Throwable error) {
+            Timer.this.cancel(this);
+
+            if (claim()) {
+                resume.submitError(error);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onTaskComplete(final BasicTask<?> task) {
+            final var failure = task.readyError();
+
+            if (failure != null) {
+                submitError(failure);
+                return;
+            }
+
+            try {
+                submit((T) task.readyValue());
+            } catch (final Throwable th) {
+                throw new AssertionError("readyValue() of a successful task threw", th);
+            }
+        }
+
+        /**
+         * Withdraws this from the awaitable. A task is cancelled once it has been unlinked.
+         *
+         * @return Whether the result of the awaitable may be dropped, since it either let go, or doesn't support
+         * cancellation.
+         */
+        private boolean cancelAwaitable() {
+            if (awaitable instanceof final BasicTask<T> task) {
+                if (!task.removeListener(this)) {
+                    return false;
+                }
+
+                task.cancel();
+                return true;
+            }
+
+            return awaitable.cancel(this) || !BasicTask.isCancellable(awaitable);
+        }
+
+        private void abandon(final Throwable error) {
+            if (cancelAwaitable() && claim()) {
+                resume.submitError(error);
+            }
+        }
+
+        @Override
+        protected void onExpire() {
+            abandon(new TimeoutException());
+        }
+
+        @Override
+        protected void onClose() {
+            abandon(new CancellationException("Timer closed"));
+        }
+    }
+
+    private final class WithTimeout<T> implements Awaitable<T> {
+        private final Awaitable<T> awaitable;
+        private final long timeoutNanos;
+        private volatile Timeout<T> current;
+
+        private WithTimeout(final Awaitable<T> awaitable, final long timeoutNanos) {
+            this.awaitable = awaitable;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        @Override
+        public boolean isReady() {
+            return awaitable.isReady();
+        }
+
+        @Override
+        public T readyValue() throws Throwable {
+            return awaitable.readyValue();
+        }
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+            final var timeout = new Timeout<>(nanoTime() + timeoutNanos, awaitable, resume);
+            current = timeout;
+            schedule(timeout);
+
+            // tasks are listened to, so that they can be unlinked on expiry
+            if (awaitable instanceof final BasicTask<T> task) {
+                task.begin(executor);
+
+                if (!task.addListener(timeout)) {
+                    timeout.onTaskComplete(task);
+                }
+
+                return;
+            }
+
+            try {
+                awaitable.execute(executor, timeout);
+            } catch (final Throwable th) {
+                timeout.submitError(th);
+            }
+        }
+
+        @Override
+        public boolean cancel(final Continuation<T> resume) {
+            final var timeout = current;
+
+            if (timeout == null || timeout.resume != resume || !timeout.cancelAwaitable() || !timeout.claim()) {
+                return false;
+            }
+
+            Timer.this.cancel(timeout);
+            return true;
+        }
+    }
+
+    private void schedule(final Entry entry) {
+        Entry head;
+
+        do {
+            head = inserts;
+            entry.nextInsert = head;
+        } while (!INSERTS.weakCompareAndSet(this, head, entry));
+
+        if (isClosed) {
+            // the timer may have been closed before it could see this entry
+            if (cancel(entry)) {
+                throw new IllegalStateException("Timer is closed");
+            }
+
+            return;
+        }
+
+        if (isIdle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Cancels an entry, which is unlinked from the wheel on the next advance.
+     *
+     * @return Whether the entry was cancelled, which is {@code false} if it has already expired or been cancelled.
+     */
+    private boolean cancel(final Entry entry) {
+        if (!ENTRY_STATE.compareAndSet(entry, PENDING, CANCELLED)) {
+            return false;
+        }
+
+        Entry head;
+
+        do {
+            head = cancels;
+            entry.nextCancel = head;
+        } while (!CANCELS.weakCompareAndSet(this, head, entry));
+
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the current time, expiring all the timers that are due. This must not be called
+     * concurrently, and must not be called at all on a timer that owns a thread.
+     *
+     * @return The number of timers that expired.
+     */
+    public int advance() {
+        final var targetTick = Math.floorDiv(clock.getAsLong() - origin, tickNanos);
+        var expired = drainInbound();
+
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // nothing to cascade or expire, so skip ahead
+                currentTick = targetTick;
+                break;
+            }
+
+            // While the lower levels are empty, nothing can happen until the next slot of the lowest non-empty level
+            // is cascaded, so skip ahead to it. This keeps advancing over long idle stretches cheap.
+            var level = 0;
+
+            while (level < LEVEL_COUNT - 1 && levelSizes[level] == 0) {
+                level++;
+            }
+
+            final var nextTick = level == 0 ? currentTick + 1 : (currentTick | ((1L << (LEVEL_BITS * level)) - 1)) + 1;
+
+            if (nextTick > targetTick) {
+                currentTick = targetTick;
+                break;
+            }
+
+            currentTick = nextTick;
+
+            if ((currentTick & SLOT_MASK) == 0) {
+                cascade();
+            }
+
+            expired += expireSlot(0, (int) currentTick & SLOT_MASK);
+        }
+
+        return expired;
+    }
+
+    private int drainInbound() {
+        var expired = 0;
+        var entry = (Entry) INSERTS.getAndSet(this, null);
+
+        while (entry != null) {
+            final var next = entry.nextInsert;
+            entry.nextInsert = null;
+
+            if (entry.state == PENDING) {
+                // round up, so timers never expire early
+                entry.deadlineTick = -Math.floorDiv(origin - entry.deadline, tickNanos);
+
+                if (!place(entry) && expire(entry)) {
+                    expired++;
+                }
+            }
+
+            entry = next;
+        }
+
+        entry = (Entry) CANCELS.getAndSet(this, null);
+
+        while (entry != null) {
+            final var next = entry.nextCancel;
+            entry.nextCancel = null;
+
+            if (entry.level >= 0) {
+                unlink(entry);
+            }
+
+            entry = next;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Links an entry into the wheel, at the lowest level that spans its deadline.
+     *
+     * @return Whether the entry was linked, which is {@code false} if its deadline has already been reached.
+     */
+    private boolean place(final Entry entry) {
+        if (entry.deadlineTick <= currentTick) {
+            return false;
+        }
+
+        final var tick = Math.min(entry.deadlineTick, currentTick + MAX_DELAY_TICKS);
+        final var delta = tick - currentTick;
+
+        var level = 0;
+
+        while (delta >= 1L << (LEVEL_BITS * (level + 1))) {
+            level++;
+        }
+
+        final var slot = (int) (tick >>> (LEVEL_BITS * level)) & SLOT_MASK;
+        final var head = wheel[level][slot];
+
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = head;
+
+        if (head != null) {
+            head.prev = entry;
+        }
+
+        wheel[level][slot] = entry;
+        levelSizes[level]++;
+        size++;
+        return true;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            wheel[entry.level][entry.slot] = entry.next;
+        }
+
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+
+        levelSizes[entry.level]--;
+        size--;
+        entry.level = -1;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * Detaches all the entries of a slot.
+     *
+     * @return The first entry, which is the head of a list linked with {@link Entry#next}.
+     */
+    private Entry detach(final int level, final int slot) {
+        var entry = wheel[level][slot];
+        wheel[level][slot] = null;
+
+        for (var it = entry; it != null; it = it.next) {
+            it.level = -1;
+            levelSizes[level]--;
+            size--;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Moves the entries of the upper level slots that have come into range down the wheel. Higher levels go first,
+     * since their entries may land in a lower level slot that is about to be cascaded as well.
+     */
+    private void cascade() {
+        var level = 1;
+
+        while (level < LEVEL_COUNT - 1 && ((currentTick >>> (LEVEL_BITS * level)) & SLOT_MASK) == 0) {
+            level++;
+        }
+
+        for (; level >= 1; level--) {
+            var entry = detach(level, (int) (currentTick >>> (LEVEL_BITS * level)) & SLOT_MASK);
+
+            while (entry != null) {
+                final var next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+
+                if (entry.state == PENDING && !place(entry)) {
+                    expire(entry);
+                }
+
+                entry = next;
+            }
+        }
+    }
+
+    private int expireSlot(final int level, final int slot) {
+        var expired = 0;
+        var entry = detach(level, slot);
+
+        while (entry != null) {
+            final var next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+
+            if (expire(entry)) {
+                expired++;
+            }
+
+            entry = next;
+        }
+
+        return expired;
+    }
+
+    private boolean expire(final Entry entry) {
+        if (!ENTRY_STATE.compareAndSet(entry, PENDING, EXPIRED)) {
+            return false;
+        }
+
+        try {
+            entry.onExpire();
+        } catch (final Throwable th) {
+            // an awaitable that misbehaves must not take the rest of the timers down with it
+            final var current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, th);
+        }
+
+        return true;
+    }
+
+    private void runLoop() {
+        while (!isClosed) {
+            advance();
+
+            if (size == 0) {
+                // park until something is scheduled, rather than waking up every tick for nothing
+                isIdle = true;
+
+                if (inserts == null && !isClosed) {
+                    LockSupport.park(this);
+                }
+
+                isIdle = false;
+            } else {
+                LockSupport.parkNanos(this, tickNanos);
+            }
+        }
+
+        closeEntries();
+    }
+
+    private void closeEntries() {
+        drainInbound();
+
+        for (var level = 0; level < LEVEL_COUNT; level++) {
+            for (var slot = 0; slot < SLOT_COUNT; slot++) {
+                for (var entry = detach(level, slot); entry != null; entry = entry.next) {
+                    if (ENTRY_STATE.compareAndSet(entry, PENDING, CANCELLED)) {
+                        entry.onClose();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes this timer. All pending timers are resumed with a {@link CancellationException}, and any attempt to
+     * schedule a new timer fails with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        } else {
+            closeEntries();
+        }
+    }
+}
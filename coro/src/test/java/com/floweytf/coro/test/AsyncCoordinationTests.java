@@ -0,0 +1,296 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.AsyncAutoResetEvent;
+import com.floweytf.coro.concurrent.AsyncBarrier;
+import com.floweytf.coro.concurrent.AsyncLatch;
+import com.floweytf.coro.concurrent.AsyncManualResetEvent;
+import com.floweytf.coro.concurrent.AsyncPhaser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncCoordinationTests {
+    @Coroutine
+    private static Task<Void> awaitAndLog(final Awaitable<Void> awaitable, final List<String> log, final String name) {
+        Co.await(awaitable);
+        log.add(name);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<List<Integer>> arriveRounds(final AsyncBarrier barrier, final int rounds) {
+        final var generations = new ArrayList<Integer>();
+
+        for (int i = 0; i < rounds; i++) {
+            generations.add(Co.await(barrier.arriveAndAwait()));
+        }
+
+        return Co.ret(generations);
+    }
+
+    @Coroutine
+    private static Task<Integer> arriveOnce(final AsyncPhaser phaser) {
+        final var phase = Co.await(phaser.arriveAndAwaitAdvance());
+        return Co.ret(phase);
+    }
+
+    @Coroutine
+    private static Task<Integer> awaitPhase(final AsyncPhaser phaser, final int phase) {
+        final var next = Co.await(phaser.awaitAdvance(phase));
+        return Co.ret(next);
+    }
+
+    @Coroutine
+    private static Task<Void> lockstep(final AsyncBarrier barrier, final AtomicInteger counter, final int rounds,
+                                       final CoroutineExecutor executor) {
+        for (int i = 0; i < rounds; i++) {
+            counter.incrementAndGet();
+            Co.await(Awaitable.runOn(task -> executor.executeTask(task)));
+            Co.await(barrier.arriveAndAwait());
+        }
+
+        return Co.ret();
+    }
+
+    @Test
+    @Timeout(5)
+    void testLatch() {
+        final var latch = new AsyncLatch(2);
+        final var log = new ArrayList<String>();
+
+        final var tasks = List.of(
+            awaitAndLog(latch.await(), log, "a").begin(),
+            awaitAndLog(latch.await(), log, "b").begin()
+        );
+
+        latch.countDown();
+        assertTrue(log.isEmpty());
+        assertEquals(1, latch.getCount());
+
+        latch.countDown();
+        assertEquals(List.of("a", "b"), log);
+        tasks.forEach(task -> assertTrue(task.isReady()));
+
+        // an open latch stays open
+        latch.countDown();
+        assertEquals(0, latch.getCount());
+        assertTrue(latch.await().isReady());
+        assertTrue(new AsyncLatch(0).await().isReady());
+    }
+
+    @Test
+    @Timeout(5)
+    void testBulkRelease() {
+        final var queue = new ArrayList<Runnable>();
+        final CoroutineExecutor first = queue::add;
+        final CoroutineExecutor second = queue::add;
+        final var latch = new AsyncLatch(1);
+        final var log = new ArrayList<String>();
+
+        for (int i = 0; i < 100; i++) {
+            awaitAndLog(latch.await(), log, "first" + i).begin(first);
+            awaitAndLog(latch.await(), log, "second" + i).begin(second);
+        }
+
+        // run the coroutines until they park on the latch
+        queue.forEach(Runnable::run);
+        queue.clear();
+
+        latch.countDown();
+        assertEquals(2, queue.size());
+
+        queue.forEach(Runnable::run);
+        assertEquals(200, log.size());
+        assertEquals(
+            IntStream.range(0, 100).mapToObj(i -> "first" + i).toList(),
+            log.subList(0, 100)
+        );
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelWaiter() {
+        final var latch = new AsyncLatch(1);
+        final var log = new ArrayList<String>();
+
+        final var cancelled = awaitAndLog(latch.await(), log, "cancelled").begin();
+        final var kept = awaitAndLog(latch.await(), log, "kept").begin();
+
+        assertTrue(cancelled.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(cancelled));
+
+        latch.countDown();
+        assertEquals(List.of("kept"), log);
+        assertTrue(kept.isReady());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelManyWaiters() {
+        final var latch = new AsyncLatch(1);
+        final var log = new ArrayList<String>();
+
+        final var tasks = IntStream.range(0, 1000)
+            .mapToObj(i -> awaitAndLog(latch.await(), log, String.valueOf(i)).begin())
+            .toList();
+
+        // enough cancellations that the cancelled waiters are unlinked before the release
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i % 10 != 0) {
+                assertTrue(tasks.get(i).cancel());
+                assertInstanceOf(CancellationException.class, errorOf(tasks.get(i)));
+            }
+        }
+
+        latch.countDown();
+        assertEquals(IntStream.range(0, 100).mapToObj(i -> String.valueOf(i * 10)).toList(), log);
+    }
+
+    @Test
+    @Timeout(5)
+    void testBarrierGenerations() {
+        final var trips = new AtomicInteger();
+        final var barrier = new AsyncBarrier(3, trips::incrementAndGet);
+
+        final var tasks = IntStream.range(0, 3).mapToObj(i -> arriveRounds(barrier, 4).begin()).toList();
+
+        for (final var task : tasks) {
+            assertEquals(List.of(1, 2, 3, 4), task.asFuture().join());
+        }
+
+        assertEquals(4, trips.get());
+        assertEquals(4, barrier.getGeneration());
+        assertEquals(0, barrier.getNumberWaiting());
+    }
+
+    @Test
+    @Timeout(5)
+    void testBarrierActionFails() {
+        final var barrier = new AsyncBarrier(2, () -> {
+            throw new IllegalStateException("expected");
+        });
+
+        final var waiting = arriveRounds(barrier, 1).begin();
+        assertEquals(1, barrier.getNumberWaiting());
+
+        final var last = arriveRounds(barrier, 1).begin();
+        assertInstanceOf(IllegalStateException.class, errorOf(waiting));
+        assertInstanceOf(IllegalStateException.class, errorOf(last));
+
+        // the barrier is reset regardless
+        assertEquals(1, barrier.getGeneration());
+        assertEquals(0, barrier.getNumberWaiting());
+    }
+
+    @Test
+    @Timeout(5)
+    void testPhaser() {
+        final var phaser = new AsyncPhaser(1);
+
+        assertEquals(0, phaser.register());
+        assertEquals(2, phaser.getRegisteredParties());
+
+        final var observer = awaitPhase(phaser, 0).begin();
+        final var waiting = arriveOnce(phaser).begin();
+        assertFalse(waiting.isReady());
+
+        assertEquals(0, phaser.arriveAndDeregister());
+        assertEquals(1, waiting.asFuture().join());
+        assertEquals(1, observer.asFuture().join());
+
+        // a single party trips each phase on its own
+        assertEquals(1, phaser.getRegisteredParties());
+        assertEquals(2, arriveOnce(phaser).begin().asFuture().join());
+        assertEquals(2, awaitPhase(phaser, 0).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testManualResetEvent() {
+        final var event = new AsyncManualResetEvent();
+        final var log = new ArrayList<String>();
+
+        awaitAndLog(event.await(), log, "a").begin();
+        awaitAndLog(event.await(), log, "b").begin();
+        assertFalse(event.isSet());
+
+        event.set();
+        assertEquals(List.of("a", "b"), log);
+        assertTrue(event.await().isReady());
+
+        event.reset();
+        awaitAndLog(event.await(), log, "c").begin();
+        assertEquals(2, log.size());
+
+        event.set();
+        assertEquals(List.of("a", "b", "c"), log);
+    }
+
+    @Test
+    @Timeout(5)
+    void testAutoResetEvent() {
+        final var event = new AsyncAutoResetEvent();
+        final var log = new ArrayList<String>();
+
+        awaitAndLog(event.await(), log, "a").begin();
+        awaitAndLog(event.await(), log, "b").begin();
+
+        event.set();
+        assertEquals(List.of("a"), log);
+        assertFalse(event.isSet());
+
+        event.set();
+        assertEquals(List.of("a", "b"), log);
+
+        // signals don't accumulate
+        event.set();
+        event.set();
+        assertTrue(event.tryAwait());
+        assertFalse(event.tryAwait());
+    }
+
+    @Test
+    @Timeout(10)
+    void testBarrierAcrossThreads() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(pool);
+            final var counter = new AtomicInteger();
+            final var mismatches = new AtomicInteger();
+            final var barrier = new AsyncBarrier(8, () -> {
+                // every party has done its share of the round before the barrier trips
+                if (counter.get() % 8 != 0) {
+                    mismatches.incrementAndGet();
+                }
+            });
+
+            IntStream.range(0, 8)
+                .mapToObj(i -> lockstep(barrier, counter, 1000, executor).begin(executor))
+                .toList()
+                .forEach(task -> task.asFuture().join());
+
+            assertEquals(8000, counter.get());
+            assertEquals(0, mismatches.get());
+            assertEquals(1000, barrier.getGeneration());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.AsyncGenerator;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncGeneratorTests {
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        private final List<T> elements = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean isComplete;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final T item) {
+            elements.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            isComplete = true;
+        }
+    }
+
+    @Coroutine
+    private static AsyncGenerator<Integer> pages(final List<CompletableFuture<List<Integer>>> pages,
+                                                 final AtomicInteger produced) {
+        for (final var page : pages) {
+            for (final var element : Co.await(Awaitable.from(page))) {
+                produced.incrementAndGet();
+                Co.yield(element);
+            }
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static AsyncGenerator<Integer> count(final int to, final AtomicInteger produced) {
+        for (int i = 0; i < to; i++) {
+            produced.incrementAndGet();
+            Co.yield(i);
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static AsyncGenerator<String> failing(final List<String> log) {
+        try {
+            Co.yield("first");
+            throw new IllegalStateException("expected");
+        } finally {
+            log.add("cleanup");
+        }
+    }
+
+    @Coroutine
+    private static AsyncGenerator<Integer> forever(final List<String> log) {
+        try {
+            for (int i = 0; ; i++) {
+                Co.yield(i);
+            }
+        } finally {
+            log.add("cleanup");
+        }
+    }
+
+    @Coroutine
+    private static <T> Task<List<T>> collect(final AsyncGenerator<T> generator) {
+        final var elements = new ArrayList<T>();
+
+        while (Co.await(generator.moveNext())) {
+            elements.add(generator.current());
+        }
+
+        return Co.ret(elements);
+    }
+
+    @Coroutine
+    private static <T> Task<List<List<T>>> collectBatches(final AsyncGenerator<T> generator, final int size) {
+        final var batches = new ArrayList<List<T>>();
+
+        while (true) {
+            final var batch = Co.await(generator.nextBatch(size));
+
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            batches.add(batch);
+        }
+
+        return Co.ret(batches);
+    }
+
+    @Coroutine
+    private static <T> Task<T> takeOne(final AsyncGenerator<T> generator) {
+        Co.await(generator.moveNext());
+        return Co.ret(generator.current());
+    }
+
+    @Coroutine
+    private static <T> Task<List<T>> takeBatch(final AsyncGenerator<T> generator, final int size) {
+        final var batch = Co.await(generator.nextBatch(size));
+        return Co.ret(batch);
+    }
+
+    @Test
+    @Timeout(5)
+    void testPullIsDemandDriven() {
+        final var produced = new AtomicInteger();
+        final var generator = count(10, produced);
+
+        // nothing runs until the first pull
+        assertEquals(0, produced.get());
+        assertEquals(0, takeOne(generator).begin().asFuture().join());
+        assertEquals(1, produced.get());
+        assertEquals(1, takeOne(generator).begin().asFuture().join());
+        assertEquals(2, produced.get());
+
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8, 9), collect(generator).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testAwaitBetweenYields() {
+        final var futures = List.of(new CompletableFuture<List<Integer>>(), new CompletableFuture<List<Integer>>());
+        final var produced = new AtomicInteger();
+        final var task = collect(pages(futures, produced)).begin();
+
+        futures.get(0).complete(List.of(1, 2));
+        assertFalse(task.isReady());
+        assertEquals(2, produced.get());
+
+        futures.get(1).complete(List.of(3));
+        assertEquals(List.of(1, 2, 3), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testBatches() {
+        final var produced = new AtomicInteger();
+        final var generator = count(10, produced);
+
+        assertEquals(List.of(0, 1, 2, 3), takeBatch(generator, 4).begin().asFuture().join());
+        assertEquals(4, produced.get());
+
+        assertEquals(
+            List.of(List.of(4, 5, 6, 7), List.of(8, 9)),
+            collectBatches(generator, 4).begin().asFuture().join()
+        );
+    }
+
+    @Test
+    @Timeout(10)
+    void testLongStream() {
+        final var produced = new AtomicInteger();
+        assertEquals(100000, collect(count(100000, produced)).begin().asFuture().join().size());
+    }
+
+    @Test
+    @Timeout(5)
+    void testError() {
+        final var log = new ArrayList<String>();
+        final var generator = failing(log);
+
+        assertEquals("first", takeOne(generator).begin().asFuture().join());
+        assertInstanceOf(IllegalStateException.class, errorOf(takeOne(generator).begin()));
+        assertEquals(List.of("cleanup"), log);
+
+        // the generator stays failed
+        assertInstanceOf(IllegalStateException.class, errorOf(takeOne(generator).begin()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testPublisherHonorsDemand() {
+        final var produced = new AtomicInteger();
+        final var subscriber = new RecordingSubscriber<Integer>();
+
+        count(5, produced).publisher().subscribe(subscriber);
+        assertEquals(0, produced.get());
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of(0, 1), subscriber.elements);
+        assertEquals(2, produced.get());
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of(0, 1, 2, 3), subscriber.elements);
+        assertFalse(subscriber.isComplete);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.elements);
+        assertTrue(subscriber.isComplete);
+    }
+
+    @Test
+    @Timeout(5)
+    void testPublisherCancel() {
+        final var log = new ArrayList<String>();
+        final var subscriber = new RecordingSubscriber<Integer>();
+
+        forever(log).publisher().subscribe(subscriber);
+        subscriber.subscription.request(3);
+        subscriber.subscription.cancel();
+
+        assertEquals(List.of(0, 1, 2), subscriber.elements);
+        assertEquals(List.of("cleanup"), log);
+        assertFalse(subscriber.isComplete);
+        assertEquals(null, subscriber.error);
+    }
+
+    @Test
+    @Timeout(5)
+    void testPublisherInvalidRequest() {
+        final var log = new ArrayList<String>();
+        final var subscriber = new RecordingSubscriber<Integer>();
+
+        forever(log).publisher().subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(0);
+
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertEquals(List.of("cleanup"), log);
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancellingConsumerCancelsGenerator() {
+        final var futures = List.of(new CompletableFuture<List<Integer>>());
+        final var generator = pages(futures, new AtomicInteger());
+        final var task = collect(generator).begin();
+
+        assertTrue(task.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(task));
+        assertFalse(generator.cancel());
+    }
+}
@@ -0,0 +1,348 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.AsyncMutex;
+import com.floweytf.coro.concurrent.AsyncSemaphore;
+import com.floweytf.coro.time.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLockTests {
+    private static final class Counter {
+        private int value;
+    }
+
+    @Coroutine
+    private static Task<Void> lockAndLog(final AsyncMutex mutex, final List<String> log, final String name) {
+        Co.await(mutex.lock());
+        log.add(name);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> acquireAndLog(final AsyncSemaphore semaphore, final int permits, final List<String> log,
+                                            final String name) {
+        Co.await(semaphore.acquire(permits));
+        log.add(name);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> increment(final AsyncMutex mutex, final Counter counter, final CoroutineExecutor executor,
+                                        final int times) {
+        for (int i = 0; i < times; i++) {
+            Co.await(mutex.lock());
+
+            try {
+                final var value = counter.value;
+                // hop to another thread while holding the lock
+                Co.await(Awaitable.runOn(task -> executor.executeTask(task)));
+                counter.value = value + 1;
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> limited(final AsyncSemaphore semaphore, final AtomicInteger inFlight,
+                                      final AtomicInteger maxInFlight, final CoroutineExecutor executor) {
+        Co.await(semaphore.acquire());
+
+        try {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Co.await(Awaitable.runOn(task -> executor.executeTask(task)));
+            inFlight.decrementAndGet();
+        } finally {
+            semaphore.release();
+        }
+
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> acquireAndRelease(final AsyncSemaphore semaphore) {
+        Co.await(semaphore.acquire());
+        semaphore.release();
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> lockWithTimeout(final AsyncMutex mutex, final Timer timer) {
+        Co.await(timer.withTimeout(mutex.lock(), Duration.ofMillis(1)));
+        mutex.unlock();
+        return Co.ret();
+    }
+
+    @Test
+    @Timeout(5)
+    void testMutexFastPath() {
+        final var mutex = new AsyncMutex();
+
+        assertTrue(mutex.lock().isReady());
+        assertTrue(mutex.isLocked());
+        assertFalse(mutex.lock().isReady());
+        assertFalse(mutex.tryLock());
+
+        mutex.unlock();
+        assertFalse(mutex.isLocked());
+        assertThrows(IllegalStateException.class, mutex::unlock);
+    }
+
+    @Test
+    @Timeout(5)
+    void testMutexFifo() {
+        final var mutex = new AsyncMutex(true);
+        final var log = new ArrayList<String>();
+
+        assertTrue(mutex.tryLock());
+
+        final var tasks = List.of(
+            lockAndLog(mutex, log, "a").begin(),
+            lockAndLog(mutex, log, "b").begin(),
+            lockAndLog(mutex, log, "c").begin()
+        );
+
+        assertTrue(log.isEmpty());
+
+        for (final var expected : List.of("a", "b", "c")) {
+            mutex.unlock();
+            assertEquals(expected, log.get(log.size() - 1));
+        }
+
+        tasks.forEach(task -> assertTrue(task.isReady()));
+        assertTrue(mutex.isLocked());
+    }
+
+    @Test
+    @Timeout(10)
+    void testMutexAcrossThreads() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(pool);
+            final var mutex = new AsyncMutex();
+            final var counter = new Counter();
+
+            IntStream.range(0, 8)
+                .mapToObj(i -> increment(mutex, counter, executor, 500).begin(executor))
+                .toList()
+                .forEach(task -> task.asFuture().join());
+
+            assertEquals(4000, counter.value);
+            assertFalse(mutex.isLocked());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testFairness() {
+        final var fair = new AsyncSemaphore(2, true);
+        final var unfair = new AsyncSemaphore(2, false);
+        final var log = new ArrayList<String>();
+
+        for (final var semaphore : List.of(fair, unfair)) {
+            assertTrue(semaphore.tryAcquire(2));
+            acquireAndLog(semaphore, 2, log, "heavy").begin();
+            semaphore.release();
+        }
+
+        // a fair semaphore doesn't let the light acquirer barge ahead of the queued heavy one
+        assertFalse(fair.tryAcquire());
+        assertTrue(unfair.tryAcquire());
+
+        fair.release();
+        assertEquals(List.of("heavy"), log);
+        assertEquals(0, fair.availablePermits());
+    }
+
+    @Test
+    @Timeout(5)
+    void testWeightedOrder() {
+        final var semaphore = new AsyncSemaphore(0);
+        final var log = new ArrayList<String>();
+
+        acquireAndLog(semaphore, 3, log, "three").begin();
+        acquireAndLog(semaphore, 1, log, "one").begin();
+
+        semaphore.release(2);
+        assertTrue(log.isEmpty());
+
+        semaphore.release(2);
+        assertEquals(List.of("three", "one"), log);
+        assertEquals(0, semaphore.availablePermits());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelParked() {
+        final var mutex = new AsyncMutex(true);
+        final var log = new ArrayList<String>();
+
+        assertTrue(mutex.tryLock());
+
+        final var cancelled = lockAndLog(mutex, log, "cancelled").begin();
+        final var next = lockAndLog(mutex, log, "next").begin();
+
+        assertTrue(cancelled.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(cancelled));
+
+        mutex.unlock();
+        assertEquals(List.of("next"), log);
+        assertTrue(next.isReady());
+        assertTrue(mutex.isLocked());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelManyParked() {
+        final var semaphore = new AsyncSemaphore(1);
+        final var log = new ArrayList<String>();
+
+        assertTrue(semaphore.tryAcquire());
+
+        // the waiting acquirer at the head keeps the cancelled ones behind it from being dequeued, like acquirers that
+        // keep timing out on a lock that is held for long
+        final var first = acquireAndLog(semaphore, 1, log, "first").begin();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(acquireAndLog(semaphore, 1, log, String.valueOf(i)).begin().cancel());
+            assertTrue(semaphore.getQueueLength() <= 64, "queue length " + semaphore.getQueueLength());
+        }
+
+        final var last = acquireAndLog(semaphore, 1, log, "last").begin();
+
+        semaphore.release();
+        semaphore.release();
+        assertTrue(first.isReady());
+        assertTrue(last.isReady());
+        assertEquals(List.of("first", "last"), log);
+        assertEquals(0, semaphore.getQueueLength());
+    }
+
+    @Test
+    @Timeout(10)
+    void testConcurrentReleaseAndCancel() throws Exception {
+        final var pool = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int i = 0; i < 2000; i++) {
+                final var semaphore = new AsyncSemaphore(0);
+                final var task = acquireAndRelease(semaphore).begin();
+                final var start = new CountDownLatch(1);
+
+                final var release = pool.submit(() -> {
+                    start.await();
+                    semaphore.release();
+                    return null;
+                });
+
+                final var cancel = pool.submit(() -> {
+                    start.await();
+                    return task.cancel();
+                });
+
+                start.countDown();
+                release.get();
+                cancel.get();
+
+                // the permit is either handed to the task, which releases it, or left to the semaphore
+                final var error = errorOf(task);
+                assertTrue(error == null || error instanceof CancellationException);
+                assertEquals(1, semaphore.availablePermits());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testLockWithTimeout() throws Exception {
+        final var pool = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int i = 0; i < 2000; i++) {
+                final var clock = new AtomicLong();
+                final var timer = Timer.manual(Duration.ofMillis(1), clock::get);
+                final var mutex = new AsyncMutex();
+
+                assertTrue(mutex.tryLock());
+
+                final var task = lockWithTimeout(mutex, timer).begin();
+                final var start = new CountDownLatch(1);
+
+                final var unlock = pool.submit(() -> {
+                    start.await();
+                    mutex.unlock();
+                    return null;
+                });
+
+                final var expire = pool.submit(() -> {
+                    start.await();
+                    clock.set(Duration.ofMillis(1).toNanos());
+                    return timer.advance();
+                });
+
+                start.countDown();
+                unlock.get();
+                expire.get();
+
+                // a lock granted right at the deadline is delivered, and unlocked by the task, rather than leaked
+                final var error = errorOf(task);
+                assertTrue(error == null || error instanceof TimeoutException);
+                assertFalse(mutex.isLocked());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testConcurrencyLimit() {
+        final var pool = Executors.newFixedThreadPool(8);
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(pool);
+            final var semaphore = new AsyncSemaphore(4);
+            final var inFlight = new AtomicInteger();
+            final var maxInFlight = new AtomicInteger();
+
+            IntStream.range(0, 2000)
+                .mapToObj(i -> limited(semaphore, inFlight, maxInFlight, executor).begin(executor))
+                .toList()
+                .forEach(task -> task.asFuture().join());
+
+            assertTrue(maxInFlight.get() <= 4);
+            assertEquals(4, semaphore.availablePermits());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.Awaitables;
+import com.floweytf.coro.support.Pair;
+import com.floweytf.coro.time.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AwaitablesTests {
+    private final Timer timer = Timer.manual(Duration.ofMillis(1), new AtomicLong()::get);
+
+    @Coroutine
+    private static Task<Integer> waitFor(final CompletableFuture<Integer> future) {
+        return Co.ret(Co.await(Awaitable.from(future)));
+    }
+
+    @Coroutine
+    private static Task<Integer> constant(final int value) {
+        return Co.ret(value);
+    }
+
+    @Coroutine
+    private static Task<Integer> sleepForever(final Timer timer) {
+        Co.await(timer.sleep(Duration.ofDays(1)));
+        return Co.ret(0);
+    }
+
+    @Coroutine
+    private static <T> Task<T> awaitOne(final Awaitable<T> awaitable) {
+        return Co.ret(Co.await(awaitable));
+    }
+
+    @Test
+    @Timeout(5)
+    void testWhenAllKeepsOrder() {
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+        final var awaitables = new ArrayList<Awaitable<Integer>>();
+
+        for (int i = 0; i < 10; i++) {
+            final var future = new CompletableFuture<Integer>();
+            futures.add(future);
+            // mix tasks and plain awaitables
+            awaitables.add(i % 2 == 0 ? waitFor(future) : Awaitable.from(future));
+        }
+
+        final var task = awaitOne(Awaitables.whenAll(awaitables)).begin();
+
+        for (int i = futures.size() - 1; i >= 0; i--) {
+            assertFalse(task.isReady());
+            futures.get(i).complete(i);
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testWhenAllLargeFanIn() {
+        final var tasks = new ArrayList<Task<Integer>>();
+
+        for (int i = 0; i < 100000; i++) {
+            tasks.add(constant(i));
+        }
+
+        final var results = awaitOne(Awaitables.whenAll(tasks)).begin().asFuture().join();
+        assertEquals(100000, results.size());
+        assertEquals(99999, results.get(99999));
+    }
+
+    @Test
+    @Timeout(5)
+    void testWhenAllResumesOnce() {
+        final var resumeCount = new AtomicInteger();
+        final var executor = new CoroutineExecutor() {
+            @Override
+            public void executeTask(final Runnable handler) {
+                handler.run();
+            }
+
+            @Override
+            public <T> void onResume(final Task<?> task, final Awaitable<T> awaitable, final T result) {
+                resumeCount.incrementAndGet();
+            }
+        };
+
+        final var futures = List.of(new CompletableFuture<Integer>(), new CompletableFuture<Integer>());
+        final var task = awaitOne(Awaitables.whenAll(waitFor(futures.get(0)), waitFor(futures.get(1))))
+            .begin(executor);
+
+        futures.get(0).complete(1);
+        futures.get(1).complete(2);
+
+        assertEquals(List.of(1, 2), task.asFuture().join());
+        // once for each child, and once for the parent
+        assertEquals(3, resumeCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testWhenAllFailsFast() {
+        final var future = new CompletableFuture<Integer>();
+        final var sleeper = sleepForever(timer);
+        final var task = awaitOne(Awaitables.whenAll(sleeper, waitFor(future))).begin();
+
+        future.completeExceptionally(new IllegalStateException("expected"));
+
+        assertInstanceOf(IllegalStateException.class, errorOf(task));
+        assertInstanceOf(CancellationException.class, errorOf(sleeper));
+    }
+
+    @Test
+    @Timeout(5)
+    void testWhenAny() {
+        final var future = new CompletableFuture<Integer>();
+        final var loser = sleepForever(timer);
+        final var task = awaitOne(Awaitables.whenAny(loser, waitFor(future), timer.sleep(Duration.ofDays(1))))
+            .begin();
+
+        future.complete(7);
+
+        assertEquals(7, task.asFuture().join());
+        assertInstanceOf(CancellationException.class, errorOf(loser));
+        // the losing sleeps have been cancelled and unlinked, so nothing is left to expire
+        assertEquals(0, timer.advance());
+    }
+
+    @Test
+    @Timeout(5)
+    void testWhenAnySharedTaskIsNotCancelled() {
+        final var future = new CompletableFuture<Integer>();
+        final var shared = waitFor(new CompletableFuture<>()).begin();
+        final var other = awaitOne(shared).begin();
+        final var task = awaitOne(Awaitables.whenAny(shared, waitFor(future))).begin();
+
+        future.complete(1);
+
+        assertEquals(1, task.asFuture().join());
+        assertFalse(shared.isCancelled());
+        assertFalse(other.isReady());
+    }
+
+    @Test
+    @Timeout(5)
+    void testAwaitFirstN() {
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+
+        for (int i = 0; i < 5; i++) {
+            futures.add(new CompletableFuture<>());
+        }
+
+        final var task = awaitOne(Awaitables.awaitFirstN(2, futures.stream().map(AwaitablesTests::waitFor).toList()))
+            .begin();
+
+        futures.get(3).completeExceptionally(new IllegalStateException("tolerated"));
+        futures.get(4).complete(4);
+        assertFalse(task.isReady());
+        futures.get(1).complete(1);
+
+        assertEquals(List.of(4, 1), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testAwaitFirstNFailsOnceImpossible() {
+        final var futures = List.of(
+            new CompletableFuture<Integer>(),
+            new CompletableFuture<Integer>(),
+            new CompletableFuture<Integer>()
+        );
+
+        final var task = awaitOne(Awaitables.awaitFirstN(2, futures.stream().map(AwaitablesTests::waitFor).toList()))
+            .begin();
+
+        futures.get(0).completeExceptionally(new IllegalStateException("tolerated"));
+        assertFalse(task.isReady());
+        futures.get(1).completeExceptionally(new IllegalArgumentException("fatal"));
+
+        assertInstanceOf(IllegalArgumentException.class, errorOf(task));
+        assertThrows(IllegalArgumentException.class, () -> Awaitables.awaitFirstN(4, futures.stream()
+            .map(Awaitable::from)
+            .toList()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testAwaitAllTuple() {
+        final var future = new CompletableFuture<String>();
+        final var task = awaitOne(Awaitables.awaitAll(constant(1), Awaitable.from(future))).begin();
+
+        future.complete("two");
+        assertEquals(new Pair<>(1, "two"), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testEmptyWhenAll() {
+        assertEquals(List.of(), awaitOne(Awaitables.whenAll(List.<Task<Integer>>of())).begin().asFuture().join());
+    }
+}
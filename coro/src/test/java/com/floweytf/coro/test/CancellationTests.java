@@ -0,0 +1,210 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancellationTests {
+    /**
+     * An awaitable that never completes by itself, but supports cancellation.
+     */
+    private static class Pending<T> implements Awaitable<T> {
+        private Continuation<T> waiter;
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+            waiter = resume;
+        }
+
+        @Override
+        public boolean cancel(final Continuation<T> resume) {
+            if (waiter != resume) {
+                return false;
+            }
+
+            waiter = null;
+            return true;
+        }
+    }
+
+    @Coroutine
+    private static Task<Integer> waitFor(final CompletableFuture<Integer> future) {
+        return Co.ret(Co.await(Awaitable.from(future)));
+    }
+
+    @Coroutine
+    private static Task<Integer> awaitChild(final Task<Integer> child) {
+        return Co.ret(Co.await(child) + 1);
+    }
+
+    @Coroutine
+    private static Task<Integer> awaitPending(final Pending<Integer> pending, final AtomicInteger cleanupCount) {
+        final int value;
+
+        try {
+            value = Co.await(pending);
+        } finally {
+            cleanupCount.incrementAndGet();
+        }
+
+        return Co.ret(value);
+    }
+
+    @Coroutine
+    private static Task<Integer> countStarts(final AtomicInteger startCount) {
+        startCount.incrementAndGet();
+        return Co.ret(0);
+    }
+
+    @Coroutine
+    private static Task<Integer> recover(final Pending<Integer> pending) {
+        int value;
+
+        try {
+            value = Co.await(pending);
+        } catch (final CancellationException e) {
+            value = -1;
+        }
+
+        return Co.ret(value);
+    }
+
+    @Coroutine
+    private static Task<Integer> takeThenWait(final Granting<Integer> granting, final Pending<Integer> pending,
+                                              final AtomicInteger taken) {
+        taken.set(Co.await(granting));
+        return Co.ret(Co.await(pending));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelSuspendedOnCancellableAwaitable() {
+        final var pending = new Pending<Integer>();
+        final var cleanupCount = new AtomicInteger();
+        final var task = awaitPending(pending, cleanupCount).begin();
+
+        assertFalse(task.isReady());
+        assertTrue(task.cancel());
+
+        // the task is resumed right away, and runs its finally block
+        assertTrue(task.isReady());
+        assertTrue(task.isCancelled());
+        assertNull(pending.waiter);
+        assertEquals(1, cleanupCount.get());
+        assertInstanceOf(CancellationException.class, errorOf(task));
+
+        assertFalse(task.cancel());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelSuspendedOnPlainAwaitable() {
+        final var future = new CompletableFuture<Integer>();
+        final var task = waitFor(future).begin();
+
+        assertTrue(task.cancel());
+
+        // the future can't be cancelled, so the task only notices once it resumes
+        assertFalse(task.isReady());
+        future.complete(1);
+        assertInstanceOf(CancellationException.class, errorOf(task));
+    }
+
+    @Test
+    @Timeout(5)
+    void testRefusedCancelDeliversResult() {
+        final var granting = new Granting<Integer>();
+        final var pending = new Pending<Integer>();
+        final var taken = new AtomicInteger();
+        final var task = takeThenWait(granting, pending, taken).begin();
+
+        assertTrue(task.cancel());
+        assertFalse(task.isReady());
+
+        // the result was already handed over, so the task receives it, and only throws on its next await
+        granting.grant(3);
+        assertEquals(3, taken.get());
+        assertNull(pending.waiter);
+        assertInstanceOf(CancellationException.class, errorOf(task));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelPropagatesToChild() {
+        final var pending = new Pending<Integer>();
+        final var child = awaitPending(pending, new AtomicInteger()).begin();
+        final var parent = awaitChild(child).begin();
+
+        assertTrue(parent.cancel());
+
+        assertInstanceOf(CancellationException.class, errorOf(parent));
+        assertTrue(child.isCancelled());
+        assertInstanceOf(CancellationException.class, errorOf(child));
+    }
+
+    @Test
+    @Timeout(5)
+    void testSharedChildIsNotCancelled() {
+        final var future = new CompletableFuture<Integer>();
+        final var child = waitFor(future).begin();
+        final var first = awaitChild(child).begin();
+        final var second = awaitChild(child).begin();
+        final var third = awaitChild(child).begin();
+
+        assertTrue(second.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(second));
+        assertFalse(child.isCancelled());
+
+        // the cancelled parent has been unlinked, so completing the child doesn't resume it a second time
+        future.complete(4);
+        assertEquals(5, first.asFuture().join());
+        assertEquals(5, third.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelBeforeBegin() {
+        final var startCount = new AtomicInteger();
+        final var task = countStarts(startCount);
+
+        assertTrue(task.cancel());
+        task.begin();
+
+        assertEquals(0, startCount.get());
+        assertInstanceOf(CancellationException.class, errorOf(task));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancellationCanBeCaught() {
+        final var pending = new Pending<Integer>();
+        final var task = recover(pending).begin();
+
+        assertTrue(task.cancel());
+        assertEquals(-1, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelCompletedTask() {
+        final var task = countStarts(new AtomicInteger()).begin();
+
+        assertFalse(task.cancel());
+        assertFalse(task.isCancelled());
+    }
+}
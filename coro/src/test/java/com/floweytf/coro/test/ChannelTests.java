@@ -0,0 +1,216 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.Channel;
+import com.floweytf.coro.concurrent.ChannelClosedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChannelTests {
+    @Coroutine
+    private static Task<Void> produce(final Channel<Integer> channel, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            Co.await(channel.send(i));
+        }
+
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Long> consume(final Channel<Integer> channel, final int count) {
+        long sum = 0;
+
+        for (int i = 0; i < count; i++) {
+            sum += Co.await(channel.receive());
+        }
+
+        return Co.ret(sum);
+    }
+
+    @Coroutine
+    private static Task<List<Integer>> consumeAll(final Channel<Integer> channel) {
+        final var elements = new ArrayList<Integer>();
+
+        while (true) {
+            final var batch = Co.await(channel.receiveBatch(3));
+
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            elements.addAll(batch);
+        }
+
+        return Co.ret(elements);
+    }
+
+    @Coroutine
+    private static Task<Integer> receiveOne(final Channel<Integer> channel) {
+        final var value = Co.await(channel.receive());
+        return Co.ret(value);
+    }
+
+    @Test
+    @Timeout(5)
+    void testFastPath() throws Throwable {
+        final var channel = Channel.<Integer>spsc(3);
+
+        assertEquals(4, channel.capacity());
+        assertTrue(channel.send(1).isReady());
+        assertTrue(channel.trySend(2));
+        assertEquals(2, channel.size());
+
+        final var receive = channel.receive();
+        assertTrue(receive.isReady());
+        assertEquals(1, receive.readyValue());
+        assertEquals(2, channel.tryReceive());
+        assertFalse(channel.receive().isReady());
+    }
+
+    @Test
+    @Timeout(5)
+    void testPingPong() {
+        final var channel = Channel.<Integer>spsc(2);
+        final var consumer = consume(channel, 1000).begin();
+
+        produce(channel, 0, 1000).begin().asFuture().join();
+        assertEquals(499500L, consumer.asFuture().join());
+        assertEquals(0, channel.size());
+    }
+
+    @Test
+    @Timeout(5)
+    void testParkedSenderIsHandedSlot() {
+        final var channel = Channel.<Integer>mpsc(2);
+        final var producer = produce(channel, 0, 5).begin();
+
+        assertFalse(producer.isReady());
+        assertEquals(2, channel.size());
+
+        final var drained = new ArrayList<Integer>();
+        assertEquals(2, channel.drainTo(drained, 10));
+        assertEquals(List.of(0, 1), drained);
+
+        // the parked sender was handed a slot by the drain, and sent the next element as well
+        assertEquals(2, channel.size());
+        assertEquals(2, channel.tryReceive());
+        assertEquals(3, channel.tryReceive());
+        assertEquals(4, channel.tryReceive());
+        assertTrue(producer.isReady());
+        assertNull(channel.tryReceive());
+    }
+
+    @Test
+    @Timeout(5)
+    void testBatchAndClose() {
+        final var channel = Channel.<Integer>mpmc(8);
+        final var consumer = consumeAll(channel).begin();
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(channel.trySend(i));
+        }
+
+        channel.close();
+
+        assertFalse(channel.trySend(7));
+        assertInstanceOf(ChannelClosedException.class, errorOf(produce(channel, 0, 1).begin()));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), consumer.asFuture().join());
+        assertInstanceOf(ChannelClosedException.class, errorOf(receiveOne(channel).begin()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCloseWakesWaiters() {
+        final var channel = Channel.<Integer>mpmc(2);
+        final var receiver = receiveOne(channel).begin();
+
+        assertFalse(receiver.isReady());
+        channel.close();
+        assertInstanceOf(ChannelClosedException.class, errorOf(receiver));
+
+        final var full = Channel.<Integer>spsc(2);
+        final var sender = produce(full, 0, 3).begin();
+
+        assertFalse(sender.isReady());
+        full.close();
+        assertInstanceOf(ChannelClosedException.class, errorOf(sender));
+        assertEquals(List.of(0, 1), consumeAll(full).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelledReceiveLeavesElement() {
+        final var channel = Channel.<Integer>mpmc(2);
+        final var receiver = receiveOne(channel).begin();
+
+        assertTrue(receiver.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(receiver));
+
+        assertTrue(channel.trySend(42));
+        assertEquals(42, receiveOne(channel).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testManyProducersAndConsumers() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(pool);
+            final var channel = Channel.<Integer>mpmc(16);
+            final var consumers = IntStream.range(0, 4)
+                .mapToObj(i -> consume(channel, 25000).begin(executor))
+                .toList();
+            final var producers = IntStream.range(0, 4)
+                .mapToObj(i -> produce(channel, i * 25000, (i + 1) * 25000).begin(executor))
+                .toList();
+
+            producers.forEach(task -> task.asFuture().join());
+
+            final var sum = consumers.stream().mapToLong(task -> task.asFuture().join()).sum();
+            assertEquals(4999950000L, sum);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testSingleProducerSingleConsumerAcrossThreads() {
+        final var producerPool = Executors.newSingleThreadExecutor();
+        final var consumerPool = Executors.newSingleThreadExecutor();
+
+        try {
+            final var channel = Channel.<Integer>spsc(64);
+            final var consumer = consumeAll(channel).begin(CoroutineExecutor.fromExecutor(consumerPool));
+
+            produce(channel, 0, 100000).begin(CoroutineExecutor.fromExecutor(producerPool)).asFuture().join();
+            channel.close();
+
+            final var elements = consumer.asFuture().join();
+            assertEquals(100000, elements.size());
+
+            for (int i = 0; i < elements.size(); i++) {
+                assertEquals(i, elements.get(i));
+            }
+        } finally {
+            producerPool.shutdown();
+            consumerPool.shutdown();
+        }
+    }
+}
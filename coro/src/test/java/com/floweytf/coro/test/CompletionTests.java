@@ -0,0 +1,284 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.support.Result;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTests {
+    private static final int WAITER_COUNT = 64;
+
+    @Coroutine
+    private static Task<Integer> waitFor(final CompletableFuture<Integer> future) {
+        return Co.ret(Co.await(Awaitable.from(future)));
+    }
+
+    @Coroutine
+    private static Task<Integer> awaitChild(final Task<Integer> child) {
+        return Co.ret(Co.await(child) + 1);
+    }
+
+    @Coroutine
+    private static Task<Void> hopTo(final Executor executor) {
+        Co.await(Awaitable.runOn(executor));
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Integer> chain(final CompletableFuture<Integer> future, final int depth) {
+        if (depth == 0) {
+            return Co.ret(Co.await(Awaitable.from(future)));
+        }
+
+        return Co.ret(Co.await(chain(future, depth - 1)) + 1);
+    }
+
+    @Test
+    @Timeout(5)
+    void testSingleWaiter() {
+        final var future = new CompletableFuture<Integer>();
+        final var result = new AtomicReference<Result<Integer>>();
+        final var task = waitFor(future).begin();
+
+        task.onComplete(result::set);
+        assertFalse(task.isReady());
+
+        future.complete(3);
+        assertTrue(task.isReady());
+        assertEquals(3, result.get().value());
+    }
+
+    @Test
+    @Timeout(5)
+    void testFanOut() {
+        final var future = new CompletableFuture<Integer>();
+        final var child = waitFor(future).begin();
+        final var parents = new ArrayList<Task<Integer>>();
+
+        for (int i = 0; i < WAITER_COUNT; i++) {
+            parents.add(awaitChild(child).begin());
+        }
+
+        final var callbackCount = new AtomicInteger();
+        child.onComplete(res -> callbackCount.incrementAndGet());
+
+        future.complete(10);
+
+        for (final var parent : parents) {
+            assertEquals(11, parent.asFuture().join());
+        }
+
+        assertEquals(1, callbackCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testWaiterAfterCompletion() {
+        final var task = waitFor(CompletableFuture.completedFuture(5)).begin();
+        final var result = new AtomicReference<Result<Integer>>();
+
+        task.onComplete(result::set);
+        assertEquals(5, result.get().value());
+    }
+
+    @Test
+    @Timeout(5)
+    void testParentResumesWithSingleDispatch() {
+        final var dispatchCount = new AtomicInteger();
+        final CoroutineExecutor executor = handler -> {
+            dispatchCount.incrementAndGet();
+            handler.run();
+        };
+
+        final var future = new CompletableFuture<Integer>();
+        final var task = executor.launch(() -> {
+            return Co.ret(Co.await(waitFor(future)) * 2);
+        });
+
+        // one to begin the parent, and one to begin the child
+        assertEquals(2, dispatchCount.get());
+
+        // one to resume the child, and the parent is resumed inline since it shares the child's executor
+        future.complete(21);
+        assertEquals(42, task.asFuture().join());
+        assertEquals(3, dispatchCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testParentOnOtherExecutorIsDispatched() {
+        final var dispatchCount = new AtomicInteger();
+        final CoroutineExecutor executor = handler -> {
+            dispatchCount.incrementAndGet();
+            handler.run();
+        };
+
+        final var future = new CompletableFuture<Integer>();
+        final var child = waitFor(future).begin();
+        final var task = executor.launch(() -> {
+            return Co.ret(Co.await(child) * 2);
+        });
+
+        assertEquals(1, dispatchCount.get());
+
+        future.complete(21);
+        assertEquals(42, task.asFuture().join());
+        assertEquals(2, dispatchCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testUnwrappedResumeDoesNotTransfer() {
+        final var main = Executors.newSingleThreadExecutor();
+        final var pool = Executors.newSingleThreadExecutor();
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(main);
+            final var mainThread = CompletableFuture.supplyAsync(Thread::currentThread, main).join();
+
+            // the child finishes on the pool thread, which must not run the parent, even though they share an executor
+            final var task = executor.launch(() -> {
+                Co.await(hopTo(pool));
+                return Co.ret(Thread.currentThread());
+            });
+
+            assertSame(mainThread, task.asFuture().join());
+        } finally {
+            main.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testTransferAfterAllWaiters() {
+        final var first = Executors.newSingleThreadExecutor();
+        final var second = Executors.newSingleThreadExecutor();
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(first);
+            final var future = new CompletableFuture<Integer>();
+            final var child = waitFor(future).begin(executor);
+            final var otherResumed = new CountDownLatch(1);
+
+            final var other = CoroutineExecutor.fromExecutor(second).launch(() -> {
+                Co.await(child);
+                otherResumed.countDown();
+                return Co.ret();
+            });
+
+            // the last waiter is notified first, and shares the child's executor, so it continues inline
+            final var inline = executor.launch(() -> {
+                Co.await(child);
+                boolean isOtherResumed;
+
+                try {
+                    isOtherResumed = otherResumed.await(2, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    isOtherResumed = false;
+                }
+
+                return Co.ret(isOtherResumed);
+            });
+
+            // both have suspended once their executors are idle
+            CompletableFuture.runAsync(() -> { }, first).join();
+            CompletableFuture.runAsync(() -> { }, second).join();
+
+            future.complete(1);
+            assertTrue(inline.asFuture().join());
+            other.asFuture().join();
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testInlineTransferDepthIsBounded() {
+        final var queue = new ArrayDeque<Runnable>();
+        final CoroutineExecutor executor = queue::add;
+
+        final var future = new CompletableFuture<Integer>();
+        final var task = chain(future, 20000).begin(executor);
+
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+
+        future.complete(0);
+
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+
+        assertEquals(20000, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testDeepChain() {
+        final var future = new CompletableFuture<Integer>();
+        final var task = chain(future, 500).begin();
+
+        future.complete(0);
+        assertEquals(500, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testConcurrentWaitersAndCompletion() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            final var future = new CompletableFuture<Integer>();
+            final var task = waitFor(future).begin();
+            final var callbackCount = new AtomicInteger();
+            final var start = new CountDownLatch(1);
+            final var threads = new ArrayList<Thread>();
+
+            for (int i = 0; i < 4; i++) {
+                final var thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+
+                    for (int j = 0; j < 16; j++) {
+                        task.onComplete(res -> callbackCount.incrementAndGet());
+                    }
+                });
+
+                thread.start();
+                threads.add(thread);
+            }
+
+            start.countDown();
+            future.complete(1);
+
+            for (final var thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(64, callbackCount.get());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ContinuationTests {
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 100000;
+
+    private static final class ParkingAwaitable implements Awaitable<Object> {
+        private Continuation<Object> parked;
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Object> resume) {
+            parked = resume;
+        }
+
+        private void resume() {
+            final var continuation = parked;
+            parked = null;
+            continuation.submit(this);
+        }
+    }
+
+    private static final class RecordingAwaitable implements Awaitable<Object> {
+        private final List<Continuation<Object>> continuations = new ArrayList<>();
+
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Object> resume) {
+            continuations.add(resume);
+        }
+    }
+
+    @Coroutine
+    private static Task<Integer> loop(final Awaitable<Object> awaitable, final int count) {
+        int i = 0;
+        while (i < count) {
+            Co.await(awaitable);
+            i++;
+        }
+        return Co.ret(i);
+    }
+
+    @Test
+    @Timeout(30)
+    void testSuspensionDoesNotAllocate() {
+        final var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+
+        final var allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        final var awaitable = new ParkingAwaitable();
+        final var task = loop(awaitable, WARMUP_ITERATIONS + MEASURED_ITERATIONS).begin();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            awaitable.resume();
+        }
+
+        final var threadId = Thread.currentThread().getId();
+        final var before = allocationBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            awaitable.resume();
+        }
+
+        final var after = allocationBean.getThreadAllocatedBytes(threadId);
+        final var bytesPerSuspension = (double) (after - before) / MEASURED_ITERATIONS;
+
+        assertEquals(WARMUP_ITERATIONS + MEASURED_ITERATIONS, task.asFuture().join());
+        assertTrue(bytesPerSuspension < 1, "allocated " + bytesPerSuspension + " bytes per suspension");
+    }
+
+    @Test
+    @Timeout(5)
+    void testContinuationIsReused() {
+        final var awaitable = new ParkingAwaitable();
+        loop(awaitable, 3).begin();
+
+        // the continuations of consecutive suspensions alternate, so a late resumption of the previous one is rejected
+        final var first = awaitable.parked;
+        awaitable.resume();
+        assertNotSame(first, awaitable.parked);
+        awaitable.resume();
+        assertSame(first, awaitable.parked);
+    }
+
+    @Test
+    @Timeout(5)
+    void testCalleeLocationIsCached() {
+        final var first = new ParkingAwaitable();
+        final var second = new ParkingAwaitable();
+        loop(first, 1).begin();
+        loop(second, 1).begin();
+
+        final var location = ((Continuation.Coroutine<Object>) first.parked).calleeLocation();
+
+        assertEquals(ContinuationTests.class.getName(), location.getClassName());
+        assertEquals("loop", location.getMethodName());
+        assertEquals("ContinuationTests.java", location.getFileName());
+        assertTrue(location.getLineNumber() > 0);
+        assertSame(location, ((Continuation.Coroutine<Object>) second.parked).calleeLocation());
+    }
+
+    @Test
+    @Timeout(5)
+    void testDoubleResumeFails() {
+        final var continuation = new AtomicReference<Continuation<Object>>();
+        final Awaitable.Unwrapped<Object> awaitable = (executor, resume) -> continuation.set(resume);
+
+        final var task = Co.makeTask(() -> {
+            Co.await(awaitable);
+            return Co.ret();
+        }).begin();
+
+        continuation.get().submit(null);
+        assertTrue(task.isReady());
+        assertThrows(IllegalStateException.class, () -> continuation.get().submit(null));
+    }
+
+    @Test
+    @Timeout(5)
+    void testStaleResumeFails() {
+        final var awaitable = new RecordingAwaitable();
+        final var task = loop(awaitable, 2).begin();
+
+        final var first = awaitable.continuations.get(0);
+        first.submit(null);
+        assertEquals(2, awaitable.continuations.size());
+
+        // the task has suspended again, which a late resumption of the first suspension must not resume
+        assertThrows(IllegalStateException.class, () -> first.submit(null));
+        assertFalse(task.isReady());
+
+        awaitable.continuations.get(1).submit(null);
+        assertEquals(2, task.asFuture().join());
+    }
+}
@@ -0,0 +1,185 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.DeadlineExecutor;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineExecutorTests {
+    @Coroutine
+    private static Task<Void> record(final List<String> log, final String name) {
+        log.add(name);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Task<Void>> beginChild(final DeadlineExecutor executor, final List<String> log) {
+        final var child = record(log, "child").begin(executor);
+        Co.await(child);
+        return Co.ret(child);
+    }
+
+    @Coroutine
+    private static Task<Task<Void>> awaitChild(final List<String> log) {
+        final var child = record(log, "child");
+        Co.await(child);
+        return Co.ret(child);
+    }
+
+    @Coroutine
+    private static Task<Integer> fib(final int n, final DeadlineExecutor executor) {
+        if (n < 2) {
+            return Co.ret(n);
+        }
+
+        final var left = fib(n - 1, executor).begin(executor);
+        final var right = fib(n - 2, executor).begin(executor);
+        return Co.ret(Co.await(left) + Co.await(right));
+    }
+
+    private static CountDownLatch block(final DeadlineExecutor executor) throws InterruptedException {
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        executor.executeTask(() -> {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        started.await();
+        return release;
+    }
+
+    @Test
+    @Timeout(5)
+    void testEarliestDeadlineFirst() throws InterruptedException {
+        try (final var executor = new DeadlineExecutor(1, Duration.ofSeconds(10))) {
+            final var log = new CopyOnWriteArrayList<String>();
+            final var release = block(executor);
+
+            final var tasks = List.of(
+                record(log, "batch").begin(executor),
+                record(log, "late").withDeadline(Duration.ofSeconds(5)).begin(executor),
+                record(log, "urgent").withDeadline(Duration.ofSeconds(1)).begin(executor)
+            );
+
+            release.countDown();
+            tasks.forEach(task -> task.asFuture().join());
+
+            assertEquals(List.of("urgent", "late", "batch"), log);
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testMaxDeferralPreventsStarvation() throws InterruptedException {
+        try (final var executor = new DeadlineExecutor(1, Duration.ofMillis(1))) {
+            final var log = new CopyOnWriteArrayList<String>();
+            final var release = block(executor);
+
+            final var batch = record(log, "batch").begin(executor);
+            TimeUnit.MILLISECONDS.sleep(5);
+            // due in a second, but no later than a millisecond from now, which is after the batch work is due
+            final var urgent = record(log, "urgent").withDeadline(Duration.ofSeconds(1)).begin(executor);
+
+            release.countDown();
+            batch.asFuture().join();
+            urgent.asFuture().join();
+
+            assertEquals(List.of("batch", "urgent"), log);
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testChildrenInheritDeadline() {
+        try (final var executor = new DeadlineExecutor(2, Duration.ofSeconds(10))) {
+            final var log = new CopyOnWriteArrayList<String>();
+
+            final var begun = beginChild(executor, log).withDeadline(Duration.ofSeconds(1)).begin(executor);
+            assertEquals(begun.deadline(), begun.asFuture().join().deadline());
+
+            final var awaited = awaitChild(log).withDeadline(Duration.ofSeconds(2)).begin(executor);
+            assertEquals(awaited.deadline(), awaited.asFuture().join().deadline());
+
+            // a task without a deadline has nothing to pass on
+            final var plain = beginChild(executor, log).begin(executor);
+            assertEquals(Task.NO_DEADLINE, plain.asFuture().join().deadline());
+
+            assertThrows(IllegalStateException.class, () -> plain.withDeadline(Duration.ofSeconds(1)));
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testDeadlineMisses() throws InterruptedException {
+        try (final var executor = new DeadlineExecutor(1, Duration.ofSeconds(10))) {
+            final var log = new CopyOnWriteArrayList<String>();
+            final var release = block(executor);
+
+            final var missed = record(log, "missed").withDeadline(Duration.ofMillis(1)).begin(executor);
+            final var kept = record(log, "kept").withDeadline(Duration.ofSeconds(5)).begin(executor);
+            TimeUnit.MILLISECONDS.sleep(20);
+
+            release.countDown();
+            missed.asFuture().join();
+            kept.asFuture().join();
+
+            final var metrics = executor.metrics();
+            // along with the blocker, and the callbacks of the futures
+            assertTrue(metrics.tasksRun() >= 3);
+            assertEquals(2, metrics.deadlineTasksRun());
+            assertEquals(1, metrics.deadlineMisses());
+            assertTrue(metrics.maxLatenessNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testManyWorkers() {
+        try (final var executor = new DeadlineExecutor(4, Duration.ofMillis(50))) {
+            final var tasks = IntStream.range(0, 8)
+                .mapToObj(i -> fib(16, executor).withDeadline(Duration.ofMillis(i * 10L)).begin(executor))
+                .toList();
+
+            tasks.forEach(task -> assertEquals(987, task.asFuture().join()));
+            assertTrue(executor.metrics().tasksRun() > 8 * 987);
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testClose() throws InterruptedException {
+        final var executor = new DeadlineExecutor(2, Duration.ofMillis(10));
+        final var ran = new AtomicInteger();
+
+        for (int i = 0; i < 1000; i++) {
+            executor.executeTask(ran::incrementAndGet);
+        }
+
+        executor.close();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.executeTask(() -> { }));
+        assertTrue(executor.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(1000, ran.get());
+    }
+}
@@ -0,0 +1,150 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EagerResumptionTests {
+    private static final int ITERATIONS = 200000;
+
+    private static final Awaitable<Integer> SYNC_RESUME = new Awaitable<>() {
+        @Override
+        public void execute(final CoroutineExecutor executor, final Continuation<Integer> resume) {
+            resume.submit(1);
+        }
+    };
+
+    private static final Awaitable.Unwrapped<Integer> SYNC_RESUME_UNWRAPPED = (executor, resume) -> resume.submit(1);
+
+    @Coroutine
+    private static Task<Boolean> resumeAfterHop(final CountDownLatch begun) {
+        Co.await(Awaitable.runOn(task -> new Thread(task).start()));
+
+        // wait for the thread that began the task to return from its first step
+        try {
+            begun.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final var depth = stackDepth();
+        Co.await(SYNC_RESUME_UNWRAPPED);
+        return Co.ret(stackDepth() == depth);
+    }
+
+    private static long stackDepth() {
+        return StackWalker.getInstance().walk(Stream::count);
+    }
+
+    @Coroutine
+    private static Task<Void> record(final List<String> events, final String name) {
+        events.add(name);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Integer> sumAll(final Awaitable<Integer> awaitable, final int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += Co.await(awaitable);
+        }
+        return Co.ret(sum);
+    }
+
+    @Test
+    @Timeout(10)
+    void testSynchronousResumeDoesNotOverflow() {
+        assertEquals(ITERATIONS, sumAll(SYNC_RESUME, ITERATIONS).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testSynchronousUnwrappedResumeDoesNotOverflow() {
+        assertEquals(ITERATIONS, sumAll(SYNC_RESUME_UNWRAPPED, ITERATIONS).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testUnwrappedResumeOnOtherExecutorDoesNotOverflow() {
+        final CoroutineExecutor executor = Runnable::run;
+        assertEquals(ITERATIONS, sumAll(SYNC_RESUME_UNWRAPPED, ITERATIONS).begin(executor).asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testResumeAfterHopDoesNotRecurse() {
+        final var begun = new CountDownLatch(1);
+        final var task = resumeAfterHop(begun).begin();
+
+        begun.countDown();
+        assertTrue(task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testNestedSubmissionsRunImmediately() {
+        final List<String> events = new ArrayList<>();
+
+        CoroutineExecutor.EAGER.executeTask(() -> {
+            events.add("outer start");
+            CoroutineExecutor.EAGER.executeTask(() -> events.add("inner"));
+            events.add("outer end");
+        });
+
+        assertEquals(List.of("outer start", "inner", "outer end"), events);
+    }
+
+    @Test
+    @Timeout(5)
+    void testBeginStartsChildBeforeReturning() {
+        final List<String> events = new ArrayList<>();
+
+        final var task = CoroutineExecutor.EAGER.launch(() -> {
+            events.add("parent start");
+            final var child = record(events, "child").begin();
+            events.add("parent end");
+            Co.await(child);
+            return Co.ret();
+        });
+
+        assertTrue(task.isReady());
+        assertEquals(List.of("parent start", "child", "parent end"), events);
+    }
+
+    @Test
+    @Timeout(5)
+    void testNestedLaunchBlocking() {
+        final int inCoroutine = CoroutineExecutor.EAGER.launchBlocking(() -> {
+            final int value = CoroutineExecutor.EAGER.launchBlocking(() -> {
+                final int sum = Co.await(sumAll(SYNC_RESUME, 10));
+                return Co.ret(sum);
+            });
+
+            return Co.ret(value + Co.await(SYNC_RESUME));
+        });
+
+        assertEquals(11, inCoroutine);
+
+        final var inCallback = new AtomicInteger();
+        sumAll(SYNC_RESUME, 1).begin().onComplete(result ->
+            inCallback.set(CoroutineExecutor.EAGER.launchBlocking(() -> {
+                final int sum = Co.await(sumAll(SYNC_RESUME_UNWRAPPED, 10));
+                return Co.ret(sum);
+            })));
+
+        assertEquals(10, inCallback.get());
+    }
+}
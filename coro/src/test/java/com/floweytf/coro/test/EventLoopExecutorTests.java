@@ -0,0 +1,182 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.EventLoopExecutor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLoopExecutorTests {
+    private static final class Counter {
+        private int value;
+    }
+
+    @Coroutine
+    private static Task<List<Boolean>> hopAround(final EventLoopExecutor loop, final int hops) {
+        final var pool = Executors.newSingleThreadExecutor();
+        final var onLoop = new ArrayList<Boolean>();
+
+        try {
+            for (int i = 0; i < hops; i++) {
+                Co.await(Awaitable.from(CompletableFuture.runAsync(() -> { }, pool)));
+                onLoop.add(loop.inEventLoop());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return Co.ret(onLoop);
+    }
+
+    @Test
+    @Timeout(5)
+    void testResumesOnLoop() {
+        try (final var loop = new EventLoopExecutor()) {
+            assertFalse(loop.inEventLoop());
+            assertEquals(List.of(true, true, true), hopAround(loop, 3).begin(loop).asFuture().join());
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testFifoFromOneThread() {
+        try (final var loop = new EventLoopExecutor()) {
+            final var log = new ArrayList<Integer>();
+            final var done = new CompletableFuture<Void>();
+
+            for (int i = 0; i < 1000; i++) {
+                final var value = i;
+                loop.executeTask(() -> log.add(value));
+            }
+
+            loop.executeTask(() -> done.complete(null));
+            done.join();
+
+            assertEquals(IntStream.range(0, 1000).boxed().toList(), log);
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testSubmitFromLoop() {
+        try (final var loop = new EventLoopExecutor()) {
+            final var log = new ArrayList<String>();
+            final var done = new CompletableFuture<Void>();
+
+            loop.executeTask(() -> {
+                // resubmits itself from the loop, which goes to the local queue
+                final var remaining = new int[] { 3 };
+                final var self = new Runnable[1];
+
+                self[0] = () -> {
+                    log.add("local");
+
+                    if (--remaining[0] > 0) {
+                        loop.executeTask(self[0]);
+                    } else {
+                        done.complete(null);
+                    }
+                };
+
+                loop.executeTask(self[0]);
+            });
+
+            done.join();
+            assertEquals(List.of("local", "local", "local"), log);
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testManyProducers() throws InterruptedException {
+        final var loop = new EventLoopExecutor();
+        final var counter = new Counter();
+        final var start = new CountDownLatch(1);
+        final var producers = IntStream.range(0, 4)
+            .mapToObj(i -> new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                for (int j = 0; j < 100000; j++) {
+                    // the loop runs one task at a time, so the counter needs no synchronization
+                    loop.executeTask(() -> counter.value++);
+                }
+            }))
+            .toList();
+
+        producers.forEach(Thread::start);
+        start.countDown();
+
+        for (final var producer : producers) {
+            producer.join();
+        }
+
+        loop.close();
+        assertTrue(loop.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(400000, counter.value);
+    }
+
+    @Test
+    @Timeout(5)
+    void testWakesUpFromPark() throws InterruptedException {
+        try (final var loop = new EventLoopExecutor()) {
+            for (int i = 0; i < 3; i++) {
+                // long enough for the loop to give up spinning and park
+                TimeUnit.MILLISECONDS.sleep(20);
+
+                final var ran = new CompletableFuture<Boolean>();
+                loop.executeTask(() -> ran.complete(loop.inEventLoop()));
+                assertTrue(ran.join());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testClose() throws InterruptedException {
+        final var error = new AtomicReference<Throwable>();
+        final var loop = new EventLoopExecutor(task -> {
+            final var thread = new Thread(task, "test-event-loop");
+            thread.setUncaughtExceptionHandler((t, e) -> error.set(e));
+            return thread;
+        });
+        final var ran = new CountDownLatch(100);
+
+        loop.executeTask(() -> {
+            throw new IllegalStateException("expected");
+        });
+
+        for (int i = 0; i < 100; i++) {
+            loop.executeTask(ran::countDown);
+        }
+
+        loop.close();
+        assertTrue(loop.isClosed());
+        assertThrows(RejectedExecutionException.class, () -> loop.executeTask(() -> { }));
+
+        assertTrue(loop.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(0, ran.getCount());
+        assertInstanceOf(IllegalStateException.class, error.get());
+    }
+}
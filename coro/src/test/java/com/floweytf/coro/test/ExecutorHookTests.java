@@ -0,0 +1,87 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExecutorHookTests {
+    private static class CountingExecutor implements CoroutineExecutor {
+        protected final AtomicInteger suspendCount = new AtomicInteger();
+        protected final AtomicInteger resumeCount = new AtomicInteger();
+
+        @Override
+        public void executeTask(final Runnable handler) {
+            handler.run();
+        }
+
+        @Override
+        public void onSuspend(final Task<?> task, final Awaitable<?> awaitable) {
+            suspendCount.incrementAndGet();
+        }
+
+        @Override
+        public <T> void onResume(final Task<?> task, final Awaitable<T> awaitable, final T result) {
+            resumeCount.incrementAndGet();
+        }
+    }
+
+    @Coroutine
+    private static Task<Integer> waitFor(final CompletableFuture<Integer> future) {
+        return Co.ret(Co.await(Awaitable.from(future)));
+    }
+
+    @Test
+    void testDetectedHooks() {
+        final CoroutineExecutor lambda = Runnable::run;
+
+        assertEquals(0, CoroutineExecutor.EAGER.enabledHooks());
+        assertEquals(0, CoroutineExecutor.fromExecutor(Runnable::run).enabledHooks());
+        assertEquals(0, lambda.enabledHooks());
+        assertEquals(
+            CoroutineExecutor.HOOK_SUSPEND | CoroutineExecutor.HOOK_RESUME,
+            new CountingExecutor().enabledHooks()
+        );
+    }
+
+    @Test
+    @Timeout(5)
+    void testEnabledHooksAreCalled() {
+        final var executor = new CountingExecutor();
+        final var future = new CompletableFuture<Integer>();
+        final var task = waitFor(future).begin(executor);
+
+        future.complete(1);
+
+        assertEquals(1, task.asFuture().join());
+        assertEquals(1, executor.suspendCount.get());
+        assertEquals(1, executor.resumeCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testDisabledHooksAreSkipped() {
+        final var executor = new CountingExecutor() {
+            @Override
+            public int enabledHooks() {
+                return HOOK_RESUME;
+            }
+        };
+
+        final var future = new CompletableFuture<Integer>();
+        final var task = waitFor(future).begin(executor);
+
+        future.complete(1);
+
+        assertEquals(1, task.asFuture().join());
+        assertEquals(0, executor.suspendCount.get());
+        assertEquals(1, executor.resumeCount.get());
+    }
+}
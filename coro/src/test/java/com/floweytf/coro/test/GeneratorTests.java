@@ -0,0 +1,234 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Generator;
+import com.floweytf.coro.concepts.IntGenerator;
+import com.floweytf.coro.concepts.LongGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratorTests {
+    private record Node(int value, Node left, Node right) {
+    }
+
+    @Coroutine
+    private static Generator<String> words(final String text, final AtomicInteger progress) {
+        int start = 0;
+
+        for (int i = 0; i <= text.length(); i++) {
+            progress.set(i);
+
+            if (i == text.length() || text.charAt(i) == ' ') {
+                if (i > start) {
+                    Co.yield(text.substring(start, i));
+                }
+
+                start = i + 1;
+            }
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static IntGenerator range(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            Co.yield(i);
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static LongGenerator fibonacci() {
+        long a = 0;
+        long b = 1;
+
+        while (true) {
+            Co.yield(a);
+            final var next = a + b;
+            a = b;
+            b = next;
+        }
+    }
+
+    @Coroutine
+    private static Generator<Integer> inOrder(final Node node) {
+        if (node == null) {
+            return Co.done();
+        }
+
+        for (final var value : inOrder(node.left())) {
+            Co.yield(value);
+        }
+
+        Co.yield(node.value());
+
+        for (final var value : inOrder(node.right())) {
+            Co.yield(value);
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static Generator<Integer> failAfter(final int count) {
+        for (int i = 0; i < count; i++) {
+            Co.yield(i);
+        }
+
+        throw new IllegalStateException("expected");
+    }
+
+    @Coroutine
+    private static Generator<Integer> withCleanup(final List<String> log) {
+        try {
+            for (int i = 0; ; i++) {
+                log.add("yield " + i);
+                Co.yield(i);
+            }
+        } finally {
+            log.add("cleanup");
+        }
+    }
+
+    @Coroutine
+    private static Generator<Integer> refusesToClose() {
+        try {
+            Co.yield(1);
+        } catch (final CancellationException e) {
+            Co.yield(2);
+        }
+
+        return Co.done();
+    }
+
+    @Coroutine
+    private static Generator<Object> mixedLocals(final double scale) {
+        final var label = "x";
+        long total = 0;
+        final var values = new ArrayList<Integer>();
+
+        for (int i = 0; i < 3; i++) {
+            total += i;
+            values.add(i);
+            Co.yield(label + total * scale + values);
+        }
+
+        return Co.done();
+    }
+
+    @Test
+    @Timeout(5)
+    void testLazy() {
+        final var progress = new AtomicInteger(-1);
+        final var generator = words("the quick  brown fox", progress);
+
+        assertEquals(-1, progress.get());
+        assertEquals("the", generator.iterator().next());
+        assertEquals(3, progress.get());
+
+        final var rest = new ArrayList<String>();
+        generator.forEach(rest::add);
+
+        assertEquals(List.of("quick", "brown", "fox"), rest);
+        assertFalse(generator.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> generator.iterator().next());
+    }
+
+    @Test
+    @Timeout(5)
+    void testIntGenerator() {
+        final var iterator = range(0, 3).iterator();
+
+        assertEquals(0, iterator.nextInt());
+        assertEquals(1, iterator.nextInt());
+        assertEquals(2, iterator.nextInt());
+        assertFalse(iterator.hasNext());
+
+        assertEquals(499999500000L, range(0, 1000000).intStream().asLongStream().sum());
+    }
+
+    @Test
+    @Timeout(5)
+    void testInfiniteLongGenerator() {
+        assertEquals(12586269025L, fibonacci().longStream().skip(50).findFirst().orElseThrow());
+    }
+
+    @Test
+    @Timeout(5)
+    void testStream() {
+        assertEquals(
+            "the,quick,brown,fox",
+            words("the quick brown fox", new AtomicInteger()).stream().collect(Collectors.joining(","))
+        );
+    }
+
+    @Test
+    @Timeout(5)
+    void testRecursive() {
+        final var tree = new Node(
+            4,
+            new Node(2, new Node(1, null, null), new Node(3, null, null)),
+            new Node(6, new Node(5, null, null), null)
+        );
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), inOrder(tree).stream().toList());
+    }
+
+    @Test
+    @Timeout(5)
+    void testLocalsPreserved() {
+        assertEquals(List.of("x0.0[0]", "x0.5[0, 1]", "x1.5[0, 1, 2]"), mixedLocals(0.5).stream().toList());
+    }
+
+    @Test
+    @Timeout(5)
+    void testException() {
+        final var iterator = failAfter(2).iterator();
+
+        assertEquals(0, iterator.next());
+        assertEquals(1, iterator.next());
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCloseRunsFinally() {
+        final var log = new ArrayList<String>();
+
+        try (final var stream = withCleanup(log).stream()) {
+            assertEquals(List.of(0, 1), stream.limit(2).toList());
+        }
+
+        assertEquals(List.of("yield 0", "yield 1", "cleanup"), log);
+
+        // closing a generator that never started doesn't run it
+        log.clear();
+        withCleanup(log).close();
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    @Timeout(5)
+    void testYieldAfterClose() {
+        final var generator = refusesToClose();
+
+        assertEquals(1, generator.iterator().next());
+        assertThrows(IllegalStateException.class, generator::close);
+        assertFalse(generator.iterator().hasNext());
+    }
+}
@@ -0,0 +1,27 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+
+/**
+ * An awaitable that supports cancellation, but has already committed to resuming its waiter, as a lock does once it
+ * has been granted.
+ */
+final class Granting<T> implements Awaitable<T> {
+    private Continuation<T> waiter;
+
+    @Override
+    public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+        waiter = resume;
+    }
+
+    @Override
+    public boolean cancel(final Continuation<T> resume) {
+        return false;
+    }
+
+    void grant(final T value) {
+        waiter.submit(value);
+    }
+}
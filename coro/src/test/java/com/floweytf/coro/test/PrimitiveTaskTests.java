@@ -0,0 +1,217 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.DoubleTask;
+import com.floweytf.coro.concepts.IntTask;
+import com.floweytf.coro.concepts.LongTask;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.support.Result;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitiveTaskTests {
+    @Coroutine
+    private static IntTask constant(final int value) {
+        return Co.retInt(value);
+    }
+
+    @Coroutine
+    private static IntTask delayed(final CompletableFuture<Integer> future) {
+        final int value = Co.await(Awaitable.from(future));
+        return Co.retInt(value);
+    }
+
+    @Coroutine
+    private static IntTask failing() {
+        throw new IllegalStateException("expected");
+    }
+
+    @Coroutine
+    private static IntTask sum(final int count) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += Co.await(constant(i));
+        }
+        return Co.retInt(total);
+    }
+
+    @Coroutine
+    private static IntTask addDelayed(final CompletableFuture<Integer> future, final int amount) {
+        final var value = Co.await(delayed(future));
+        return Co.retInt(value + amount);
+    }
+
+    @Coroutine
+    private static IntTask recover() {
+        int value;
+
+        try {
+            value = Co.await(failing());
+        } catch (final IllegalStateException e) {
+            value = -1;
+        }
+
+        return Co.retInt(value);
+    }
+
+    @Coroutine
+    private static LongTask longValue(final long value) {
+        return Co.retLong(value);
+    }
+
+    @Coroutine
+    private static LongTask doubleLong(final long value) {
+        final long half = Co.await(longValue(value));
+        return Co.retLong(half * 2);
+    }
+
+    @Coroutine
+    private static DoubleTask doubleValue(final double value) {
+        return Co.retDouble(value);
+    }
+
+    @Coroutine
+    private static DoubleTask halve(final double value) {
+        final double result = Co.await(doubleValue(value));
+        return Co.retDouble(result / 2);
+    }
+
+    @Coroutine
+    private static Task<Integer> boxed(final int value) {
+        return Co.ret(value);
+    }
+
+    @Coroutine
+    private static Task<Integer> boxedUnboxed(final int value) {
+        return Co.retInt(value);
+    }
+
+    // primitive literals still resolve to Co.ret(T), so these box to the declared type
+    @Coroutine
+    private static Task<Number> number() {
+        return Co.ret(5);
+    }
+
+    @Coroutine
+    private static Task<Object> object() {
+        return Co.ret(5L);
+    }
+
+    @Coroutine
+    private static Task<Float> floatValue() {
+        return Co.ret(1.5f);
+    }
+
+    @Coroutine
+    private static Task<Short> shortValue(final short value) {
+        return Co.ret(value);
+    }
+
+    @Coroutine
+    private static Task<Integer> awaitBoxed(final IntTask task) {
+        final Task<Integer> boxed = task;
+        return Co.ret(Co.await(boxed));
+    }
+
+    @Test
+    @Timeout(5)
+    void testReadyPrimitiveAwait() {
+        assertEquals(4950, sum(100).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testSuspendedPrimitiveAwait() {
+        final var future = new CompletableFuture<Integer>();
+        final var task = addDelayed(future, 5).begin();
+
+        assertFalse(task.isReady());
+        future.complete(37);
+        assertEquals(42, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testPrimitiveAwaitThrows() {
+        assertEquals(-1, recover().begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testLongAndDouble() {
+        assertEquals(Long.MAX_VALUE - 1, doubleLong(Long.MAX_VALUE / 2).begin().asFuture().join());
+        assertEquals(-0.75, halve(-1.5).begin().asFuture().join());
+        assertTrue(Double.isNaN(halve(Double.NaN).begin().asFuture().join()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testPrimitiveTaskAsBoxedTask() {
+        final var result = new AtomicReference<Result<Integer>>();
+        constant(7).begin().onComplete(result::set);
+
+        assertEquals(7, result.get().value());
+        assertEquals(8, awaitBoxed(constant(8)).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testPrimitiveErrorAsResult() {
+        final var result = new AtomicReference<Result<Integer>>();
+        failing().begin().onComplete(result::set);
+
+        assertInstanceOf(IllegalStateException.class, result.get().error().orElseThrow());
+    }
+
+    @Test
+    @Timeout(5)
+    void testBoxedPrimitiveReturns() {
+        assertEquals(3, boxed(3).begin().asFuture().join());
+        assertEquals(Float.valueOf(1.5f), floatValue().begin().asFuture().join());
+        assertEquals(Short.valueOf((short) 12), shortValue((short) 12).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testWidenedPrimitiveReturns() {
+        assertEquals(4, boxedUnboxed(4).begin().asFuture().join());
+        assertEquals(5, number().begin().asFuture().join());
+        assertEquals(5L, object().begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testResumeHookReceivesBoxedValue() {
+        final List<Object> resumed = new ArrayList<>();
+        final var executor = new CoroutineExecutor() {
+            @Override
+            public void executeTask(final Runnable handler) {
+                handler.run();
+            }
+
+            @Override
+            public <T> void onResume(final Task<?> task, final Awaitable<T> awaitable, final T result) {
+                resumed.add(result);
+            }
+        };
+
+        final var future = new CompletableFuture<Integer>();
+        final var task = addDelayed(future, 1).begin(executor);
+        future.complete(9);
+
+        assertEquals(10, task.asFuture().join());
+        assertEquals(List.of(9, 9), resumed);
+    }
+}
@@ -0,0 +1,134 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Continuation;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ReadyAwaitTests {
+    private static final class CountingExecutor implements CoroutineExecutor {
+        private final AtomicInteger suspendCount = new AtomicInteger();
+
+        @Override
+        public void executeTask(final Runnable handler) {
+            handler.run();
+        }
+
+        @Override
+        public void onSuspend(final Task<?> task, final Awaitable<?> awaitable) {
+            suspendCount.incrementAndGet();
+        }
+    }
+
+    private static <T> Awaitable<T> readyAwaitable(final T value) {
+        return new Awaitable<>() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public T readyValue() {
+                return value;
+            }
+
+            @Override
+            public void execute(final CoroutineExecutor executor, final Continuation<T> resume) {
+                fail("ready awaitable should never be suspended on");
+            }
+        };
+    }
+
+    @Coroutine
+    private static Task<Integer> immediateTask() {
+        return Co.ret(7);
+    }
+
+    @Coroutine
+    private static Task<Integer> throwingTask() {
+        throw new IllegalStateException("expected");
+    }
+
+    @Coroutine
+    private static Task<Long> sumReady(final int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += Co.await(readyAwaitable(i));
+        }
+        return Co.ret(sum);
+    }
+
+    @Test
+    @Timeout(5)
+    void testReadyAwaitableDoesNotSuspend() {
+        final var executor = new CountingExecutor();
+        final var result = executor.launch(() -> {
+            final var value = Co.await(readyAwaitable("value"));
+            return Co.ret(value);
+        }).asFuture().join();
+
+        assertEquals("value", result);
+        assertEquals(0, executor.suspendCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCompletedFutureDoesNotSuspend() {
+        final var executor = new CountingExecutor();
+        final var future = CompletableFuture.completedFuture(5);
+        final var result = executor.launch(() -> {
+            final var value = Co.await(Awaitable.from(future));
+            return Co.ret(value + 1);
+        }).asFuture().join();
+
+        assertEquals(6, result);
+        assertEquals(0, executor.suspendCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testSynchronousChildDoesNotSuspend() {
+        final var executor = new CountingExecutor();
+        final var result = executor.launch(() -> {
+            final var value = Co.await(immediateTask());
+            return Co.ret(value * 2);
+        }).asFuture().join();
+
+        assertEquals(14, result);
+        assertEquals(0, executor.suspendCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testReadyExceptionIsCaught() {
+        final var executor = new CountingExecutor();
+        final var caught = executor.launch(() -> {
+            try {
+                Co.await(throwingTask());
+            } catch (final IllegalStateException e) {
+                return Co.ret(true);
+            }
+
+            return Co.ret(false);
+        }).asFuture().join();
+
+        assertTrue(caught);
+        assertEquals(0, executor.suspendCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testManyReadyAwaits() {
+        assertEquals(49995000L, sumReady(10000).begin().asFuture().join());
+    }
+}
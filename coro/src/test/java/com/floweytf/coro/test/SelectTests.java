@@ -0,0 +1,254 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.Channel;
+import com.floweytf.coro.concurrent.Select;
+import com.floweytf.coro.support.Result;
+import com.floweytf.coro.time.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SelectTests {
+    @Coroutine
+    private static <T> Task<String> selectOnce(final Select<T> select) {
+        final var index = Co.await(select);
+        return Co.ret(index + ":" + select.value());
+    }
+
+    @Coroutine
+    private static <T> Task<List<String>> selectMany(final Select<T> select, final int count) {
+        final var results = new ArrayList<String>();
+
+        for (int i = 0; i < count; i++) {
+            final var index = Co.await(select);
+            results.add(index + ":" + select.value());
+        }
+
+        return Co.ret(results);
+    }
+
+    @Coroutine
+    private static Task<Long> gateway(final List<Channel<Integer>> upstreams, final int total) {
+        final var select = new Select<Integer>();
+        upstreams.forEach(select::onReceive);
+
+        long sum = 0;
+
+        for (int i = 0; i < total; i++) {
+            Co.await(select);
+            sum += select.value();
+        }
+
+        return Co.ret(sum);
+    }
+
+    @Coroutine
+    private static Task<Void> produce(final Channel<Integer> channel, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            Co.await(channel.send(i));
+        }
+
+        return Co.ret();
+    }
+
+    @Test
+    @Timeout(5)
+    void testReadyBranchesRotate() {
+        final var first = Channel.<String>mpmc(4);
+        final var second = Channel.<String>mpmc(4);
+        final var select = new Select<String>().onReceive(first).onReceive(second);
+
+        first.trySend("a");
+        first.trySend("b");
+        second.trySend("c");
+
+        assertEquals(
+            List.of("0:a", "1:c", "0:b"),
+            selectMany(select, 3).begin().asFuture().join()
+        );
+    }
+
+    @Test
+    @Timeout(5)
+    void testLosersAreUnregistered() {
+        final var channels = IntStream.range(0, 3).mapToObj(i -> Channel.<Integer>mpmc(2)).toList();
+        final var select = new Select<Integer>();
+        channels.forEach(select::onReceive);
+
+        final var task = selectOnce(select).begin();
+        assertFalse(task.isReady());
+
+        channels.get(2).trySend(7);
+        assertEquals("2:7", task.asFuture().join());
+
+        // the select no longer waits on the other channels, so it doesn't take their elements
+        channels.get(0).trySend(1);
+        assertEquals(1, channels.get(0).tryReceive());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTimerBranch() {
+        final var clock = new AtomicLong();
+        final var timer = Timer.manual(Duration.ofMillis(1), clock::get);
+        final var channel = Channel.<Object>spsc(2);
+        final var select = new Select<Object>()
+            .onReceive(channel)
+            .onAwait(() -> timer.sleep(Duration.ofMillis(10)));
+
+        final var task = selectMany(select, 2).begin();
+
+        clock.set(Duration.ofMillis(10).toNanos());
+        timer.advance();
+        assertFalse(task.isReady());
+
+        channel.trySend("data");
+        assertEquals(List.of("1:null", "0:data"), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTaskBranchIsNotCancelledWhenLosing() {
+        final var future = new CompletableFuture<String>();
+        final var slow = Co.makeTask(() -> {
+            final var value = Co.await(Awaitable.from(future));
+            return Co.ret(value);
+        });
+        final var channel = Channel.<String>mpmc(2);
+        final var select = new Select<String>().onReceive(channel).onAwait(() -> slow);
+
+        final var task = selectMany(select, 2).begin();
+
+        channel.trySend("fast");
+        assertFalse(task.isReady());
+        assertFalse(slow.isCancelled());
+
+        future.complete("slow");
+        assertEquals(List.of("0:fast", "1:slow"), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testClosedChannelWinsWithNull() {
+        final var channel = Channel.<String>mpmc(2);
+        final var select = new Select<String>().onAwait(() -> (executor, resume) -> { }).onReceive(channel);
+        final var task = selectOnce(select).begin();
+
+        channel.close();
+        assertEquals("1:null", task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testFailingBranch() {
+        final var select = new Select<String>()
+            .onReceive(Channel.<String>mpmc(2))
+            .onAwait(() -> Awaitable.from(CompletableFuture.failedFuture(new IllegalStateException("expected"))));
+
+        assertInstanceOf(IllegalStateException.class, errorOf(selectOnce(select).begin()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancel() {
+        final var channel = Channel.<Integer>mpmc(2);
+        final var select = new Select<Integer>().onReceive(channel);
+        final var task = selectOnce(select).begin();
+
+        assertTrue(task.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(task));
+
+        channel.trySend(5);
+        assertEquals(5, channel.tryReceive());
+        assertNull(channel.tryReceive());
+
+        // the select may be awaited again
+        channel.trySend(6);
+        assertEquals("0:6", selectOnce(select).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testConcurrentSendAndCancel() throws Exception {
+        final var pool = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int i = 0; i < 2000; i++) {
+                final var value = i;
+                final var channel = Channel.<Integer>mpmc(2);
+                final var select = new Select<Integer>().onReceive(channel);
+                final var task = selectOnce(select).begin();
+                final var start = new CountDownLatch(1);
+
+                final var send = pool.submit(() -> {
+                    start.await();
+                    return channel.trySend(value);
+                });
+
+                final var cancel = pool.submit(() -> {
+                    start.await();
+                    return task.cancel();
+                });
+
+                start.countDown();
+                assertTrue(send.get());
+                cancel.get();
+
+                // the element is either received by the select, or left in the channel, but never lost
+                final var result = new AtomicReference<Result<String>>();
+                task.onComplete(result::set);
+
+                if (result.get().hasValue()) {
+                    assertEquals("0:" + value, result.get().value());
+                    assertNull(channel.tryReceive());
+                } else {
+                    assertInstanceOf(CancellationException.class, result.get().error().orElseThrow());
+                    assertEquals(value, channel.tryReceive());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testManyUpstreams() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var executor = CoroutineExecutor.fromExecutor(pool);
+            final var upstreams = IntStream.range(0, 50).mapToObj(i -> Channel.<Integer>mpsc(4)).toList();
+            final var consumer = gateway(upstreams, 50 * 1000).begin(executor);
+
+            for (int i = 0; i < 50; i++) {
+                produce(upstreams.get(i), i * 1000, (i + 1) * 1000).begin(executor);
+            }
+
+            assertEquals(1249975000L, consumer.asFuture().join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.ShardLocal;
+import com.floweytf.coro.executor.ShardPool;
+import com.floweytf.coro.executor.ShardedRuntime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedRuntimeTests {
+    private static final class Counter {
+        private int value;
+    }
+
+    @Coroutine
+    private static Task<Boolean> moveAndStay(final ShardedRuntime.Shard target) {
+        final var pool = Executors.newSingleThreadExecutor();
+
+        try {
+            Co.await(ShardedRuntime.switchTo(target));
+            // resumed by another thread, but the coroutine stays on the shard
+            Co.await(Awaitable.from(CompletableFuture.runAsync(() -> { }, pool)));
+        } finally {
+            pool.shutdown();
+        }
+
+        return Co.ret(target.runtime().currentShard() == target);
+    }
+
+    @Coroutine
+    private static Task<Integer> put(final ShardedRuntime runtime, final ShardLocal<Map<Integer, Integer>> cache,
+                                     final int key) {
+        Co.await(ShardedRuntime.switchTo(runtime.shardFor(key)));
+        // only the owning shard touches its partition, so a plain map will do
+        cache.get().merge(key, 1, Integer::sum);
+        return Co.ret(runtime.currentShard().index());
+    }
+
+    @Coroutine
+    private static Task<Void> hop(final ShardedRuntime runtime, final ShardLocal<Counter> visits, final int hops) {
+        for (int i = 0; i < hops; i++) {
+            Co.await(ShardedRuntime.switchTo(runtime.shard(i % runtime.shardCount())));
+            visits.get().value++;
+        }
+
+        return Co.ret();
+    }
+
+    @Test
+    @Timeout(5)
+    void testSwitchToSticks() {
+        try (final var runtime = new ShardedRuntime(2)) {
+            assertNull(runtime.currentShard());
+            assertTrue(moveAndStay(runtime.shard(1)).begin(runtime.shard(0)).asFuture().join());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testPartitionedWrites() {
+        try (final var runtime = new ShardedRuntime(4)) {
+            final var cache = new ShardLocal<Map<Integer, Integer>>(runtime, HashMap::new);
+
+            final var tasks = IntStream.range(0, 4000)
+                .mapToObj(i -> put(runtime, cache, i % 1000).begin(runtime.shard(i % 4)))
+                .toList();
+            final var owners = tasks.stream().map(task -> task.asFuture().join()).toList();
+
+            for (int i = 0; i < 4000; i++) {
+                assertEquals(runtime.shardFor(i % 1000).index(), owners.get(i));
+            }
+
+            // every shard owns a share of the keys
+            assertEquals(4, owners.stream().distinct().count());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testHopBetweenShards() throws InterruptedException {
+        final var runtime = new ShardedRuntime(3);
+        final var visits = new ShardLocal<>(runtime, Counter::new);
+        final var totals = new AtomicInteger();
+
+        IntStream.range(0, 30)
+            .mapToObj(i -> hop(runtime, visits, 3000).begin(runtime.shard(i % 3)))
+            .toList()
+            .forEach(task -> task.asFuture().join());
+
+        for (int i = 0; i < 3; i++) {
+            final var done = new CompletableFuture<Void>();
+            runtime.shard(i).executeTask(() -> {
+                totals.addAndGet(visits.get().value);
+                done.complete(null);
+            });
+            done.join();
+        }
+
+        assertEquals(90000, totals.get());
+
+        runtime.close();
+        assertTrue(runtime.awaitTermination(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @Timeout(10)
+    void testRingOverflowKeepsOrder() {
+        try (final var runtime = new ShardedRuntime(2)) {
+            final var log = new ArrayList<Integer>();
+            final var done = new CompletableFuture<List<Integer>>();
+            final var receiver = runtime.shard(1);
+
+            runtime.shard(0).executeTask(() -> {
+                // far more than fits in the ring between the two shards
+                for (int i = 0; i < 10000; i++) {
+                    final var value = i;
+                    receiver.executeTask(() -> log.add(value));
+                }
+
+                receiver.executeTask(() -> done.complete(log));
+            });
+
+            assertEquals(IntStream.range(0, 10000).boxed().toList(), done.join());
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testShardLocalAndPool() {
+        try (final var runtime = new ShardedRuntime(2)) {
+            final var pool = new ShardPool<>(runtime, StringBuilder::new, 4);
+            final var result = new CompletableFuture<Boolean>();
+
+            runtime.shard(0).executeTask(() -> {
+                final var first = pool.acquire();
+                pool.release(first);
+                result.complete(pool.acquire() == first);
+            });
+
+            assertTrue(result.join());
+            assertNotSame(pool.acquire(), pool.acquire());
+
+            final var local = new ShardLocal<>(runtime, Object::new);
+            assertThrows(IllegalStateException.class, local::get);
+
+            final var first = new CompletableFuture<Object>();
+            final var second = new CompletableFuture<Object>();
+            runtime.shard(0).executeTask(() -> first.complete(local.get()));
+            runtime.shard(0).executeTask(() -> second.complete(local.get()));
+            assertSame(first.join(), second.join());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testCloseWaitsForCrossShardWork() throws InterruptedException {
+        final var runtime = new ShardedRuntime(4);
+        final var hops = new AtomicInteger();
+        final var forward = new Runnable[1];
+
+        forward[0] = () -> {
+            if (hops.incrementAndGet() < 1000) {
+                runtime.shard(hops.get() % 4).executeTask(forward[0]);
+            }
+        };
+
+        runtime.shard(0).executeTask(forward[0]);
+        runtime.close();
+
+        assertThrows(RejectedExecutionException.class, () -> runtime.shard(0).executeTask(() -> { }));
+        assertTrue(runtime.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(1000, hops.get());
+    }
+}
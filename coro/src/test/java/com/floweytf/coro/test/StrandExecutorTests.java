@@ -0,0 +1,202 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.StrandExecutor;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StrandExecutorTests {
+    private static final class Account {
+        private int balance;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile boolean overlapped;
+    }
+
+    @Coroutine
+    private static Task<Void> deposit(final Account account, final ExecutorService pool, final int times) {
+        for (int i = 0; i < times; i++) {
+            if (account.active.incrementAndGet() != 1) {
+                account.overlapped = true;
+            }
+
+            // not atomic, but the strand never runs two steps at once
+            account.balance++;
+            account.active.decrementAndGet();
+
+            Co.await(Awaitable.from(CompletableFuture.runAsync(() -> { }, pool)));
+        }
+
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Boolean> resumeFromOutside(final StrandExecutor.Strand strand) {
+        final var pool = Executors.newSingleThreadExecutor();
+
+        try {
+            Co.await(Awaitable.from(CompletableFuture.runAsync(() -> { }, pool)));
+        } finally {
+            pool.shutdown();
+        }
+
+        return Co.ret(strand.isCurrent() && StrandExecutor.currentStrand() == strand);
+    }
+
+    @Test
+    @Timeout(10)
+    void testCoroutinesOnStrandNeverOverlap() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var strands = new StrandExecutor(CoroutineExecutor.fromExecutor(pool));
+            final var account = new Account();
+
+            IntStream.range(0, 20)
+                .mapToObj(i -> deposit(account, pool, 200).begin(strands.strand("account")))
+                .toList()
+                .forEach(task -> task.asFuture().join());
+
+            assertEquals(4000, account.balance);
+            assertFalse(account.overlapped);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testResumesOnStrand() {
+        final var pool = Executors.newFixedThreadPool(2);
+
+        try {
+            final var strand = new StrandExecutor(CoroutineExecutor.fromExecutor(pool)).newStrand();
+            assertNull(StrandExecutor.currentStrand());
+            assertTrue(resumeFromOutside(strand).begin(strand).asFuture().join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testKeepsSubmissionOrder() {
+        final var pool = Executors.newFixedThreadPool(4);
+
+        try {
+            final var strand = new StrandExecutor(CoroutineExecutor.fromExecutor(pool)).strand(42);
+            final var log = new ArrayList<Integer>();
+            final var done = new CompletableFuture<List<Integer>>();
+
+            for (int i = 0; i < 10000; i++) {
+                final var value = i;
+                strand.executeTask(() -> log.add(value));
+            }
+
+            strand.executeTask(() -> done.complete(log));
+
+            assertEquals(IntStream.range(0, 10000).boxed().toList(), done.join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testStrandsPerKey() throws InterruptedException {
+        final var pool = Executors.newFixedThreadPool(2);
+
+        try {
+            final var strands = new StrandExecutor(CoroutineExecutor.fromExecutor(pool));
+            final var first = strands.strand("a");
+
+            assertSame(first, strands.strand(new String("a")));
+            assertNotSame(first, strands.strand("b"));
+
+            // distinct strands run side by side, or neither of these could finish
+            final var both = new CountDownLatch(2);
+            final var finished = new CountDownLatch(2);
+
+            for (final var key : List.of("a", "b")) {
+                strands.strand(key).executeTask(() -> {
+                    both.countDown();
+
+                    try {
+                        if (both.await(5, TimeUnit.SECONDS)) {
+                            finished.countDown();
+                        }
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testThrowingTaskDoesNotStallStrand() {
+        final var reported = new AtomicReference<Throwable>();
+        final var pool = Executors.newSingleThreadExecutor(task -> {
+            final var thread = new Thread(task);
+            thread.setUncaughtExceptionHandler((t, e) -> reported.set(e));
+            return thread;
+        });
+
+        try {
+            final var strand = new StrandExecutor(CoroutineExecutor.fromExecutor(pool)).newStrand();
+            final var done = new CompletableFuture<Void>();
+
+            strand.executeTask(() -> {
+                throw new IllegalStateException("boom");
+            });
+            strand.executeTask(() -> done.complete(null));
+
+            done.join();
+            assertTrue(reported.get() instanceof IllegalStateException);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testIdleStrandsAreCollected() throws InterruptedException {
+        final var strands = new StrandExecutor(CoroutineExecutor.EAGER);
+        final var strand = new WeakReference<>(strands.strand("transient"));
+
+        for (int i = 0; i < 100 && strand.get() != null; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertNull(strand.get());
+        // a fresh strand takes the place of the collected one
+        assertTrue(strands.strand("transient").isIdle());
+    }
+}
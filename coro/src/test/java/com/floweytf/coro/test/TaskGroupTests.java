@@ -0,0 +1,170 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.concurrent.TaskGroup;
+import com.floweytf.coro.time.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskGroupTests {
+    private final Timer timer = Timer.manual(Duration.ofMillis(1), new AtomicLong()::get);
+
+    @Coroutine
+    private static Task<Void> addLater(final CompletableFuture<Integer> future, final AtomicInteger sum) {
+        sum.addAndGet(Co.await(Awaitable.from(future)));
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> sleepForever(final Timer timer) {
+        Co.await(timer.sleep(Duration.ofDays(1)));
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> fail(final CompletableFuture<Integer> future) {
+        Co.await(Awaitable.from(future));
+        throw new IllegalStateException("expected");
+    }
+
+    @Coroutine
+    private static Task<Integer> joinAll(final List<CompletableFuture<Integer>> futures) {
+        final var sum = new AtomicInteger();
+        final var group = Co.await(TaskGroup.open());
+
+        for (final var future : futures) {
+            group.spawn(addLater(future, sum));
+        }
+
+        Co.await(group);
+        return Co.ret(sum.get());
+    }
+
+    @Coroutine
+    private static Task<Void> failFast(final Timer timer, final CompletableFuture<Integer> future,
+                                       final List<Task<Void>> children) {
+        final var group = Co.await(TaskGroup.open());
+
+        children.add(group.spawn(sleepForever(timer)));
+        children.add(group.spawn(fail(future)));
+        children.add(group.spawn(sleepForever(timer)));
+
+        Co.await(group);
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Void> leaveRunning(final Timer timer, final List<Task<Void>> children) {
+        final var group = Co.await(TaskGroup.open());
+        children.add(group.spawn(sleepForever(timer)));
+        return Co.ret();
+    }
+
+    @Test
+    @Timeout(5)
+    void testJoin() {
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+
+        for (int i = 0; i < 100; i++) {
+            futures.add(new CompletableFuture<>());
+        }
+
+        final var task = joinAll(futures).begin();
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertFalse(task.isReady());
+            futures.get(i).complete(i);
+        }
+
+        assertEquals(4950, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testEmptyGroup() {
+        assertEquals(0, joinAll(List.of()).begin().asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testLaunchOnParentExecutor() {
+        final var dispatchCount = new AtomicInteger();
+        final CoroutineExecutor executor = handler -> {
+            dispatchCount.incrementAndGet();
+            handler.run();
+        };
+
+        final var result = executor.launch(() -> {
+            final var group = Co.await(TaskGroup.open());
+            final var child = group.launch(() -> {
+                return Co.ret(Co.currentExecutor());
+            });
+
+            Co.await(group);
+            return Co.ret(Co.await(child));
+        });
+
+        assertEquals(executor, result.asFuture().join());
+        assertEquals(2, dispatchCount.get());
+    }
+
+    @Test
+    @Timeout(5)
+    void testFailFast() {
+        final var future = new CompletableFuture<Integer>();
+        final var children = new ArrayList<Task<Void>>();
+        final var task = failFast(timer, future, children).begin();
+
+        future.complete(0);
+
+        assertInstanceOf(IllegalStateException.class, errorOf(task));
+        assertInstanceOf(CancellationException.class, errorOf(children.get(0)));
+        assertInstanceOf(CancellationException.class, errorOf(children.get(2)));
+    }
+
+    @Test
+    @Timeout(5)
+    void testParentCancellationCancelsChildren() {
+        final var future = new CompletableFuture<Integer>();
+        final var children = new ArrayList<Task<Void>>();
+        final var task = failFast(timer, future, children).begin();
+
+        assertTrue(task.cancel());
+
+        // the future can't be cancelled, so the parent waits for that child to notice the cancellation
+        assertFalse(task.isReady());
+        future.complete(0);
+
+        assertInstanceOf(CancellationException.class, errorOf(task));
+        assertInstanceOf(CancellationException.class, errorOf(children.get(1)));
+        assertInstanceOf(CancellationException.class, errorOf(children.get(0)));
+        assertInstanceOf(CancellationException.class, errorOf(children.get(2)));
+    }
+
+    @Test
+    @Timeout(5)
+    void testChildrenDoNotOutliveParent() {
+        final var children = new ArrayList<Task<Void>>();
+        final var task = leaveRunning(timer, children).begin();
+
+        assertTrue(task.isReady());
+        assertInstanceOf(CancellationException.class, errorOf(children.get(0)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.support.Result;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class TaskResults {
+    private TaskResults() {
+    }
+
+    /**
+     * Returns the exception a completed task failed with, or {@code null} if it completed normally.
+     */
+    static <T> Throwable errorOf(final Task<T> task) {
+        final var result = new AtomicReference<Result<T>>();
+        task.onComplete(result::set);
+        return result.get().error().orElse(null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.TickExecutor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickExecutorTests {
+    @Coroutine
+    private static Task<Void> everyTick(final TickExecutor executor, final List<Long> log) {
+        for (int i = 0; i < 3; i++) {
+            final var tick = Co.await(executor.nextTick());
+            log.add(tick);
+        }
+
+        return Co.ret();
+    }
+
+    @Coroutine
+    private static Task<Long> delayed(final TickExecutor executor, final long ticks) {
+        final var tick = Co.await(executor.delayTicks(ticks));
+        return Co.ret(tick);
+    }
+
+    @Test
+    @Timeout(5)
+    void testBudgetCarriesOver() {
+        final var clock = new AtomicLong();
+        final var executor = new TickExecutor(clock::get);
+        final var log = new ArrayList<Integer>();
+
+        for (int i = 0; i < 10; i++) {
+            final var value = i;
+            executor.executeTask(() -> {
+                log.add(value);
+                clock.addAndGet(10);
+            });
+        }
+
+        final var first = executor.tick(35);
+        assertEquals(new TickExecutor.TickStats(1, 4, 6, 40, true), first);
+        assertEquals(List.of(0, 1, 2, 3), log);
+
+        final var second = executor.tick(1000);
+        assertEquals(new TickExecutor.TickStats(2, 6, 0, 60, false), second);
+        assertEquals(second, executor.lastStats());
+        assertEquals(IntStream.range(0, 10).boxed().toList(), log);
+    }
+
+    @Test
+    @Timeout(5)
+    void testAlwaysMakesProgress() {
+        final var executor = new TickExecutor();
+        final var log = new ArrayList<String>();
+
+        executor.executeTask(() -> log.add("first"));
+        executor.executeTask(() -> log.add("second"));
+
+        assertEquals(1, executor.tick(0).tasksRun());
+        assertEquals(List.of("first"), log);
+        assertEquals(1, executor.tick(0).tasksRun());
+        assertEquals(0, executor.tick(0).tasksRun());
+    }
+
+    @Test
+    @Timeout(5)
+    void testNextTick() {
+        final var executor = new TickExecutor();
+        final var log = new ArrayList<Long>();
+        final var task = everyTick(executor, log).begin(executor);
+
+        for (int i = 0; i < 5; i++) {
+            executor.tick(Long.MAX_VALUE);
+        }
+
+        assertTrue(task.isReady());
+        assertEquals(3, log.size());
+
+        // one resumption per tick, each at the start of the tick after the previous one
+        assertEquals(log.get(0) + 1, log.get(1));
+        assertEquals(log.get(1) + 1, log.get(2));
+    }
+
+    @Test
+    @Timeout(5)
+    void testDelayTicksFromOtherExecutor() {
+        final var executor = new TickExecutor();
+        final var task = delayed(executor, 3).begin();
+
+        executor.tick(Long.MAX_VALUE);
+        executor.tick(Long.MAX_VALUE);
+        assertFalse(task.isReady());
+
+        executor.tick(Long.MAX_VALUE);
+        assertEquals(3, task.asFuture().join());
+        assertThrows(IllegalArgumentException.class, () -> executor.delayTicks(0));
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelTickWait() {
+        final var executor = new TickExecutor();
+        final var cancelled = delayed(executor, 2).begin();
+        final var kept = delayed(executor, 2).begin();
+
+        assertTrue(cancelled.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(cancelled));
+
+        executor.tick(Long.MAX_VALUE);
+        executor.tick(Long.MAX_VALUE);
+        assertEquals(2, kept.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTicksDoNotOverlap() {
+        final var executor = new TickExecutor();
+        final var error = new AtomicReference<Throwable>();
+
+        assertFalse(executor.inTick());
+        assertNull(executor.lastStats());
+
+        executor.executeTask(() -> {
+            assertTrue(executor.inTick());
+            error.set(assertThrows(IllegalStateException.class, () -> executor.tick(1)));
+        });
+
+        executor.tick(Long.MAX_VALUE);
+        assertInstanceOf(IllegalStateException.class, error.get());
+        assertEquals(1, executor.currentTick());
+    }
+}
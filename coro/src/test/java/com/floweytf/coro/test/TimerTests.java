@@ -0,0 +1,201 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.time.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static com.floweytf.coro.test.TaskResults.errorOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerTests {
+    private static final long MILLIS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Timer timer = Timer.manual(Duration.ofMillis(1), clock::get);
+
+    @Coroutine
+    private static Task<Long> sleepFor(final Timer timer, final Duration duration) {
+        Co.await(timer.sleep(duration));
+        return Co.ret(timer.nanoTime());
+    }
+
+    @Coroutine
+    private static <T> Task<T> awaitWithTimeout(final Timer timer, final Awaitable<T> awaitable, final long millis) {
+        return Co.ret(Co.await(timer.withTimeout(awaitable, Duration.ofMillis(millis))));
+    }
+
+    @Coroutine
+    private static Task<List<Long>> awaitPeriodic(final Awaitable<Long> periodic, final int count) {
+        final var elapsed = new ArrayList<Long>();
+
+        for (int i = 0; i < count; i++) {
+            elapsed.add(Co.await(periodic));
+        }
+
+        return Co.ret(elapsed);
+    }
+
+    private void advanceTo(final long nanos) {
+        clock.set(nanos);
+        timer.advance();
+    }
+
+    @Test
+    @Timeout(5)
+    void testSleep() {
+        final var task = sleepFor(timer, Duration.ofMillis(10)).begin();
+
+        advanceTo(9 * MILLIS);
+        assertFalse(task.isReady());
+
+        advanceTo(10 * MILLIS);
+        assertEquals(10 * MILLIS, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(10)
+    void testTimersAcrossLevels() {
+        final var random = new Random(42);
+        final var deadlines = new long[2000];
+        final var tasks = new ArrayList<Task<Long>>();
+
+        for (int i = 0; i < deadlines.length; i++) {
+            // spread the timers across the first three levels of the wheel
+            deadlines[i] = random.nextInt(1 << (i % 3 == 0 ? 8 : i % 3 == 1 ? 16 : 20));
+            tasks.add(sleepFor(timer, Duration.ofMillis(deadlines[i])).begin());
+        }
+
+        for (long now = 0; now <= 1 << 20; now++) {
+            advanceTo(now * MILLIS);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(deadlines[i] * MILLIS, tasks.get(i).asFuture().join());
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testLongSleepIsNotSkipped() {
+        final var task = sleepFor(timer, Duration.ofDays(100)).begin();
+
+        // jumps over more than the whole span of the wheel at once
+        advanceTo(Duration.ofDays(99).toNanos());
+        assertFalse(task.isReady());
+
+        advanceTo(Duration.ofDays(100).toNanos());
+        assertEquals(Duration.ofDays(100).toNanos(), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testCancelSleep() {
+        final var task = sleepFor(timer, Duration.ofMillis(10)).begin();
+
+        assertTrue(task.cancel());
+        assertInstanceOf(CancellationException.class, errorOf(task));
+
+        clock.set(10 * MILLIS);
+        assertEquals(0, timer.advance());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTimeoutExpires() {
+        final var future = new CompletableFuture<Integer>();
+        final var task = awaitWithTimeout(timer, Awaitable.from(future), 5).begin();
+
+        advanceTo(5 * MILLIS);
+        assertInstanceOf(TimeoutException.class, errorOf(task));
+
+        // completing the future afterward is ignored
+        future.complete(1);
+    }
+
+    @Test
+    @Timeout(5)
+    void testTimeoutNotReached() {
+        final var future = new CompletableFuture<Integer>();
+        final var task = awaitWithTimeout(timer, Awaitable.from(future), 5).begin();
+
+        future.complete(1);
+        assertEquals(1, task.asFuture().join());
+
+        clock.set(5 * MILLIS);
+        assertEquals(0, timer.advance());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTimeoutDeliversHandedOverResult() {
+        final var granting = new Granting<Integer>();
+        final var task = awaitWithTimeout(timer, granting, 5).begin();
+
+        // the awaitable refuses to let go, so its result is on the way, and wins over the timeout
+        advanceTo(5 * MILLIS);
+        assertFalse(task.isReady());
+
+        granting.grant(2);
+        assertEquals(2, task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testTimeoutCancelsTask() {
+        final var child = sleepFor(timer, Duration.ofMillis(100)).begin();
+        final var task = awaitWithTimeout(timer, child, 5).begin();
+
+        advanceTo(5 * MILLIS);
+        assertInstanceOf(TimeoutException.class, errorOf(task));
+        assertTrue(child.isCancelled());
+        assertInstanceOf(CancellationException.class, errorOf(child));
+    }
+
+    @Test
+    @Timeout(5)
+    void testPeriodic() {
+        final var task = awaitPeriodic(timer.periodic(Duration.ofMillis(10)), 3).begin();
+
+        advanceTo(10 * MILLIS);
+        advanceTo(20 * MILLIS);
+        assertFalse(task.isReady());
+
+        // falls behind by a few periods, which are skipped
+        advanceTo(55 * MILLIS);
+        assertEquals(List.of(1L, 1L, 3L), task.asFuture().join());
+    }
+
+    @Test
+    @Timeout(5)
+    void testClose() {
+        final var task = sleepFor(timer, Duration.ofMillis(10)).begin();
+
+        timer.close();
+        assertInstanceOf(CancellationException.class, errorOf(task));
+        assertInstanceOf(IllegalStateException.class, errorOf(sleepFor(timer, Duration.ofMillis(10)).begin()));
+    }
+
+    @Test
+    @Timeout(5)
+    void testThreadedTimer() {
+        final var start = System.nanoTime();
+        final var end = sleepFor(Timer.shared(), Duration.ofMillis(20)).begin().asFuture().join();
+
+        assertTrue(end - start >= Duration.ofMillis(20).toNanos());
+    }
+}
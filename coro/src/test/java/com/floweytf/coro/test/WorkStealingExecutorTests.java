@@ -0,0 +1,181 @@
+package com.floweytf.coro.test;
+
+import com.floweytf.coro.Co;
+import com.floweytf.coro.annotations.Coroutine;
+import com.floweytf.coro.concepts.Awaitable;
+import com.floweytf.coro.concepts.CoroutineExecutor;
+import com.floweytf.coro.concepts.Task;
+import com.floweytf.coro.executor.WorkStealingExecutor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkStealingExecutorTests {
+    @Coroutine
+    private static Task<Integer> fib(final int n, final CoroutineExecutor executor) {
+        if (n < 2) {
+            return Co.ret(n);
+        }
+
+        final var left = fib(n - 1, executor).begin(executor);
+        final var right = fib(n - 2, executor).begin(executor);
+        return Co.ret(Co.await(left) + Co.await(right));
+    }
+
+    @Coroutine
+    private static Task<Boolean> resumeFromOutside(final WorkStealingExecutor executor) {
+        final var pool = Executors.newSingleThreadExecutor();
+
+        try {
+            Co.await(Awaitable.from(CompletableFuture.runAsync(() -> { }, pool)));
+        } finally {
+            pool.shutdown();
+        }
+
+        return Co.ret(executor.isWorkerThread());
+    }
+
+    private static void sleepBriefly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(1);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testResumesOnWorker() {
+        try (final var executor = new WorkStealingExecutor(2)) {
+            assertFalse(executor.isWorkerThread());
+            assertTrue(resumeFromOutside(executor).begin(executor).asFuture().join());
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testNextToRunSlot() {
+        try (final var executor = new WorkStealingExecutor(1)) {
+            final var log = new ArrayList<String>();
+            final var done = new CompletableFuture<Void>();
+            final Function<String, Runnable> logTask = name -> () -> {
+                log.add(name);
+
+                if (log.size() == 3) {
+                    done.complete(null);
+                }
+            };
+
+            executor.executeTask(() -> {
+                executor.executeTask(logTask.apply("first"));
+                executor.executeTask(logTask.apply("second"));
+                executor.executeTask(logTask.apply("third"));
+            });
+
+            done.join();
+            // the latest task runs next, and the ones it displaced run in order
+            assertEquals(List.of("third", "first", "second"), log);
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testNextToRunSlotIsBounded() {
+        try (final var executor = new WorkStealingExecutor(1)) {
+            final var log = new ArrayList<String>();
+            final var done = new CompletableFuture<Void>();
+            final var pings = new AtomicInteger();
+            final var ping = new Runnable[1];
+
+            ping[0] = () -> {
+                log.add("ping");
+
+                if (pings.incrementAndGet() < 20) {
+                    executor.executeTask(ping[0]);
+                } else {
+                    done.complete(null);
+                }
+            };
+
+            executor.executeTask(() -> {
+                executor.executeTask(() -> log.add("queued"));
+                executor.executeTask(ping[0]);
+            });
+
+            done.join();
+            // a coroutine that keeps resuming itself only gets the slot a few times in a row
+            assertTrue(log.indexOf("queued") <= 4);
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testIdleWorkersSteal() throws InterruptedException {
+        try (final var executor = new WorkStealingExecutor(4)) {
+            final var threads = ConcurrentHashMap.<String>newKeySet();
+            final var done = new CountDownLatch(200);
+
+            executor.executeTask(() -> {
+                for (int i = 0; i < 200; i++) {
+                    executor.executeTask(() -> {
+                        threads.add(Thread.currentThread().getName());
+                        sleepBriefly();
+                        done.countDown();
+                    });
+                }
+            });
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertTrue(threads.size() > 1);
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testForkJoin() {
+        try (final var executor = new WorkStealingExecutor(4)) {
+            assertEquals(4181, fib(19, executor).begin(executor).asFuture().join());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testExternalSubmitters() throws InterruptedException {
+        final var executor = new WorkStealingExecutor(4);
+        final var counter = new AtomicInteger();
+        final var submitters = IntStream.range(0, 4)
+            .mapToObj(i -> new Thread(() -> {
+                for (int j = 0; j < 50000; j++) {
+                    executor.executeTask(counter::incrementAndGet);
+                }
+            }))
+            .toList();
+
+        submitters.forEach(Thread::start);
+
+        for (final var submitter : submitters) {
+            submitter.join();
+        }
+
+        executor.close();
+        assertTrue(executor.awaitTermination(Duration.ofSeconds(5)));
+        assertEquals(200000, counter.get());
+        assertThrows(RejectedExecutionException.class, () -> executor.executeTask(() -> { }));
+    }
+}